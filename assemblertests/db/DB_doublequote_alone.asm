@@ -0,0 +1,3 @@
+    DB    "
+    
+    END
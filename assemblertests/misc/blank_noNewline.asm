@@ -0,0 +1 @@
+    MOV   AL,12 
\ No newline at end of file
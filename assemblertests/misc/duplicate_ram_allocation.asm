@@ -0,0 +1,6 @@
+    ORG   10
+    MOV   AL,01
+    INC   AL
+    ORG   13
+    NOP
+    END
\ No newline at end of file
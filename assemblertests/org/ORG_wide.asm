@@ -0,0 +1,8 @@
+; ORG beyond the classic 256 bytes RAM
+    ORG  1230
+Loop:
+    MOV  AL,12
+    JMP  Loop
+    ORG  40
+    DB   "Hi"
+    END
\ No newline at end of file
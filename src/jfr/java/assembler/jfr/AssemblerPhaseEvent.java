@@ -0,0 +1,45 @@
+package assembler.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+
+/**
+ * A phase of a run of the assembler, its duration is the elapsed time.
+ *
+ * @author ruedi.mueller
+ */
+@Name("stebs.AssemblerPhase")
+@Label("Assembler Phase")
+@Category({"Stebs", "Assembler"})
+@Description("A phase of a run of the assembler")
+@StackTrace(false)
+public class AssemblerPhaseEvent extends Event {
+  @Label("Source")
+  String source;
+
+  @Label("Size")
+  @Description("Length of the source in characters")
+  int size;
+
+  @Label("Phase")
+  String phase;
+
+  @Label("Allocated")
+  @Description("Bytes allocated by the phase, -1 if not supported")
+  @DataAmount
+  long allocated;
+
+  @Label("Success")
+  @Description("Outcome of the run")
+  boolean success;
+
+  @Label("Error Number")
+  @Description("Error number of the syntax checker, 0 if none")
+  long errorNum;
+}
@@ -0,0 +1,52 @@
+package assembler.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+
+/**
+ * A run of the assembler, its duration is the elapsed time of all phases.
+ *
+ * @author ruedi.mueller
+ */
+@Name("stebs.Assembly")
+@Label("Assembly")
+@Category({"Stebs", "Assembler"})
+@Description("A run of the assembler")
+@StackTrace(false)
+public class AssemblyEvent extends Event {
+  @Label("Source")
+  String source;
+
+  @Label("Size")
+  @Description("Length of the source in characters")
+  int size;
+
+  @Label("Allocated")
+  @Description("Bytes allocated by the run, -1 if not supported")
+  @DataAmount
+  long allocated;
+
+  @Label("Tokens")
+  int tokens;
+
+  @Label("Labels")
+  int labels;
+
+  @Label("Bytes")
+  @Description("Bytes of machine code and data emitted")
+  @DataAmount
+  int bytes;
+
+  @Label("Success")
+  boolean success;
+
+  @Label("Error Number")
+  @Description("Error number of the syntax checker, 0 if none")
+  long errorNum;
+}
@@ -0,0 +1,147 @@
+package assembler.jfr;
+
+import java.util.Arrays;
+
+import jdk.jfr.EventType;
+
+import assembler.AssemblyMetrics;
+import assembler.support.EventSink;
+
+
+/**
+ * The class FlightRecorderSink sends the runs of the assembler and the
+ * simulators as JDK Flight Recorder events. Each event begins when its run or
+ * phase starts and ends when it ends, i.e. thresholds and timelines of the
+ * JDK tooling see the real duration. The sink is enabled while a recording
+ * has one of the events enabled. Installed with -Dstebs.events=jfr, cp.
+ * Events.
+ *
+ * Example:
+ *   java -Dstebs.events=jfr -XX:StartFlightRecording=filename=stebs.jfr -jar IKVMassembler-jfr.jar prog.asm
+ *   jfr print --events stebs.AssemblerPhase stebs.jfr
+ *
+ * @author ruedi.mueller
+ */
+public final class FlightRecorderSink implements EventSink {
+  // The event types, enabled by recordings
+  private static final EventType ASSEMBLY = EventType.getEventType(AssemblyEvent.class);
+  private static final EventType PHASE = EventType.getEventType(AssemblerPhaseEvent.class);
+  private static final EventType SIMULATOR_RUN = EventType.getEventType(SimulatorRunEvent.class);
+
+  /**
+   * The events of the current run of a thread, null if not enabled.
+   */
+  private static final class Run {
+    AssemblyEvent assembly;
+    final AssemblerPhaseEvent[] phases = new AssemblerPhaseEvent[AssemblyMetrics.NOF_PHASES];
+    SimulatorRunEvent simulation;
+  }
+
+  // The run per thread, runs on a thread do not nest
+  private final ThreadLocal<Run> runs = new ThreadLocal<Run>() {
+    @Override
+    protected Run initialValue() {
+      return new Run();
+    }
+  };
+
+
+  @Override
+  public boolean isEnabled() {
+    return ASSEMBLY.isEnabled() || PHASE.isEnabled() || SIMULATOR_RUN.isEnabled();
+  }
+
+
+  @Override
+  public void assemblyStarted() {
+    Run run = runs.get();
+    Arrays.fill(run.phases, null);
+    AssemblyEvent event = new AssemblyEvent();
+    run.assembly = event.isEnabled() ? event : null;
+    if (run.assembly != null) {
+      event.begin();
+    }
+  }
+
+
+  @Override
+  public void phaseStarted(int phase) {
+    AssemblerPhaseEvent event = new AssemblerPhaseEvent();
+    if (event.isEnabled()) {
+      runs.get().phases[phase] = event;
+      event.begin();
+    }
+  }
+
+
+  @Override
+  public void phaseEnded(int phase) {
+    AssemblerPhaseEvent event = runs.get().phases[phase];
+    if (event != null) {
+      event.end();
+    }
+  }
+
+
+  @Override
+  public void assembled(String source, int size, AssemblyMetrics metrics) {
+    Run run = runs.get();
+    // The outcome is known at the end of the run, i.e. the phases ended
+    // before are committed now
+    for (int phase = 0; phase < AssemblyMetrics.NOF_PHASES; ++phase) {
+      AssemblerPhaseEvent event = run.phases[phase];
+      if (event == null) {
+        continue;
+      }
+      run.phases[phase] = null;
+      event.source = source;
+      event.size = size;
+      event.phase = AssemblyMetrics.PHASES[phase];
+      event.allocated = metrics.getAllocatedBytes(phase);
+      event.success = metrics.isSuccess();
+      event.errorNum = metrics.getErrorNum();
+      event.commit();
+    }
+    AssemblyEvent event = run.assembly;
+    if (event != null) {
+      run.assembly = null;
+      event.end();
+      event.source = source;
+      event.size = size;
+      event.allocated = metrics.getTotalAllocatedBytes();
+      event.tokens = metrics.getNofTokens();
+      event.labels = metrics.getNofLabels();
+      event.bytes = metrics.getNofBytes();
+      event.success = metrics.isSuccess();
+      event.errorNum = metrics.getErrorNum();
+      event.commit();
+    }
+  }
+
+
+  @Override
+  public void simulationStarted() {
+    SimulatorRunEvent event = new SimulatorRunEvent();
+    Run run = runs.get();
+    run.simulation = event.isEnabled() ? event : null;
+    if (run.simulation != null) {
+      event.begin();
+    }
+  }
+
+
+  @Override
+  public void simulated(String simulator, long steps, long cycles, long nanos, int status) {
+    Run run = runs.get();
+    SimulatorRunEvent event = run.simulation;
+    if (event != null) {
+      run.simulation = null;
+      event.end();
+      event.simulator = simulator;
+      event.steps = steps;
+      event.cycles = cycles;
+      event.status = status;
+      event.commit();
+    }
+  }
+}
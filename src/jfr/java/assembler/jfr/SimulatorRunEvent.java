@@ -0,0 +1,36 @@
+package assembler.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+
+/**
+ * A run of a simulator, its duration is the elapsed time.
+ *
+ * @author ruedi.mueller
+ */
+@Name("stebs.SimulatorRun")
+@Label("Simulator Run")
+@Category({"Stebs", "Simulator"})
+@Description("A run of a simulator")
+@StackTrace(false)
+public class SimulatorRunEvent extends Event {
+  @Label("Simulator")
+  String simulator;
+
+  @Label("Steps")
+  @Description("Commands executed")
+  long steps;
+
+  @Label("Cycles")
+  @Description("Micro instructions of MicroSimulator, else commands")
+  long cycles;
+
+  @Label("Status")
+  @Description("Status of Simulator, e.g. 0 running, 1 halted")
+  int status;
+}
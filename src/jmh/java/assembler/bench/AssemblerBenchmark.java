@@ -0,0 +1,48 @@
+package assembler.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import assembler.Assembler;
+import assembler.support.Common;
+
+
+/**
+ * End-to-end benchmark of Assembler.execute over a corpus, with the
+ * instruction set loaded once and loaded per program from INSTRUCTION.data.
+ *
+ * @author ruedi.mueller
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AssemblerBenchmark {
+
+  @Benchmark
+  public void execute(Corpus corpus, Blackhole bh) {
+    for (int i = 0; i < corpus.sources.length; ++i) {
+      Assembler asm = new Assembler(corpus.filenames[i], corpus.ramSizes[i]);
+      bh.consume(asm.execute(corpus.sources[i], corpus.groupListBuilder));
+      bh.consume(Common.getCodeList());
+    }
+  }
+
+  @Benchmark
+  public void executeWithInstructionData(Corpus corpus, Blackhole bh) {
+    for (int i = 0; i < corpus.sources.length; ++i) {
+      Assembler asm = new Assembler(corpus.filenames[i], corpus.ramSizes[i]);
+      bh.consume(asm.execute(corpus.sources[i], corpus.instructionDataString));
+      bh.consume(Common.getCodeList());
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package assembler.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import assembler.AssemblerContext;
+import assembler.CodeListBuilder;
+import assembler.CodeListBuilderException;
+import assembler.SyntaxChecker;
+import assembler.SyntaxCheckerException;
+
+
+/**
+ * Benchmark of CodeListBuilder.buildCodeList over a corpus. Building the
+ * code list restores the END token marked by the checker, so each operation
+ * needs freshly tokenized and checked sources. They are prepared per
+ * iteration, one copy of the corpus per operation of the batch, and the
+ * score is the time of the whole batch.
+ *
+ * @author ruedi.mueller
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10, batchSize = CodeListBuilderBenchmark.BATCH_SIZE)
+@Measurement(iterations = 10, batchSize = CodeListBuilderBenchmark.BATCH_SIZE)
+@Fork(1)
+public class CodeListBuilderBenchmark {
+  // Operations per iteration
+  static final int BATCH_SIZE = 50;
+
+  /**
+   * The checked corpus, a copy per operation of the batch.
+   */
+  @State(Scope.Thread)
+  public static class Checked {
+    AssemblerContext[][] batch;
+    int next;
+
+    @Setup(Level.Iteration)
+    public void check(Corpus corpus) throws SyntaxCheckerException {
+      batch = new AssemblerContext[BATCH_SIZE][];
+      for (int i = 0; i < BATCH_SIZE; ++i) {
+        batch[i] = corpus.tokenize();
+        for (AssemblerContext context : batch[i]) {
+          new SyntaxChecker(corpus.groupListBuilder, context).check();
+        }
+      }
+      next = 0;
+    }
+  }
+
+  @Benchmark
+  public void buildCodeList(Corpus corpus, Checked checked, Blackhole bh) throws CodeListBuilderException {
+    for (AssemblerContext context : checked.batch[checked.next++]) {
+      CodeListBuilder cl = new CodeListBuilder(corpus.groupListBuilder.mnemonicSet, context);
+      cl.buildCodeList();
+      bh.consume(cl.getCodeListSB());
+    }
+  }
+}
@@ -0,0 +1,153 @@
+package assembler.bench;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import assembler.Assembler;
+import assembler.AssemblerContext;
+import assembler.GroupListBuilder;
+import assembler.Memory;
+import assembler.Tokenizer;
+import assembler.support.AsmFileReader;
+import assembler.support.Common;
+import assembler.support.InstructionFileReader;
+import assembler.support.ProgramGenerator;
+
+
+/**
+ * The class Corpus holds the assembler sources a benchmark runs over: all
+ * programs below examples/ or assemblertests/ assembled without error, or a
+ * large program for the 64K address space generated by ProgramGenerator.
+ * Benchmarks process the whole corpus per operation.
+ *
+ * The working directory must be the project directory (gradle jmh).
+ *
+ * @author ruedi.mueller
+ */
+@State(Scope.Benchmark)
+public class Corpus {
+  // Seed of the synthetic program
+  private static final long SYNTHETIC_SEED = 42;
+
+  @Param({"examples", "assemblertests", "synthetic"})
+  public String corpus;
+
+  // The sources, their file names and RAM sizes
+  String[] sources;
+  String[] filenames;
+  int[] ramSizes;
+  // The instruction set
+  String instructionDataString;
+  GroupListBuilder groupListBuilder;
+
+
+  @Setup(Level.Trial)
+  public void load() throws IOException {
+    instructionDataString = new InstructionFileReader().execute(Common.INSTRUCTION_FILENAME);
+    groupListBuilder = new GroupListBuilder(instructionDataString);
+    List<String> names = new ArrayList<String>();
+    List<String> texts = new ArrayList<String>();
+    List<Integer> sizes = new ArrayList<Integer>();
+    if (corpus.equals("synthetic")) {
+      names.add("synthetic.asm");
+      texts.add(synthetic());
+      sizes.add(Memory.MAX_SIZE);
+    }
+    else {
+      AsmFileReader reader = new AsmFileReader(StandardCharsets.UTF_8);
+      for (String filename : listAsmFiles(corpus)) {
+        String source = reader.execute(filename);
+        // Keep the programs assembled without error
+        if (source != null && assembles(filename, source)) {
+          names.add(filename);
+          texts.add(source);
+          sizes.add(Memory.DEFAULT_SIZE);
+        }
+      }
+    }
+    if (texts.isEmpty()) {
+      throw new IllegalStateException("No programs found in " + corpus);
+    }
+    sources = texts.toArray(new String[texts.size()]);
+    filenames = names.toArray(new String[names.size()]);
+    ramSizes = new int[sizes.size()];
+    for (int i = 0; i < ramSizes.length; ++i) {
+      ramSizes[i] = sizes.get(i);
+    }
+  }
+
+
+  /**
+   * Answer a fresh context per program holding its token list, i.e. ready
+   * for the syntax checker.
+   *
+   * @return the contexts in the order of the sources
+   */
+  AssemblerContext[] tokenize() {
+    AssemblerContext[] contexts = new AssemblerContext[sources.length];
+    for (int i = 0; i < contexts.length; ++i) {
+      contexts[i] = new AssemblerContext(filenames[i], ramSizes[i]);
+      new Tokenizer(contexts[i]).tokenize(sources[i]);
+    }
+    return contexts;
+  }
+
+
+  /**
+   * Answer the .asm files below a directory, sorted by name.
+   */
+  static List<String> listAsmFiles(String directory) throws IOException {
+    final List<String> filenames = new ArrayList<String>();
+    Files.walkFileTree(Paths.get(directory), new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+        if (file.toString().endsWith(".asm")) {
+          filenames.add(file.toString());
+        }
+        return FileVisitResult.CONTINUE;
+      }
+    });
+    Collections.sort(filenames);
+    return filenames;
+  }
+
+
+  /**
+   * Answer whether a program assembles without error, messages are suppressed.
+   */
+  private boolean assembles(String filename, String source) {
+    Assembler asm = new Assembler(filename, Memory.DEFAULT_SIZE);
+    asm.setOutput(null);
+    return asm.execute(source, groupListBuilder);
+  }
+
+
+  /**
+   * Answer a large program for the 64K address space with many labels,
+   * comment lines, DB strings and pending forward references.
+   */
+  static String synthetic() {
+    ProgramGenerator generator = new ProgramGenerator(SYNTHETIC_SEED, Memory.MAX_SIZE);
+    generator.setCommands(20000);
+    generator.setLabels(1000);
+    generator.setCommentLines(5000);
+    generator.setDbStrings(100, 64);
+    generator.setForwardDepth(400);
+    return generator.generate();
+  }
+}
@@ -0,0 +1,54 @@
+package assembler.bench;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import assembler.GroupListBuilder;
+import assembler.InstructionSetDescriptor;
+import assembler.support.Common;
+import assembler.support.InstructionFileReader;
+
+
+/**
+ * Benchmark of loading the instruction set: parsing INSTRUCTION.data with
+ * GroupListBuilder and loading the precompiled descriptor.
+ *
+ * @author ruedi.mueller
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GroupListBuilderBenchmark {
+  // The string read from INSTRUCTION.data
+  private String instructionDataString;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    instructionDataString = new InstructionFileReader().execute(Common.INSTRUCTION_FILENAME);
+  }
+
+  @Benchmark
+  public GroupListBuilder fromText() {
+    return new GroupListBuilder(instructionDataString);
+  }
+
+  @Benchmark
+  public GroupListBuilder fromDescriptor() throws IOException {
+    return InstructionSetDescriptor.load();
+  }
+}
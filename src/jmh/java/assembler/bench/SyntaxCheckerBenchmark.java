@@ -0,0 +1,66 @@
+package assembler.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import assembler.AssemblerContext;
+import assembler.SyntaxChecker;
+import assembler.SyntaxCheckerException;
+
+
+/**
+ * Benchmark of SyntaxChecker.check over a corpus. The checker marks the END
+ * token in the token list, so each operation needs freshly tokenized
+ * sources. They are prepared per iteration, one copy of the corpus per
+ * operation of the batch, and the score is the time of the whole batch.
+ *
+ * @author ruedi.mueller
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10, batchSize = SyntaxCheckerBenchmark.BATCH_SIZE)
+@Measurement(iterations = 10, batchSize = SyntaxCheckerBenchmark.BATCH_SIZE)
+@Fork(1)
+public class SyntaxCheckerBenchmark {
+  // Operations per iteration
+  static final int BATCH_SIZE = 50;
+
+  /**
+   * The tokenized corpus, a copy per operation of the batch.
+   */
+  @State(Scope.Thread)
+  public static class Tokenized {
+    AssemblerContext[][] batch;
+    int next;
+
+    @Setup(Level.Iteration)
+    public void tokenize(Corpus corpus) {
+      batch = new AssemblerContext[BATCH_SIZE][];
+      for (int i = 0; i < BATCH_SIZE; ++i) {
+        batch[i] = corpus.tokenize();
+      }
+      next = 0;
+    }
+  }
+
+  @Benchmark
+  public void check(Corpus corpus, Tokenized tokenized, Blackhole bh) throws SyntaxCheckerException {
+    for (AssemblerContext context : tokenized.batch[tokenized.next++]) {
+      SyntaxChecker sc = new SyntaxChecker(corpus.groupListBuilder, context);
+      sc.check();
+      bh.consume(sc.getMemory());
+    }
+  }
+}
@@ -0,0 +1,37 @@
+package assembler.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import assembler.Tokenizer;
+import assembler.support.Common;
+
+
+/**
+ * Benchmark of Tokenizer.tokenize over a corpus.
+ *
+ * @author ruedi.mueller
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenizerBenchmark {
+
+  @Benchmark
+  public void tokenize(Corpus corpus, Blackhole bh) {
+    for (String source : corpus.sources) {
+      new Tokenizer().tokenize(source);
+      bh.consume(Common.getTokenList());
+    }
+  }
+}
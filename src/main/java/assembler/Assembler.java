@@ -1,9 +1,13 @@
 package assembler;
 
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+
 import assembler.support.Common;
 import assembler.support.Debug;
+import assembler.support.EventSink;
+import assembler.support.Events;
 import assembler.support.AsmFileReader;
-import assembler.support.InstructionFileReader;
 
 
 /**
@@ -12,6 +16,9 @@ import assembler.support.InstructionFileReader;
  * by executing Common.getRam() for the machine code image and
  * Common.getCodeList() for a formatted list with source code and
  * associated machine code as comments.
+ * Common answers the results of the assembler constructed or run last.
+ * Assemblers running concurrently answer their results through their own
+ * context, e.g. getContext().getRam().
  * 
  * The assembler parses the file and creates an image for the stebs
  * simulator RAM, totally 256 bytes.
@@ -19,8 +26,12 @@ import assembler.support.InstructionFileReader;
  * @author ruedi.mueller
  */
 public class Assembler {
+  // The state of the runs of this assembler
+  private final AssemblerContext context;
   // The code list builder of this assembler
   private CodeListBuilder cl;
+  // The stream for the messages of failed runs, null if suppressed
+  private PrintStream out = System.out;
 
   
   /**
@@ -30,20 +41,47 @@ public class Assembler {
    * NOTICE:
    * In production set Debug.ON = false to suppress debug information
    *
-   * @param args The filename of the file to assemble
+   * @param args The filename of the file to assemble, optionally followed
+   *             by the RAM size in hex (default 100, i.e. 256 bytes)
    */
   public static void main(String[] args) {
     System.out.print(Common.title + " " + Common.version);
     System.out.println(Common.copyright);
 
-	  // Create assembler to store filename (args[0])
-    Assembler asm = new Assembler(args[0]);
+	  // Create assembler to store filename (args[0]) and RAM size (args[1])
+    Assembler asm;
+    try {
+      asm = (args.length > 1)
+          ? new Assembler(args[0], Integer.parseInt(args[1], 16))
+          : new Assembler(args[0]);
+    }
+    catch (IllegalArgumentException iae) {
+      // A RAM size not in hex (NumberFormatException) or out of range
+      System.err.println("Invalid RAM size: " + args[1]);
+      System.err.println("Usage: Assembler file.asm [ramSize]");
+      System.err.println("  ramSize in hex, 1.." + Integer.toHexString(Memory.MAX_SIZE).toUpperCase()
+          + ", default " + Integer.toHexString(Memory.DEFAULT_SIZE).toUpperCase());
+      System.exit(1);
+      return;
+    }
     
     // Assemble code from *.asm file with support from INSTRUCTION.data
-    String asmString = new AsmFileReader().execute(Common.getFilename());
-    String instructionDataString = new InstructionFileReader().execute(Common.INSTRUCTION_FILENAME);
+    // The charset of the file defaults to the platform charset, override
+    // with -Dstebs.encoding=UTF-8
+    String encoding = System.getProperty("stebs.encoding");
+    AsmFileReader asmFileReader = (encoding == null)
+        ? new AsmFileReader()
+        : new AsmFileReader(Charset.forName(encoding));
+    String asmString = asmFileReader.execute(asm.getContext().getFilename());
+    if (asmString == null) {
+      System.err.println(asmFileReader.getErrorMessage());
+      System.exit(1);
+    }
+    
+    // Prefer the instruction set precompiled at build time, else parse the text
+    GroupListBuilder groupListBuilder = InstructionSetDescriptor.loadOrParse();
     
-    if (asm.execute(asmString, instructionDataString)) {
+    if (asm.execute(asmString, groupListBuilder)) {
       // How to access the machine code if needed
       // int[] ram = Common.getRam();
       
@@ -62,6 +100,7 @@ public class Assembler {
     }
     else {
       System.err.println(Common.ERROR_MESSAGE);
+      System.exit(1);
     }
   }
     
@@ -82,6 +121,54 @@ public class Assembler {
   }
 
 
+  /**
+   * Answer the context of this assembler holding the results of its last
+   * run, e.g. the RAM and the code list.
+   * 
+   * @return the context
+   */
+  public AssemblerContext getContext() {
+    return context;
+  }
+
+
+  /**
+   * Set the stream for the messages of failed runs, System.out by default.
+   * 
+   * @param out The stream, null to suppress the messages
+   */
+  public void setOutput(PrintStream out) {
+    this.out = out;
+  }
+
+
+  /**
+   * Print the message of a failed run unless suppressed.
+   */
+  private void message(String message) {
+    if (out != null) {
+      out.println(message);
+    }
+  }
+
+
+  /**
+   * Make this assembler the one whose results Common answers.
+   */
+  private void publish() {
+    Common.setContext(context);
+  }
+
+
+  /**
+   * Make the error message of a run known to Common and answer the outcome.
+   */
+  private boolean finish(boolean success) {
+    Common.ERROR_MESSAGE = context.getErrorMessage();
+    return success;
+  }
+
+
   /**
    * Invoke the assembler. Answer true if successful else false.
    *     
@@ -90,49 +177,172 @@ public class Assembler {
    * @return true if success, else false
    */
   public boolean execute(String asmString, String instructionDataString) {
+    return execute(asmString, instructionDataString, null);
+  }
+
+
+  /**
+   * Invoke the assembler and record the cost of each phase including
+   * loading the instruction set. Answer true if successful else false.
+   *     
+   * @param asmString String to be tokenized
+   * @param instructionDataString String from INSTRUCTION.data
+   * @param metrics The record of this run, null if not recorded
+   * @return true if success, else false
+   */
+  public boolean execute(String asmString, String instructionDataString, AssemblyMetrics metrics) {
+    metrics = prepare(metrics);
+    metrics.start(AssemblyMetrics.INSTRUCTION_SET);
+    // Build mnemonic list, opcode list and mnemonic set
+    GroupListBuilder groupListBuilder = new GroupListBuilder(instructionDataString);
+    metrics.stop(AssemblyMetrics.INSTRUCTION_SET);
+    return run(asmString, groupListBuilder, metrics);
+  }
+
+
+  /**
+   * Invoke the assembler with an instruction set already loaded, e.g. from
+   * the precompiled descriptor. Answer true if successful else false.
+   *     
+   * @param asmString String to be tokenized
+   * @param groupListBuilder The instruction set
+   * @return true if success, else false
+   */
+  public boolean execute(String asmString, GroupListBuilder groupListBuilder) {
+    return execute(asmString, groupListBuilder, null);
+  }
+
+
+  /**
+   * Invoke the assembler with an instruction set already loaded and record
+   * the cost of each phase. Answer true if successful else false.
+   *     
+   * @param asmString String to be tokenized
+   * @param groupListBuilder The instruction set
+   * @param metrics The record of this run, null if not recorded
+   * @return true if success, else false
+   */
+  public boolean execute(String asmString, GroupListBuilder groupListBuilder, AssemblyMetrics metrics) {
+    return run(asmString, groupListBuilder, prepare(metrics));
+  }
+
+
+  /**
+   * Answer the cleared record of a run: the metrics passed, else a fresh
+   * record if the event sink is enabled, else the record ignoring
+   * everything. Tell the sink the run starts.
+   */
+  private static AssemblyMetrics prepare(AssemblyMetrics metrics) {
+    EventSink sink = Events.getSink();
+    if (sink != null && !sink.isEnabled()) {
+      sink = null;
+    }
+    if (metrics == null) {
+      metrics = (sink != null) ? new AssemblyMetrics() : AssemblyMetrics.NONE;
+    }
+    metrics.reset(sink);
+    if (sink != null) {
+      sink.assemblyStarted();
+    }
+    return metrics;
+  }
+
+
+  /**
+   * Invoke the assembler phase by phase and send the metrics to the event
+   * sink if any.
+   */
+  private boolean run(String asmString, GroupListBuilder groupListBuilder, AssemblyMetrics metrics) {
+    publish();
+    boolean success = finish(runPhases(asmString, groupListBuilder, metrics));
+    EventSink sink = metrics.getSink();
+    if (sink != null) {
+      sink.assembled(context.getFilename(), asmString.length(), metrics);
+    }
+    return success;
+  }
+
+
+  /**
+   * Invoke the assembler phase by phase: tokenize, check the syntax, resolve
+   * the labels and build the code list, recording each phase in the metrics.
+   */
+  private boolean runPhases(String asmString, GroupListBuilder groupListBuilder, AssemblyMetrics metrics) {
     // Create token list with tokens from asmString
-    Tokenizer t = new Tokenizer();
+    metrics.start(AssemblyMetrics.TOKENIZE);
+    Tokenizer t = new Tokenizer(context);
     t.tokenize(asmString);
+    metrics.stop(AssemblyMetrics.TOKENIZE);
     // For debugging purposes
     if (Debug.T_ON) {
       System.out.print(t);
     }
-    
-    // Build mnemonic list, opcode list and mnemonic set
-    GroupListBuilder groupListBuilder = new GroupListBuilder(instructionDataString);
-    
+    int nofTokens = context.getTokenList().size() / 3;
+
     // Check tokens syntactically etc.
-    SyntaxChecker sc = new SyntaxChecker(groupListBuilder);
+    SyntaxChecker sc = new SyntaxChecker(groupListBuilder, context);
+    int phase = AssemblyMetrics.SYNTAX_CHECK;
     try {
-      sc.check();
+      metrics.start(phase);
+      sc.checkSyntax();
+      metrics.stop(phase);
+      phase = AssemblyMetrics.LABEL_RESOLUTION;
+      metrics.start(phase);
+      sc.resolveLabels();
+      metrics.stop(phase);
     }
     catch (SyntaxCheckerException sce) {
-      System.out.println(sce.getMessage());
+      // The failing phase counts until the error
+      metrics.stop(phase);
+      message(sce.getMessage());
+      metrics.finish(nofTokens, sc.getNofLabels(), 0, false, sc.getErrorNum());
       // Terminate execution indicating an error
       return false;
     }
-    
+
     // Build a formatted code list
-    cl = new CodeListBuilder(groupListBuilder.mnemonicSet);
+    metrics.start(AssemblyMetrics.LISTING);
+    cl = new CodeListBuilder(groupListBuilder.mnemonicSet, context);
     try {
       cl.buildCodeList();
     }
     catch (CodeListBuilderException clbe) {
-      System.out.println("uuuuuuuuuu" + clbe.getMessage());
+      metrics.stop(AssemblyMetrics.LISTING);
+      message("uuuuuuuuuu" + clbe.getMessage());
+      metrics.finish(nofTokens, sc.getNofLabels(), 0, false, 0);
       // Terminate execution indicating an error
       return false;
     }
+    metrics.stop(AssemblyMetrics.LISTING);
+    metrics.finish(nofTokens, sc.getNofLabels(), sc.getMemory().getNofUsedBytes(), true, 0);
     // Terminate execution indicating success
     return true;
   }
   
 
   /**
-   * Instantiate an assembler and save filename in Common.
+   * Instantiate an assembler for the classic 256 bytes RAM and save
+   * filename in its context, known to Common.
    * 
    * @param filename to be saved
    */
   public Assembler(String filename) {
-    Common.setFilename(filename);
+    this(filename, Memory.DEFAULT_SIZE);
+  }
+
+
+  /**
+   * Instantiate an assembler for an address space of the specified size
+   * and save filename and RAM size in its context, known to Common.
+   * 
+   * @param filename to be saved
+   * @param ramSize The number of addressable bytes (1..Memory.MAX_SIZE)
+   */
+  public Assembler(String filename, int ramSize) {
+    if (ramSize <= 0 || ramSize > Memory.MAX_SIZE) {
+      throw new IllegalArgumentException("Invalid RAM size: " + ramSize);
+    }
+    context = new AssemblerContext(filename, ramSize);
+    publish();
   }
 }
@@ -0,0 +1,111 @@
+package assembler;
+
+
+/**
+ * The class AssemblerContext holds the state of a run of an assembler: the
+ * file, the size of the address space, the token list, the RAM, the code list
+ * and the error message. Each assembler owns a context and passes it to its
+ * tokenizer, syntax checker and code list builder, i.e. assemblers on
+ * different threads do not interfere.
+ *
+ * The static accessors of Common, e.g. Common.getRam(), read the context of
+ * the assembler constructed or run last. They suit single-threaded callers,
+ * concurrent callers read the context of their own assembler:
+ *   Assembler asm = new Assembler("bubblesort.asm");
+ *   if (asm.execute(asmString, groupListBuilder)) {
+ *     int[] ram = asm.getContext().getRam();
+ *   }
+ *
+ * @author ruedi.mueller
+ */
+public class AssemblerContext {
+  // The file to be assembled
+  private String filename;
+  // The size of the address space, 256 bytes for the classic stebs RAM
+  private int ramSize;
+  // List with all tokens their line number and position within the line
+  private TokenList tokenList;
+  // The memory representing RAM for machine code
+  private Memory memory;
+  // The code list, null until built
+  private StringBuilder codeListSB;
+  // The error message of the syntax checker, empty if none
+  private String errorMessage = "";
+
+
+  /**
+   * Instantiate the context of a run.
+   *
+   * @param filename The file to be assembled
+   * @param ramSize The number of addressable bytes (1..Memory.MAX_SIZE)
+   */
+  public AssemblerContext(String filename, int ramSize) {
+    this.filename = filename;
+    this.ramSize = ramSize;
+    this.memory = new Memory(ramSize);
+  }
+
+
+  // Getters and setters
+  public String getFilename() {
+    return filename;
+  }
+
+  public void setFilename(String filename) {
+    this.filename = filename;
+  }
+
+  public int getRamSize() {
+    return ramSize;
+  }
+
+  public void setRamSize(int ramSize) {
+    this.ramSize = ramSize;
+  }
+
+  public TokenList getTokenList() {
+    return tokenList;
+  }
+
+  public void setTokenList(TokenList tokenList) {
+    this.tokenList = tokenList;
+  }
+
+  public Memory getMemory() {
+    return memory;
+  }
+
+  public void setMemory(Memory memory) {
+    this.memory = memory;
+  }
+
+  public StringBuilder getCodeList() {
+    return codeListSB;
+  }
+
+  public void setCodeList(StringBuilder codeListSB) {
+    this.codeListSB = codeListSB;
+  }
+
+  public String getErrorMessage() {
+    return errorMessage;
+  }
+
+  public void setErrorMessage(String errorMessage) {
+    this.errorMessage = errorMessage;
+  }
+
+
+  // Convenience methods
+  public String getToken(int index) {
+    return tokenList.get(index);
+  }
+
+  public int[] getRam() {
+    return memory.getRam();
+  }
+
+  public boolean[] getUsedRamSlots() {
+    return memory.getUsedRamSlots();
+  }
+}
@@ -0,0 +1,292 @@
+package assembler;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+
+import assembler.support.EventSink;
+
+
+/**
+ * The class AssemblyMetrics records the cost of a single run of the assembler
+ * per phase: the elapsed time and, if the JVM supports it, the bytes allocated
+ * by the assembling thread. Additionally the number of tokens, labels and
+ * bytes emitted are recorded. A record may be reused for several runs, each
+ * run resets it. Runs without a record use NONE, which ignores everything,
+ * i.e. the assembler has a single pipeline whether recorded or not. The start
+ * and the end of each phase are passed on to the event sink of the run if any.
+ *
+ * Example:
+ *   AssemblyMetrics metrics = new AssemblyMetrics();
+ *   asm.execute(asmString, groupListBuilder, metrics);
+ *   System.out.println(metrics.getNanos(AssemblyMetrics.LABEL_RESOLUTION));
+ *
+ * @author ruedi.mueller
+ */
+public final class AssemblyMetrics {
+  // Phases of the assembler
+  public static final int TOKENIZE = 0;
+  public static final int INSTRUCTION_SET = 1;
+  public static final int SYNTAX_CHECK = 2;
+  public static final int LABEL_RESOLUTION = 3;
+  public static final int LISTING = 4;
+  public static final int NOF_PHASES = 5;
+  public static final String[] PHASES = {"tokenize", "instruction set", "syntax check",
+      "label resolution", "listing"};
+
+  // Allocated bytes if not supported by the JVM
+  public static final long UNSUPPORTED = -1L;
+
+  // Whether the JVM measures the bytes allocated per thread
+  private static final boolean ALLOCATION_SUPPORTED = allocationSupported();
+
+  // The record of runs not recorded, shared as it keeps no state
+  static final AssemblyMetrics NONE = new AssemblyMetrics(false);
+
+  // Whether this record records, false for NONE only
+  private final boolean recording;
+
+  // Nanoseconds and allocated bytes per phase
+  private final long[] nanos = new long[NOF_PHASES];
+  private final long[] allocatedBytes = new long[NOF_PHASES];
+  // The sink of the current run, null if none
+  private EventSink sink;
+  // Start of the current phase
+  private long startNanos;
+  private long startBytes;
+
+  // Sizes
+  private int nofTokens;
+  private int nofLabels;
+  private int nofBytes;
+  // Outcome
+  private boolean success;
+  private long errorNum;
+
+
+  /**
+   * Instantiate a record for runs of the assembler.
+   */
+  public AssemblyMetrics() {
+    this(true);
+  }
+
+
+  private AssemblyMetrics(boolean recording) {
+    this.recording = recording;
+  }
+
+
+  /**
+   * The class AllocationCounter holds the HotSpot specific bean measuring the
+   * bytes allocated per thread. It is linked when first used, i.e.
+   * AssemblyMetrics loads on JVMs without com.sun.management, e.g. IKVM.
+   */
+  private static final class AllocationCounter {
+    // The bean, null if measuring is not supported
+    static final com.sun.management.ThreadMXBean BEAN = bean();
+
+    private static com.sun.management.ThreadMXBean bean() {
+      try {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+          com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) bean;
+          if (allocationBean.isThreadAllocatedMemorySupported()) {
+            allocationBean.setThreadAllocatedMemoryEnabled(true);
+            return allocationBean;
+          }
+        }
+      }
+      catch (UnsupportedOperationException uoe) {
+        // Measuring disabled
+      }
+      return null;
+    }
+
+    static long currentThreadAllocatedBytes() {
+      return BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+  }
+
+
+  /**
+   * Answer whether the JVM measures the bytes allocated per thread.
+   */
+  private static boolean allocationSupported() {
+    try {
+      return AllocationCounter.BEAN != null;
+    }
+    catch (LinkageError le) {
+      // No HotSpot management extensions
+      return false;
+    }
+  }
+
+
+  /**
+   * Answer the bytes allocated by the current thread so far, UNSUPPORTED if
+   * not supported by the JVM.
+   */
+  public static long currentThreadAllocatedBytes() {
+    return ALLOCATION_SUPPORTED ? AllocationCounter.currentThreadAllocatedBytes() : UNSUPPORTED;
+  }
+
+
+  /**
+   * Clear the record before a run.
+   *
+   * @param eventSink The enabled sink of the run, null if none
+   */
+  void reset(EventSink eventSink) {
+    if (!recording) {
+      return;
+    }
+    sink = eventSink;
+    Arrays.fill(nanos, 0);
+    Arrays.fill(allocatedBytes, ALLOCATION_SUPPORTED ? 0 : UNSUPPORTED);
+    nofTokens = 0;
+    nofLabels = 0;
+    nofBytes = 0;
+    success = false;
+    errorNum = 0;
+  }
+
+
+  /**
+   * Start a phase.
+   *
+   * @param phase The phase, e.g. TOKENIZE
+   */
+  void start(int phase) {
+    if (!recording) {
+      return;
+    }
+    if (sink != null) {
+      sink.phaseStarted(phase);
+    }
+    startBytes = currentThreadAllocatedBytes();
+    startNanos = System.nanoTime();
+  }
+
+
+  /**
+   * End a phase started before.
+   *
+   * @param phase The phase, e.g. TOKENIZE
+   */
+  void stop(int phase) {
+    if (!recording) {
+      return;
+    }
+    nanos[phase] += System.nanoTime() - startNanos;
+    if (ALLOCATION_SUPPORTED) {
+      allocatedBytes[phase] += currentThreadAllocatedBytes() - startBytes;
+    }
+    if (sink != null) {
+      sink.phaseEnded(phase);
+    }
+  }
+
+
+  /**
+   * Record the sizes and the outcome at the end of a run.
+   */
+  void finish(int nofTokens, int nofLabels, int nofBytes, boolean success, long errorNum) {
+    if (!recording) {
+      return;
+    }
+    this.nofTokens = nofTokens;
+    this.nofLabels = nofLabels;
+    this.nofBytes = nofBytes;
+    this.success = success;
+    this.errorNum = errorNum;
+  }
+
+
+  /**
+   * Answer the sink of the current run, null if none.
+   */
+  EventSink getSink() {
+    return sink;
+  }
+
+
+  // Getters
+  public long getNanos(int phase) {
+    return nanos[phase];
+  }
+
+  /**
+   * Answer the bytes allocated in the specified phase, UNSUPPORTED if not
+   * supported by the JVM.
+   */
+  public long getAllocatedBytes(int phase) {
+    return allocatedBytes[phase];
+  }
+
+  public long getTotalNanos() {
+    long total = 0;
+    for (long phaseNanos : nanos) {
+      total += phaseNanos;
+    }
+    return total;
+  }
+
+  /**
+   * Answer the bytes allocated in all phases, UNSUPPORTED if not supported by
+   * the JVM.
+   */
+  public long getTotalAllocatedBytes() {
+    if (!ALLOCATION_SUPPORTED) {
+      return UNSUPPORTED;
+    }
+    long total = 0;
+    for (long phaseBytes : allocatedBytes) {
+      total += phaseBytes;
+    }
+    return total;
+  }
+
+  public int getNofTokens() {
+    return nofTokens;
+  }
+
+  public int getNofLabels() {
+    return nofLabels;
+  }
+
+  public int getNofBytes() {
+    return nofBytes;
+  }
+
+  public boolean isSuccess() {
+    return success;
+  }
+
+  /**
+   * Answer the error number of the syntax checker, 0 if none.
+   */
+  public long getErrorNum() {
+    return errorNum;
+  }
+
+  public static boolean isAllocationSupported() {
+    return ALLOCATION_SUPPORTED;
+  }
+
+
+  /**
+   * Return a string representation, one phase per line.
+   */
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    for (int phase = 0; phase < NOF_PHASES; ++phase) {
+      sb.append(String.format("%-16s %12d ns %12d bytes%n", PHASES[phase], nanos[phase],
+          allocatedBytes[phase]));
+    }
+    sb.append(String.format("tokens %d, labels %d, bytes %d, %s%n", nofTokens, nofLabels, nofBytes,
+        success ? "success" : "error " + errorNum));
+    return sb.toString();
+  }
+}
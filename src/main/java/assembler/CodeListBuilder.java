@@ -6,7 +6,6 @@ import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.regex.Pattern;
 
 import assembler.support.Common;
 import assembler.support.Debug;
@@ -14,7 +13,8 @@ import assembler.support.Debug;
 
 /**
  * The class CodeListBuilder is responsible for producing a formatted code list.
- * The code list can be accessed from outside CodeListBuilder via Common.getCodeList().
+ * The code list can be accessed from outside CodeListBuilder via the context
+ * of the run, e.g. Common.getCodeList().
  * 
  * @author ruedi.mueller
  */
@@ -29,6 +29,9 @@ public class CodeListBuilder {
   private final static int COMMENT_TAB = 41;
   
   
+  // The context of the run, providing token list and RAM, receiving the code list
+  private final AssemblerContext context;
+
   // Set with commands
   private Set<String> commandList = new HashSet<String>();
 
@@ -63,7 +66,7 @@ public class CodeListBuilder {
   // Introduced in C# stebs to highlight line in execution.
   // index: ram address
   // data: line number
-  private int[] codeToLineArr = new int[256];
+  private int[] codeToLineArr;
   // The sourceCodeLineCounter to hold the current line number of the command in the source code
   // while building the code list.
   // Incremented when a new line in the source code is being assembled.
@@ -98,13 +101,25 @@ public class CodeListBuilder {
   
   
   /**
-   * Instantiate a code lister and copy a modified token list.
+   * Instantiate a code lister for the context of the assembler constructed
+   * or run last, cp. Common.getContext(), and copy a modified token list.
    */
   public CodeListBuilder(Set<String> commandList) {
+    this(commandList, Common.getContext());
+  }
+
+
+  /**
+   * Instantiate a code lister for the context of a run and copy a modified
+   * token list.
+   */
+  public CodeListBuilder(Set<String> commandList, AssemblerContext context) {
+    this.context = context;
+    codeToLineArr = new int[context.getMemory().getSize()];
     // Reference the command list read in via GroupListBuilder.
     this.commandList = commandList;
     // Copy a modified token list from the assembler asm.
-    TokenList list = Common.getTokenList();
+    TokenList list = context.getTokenList();
     for (int pos = 2; pos < list.size(); pos += 3) {
       tokenList.add(list.get(pos));
     }
@@ -139,8 +154,8 @@ public class CodeListBuilder {
     codeListSB.append(MS.SUCCESS);
     codeListSB.append("   (" + new Date() + ")");
     
-    // Make code list known to Common
-    Common.setCodeList(codeListSB);
+    // Make code list known to the context
+    context.setCodeList(codeListSB);
   }
   
   
@@ -334,7 +349,7 @@ public class CodeListBuilder {
       if (isHexNumber()) {
         tempSB.append(spacing(PARAM_TAB) + hexNumber(token));
         linePosition = tempSB.length();
-        param1 = Common.getRam()[ramLocator];
+        param1 = context.getMemory().read(ramLocator);
         tempSB.append(spacing(CODE_TAB) + toAddress() + Common.toHexByteString(param1));
         ++ramLocator;
         linePosition = tempSB.length();
@@ -370,7 +385,7 @@ public class CodeListBuilder {
       if (token.startsWith("'")) {
         tempSB.append(spacing(PARAM_TAB) + token);
         linePosition = tempSB.length();
-        param1 = Common.getRam()[ramLocator];
+        param1 = context.getMemory().read(ramLocator);
         tempSB.append(spacing(CODE_TAB) + toAddress() + Common.toHexByteString(param1));
         ++ramLocator;
         linePosition = tempSB.length();
@@ -437,7 +452,7 @@ public class CodeListBuilder {
         for (int i = 1; i < tok.length() - 1; ++i) {
           tempSB = new StringBuilder();
           linePosition = 0;
-          param1 = Common.getRam()[ramLocator];
+          param1 = context.getMemory().read(ramLocator);
           tempSB.append(spacing(CODE_TAB) + toAddress() + Common.toHexByteString(param1));
           linePosition = tempSB.length();
           tempSB.append(spacing(COMMENT_TAB) + "; " + tok.charAt(i));
@@ -1036,7 +1051,7 @@ public class CodeListBuilder {
    * @return the string of the address
    */
   private String toAddress() {
-    return "; [" + Common.toHexByteString(ramLocator) + "]  ";
+    return "; [" + Common.toHexString(ramLocator, Common.addressDigits(codeToLineArr.length)) + "]  ";
   }
   
   
@@ -1073,7 +1088,7 @@ public class CodeListBuilder {
    * Set the opcode alone.
    */
   private void setOpcode() {
-    opcode = Common.getRam()[ramLocator];
+    opcode = context.getMemory().read(ramLocator);
     codeToLineArr[ramLocator] = sourceCodeLineCounter;  
   }
   
@@ -1083,7 +1098,7 @@ public class CodeListBuilder {
    */
   private void setOpcodeParam() {
     setOpcode();
-    param1 = Common.getRam()[ramLocator + 1];
+    param1 = context.getMemory().read(ramLocator + 1);
     codeToLineArr[ramLocator + 1] = sourceCodeLineCounter;  
   }
   
@@ -1093,7 +1108,7 @@ public class CodeListBuilder {
    */
   private void setOpcodeParam12() {
     setOpcodeParam();
-    param2 = Common.getRam()[ramLocator + 2];
+    param2 = context.getMemory().read(ramLocator + 2);
     codeToLineArr[ramLocator + 2] = sourceCodeLineCounter;  
   }
   
@@ -1152,7 +1167,7 @@ public class CodeListBuilder {
     if (token.length() > 2) {
       return false;
     }
-    return (Pattern.matches("[0-9A-F]+", token.toUpperCase()));
+    return (Common.isHexDigits(token.toUpperCase()));
   }
   
   
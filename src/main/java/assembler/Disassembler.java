@@ -0,0 +1,314 @@
+package assembler;
+
+import java.util.List;
+
+import assembler.support.Common;
+
+
+/**
+ * The class Disassembler turns a RAM image back into assembler source which
+ * assembles to the same bytes. The opcodes and their parameters are taken
+ * from the command patterns of the instruction set, cp. INSTRUCTION.data.
+ *
+ * Only allocated bytes are disassembled, each run of allocated bytes behind
+ * an ORG. A byte which does not start a valid command, e.g. an unknown
+ * opcode, a register code out of range or a jump out of RAM, becomes a DB.
+ * Jump targets get labels "L<address>"; a command with a jump target inside
+ * becomes DB bytes, so that the label can be placed. END assembles to a byte
+ * as well, it takes the place of the last allocated END byte.
+ *
+ * Example:
+ *   if (asm.execute(asmString, groupListBuilder)) {
+ *     String source = new Disassembler(groupListBuilder)
+ *         .disassemble(Common.getRam(), Common.getUsedRamSlots());
+ *   }
+ *
+ * @author ruedi.mueller
+ */
+public class Disassembler {
+  // Parameters of command patterns
+  private static final int REG = 0;
+  private static final int CONST = 1;
+  private static final int ADDR = 2;
+  private static final int ADDR_INDIRECT = 3;
+  private static final int REG_INDIRECT = 4;
+  private static final int OFFSET = 5;
+  private static final int ABSOLUTE = 6;
+  private static final String[] PARAMETERS = {"REG", "CONST", "ADDR", "|ADDR|", "|REG|", "OFFSET", "ABSOLUTE"};
+
+  // Mnemonic and parameters of each opcode, null if unknown
+  private final String[] mnemonics = new String[0x100];
+  private final int[][] parameters = new int[0x100][];
+  // Opcode of the END directive
+  private int endOpcode = -1;
+
+
+  /**
+   * Instantiate a disassembler for an instruction set.
+   * Commands with parameters unknown to the disassembler are treated as
+   * unknown opcodes.
+   *
+   * @param groupListBuilder The instruction set
+   */
+  public Disassembler(GroupListBuilder groupListBuilder) {
+    for (int group = 0; group < groupListBuilder.commandPatternGroupList.size(); ++group) {
+      List<String> patterns = groupListBuilder.commandPatternGroupList.get(group);
+      for (int i = 0; i < patterns.size(); ++i) {
+        String pattern = patterns.get(i);
+        int opcode = Integer.parseInt(groupListBuilder.commandHexGroupList.get(group).get(i), 16);
+        if (pattern.equals("END")) {
+          endOpcode = opcode;
+          continue;
+        }
+        int blank = pattern.indexOf(' ');
+        String[] params = (blank < 0) ? new String[0] : pattern.substring(blank + 1).split(",");
+        int[] kinds = new int[params.length];
+        for (int p = 0; p < params.length; ++p) {
+          kinds[p] = parameter(params[p]);
+        }
+        if (indexOf(kinds, -1) < 0) {
+          mnemonics[opcode] = groupListBuilder.commandSymGroupList.get(group).get(i);
+          parameters[opcode] = kinds;
+        }
+      }
+    }
+  }
+
+
+  private static int parameter(String param) {
+    for (int kind = 0; kind < PARAMETERS.length; ++kind) {
+      if (PARAMETERS[kind].equals(param)) {
+        return kind;
+      }
+    }
+    return -1;
+  }
+
+
+  private static int indexOf(int[] values, int value) {
+    for (int i = 0; i < values.length; ++i) {
+      if (values[i] == value) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+
+  /**
+   * Answer the number of bytes of the command with the specified opcode.
+   *
+   * @param opcode The opcode
+   * @return the number of bytes, 1 for an unknown opcode
+   */
+  public int getLength(int opcode) {
+    int[] kinds = parameters[opcode & 0xFF];
+    return (kinds == null) ? 1 : 1 + kinds.length;
+  }
+
+
+  /**
+   * Answer the command at the specified address, jump targets as labels
+   * "L<address>".
+   *
+   * @param ram The RAM image
+   * @param address The address of the opcode
+   * @return the command, e.g. "MOV   AL,[F9]", or null if no valid command
+   */
+  public String decode(int[] ram, int address) {
+    return decode(ram, null, address);
+  }
+
+
+  /**
+   * Answer the command at the specified address whose bytes are all
+   * allocated, or null.
+   */
+  private String decode(int[] ram, boolean[] used, int address) {
+    int opcode = ram[address];
+    int[] kinds = parameters[opcode];
+    if (kinds == null || address + kinds.length >= ram.length) {
+      return null;
+    }
+    StringBuilder sb = new StringBuilder(mnemonics[opcode]);
+    while (kinds.length > 0 && sb.length() < 6) {
+      sb.append(' ');
+    }
+    for (int p = 0; p < kinds.length; ++p) {
+      int value = ram[address + 1 + p];
+      if (used != null && !used[address + 1 + p]) {
+        return null;
+      }
+      if (p > 0) {
+        sb.append(',');
+      }
+      switch (kinds[p]) {
+        case REG:
+        case REG_INDIRECT:
+          if (value >= Common.REGISTERS.size()) {
+            return null;
+          }
+          sb.append((kinds[p] == REG) ? Common.REGISTERS.get(value) : "[" + Common.REGISTERS.get(value) + "]");
+          break;
+        case CONST:
+        case ADDR:
+          sb.append(Common.toHexByteString(value));
+          break;
+        case ADDR_INDIRECT:
+          sb.append('[').append(Common.toHexByteString(value)).append(']');
+          break;
+        default:
+          int target = target(ram, address);
+          if (target < 0) {
+            return null;
+          }
+          sb.append(label(target, ram.length));
+          break;
+      }
+    }
+    return sb.toString();
+  }
+
+
+  /**
+   * Answer the target of the jump at the specified address, -1 if no jump or
+   * the target is outside RAM.
+   */
+  private int target(int[] ram, int address) {
+    int[] kinds = parameters[ram[address]];
+    if (kinds == null || kinds.length != 1 || address + 1 >= ram.length) {
+      return -1;
+    }
+    int target;
+    if (kinds[0] == OFFSET) {
+      target = address + (byte) ram[address + 1];
+    }
+    else if (kinds[0] == ABSOLUTE) {
+      target = ram[address + 1];
+    }
+    else {
+      return -1;
+    }
+    return (target >= 0 && target < ram.length) ? target : -1;
+  }
+
+
+  private static String label(int address, int ramSize) {
+    return "L" + Common.toHexString(address, Common.addressDigits(ramSize));
+  }
+
+
+  /**
+   * Disassemble the allocated bytes of a RAM image.
+   *
+   * @param ram The RAM image, cp. Common.getRam()
+   * @param used The allocated bytes, cp. Common.getUsedRamSlots()
+   * @return the source, ending with END
+   * @throws IllegalArgumentException if no allocated byte is an END byte, i.e.
+   *         the image is not the output of the assembler
+   */
+  public String disassemble(int[] ram, boolean[] used) {
+    int size = ram.length;
+    // Bytes forced to DB, the number of bytes of the line at each address
+    // (0 inside a command or if not allocated) and the jump targets
+    boolean[] data = new boolean[size];
+    int[] lengths = new int[size];
+    boolean[] targets = new boolean[size];
+    int end;
+    boolean changed;
+    do {
+      changed = false;
+      end = -1;
+      for (int address = 0; address < size; ++address) {
+        lengths[address] = 0;
+        targets[address] = false;
+      }
+      for (int address = 0; address < size; ) {
+        if (!used[address]) {
+          ++address;
+          continue;
+        }
+        String command = data[address] ? null : decode(ram, used, address);
+        lengths[address] = (command == null) ? 1 : getLength(ram[address]);
+        if (ram[address] == endOpcode) {
+          end = address;
+        }
+        address += lengths[address];
+      }
+
+      // END needs a line of its own
+      if (end < 0 || lengths[end] != 1) {
+        int last = size - 1;
+        while (last >= 0 && !(used[last] && ram[last] == endOpcode)) {
+          --last;
+        }
+        if (last < 0) {
+          throw new IllegalArgumentException("No END byte allocated");
+        }
+        data[lineAt(lengths, last)] = true;
+        changed = true;
+        continue;
+      }
+
+      // Labels need a line of their own
+      for (int address = 0; address < size; ++address) {
+        if (lengths[address] > 0 && !data[address] && decode(ram, used, address) != null) {
+          int target = target(ram, address);
+          if (target >= 0) {
+            targets[target] = true;
+            if (used[target] && lengths[target] == 0) {
+              data[lineAt(lengths, target)] = true;
+              changed = true;
+            }
+          }
+        }
+      }
+    } while (changed);
+
+    StringBuilder sb = new StringBuilder();
+    int locator = 0;
+    for (int address = 0; address < size; ++address) {
+      boolean line = lengths[address] > 0 && address != end;
+      if (!(line || (targets[address] && address != end && !used[address]))) {
+        continue;
+      }
+      if (locator != address) {
+        org(sb, address, size);
+        locator = address;
+      }
+      if (targets[address]) {
+        sb.append(label(address, size)).append(":\r\n");
+      }
+      if (line) {
+        String command = data[address] ? null : decode(ram, used, address);
+        sb.append("    ").append((command == null) ? "DB    " + Common.toHexByteString(ram[address]) : command)
+            .append("\r\n");
+        locator = address + lengths[address];
+      }
+    }
+    if (locator != end) {
+      org(sb, end, size);
+    }
+    if (targets[end]) {
+      sb.append(label(end, size)).append(":\r\n");
+    }
+    sb.append("    END\r\n");
+    return sb.toString();
+  }
+
+
+  /**
+   * Answer the address of the line containing the specified address.
+   */
+  private static int lineAt(int[] lengths, int address) {
+    while (lengths[address] == 0) {
+      --address;
+    }
+    return address;
+  }
+
+
+  private static void org(StringBuilder sb, int address, int ramSize) {
+    sb.append("    ORG   ").append(Common.toHexString(address, Common.addressDigits(ramSize))).append("\r\n");
+  }
+}
@@ -34,6 +34,25 @@ public class GroupListBuilder {
   // List of commandPattern lists. Each commandPattern list matches the mnemonic with its
   // opcode-string, cp. commands.txt
   public List<ArrayList<String>> commandPatternGroupList;
+  // List of microprogram entry lists. Each entry list matches the mnemonic with the
+  // address of its microprogram in the MPM, -1 for directives
+  public List<ArrayList<Integer>> commandMpmGroupList;
+  
+  // Microprogram entry of directives which are not executed
+  public static final int NO_MPM_ENTRY = -1;
+  
+
+  /**
+   * Build empty lists to be filled in from a precompiled instruction set
+   * descriptor, cp. InstructionSetDescriptor.
+   */
+  GroupListBuilder() {
+    commandSymGroupList = new ArrayList<ArrayList<String>>();
+    commandHexGroupList = new ArrayList<ArrayList<String>>();
+    commandPatternGroupList = new ArrayList<ArrayList<String>>();
+    commandMpmGroupList = new ArrayList<ArrayList<Integer>>();
+    mnemonicSet = new HashSet<String>();
+  }
   
  
   /**
@@ -46,6 +65,7 @@ public class GroupListBuilder {
     commandSymGroupList = new ArrayList<ArrayList<String>>();
     commandHexGroupList = new ArrayList<ArrayList<String>>();
     commandPatternGroupList = new ArrayList<ArrayList<String>>();
+    commandMpmGroupList = new ArrayList<ArrayList<Integer>>();
 
     try {
       BufferedReader br = new BufferedReader(new StringReader(instructionDataString));
@@ -54,6 +74,7 @@ public class GroupListBuilder {
       List<String> mnemonicList = new ArrayList<String>();
       List<String> opcodeList = new ArrayList<String>();
       List<String> commandPatternList = new ArrayList<String>();
+      List<Integer> mpmEntryList = new ArrayList<Integer>();
       List<Integer> addressmodeCodeList = new ArrayList<Integer>();
       mnemonicSet = new HashSet<String>();
       String strLine;
@@ -67,8 +88,8 @@ public class GroupListBuilder {
       
         // Separate line into substrings
         StringTokenizer tokens = new StringTokenizer(strLine, ";");
-        // Ignore mpmEntry which is not needed here
-        /* String mpmEntry = */ tokens.nextToken();
+        // Microprogram entry address in hex
+        String mpmEntry = tokens.nextToken();
         String opcode = tokens.nextToken();
         String commandPattern = tokens.nextToken();
 
@@ -82,6 +103,7 @@ public class GroupListBuilder {
         addressmodeCodeList.add(addressmodeCode);
         opcodeList.add(opcode);
         commandPatternList.add(commandPattern);
+        mpmEntryList.add(Integer.parseInt(mpmEntry.trim(), 16));
         mnemonicSet.add(mnemonic);
       }
     
@@ -90,6 +112,7 @@ public class GroupListBuilder {
         commandSymGroupList.add(new ArrayList<String>());
         commandHexGroupList.add(new ArrayList<String>());
         commandPatternGroupList.add(new ArrayList<String>());
+        commandMpmGroupList.add(new ArrayList<Integer>());
       }
       
       // Iterate over mnemonic set
@@ -100,6 +123,7 @@ public class GroupListBuilder {
         List<String> tempSymCommands = new ArrayList<String>();
         List<String> tempHexCommands = new ArrayList<String>();
         List<String> tempCommandPatterns = new ArrayList<String>();
+        List<Integer> tempMpmEntries = new ArrayList<Integer>();
         int code = 0;   // Build code for a new mnemonic
         // For a chosen mnemonic search for same mnemonics in the mnemonicList
         for (int index = 0; index < mnemonicList.size(); ++index) {
@@ -111,6 +135,7 @@ public class GroupListBuilder {
             tempSymCommands.add(mnemonicList.get(index));
             tempHexCommands.add(opcodeList.get(index));
             tempCommandPatterns.add(commandPatternList.get(index));
+            tempMpmEntries.add(mpmEntryList.get(index));
           }
         }
 
@@ -119,15 +144,15 @@ public class GroupListBuilder {
         commandSymGroupList.get(group).addAll(tempSymCommands);
         commandHexGroupList.get(group).addAll(tempHexCommands);
         commandPatternGroupList.get(group).addAll(tempCommandPatterns);
+        commandMpmGroupList.get(group).addAll(tempMpmEntries);
       }
       // Add directive
       commandSymGroupList.get(0).add("END");
       commandHexGroupList.get(0).add("00");
       commandPatternGroupList.get(0).add("END");
+      commandMpmGroupList.get(0).add(NO_MPM_ENTRY);
 
-      // Remember all jump commands in groups 3 and 8 for later use in CodeListBuilder
-      Common.JUMPS = commandSymGroupList.get(3);
-      Common.ABSOLUTE_JUMPS = commandSymGroupList.get(8);
+      publishJumps();
       
       // Close the input stream
       br.close();
@@ -139,6 +164,15 @@ public class GroupListBuilder {
   }
   
   
+  /**
+   * Remember all jump commands in groups 3 and 8 for later use in CodeListBuilder.
+   */
+  void publishJumps() {
+    Common.JUMPS = commandSymGroupList.get(3);
+    Common.ABSOLUTE_JUMPS = commandSymGroupList.get(8);
+  }
+  
+  
   /**
    * Translate from addressmodeCode to the addressing mode group.
    * The case numbers are built in adding all address modeCodes. Example:
@@ -0,0 +1,419 @@
+package assembler;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+
+/**
+ * The class ImageArena stores the machine code images of many assembled
+ * programs outside the Java heap. Used in batch mode where thousands of
+ * results are kept: Instead of an int RAM array, a boolean used RAM slot
+ * array etc. per program, each image occupies one fixed-size slot of a
+ * shared direct or memory-mapped byte buffer.
+ *
+ * Buffer layout:
+ *   | header | slot 0 | slot 1 | ... | slot capacity-1 |
+ * Header layout:
+ *   | magic (int) | ramSize (int) | capacity (int) | published flag per slot (capacity bytes) |
+ * Slot layout:
+ *   | RAM bytes (ramSize) | used RAM slot bitmap (ramSize / 8, bit i = address i) |
+ *
+ * Storing images is thread-safe, each store claims a fresh slot. A slot is
+ * published, i.e. readable and counted by size(), only after all its bytes
+ * are written. The header keeps the published flags in the buffer, so a
+ * mapped file re-mapped by another JVM reads the images stored before.
+ *
+ * Example, cp. BatchRunner.Job:
+ *   ImageArena arena = new ImageArena(10000);
+ *   if (asm.execute(asmString, groupListBuilder)) {
+ *     int slot = arena.store(asm.getContext().getMemory());
+ *     jobs.add(new BatchRunner.Job(name, arena, slot, input, maxSteps));
+ *   }
+ *
+ * @author ruedi.mueller
+ */
+public class ImageArena {
+  // Marks a buffer holding an image arena, "STBI"
+  private static final int MAGIC = 0x53544249;
+  // Offsets of the header fields
+  private static final int MAGIC_OFFSET = 0;
+  private static final int RAM_SIZE_OFFSET = 4;
+  private static final int CAPACITY_OFFSET = 8;
+  private static final int PUBLISHED_OFFSET = 12;
+
+  // The buffer holding all slots
+  private final ByteBuffer buffer;
+  // Maximum number of images
+  private final int capacity;
+  // RAM size of each image
+  private final int ramSize;
+  // Bytes per slot: RAM plus bitmap
+  private final int slotSize;
+  // Offset of the bitmap within a slot
+  private final int bitmapOffset;
+  // Offset of slot 0 within the buffer
+  private final int headerSize;
+  // Number of slots claimed so far
+  private final AtomicInteger nofClaimed = new AtomicInteger();
+  // Number of slots published so far and the published flag of each slot
+  private final AtomicInteger nofImages = new AtomicInteger();
+  private final AtomicIntegerArray published;
+
+
+  /**
+   * Instantiate an off-heap arena for images of the classic 256 bytes RAM.
+   *
+   * @param capacity The maximum number of images
+   */
+  public ImageArena(int capacity) {
+    this(capacity, Memory.DEFAULT_SIZE);
+  }
+
+
+  /**
+   * Instantiate an off-heap arena for images of the specified RAM size.
+   *
+   * @param capacity The maximum number of images
+   * @param ramSize The RAM size of each image (1..Memory.MAX_SIZE)
+   */
+  public ImageArena(int capacity, int ramSize) {
+    this(null, capacity, ramSize);
+  }
+
+
+  /**
+   * Instantiate an arena on the specified buffer, a direct one if null.
+   *
+   * @param buffer The buffer large enough for all slots, or null
+   * @param capacity The maximum number of images
+   * @param ramSize The RAM size of each image
+   */
+  private ImageArena(ByteBuffer buffer, int capacity, int ramSize) {
+    if (ramSize <= 0 || ramSize > Memory.MAX_SIZE) {
+      throw new IllegalArgumentException("Invalid RAM size: " + ramSize);
+    }
+    this.capacity = capacity;
+    this.ramSize = ramSize;
+    this.bitmapOffset = ramSize;
+    this.slotSize = slotSize(ramSize);
+    if (capacity < 0 || length(capacity, ramSize) > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Invalid capacity: " + capacity);
+    }
+    this.headerSize = PUBLISHED_OFFSET + capacity;
+    this.published = new AtomicIntegerArray(capacity);
+    if (buffer == null) {
+      this.buffer = ByteBuffer.allocateDirect((int) length(capacity, ramSize));
+      writeHeader();
+    }
+    else {
+      this.buffer = buffer;
+      if (buffer.getInt(MAGIC_OFFSET) == MAGIC) {
+        restoreHeader();
+      }
+      else {
+        writeHeader();
+      }
+    }
+  }
+
+
+  /**
+   * Answer the number of bytes per slot.
+   *
+   * @param ramSize The RAM size of each image
+   * @return the slot size
+   */
+  private static int slotSize(int ramSize) {
+    return ramSize + (ramSize + 7) / 8;
+  }
+
+
+  /**
+   * Answer the number of bytes of the buffer, header included.
+   *
+   * @param capacity The maximum number of images
+   * @param ramSize The RAM size of each image
+   * @return the buffer length
+   */
+  private static long length(int capacity, int ramSize) {
+    return PUBLISHED_OFFSET + capacity + (long) capacity * slotSize(ramSize);
+  }
+
+
+  /**
+   * Write the header of an empty arena.
+   */
+  private void writeHeader() {
+    buffer.putInt(RAM_SIZE_OFFSET, ramSize);
+    buffer.putInt(CAPACITY_OFFSET, capacity);
+    for (int slot = 0; slot < capacity; ++slot) {
+      buffer.put(PUBLISHED_OFFSET + slot, (byte) 0);
+    }
+    buffer.putInt(MAGIC_OFFSET, MAGIC);
+  }
+
+
+  /**
+   * Restore the published flags and counters from the header of a re-mapped
+   * arena. Slots claimed but never published, e.g. by a JVM killed while
+   * storing, stay empty.
+   */
+  private void restoreHeader() {
+    int last = -1;
+    for (int slot = 0; slot < capacity; ++slot) {
+      if (buffer.get(PUBLISHED_OFFSET + slot) != 0) {
+        published.set(slot, 1);
+        nofImages.incrementAndGet();
+        last = slot;
+      }
+    }
+    nofClaimed.set(last + 1);
+  }
+
+
+  /**
+   * Instantiate an arena backed by a memory-mapped file. A new or empty file
+   * is initialized, an existing arena file is re-mapped with the images
+   * stored before. The images survive the JVM, though not a crash of the
+   * operating system before the pages are written back.
+   *
+   * @param file The file to be mapped
+   * @param capacity The maximum number of images
+   * @param ramSize The RAM size of each image
+   * @return the arena
+   * @throws IOException if the file cannot be mapped or holds an arena of
+   *   another capacity or RAM size
+   */
+  public static ImageArena map(File file, int capacity, int ramSize) throws IOException {
+    if (ramSize <= 0 || ramSize > Memory.MAX_SIZE) {
+      throw new IllegalArgumentException("Invalid RAM size: " + ramSize);
+    }
+    long length = length(capacity, ramSize);
+    RandomAccessFile raf = new RandomAccessFile(file, "rw");
+    try {
+      if (raf.length() != 0) {
+        checkHeader(file, raf, length, capacity, ramSize);
+      }
+      FileChannel channel = raf.getChannel();
+      ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+      return new ImageArena(mapped, capacity, ramSize);
+    }
+    finally {
+      // The mapping stays valid after closing the file
+      raf.close();
+    }
+  }
+
+
+  /**
+   * Test if an existing file holds an arena of the specified capacity and
+   * RAM size.
+   *
+   * @param file The file to be mapped
+   * @param raf The opened file
+   * @param length The expected file length
+   * @param capacity The maximum number of images
+   * @param ramSize The RAM size of each image
+   * @throws IOException if the file cannot be read or does not match
+   */
+  private static void checkHeader(File file, RandomAccessFile raf, long length,
+      int capacity, int ramSize) throws IOException {
+    if (raf.length() < PUBLISHED_OFFSET) {
+      throw new IOException("Not an image arena: " + file);
+    }
+    raf.seek(MAGIC_OFFSET);
+    if (raf.readInt() != MAGIC) {
+      throw new IOException("Not an image arena: " + file);
+    }
+    raf.seek(RAM_SIZE_OFFSET);
+    int fileRamSize = raf.readInt();
+    raf.seek(CAPACITY_OFFSET);
+    int fileCapacity = raf.readInt();
+    if (fileRamSize != ramSize || fileCapacity != capacity || raf.length() != length) {
+      throw new IOException("Image arena " + file + " has capacity " + fileCapacity
+          + " and RAM size " + fileRamSize + ", expected " + capacity + " and " + ramSize);
+    }
+  }
+
+
+  // Getters
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public int getRamSize() {
+    return ramSize;
+  }
+
+  public int getSlotSize() {
+    return slotSize;
+  }
+
+
+  /**
+   * Answer the number of images stored completely. While other threads store
+   * images, the published slots need not be the lowest ones.
+   *
+   * @return the number of images
+   */
+  public int size() {
+    return nofImages.get();
+  }
+
+
+  /**
+   * Answer whether an image is stored completely in the slot.
+   *
+   * @param slot The slot index
+   * @return true if published, else false
+   */
+  public boolean isPublished(int slot) {
+    return slot >= 0 && slot < capacity && published.get(slot) != 0;
+  }
+
+
+  /**
+   * Store the RAM and used RAM slots of the memory into the next free slot.
+   *
+   * @param memory The memory of an assembled program
+   * @return the slot index of the image
+   * @throws IllegalArgumentException if the memory size does not match
+   * @throws IllegalStateException if the arena is full
+   */
+  public int store(Memory memory) {
+    if (memory.getSize() != ramSize) {
+      throw new IllegalArgumentException(
+          "RAM size " + memory.getSize() + " does not match arena RAM size " + ramSize);
+    }
+    int slot = nofClaimed.getAndIncrement();
+    if (slot >= capacity) {
+      throw new IllegalStateException("Image arena full, capacity " + capacity);
+    }
+    int base = headerSize + slot * slotSize;
+    for (int address = 0; address < ramSize; ++address) {
+      buffer.put(base + address, (byte) memory.read(address));
+    }
+    // Clear bitmap as a mapped file might hold old images
+    for (int i = bitmapOffset; i < slotSize; ++i) {
+      buffer.put(base + i, (byte) 0);
+    }
+    for (Memory.Segment segment : memory.getSegments()) {
+      for (int address = segment.getStart(); address < segment.getEnd(); ++address) {
+        int index = base + bitmapOffset + (address >> 3);
+        buffer.put(index, (byte) (buffer.get(index) | (1 << (address & 7))));
+      }
+    }
+    // Publish the slot after its bytes, the volatile write orders them
+    buffer.put(PUBLISHED_OFFSET + slot, (byte) 1);
+    published.set(slot, 1);
+    nofImages.incrementAndGet();
+    return slot;
+  }
+
+
+  /**
+   * Answer a byte of a stored image.
+   *
+   * @param slot The slot index of the image
+   * @param address The RAM address
+   * @return the byte (0..255)
+   */
+  public int read(int slot, int address) {
+    checkSlotAddress(slot, address);
+    return buffer.get(headerSize + slot * slotSize + address) & 0xFF;
+  }
+
+
+  /**
+   * Answer whether a RAM slot of a stored image is used.
+   *
+   * @param slot The slot index of the image
+   * @param address The RAM address
+   * @return true if used, else false
+   */
+  public boolean isUsed(int slot, int address) {
+    checkSlotAddress(slot, address);
+    int bits = buffer.get(headerSize + slot * slotSize + bitmapOffset + (address >> 3));
+    return (bits & (1 << (address & 7))) != 0;
+  }
+
+
+  /**
+   * Copy the RAM bytes of a stored image into an array, as many as fit.
+   *
+   * @param slot The slot index of the image
+   * @param ram The array receiving the bytes
+   */
+  public void copyRam(int slot, byte[] ram) {
+    checkSlotAddress(slot, 0);
+    ByteBuffer image = buffer.duplicate();
+    image.position(headerSize + slot * slotSize);
+    image.get(ram, 0, Math.min(ram.length, ramSize));
+  }
+
+
+  /**
+   * Answer the RAM of a stored image, cp. Memory.getRam().
+   *
+   * @param slot The slot index of the image
+   * @return the RAM array
+   */
+  public int[] getRam(int slot) {
+    int[] ram = new int[ramSize];
+    for (int address = 0; address < ramSize; ++address) {
+      ram[address] = read(slot, address);
+    }
+    return ram;
+  }
+
+
+  /**
+   * Answer the used RAM slots of a stored image, cp. Memory.getUsedRamSlots().
+   *
+   * @param slot The slot index of the image
+   * @return the used RAM slot array
+   */
+  public boolean[] getUsedRamSlots(int slot) {
+    boolean[] usedRamSlots = new boolean[ramSize];
+    for (int address = 0; address < ramSize; ++address) {
+      usedRamSlots[address] = isUsed(slot, address);
+    }
+    return usedRamSlots;
+  }
+
+
+  /**
+   * Rebuild a memory from a stored image. Source lines of the allocated
+   * regions are not stored and therefore unknown (0).
+   *
+   * @param slot The slot index of the image
+   * @return the memory
+   */
+  public Memory toMemory(int slot) {
+    Memory memory = new Memory(ramSize);
+    memory.setRam(getRam(slot));
+    memory.setUsedRamSlots(getUsedRamSlots(slot));
+    return memory;
+  }
+
+
+  /**
+   * Test if slot and address lie within the arena.
+   *
+   * @param slot The slot index of the image
+   * @param address The RAM address
+   */
+  private void checkSlotAddress(int slot, int address) {
+    if (!isPublished(slot)) {
+      throw new IndexOutOfBoundsException("No image in slot " + slot);
+    }
+    if (address < 0 || address >= ramSize) {
+      throw new IndexOutOfBoundsException("RAM address out of range: " + address);
+    }
+  }
+}
@@ -0,0 +1,182 @@
+package assembler;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+
+import assembler.support.Common;
+import assembler.support.InstructionFileReader;
+
+
+/**
+ * The class InstructionSetDescriptor compiles the text file INSTRUCTION.data
+ * into a compact binary descriptor holding the group lists built by
+ * GroupListBuilder, and loads them back without any text parsing.
+ * The descriptor is generated at build time (Gradle task compileInstructionSet),
+ * INSTRUCTION.data stays the source of truth.
+ *
+ * Format (DataOutput):
+ *   int magic | short version | byte nofGroups
+ *   per group: short nofEntries
+ *     per entry: UTF mnemonic | byte opcode | UTF commandPattern | short mpmEntry
+ *
+ * @author ruedi.mueller
+ */
+public class InstructionSetDescriptor {
+  // "STIS": stebs instruction set
+  private static final int MAGIC = 0x53544953;
+  private static final short VERSION = 1;
+
+
+  /**
+   * Compile INSTRUCTION.data into the binary descriptor.
+   *
+   * @param args The INSTRUCTION.data file and the descriptor file to be written
+   * @throws IOException if a file cannot be read or written
+   */
+  public static void main(String[] args) throws IOException {
+    String instructionDataString =
+        new String(Files.readAllBytes(Paths.get(args[0])), StandardCharsets.ISO_8859_1);
+    byte[] descriptor = compile(instructionDataString);
+
+    File file = new File(args[1]);
+    if (file.getParentFile() != null) {
+      file.getParentFile().mkdirs();
+    }
+    FileOutputStream out = new FileOutputStream(file);
+    try {
+      out.write(descriptor);
+    }
+    finally {
+      out.close();
+    }
+  }
+
+
+  /**
+   * Parse INSTRUCTION.data and answer the binary descriptor of its groups.
+   *
+   * @param instructionDataString String from INSTRUCTION.data
+   * @return the descriptor
+   */
+  public static byte[] compile(String instructionDataString) {
+    GroupListBuilder groupListBuilder = new GroupListBuilder(instructionDataString);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    try {
+      out.writeInt(MAGIC);
+      out.writeShort(VERSION);
+      out.writeByte(groupListBuilder.commandSymGroupList.size());
+      for (int group = 0; group < groupListBuilder.commandSymGroupList.size(); ++group) {
+        ArrayList<String> mnemonics = groupListBuilder.commandSymGroupList.get(group);
+        out.writeShort(mnemonics.size());
+        for (int i = 0; i < mnemonics.size(); ++i) {
+          out.writeUTF(mnemonics.get(i));
+          out.writeByte(Integer.parseInt(groupListBuilder.commandHexGroupList.get(group).get(i), 16));
+          out.writeUTF(groupListBuilder.commandPatternGroupList.get(group).get(i));
+          out.writeShort(groupListBuilder.commandMpmGroupList.get(group).get(i));
+        }
+      }
+      out.close();
+    }
+    catch (IOException ioe) {
+      // Cannot happen with a byte array
+      throw new IllegalStateException(ioe);
+    }
+    return bytes.toByteArray();
+  }
+
+
+  /**
+   * Load the descriptor generated at build time from the classpath.
+   *
+   * @return the group lists, or null if no descriptor is available (e.g. when
+   *         run without the build step)
+   * @throws IOException if the descriptor is corrupt
+   */
+  public static GroupListBuilder load() throws IOException {
+    InputStream in = Assembler.class.getClassLoader()
+        .getResourceAsStream(Common.INSTRUCTION_DESCRIPTOR_FILENAME);
+    if (in == null) {
+      return null;
+    }
+    try {
+      return load(new BufferedInputStream(in));
+    }
+    finally {
+      in.close();
+    }
+  }
+
+
+  /**
+   * Load the instruction set, preferably from the descriptor generated at
+   * build time, else by parsing INSTRUCTION.data, e.g. when run without the
+   * build step or with a corrupt descriptor.
+   *
+   * @return the group lists
+   */
+  public static GroupListBuilder loadOrParse() {
+    GroupListBuilder groupListBuilder = null;
+    try {
+      groupListBuilder = load();
+    }
+    catch (IOException ioe) {
+      // Fall back to the text file
+    }
+    if (groupListBuilder == null) {
+      groupListBuilder = new GroupListBuilder(
+          new InstructionFileReader().execute(Common.INSTRUCTION_FILENAME));
+    }
+    return groupListBuilder;
+  }
+
+
+  /**
+   * Load the group lists from a binary descriptor.
+   *
+   * @param in The stream with the descriptor
+   * @return the group lists
+   * @throws IOException if the descriptor is corrupt
+   */
+  public static GroupListBuilder load(InputStream in) throws IOException {
+    DataInputStream data = new DataInputStream(in);
+    if (data.readInt() != MAGIC || data.readShort() != VERSION) {
+      throw new IOException("Not an instruction set descriptor of version " + VERSION);
+    }
+    GroupListBuilder groupListBuilder = new GroupListBuilder();
+    int nofGroups = data.readUnsignedByte();
+    for (int group = 0; group < nofGroups; ++group) {
+      int nofEntries = data.readUnsignedShort();
+      ArrayList<String> mnemonics = new ArrayList<String>(nofEntries);
+      ArrayList<String> opcodes = new ArrayList<String>(nofEntries);
+      ArrayList<String> commandPatterns = new ArrayList<String>(nofEntries);
+      ArrayList<Integer> mpmEntries = new ArrayList<Integer>(nofEntries);
+      for (int i = 0; i < nofEntries; ++i) {
+        String mnemonic = data.readUTF();
+        mnemonics.add(mnemonic);
+        opcodes.add(Common.toHexByteString(data.readUnsignedByte()));
+        commandPatterns.add(data.readUTF());
+        mpmEntries.add((int) data.readShort());
+        if (!mnemonic.equals("END")) {
+          groupListBuilder.mnemonicSet.add(mnemonic);
+        }
+      }
+      groupListBuilder.commandSymGroupList.add(mnemonics);
+      groupListBuilder.commandHexGroupList.add(opcodes);
+      groupListBuilder.commandPatternGroupList.add(commandPatterns);
+      groupListBuilder.commandMpmGroupList.add(mpmEntries);
+    }
+    groupListBuilder.publishJumps();
+    return groupListBuilder;
+  }
+}
@@ -20,6 +20,9 @@ public class MS {
   public static final String EXPECTED_HEX =
       "Expected hexadecimal number (range 00..FF)";
 
+  public static final String EXPECTED_ADDRESS =
+      "Expected hexadecimal address (range 00..";
+
   public static final String EXPECTED_HEX_QUOTE_DOUBLEQUOTE =
       "Expected hexadecimal number (range 00..FF), a quote (') or double quote (\")";
 
@@ -95,6 +98,12 @@ public class MS {
   public static final String DUPLICATE_RAM_ALLOCATION =
       "Duplicate RAM allocation at address ";
 
+  public static final String REGION_ALLOCATED_BY =
+      " (region ";
+
+  public static final String IN_LINE =
+      " already allocated in line ";
+
   public static final String INVALID_CHAR_IN_SYMBOL =
       "Invalid character in label or symbol, found '";
 
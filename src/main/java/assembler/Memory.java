@@ -1,75 +1,398 @@
 package assembler;
 
-import assembler.support.Common;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
 
-import java.util.Arrays;
+import assembler.support.Common;
 
 
 /**
- * The class Memory bundles RAM in a int array and a corresponding used RAM slot
- * array.
- * A written RAM slot will always be marked in its used RAM slot array as "smudged".
+ * The class Memory bundles RAM and a corresponding map of allocated regions.
+ * An allocated RAM slot will always be covered by a segment of the map.
  * Used to detect duplicate RAM writes which is an error.
- * 
+ *
+ * The size of the address space is configurable (up to 64 KiB). RAM is
+ * organised in fixed-size pages which are allocated on first write only,
+ * i.e. a large but sparsely used address space costs only the pages used.
+ * Allocated regions are kept as a sorted list of non-overlapping segments,
+ * each remembering the source line which claimed it, so an emission is
+ * checked for overlaps in O(log n) as one range operation.
+ *
  * @author ruedi.mueller
  */
 public class Memory {
-  // The array representing RAM for machine code
-  private int[] ram = new int[256];
-  
-  // The array representing used RAM slots in the RAM
-  // Initially each slot set to false, programmatically changed to true, if
-  // corresponding RAM slot is used
-  private boolean[] usedRamSlots = new boolean[256];
-  
-  
-  // Getters and setters
+  // Size of the classic stebs RAM
+  public static final int DEFAULT_SIZE = 0x100;
+  // Largest address space supported (16 bit addresses)
+  public static final int MAX_SIZE = 0x10000;
+
+  // Page geometry: 256 bytes per page
+  public static final int PAGE_SIZE = 0x100;
+  private static final int PAGE_SHIFT = 8;
+  private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+  // Number of addressable bytes
+  private final int size;
+
+  // The pages representing RAM for machine code, null if never written
+  private byte[][] pages;
+
+  // The allocated regions, keyed by their start address
+  private TreeMap<Integer, Segment> segments = new TreeMap<Integer, Segment>();
+
+
+  /**
+   * The class Segment describes an allocated region of RAM and the source
+   * line which claimed it.
+   */
+  public static class Segment {
+    // First address of the region
+    private final int start;
+    // First address after the region
+    private int end;
+    // The source line which claimed the region
+    private final int linenum;
+
+    Segment(int start, int end, int linenum) {
+      this.start = start;
+      this.end = end;
+      this.linenum = linenum;
+    }
+
+    // Getters
+    public int getStart() {
+      return start;
+    }
+
+    public int getEnd() {
+      return end;
+    }
+
+    public int getLinenum() {
+      return linenum;
+    }
+
+    @Override
+    public String toString() {
+      return Common.toHexAddressString(start) + ".." + Common.toHexAddressString(end - 1);
+    }
+  }
+
+
+  /**
+   * Instantiate memory of the classic stebs size of 256 bytes.
+   */
+  public Memory() {
+    this(DEFAULT_SIZE);
+  }
+
+
+  /**
+   * Instantiate memory with an address space of the specified size. No page
+   * is allocated yet, i.e. all RAM slots read 0 and are unused.
+   *
+   * @param size The number of addressable bytes (1..MAX_SIZE)
+   */
+  public Memory(int size) {
+    if (size <= 0 || size > MAX_SIZE) {
+      throw new IllegalArgumentException("Invalid RAM size: " + size);
+    }
+    this.size = size;
+    int nofPages = (size + PAGE_MASK) >> PAGE_SHIFT;
+    pages = new byte[nofPages][];
+  }
+
+
+  // Getters
+  public int getSize() {
+    return size;
+  }
+
+
+  /**
+   * Answer the number of pages allocated so far.
+   *
+   * @return the number of allocated pages
+   */
+  public int getNofAllocatedPages() {
+    int count = 0;
+    for (byte[] page : pages) {
+      if (page != null) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+
+  /**
+   * Answer the byte stored at the specified address.
+   *
+   * @param address The RAM address
+   * @return the byte (0..255), 0 if never written
+   */
+  public int read(int address) {
+    checkAddress(address);
+    byte[] page = pages[address >> PAGE_SHIFT];
+    return page == null ? 0 : page[address & PAGE_MASK] & 0xFF;
+  }
+
+
+  /**
+   * Overwrite the byte at the specified address without marking the RAM
+   * slot as used. Used to patch bytes already allocated, e.g. opcodes and
+   * resolved label addresses.
+   *
+   * @param address The RAM address
+   * @param value The byte to be written, only the lower 8 bits are stored
+   */
+  public void write(int address, int value) {
+    checkAddress(address);
+    page(address)[address & PAGE_MASK] = (byte) value;
+  }
+
+
+  /**
+   * Write the byte at the specified address and mark the RAM slot as used.
+   *
+   * @param address The RAM address
+   * @param value The byte to be written, only the lower 8 bits are stored
+   * @param linenum The source line claiming the RAM slot
+   */
+  public void allocate(int address, int value, int linenum) {
+    claim(address, 1, linenum);
+    write(address, value);
+  }
+
+
+  /**
+   * Mark a region as used by the specified source line. A region directly
+   * following a region of the same line is merged with it.
+   *
+   * @param start The first address of the region
+   * @param length The number of bytes
+   * @param linenum The source line claiming the region
+   * @throws IllegalArgumentException if the region is out of range or overlaps
+   *         an allocated region
+   */
+  public void claim(int start, int length, int linenum) {
+    checkAddress(start);
+    checkAddress(start + length - 1);
+    if (findOverlap(start, length) != null) {
+      throw new IllegalArgumentException("RAM region already allocated: " + start);
+    }
+    Map.Entry<Integer, Segment> previous = segments.lowerEntry(start);
+    if (previous != null && previous.getValue().end == start
+        && previous.getValue().linenum == linenum) {
+      previous.getValue().end += length;
+    }
+    else {
+      segments.put(start, new Segment(start, start + length, linenum));
+    }
+  }
+
+
+  /**
+   * Answer the allocated region overlapping the specified range which
+   * starts lowest in RAM.
+   *
+   * @param start The first address of the range
+   * @param length The number of bytes
+   * @return the segment, or null if the range is free
+   */
+  public Segment findOverlap(int start, int length) {
+    Map.Entry<Integer, Segment> floor = segments.floorEntry(start);
+    if (floor != null && floor.getValue().end > start) {
+      return floor.getValue();
+    }
+    Map.Entry<Integer, Segment> higher = segments.higherEntry(start);
+    if (higher != null && higher.getKey() < start + length) {
+      return higher.getValue();
+    }
+    return null;
+  }
+
+
+  /**
+   * Answer the allocated region containing the specified address.
+   *
+   * @param address The RAM address
+   * @return the segment, or null if the RAM slot is unused
+   */
+  public Segment getSegmentAt(int address) {
+    return findOverlap(address, 1);
+  }
+
+
+  /**
+   * Answer the allocated regions in ascending address order.
+   *
+   * @return an unmodifiable view of the segments
+   */
+  public Collection<Segment> getSegments() {
+    return Collections.unmodifiableCollection(segments.values());
+  }
+
+
+  /**
+   * Answer the number of allocated regions.
+   *
+   * @return the number of segments
+   */
+  public int getNofSegments() {
+    return segments.size();
+  }
+
+
+  /**
+   * Answer the number of bytes allocated by all regions.
+   *
+   * @return the number of used RAM slots
+   */
+  public int getNofUsedBytes() {
+    int nofBytes = 0;
+    for (Segment segment : segments.values()) {
+      nofBytes += segment.end - segment.start;
+    }
+    return nofBytes;
+  }
+
+
+  /**
+   * Answer whether the RAM slot at the specified address is used.
+   *
+   * @param address The RAM address
+   * @return true if used, else false
+   */
+  public boolean isUsed(int address) {
+    checkAddress(address);
+    return getSegmentAt(address) != null;
+  }
+
+
+  /**
+   * Answer a copy of the RAM contents as an int array covering the whole
+   * address space.
+   *
+   * @return the RAM array
+   */
   public int[] getRam() {
+    int[] ram = new int[size];
+    for (int p = 0; p < pages.length; ++p) {
+      byte[] page = pages[p];
+      if (page != null) {
+        int base = p << PAGE_SHIFT;
+        int end = Math.min(PAGE_SIZE, size - base);
+        for (int i = 0; i < end; ++i) {
+          ram[base + i] = page[i] & 0xFF;
+        }
+      }
+    }
     return ram;
   }
 
+
+  /**
+   * Replace the RAM contents by the specified array. Used RAM slots are
+   * left unchanged.
+   *
+   * @param ram The RAM array, at most getSize() bytes
+   */
   public void setRam(int[] ram) {
-    this.ram = ram;
+    for (int address = 0; address < ram.length; ++address) {
+      if (ram[address] != 0 || pages[address >> PAGE_SHIFT] != null) {
+        write(address, ram[address]);
+      }
+    }
   }
 
+
+  /**
+   * Answer a copy of the used RAM slots as a boolean array covering the
+   * whole address space.
+   *
+   * @return the used RAM slot array
+   */
   public boolean[] getUsedRamSlots() {
+    boolean[] usedRamSlots = new boolean[size];
+    for (Segment segment : segments.values()) {
+      for (int address = segment.start; address < segment.end; ++address) {
+        usedRamSlots[address] = true;
+      }
+    }
     return usedRamSlots;
   }
 
+
+  /**
+   * Mark the RAM slots as specified by the array. RAM contents are left
+   * unchanged, the source lines of the regions are unknown (0).
+   *
+   * @param usedRamSlots The used RAM slot array, at most getSize() entries
+   */
   public void setUsedRamSlots(boolean[] usedRamSlots) {
-    this.usedRamSlots = usedRamSlots;
+    segments.clear();
+    for (int address = 0; address < usedRamSlots.length; ++address) {
+      if (usedRamSlots[address]) {
+        claim(address, 1, 0);
+      }
+    }
   }
 
-  
+
   /**
-   * Instantiate memory consisting of a RAM array and its associated used
-   * RAM slot array.
+   * Answer the page containing the specified address, allocate it if
+   * necessary.
+   *
+   * @param address The RAM address
+   * @return the page
    */
-  public Memory() {
-    // Initialize RAM and corresponding (= same indices) used RAM slots
-    Arrays.fill(ram, 0);
-    Arrays.fill(usedRamSlots, false);
+  private byte[] page(int address) {
+    int p = address >> PAGE_SHIFT;
+    if (pages[p] == null) {
+      pages[p] = new byte[PAGE_SIZE];
+    }
+    return pages[p];
   }
-  
-  
+
+
+  /**
+   * Test if the address lies within the address space.
+   *
+   * @param address The RAM address
+   */
+  private void checkAddress(int address) {
+    if (address < 0 || address >= size) {
+      throw new IndexOutOfBoundsException("RAM address out of range: " + address);
+    }
+  }
+
+
   /**
    * Answer a string showing all RAM contents in the form of a memory dump.
-   * 
+   * Pages never written are skipped unless the RAM consists of a single page.
+   *
    * @return the string containing all memory data
    */
   private String toRamString() {
+    int digits = Common.addressDigits(size);
     StringBuilder sb = new StringBuilder();
     sb.append("\nRAM:\n");
-    sb.append("       0  1  2  3  4  5  6  7  8  9  A  B  C  D  E  F\n");
+    sb.append(spaces(digits) + "     0  1  2  3  4  5  6  7  8  9  A  B  C  D  E  F\n");
 
-    for (int i = 0; i < ram.length; i = i + 0x10) {
-      sb.append("  " + Common.toHexByteString(i) + "  ");
+    for (int i = 0; i < size; i = i + 0x10) {
+      if (pages.length > 1 && pages[i >> PAGE_SHIFT] == null) {
+        continue;
+      }
+      sb.append("  " + Common.toHexString(i, digits) + "  ");
       for (int j = 0; j < 0x10; j++) {
-        sb.append(Common.toHexByteString(ram[i + j]) + " ");
+        sb.append(Common.toHexByteString(i + j < size ? read(i + j) : 0) + " ");
       }
       sb.append("  ");
       for (int j = 0; j < 0x10; j++) {
-        char c = (char) ram[i + j];
+        char c = (char) (i + j < size ? read(i + j) : 0);
         sb.append((c <= 0x20 || c > 0x7E) ? '.' : c);
       }
       sb.append("\n");
@@ -77,8 +400,23 @@ public class Memory {
 
     return sb.toString();
   }
-  
-  
+
+
+  /**
+   * Answer a string of blanks used to align the dump header.
+   *
+   * @param digits The number of address digits
+   * @return the blanks
+   */
+  private String spaces(int digits) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < digits; ++i) {
+      sb.append(' ');
+    }
+    return sb.toString();
+  }
+
+
   @Override
   public String toString() {
     return toRamString().toString();
@@ -0,0 +1,192 @@
+package assembler;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * The class MetricsAggregator sums up the metrics of many runs of the
+ * assembler, e.g. of a batch or a grading server, in counters and in a
+ * histogram of the elapsed time per phase. The histograms have a bucket per
+ * power of two nanoseconds, i.e. quantiles are approximated within a factor
+ * of two. Recording takes no locks and allocates nothing, runs on several
+ * threads may be recorded concurrently.
+ *
+ * Example:
+ *   MetricsAggregator aggregator = new MetricsAggregator();
+ *   AssemblyMetrics metrics = new AssemblyMetrics();
+ *   for (String asmString : programs) {
+ *     asm.execute(asmString, groupListBuilder, metrics);
+ *     aggregator.record(metrics);
+ *   }
+ *   System.out.println(aggregator);
+ *
+ * @author ruedi.mueller
+ */
+public final class MetricsAggregator {
+  // Number of histogram buckets, bucket i counts times of 2^(i-1)..2^i - 1 ns
+  public static final int NOF_BUCKETS = 64;
+
+  // Counters
+  private static final int RUNS = 0;
+  private static final int FAILURES = 1;
+  private static final int TOKENS = 2;
+  private static final int LABELS = 3;
+  private static final int BYTES = 4;
+  private static final int NOF_COUNTERS = 5;
+  private final AtomicLongArray counters = new AtomicLongArray(NOF_COUNTERS);
+
+  // Total nanoseconds and allocated bytes per phase
+  private final AtomicLongArray nanos = new AtomicLongArray(AssemblyMetrics.NOF_PHASES);
+  private final AtomicLongArray allocatedBytes = new AtomicLongArray(AssemblyMetrics.NOF_PHASES);
+  // Histograms of the nanoseconds per phase and of the total, NOF_BUCKETS each
+  private final AtomicLongArray histograms = new AtomicLongArray((AssemblyMetrics.NOF_PHASES + 1)
+      * NOF_BUCKETS);
+
+
+  /**
+   * Add the metrics of a run.
+   *
+   * @param metrics The metrics
+   */
+  public void record(AssemblyMetrics metrics) {
+    counters.incrementAndGet(RUNS);
+    if (!metrics.isSuccess()) {
+      counters.incrementAndGet(FAILURES);
+    }
+    counters.addAndGet(TOKENS, metrics.getNofTokens());
+    counters.addAndGet(LABELS, metrics.getNofLabels());
+    counters.addAndGet(BYTES, metrics.getNofBytes());
+    for (int phase = 0; phase < AssemblyMetrics.NOF_PHASES; ++phase) {
+      nanos.addAndGet(phase, metrics.getNanos(phase));
+      if (metrics.getAllocatedBytes(phase) > 0) {
+        allocatedBytes.addAndGet(phase, metrics.getAllocatedBytes(phase));
+      }
+      histograms.incrementAndGet(phase * NOF_BUCKETS + bucket(metrics.getNanos(phase)));
+    }
+    histograms.incrementAndGet(AssemblyMetrics.NOF_PHASES * NOF_BUCKETS
+        + bucket(metrics.getTotalNanos()));
+  }
+
+
+  /**
+   * Answer the bucket of the specified time, i.e. its number of significant
+   * bits.
+   */
+  private static int bucket(long nanos) {
+    return (nanos <= 0) ? 0 : Math.min(NOF_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos));
+  }
+
+
+  /**
+   * Clear all counters and histograms.
+   */
+  public void reset() {
+    for (int i = 0; i < counters.length(); ++i) {
+      counters.set(i, 0);
+    }
+    for (int i = 0; i < nanos.length(); ++i) {
+      nanos.set(i, 0);
+      allocatedBytes.set(i, 0);
+    }
+    for (int i = 0; i < histograms.length(); ++i) {
+      histograms.set(i, 0);
+    }
+  }
+
+
+  // Getters
+  public long getNofRuns() {
+    return counters.get(RUNS);
+  }
+
+  public long getNofFailures() {
+    return counters.get(FAILURES);
+  }
+
+  public long getNofTokens() {
+    return counters.get(TOKENS);
+  }
+
+  public long getNofLabels() {
+    return counters.get(LABELS);
+  }
+
+  public long getNofBytes() {
+    return counters.get(BYTES);
+  }
+
+  public long getNanos(int phase) {
+    return nanos.get(phase);
+  }
+
+  public long getAllocatedBytes(int phase) {
+    return allocatedBytes.get(phase);
+  }
+
+  /**
+   * Answer the number of runs in a histogram bucket.
+   *
+   * @param phase The phase, e.g. AssemblyMetrics.TOKENIZE, or NOF_PHASES for
+   *              the total of all phases
+   * @param bucket The bucket, 0..NOF_BUCKETS - 1
+   */
+  public long getBucketCount(int phase, int bucket) {
+    return histograms.get(phase * NOF_BUCKETS + bucket);
+  }
+
+
+  /**
+   * Answer an upper bound of the specified quantile of the time per run.
+   *
+   * @param phase The phase, e.g. AssemblyMetrics.TOKENIZE, or NOF_PHASES for
+   *              the total of all phases
+   * @param quantile The quantile, e.g. 0.99
+   * @return the upper bound of the bucket containing the quantile in
+   *         nanoseconds, 0 if no runs recorded
+   */
+  public long getQuantileNanos(int phase, double quantile) {
+    long nofRuns = 0;
+    for (int bucket = 0; bucket < NOF_BUCKETS; ++bucket) {
+      nofRuns += getBucketCount(phase, bucket);
+    }
+    long rank = (long) Math.ceil(quantile * nofRuns);
+    long count = 0;
+    for (int bucket = 0; bucket < NOF_BUCKETS; ++bucket) {
+      count += getBucketCount(phase, bucket);
+      if (count >= rank && count > 0) {
+        return (bucket == 0) ? 0 : (bucket >= 63) ? Long.MAX_VALUE : (1L << bucket) - 1;
+      }
+    }
+    return 0;
+  }
+
+
+  /**
+   * Return a string representation: the counters followed by a line per phase
+   * with total time, total allocated bytes, p50 and p99.
+   */
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    sb.append(String.format("runs %d, failures %d, tokens %d, labels %d, bytes %d%n", getNofRuns(),
+        getNofFailures(), getNofTokens(), getNofLabels(), getNofBytes()));
+    for (int phase = 0; phase <= AssemblyMetrics.NOF_PHASES; ++phase) {
+      boolean total = phase == AssemblyMetrics.NOF_PHASES;
+      sb.append(String.format("%-16s %14d ns %14d bytes  p50 <= %d ns  p99 <= %d ns%n",
+          total ? "total" : AssemblyMetrics.PHASES[phase],
+          total ? sum(nanos) : getNanos(phase),
+          total ? sum(allocatedBytes) : getAllocatedBytes(phase),
+          getQuantileNanos(phase, 0.5), getQuantileNanos(phase, 0.99)));
+    }
+    return sb.toString();
+  }
+
+
+  private static long sum(AtomicLongArray values) {
+    long sum = 0;
+    for (int i = 0; i < values.length(); ++i) {
+      sum += values.get(i);
+    }
+    return sum;
+  }
+}
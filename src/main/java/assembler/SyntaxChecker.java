@@ -4,7 +4,6 @@ import java.util.List;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.StringTokenizer;
-import java.util.regex.Pattern;
 
 import assembler.support.Common;
 import assembler.support.Debug;
@@ -40,6 +39,8 @@ public class SyntaxChecker {
   private List<Integer> labelrefs = new ArrayList<Integer>();
   // Corresponding label line numbers
   private List<String> labelLinenum = new ArrayList<String>();
+  // Corresponding flags to mark symbols of absolute jumps (JPA)
+  private List<Boolean> labelAbsolute = new ArrayList<Boolean>();
   
   // New line symbol
   private final static String NL = Common.NL;
@@ -50,20 +51,26 @@ public class SyntaxChecker {
   // Characters which are not allowed in labels, symbols
   private final static char[] INVALID_SYMBOLCHAR_ARRAY = (CHAR_STR + ":").toCharArray();
   
-  // Magical numbers used with label address dereferencing
-  private final static int DEFINED = 999;
+  // Magical numbers used with label address dereferencing,
+  // negative as they must not collide with any RAM address
+  private final static int DEFINED = -1;
   private final static int USED = DEFINED;
   
   // Corresponding error number, used in testing
   // Assign number in code as long, e.g. 6L for easy finding
   private long errorNum;
+  // The error message, empty if none; published to the context when
+  // checking ends
+  private String errorMessage = "";
   
   // State variables
   private int numOfMnemsPerLine = 0;      // No mnemonic found yet
   private int numOfLabelsPerLine = 0;     // No label found yet
 
-  // RAM for machine code
-  private Memory memory = new Memory();
+  // The context of the run, providing the token list and receiving the RAM
+  private final AssemblerContext context;
+  // RAM for machine code, sized as configured in the context
+  private Memory memory;
   // Pointer to RAM and allocation field slot
   private int ramLocator = 0;
   
@@ -84,15 +91,36 @@ public class SyntaxChecker {
   public int[] getRam() {
     return memory.getRam();
   }
+
+  public Memory getMemory() {
+    return memory;
+  }
   
   
   /**
    * Construct a syntax checker to read a token list built from a *.asm file,
    * check syntax and assemble it into machine code.
    * 
-   * @param asm The assembler of this checker.
+   * The token list is read from the context of the assembler constructed or
+   * run last, cp. Common.getContext().
+   * 
+   * @param groupListBuilder The instruction set
    */
   public SyntaxChecker(GroupListBuilder groupListBuilder) {
+    this(groupListBuilder, Common.getContext());
+  }
+  
+  
+  /**
+   * Construct a syntax checker to read the token list of a run, check syntax
+   * and assemble it into machine code.
+   * 
+   * @param groupListBuilder The instruction set
+   * @param context The context of the run
+   */
+  public SyntaxChecker(GroupListBuilder groupListBuilder, AssemblerContext context) {
+    this.context = context;
+    memory = new Memory(context.getRamSize());
     commandSymGroupList = groupListBuilder.commandSymGroupList;
     commandHexGroupList = groupListBuilder.commandHexGroupList;
     commandPatternGroupList = groupListBuilder.commandPatternGroupList;
@@ -114,10 +142,26 @@ public class SyntaxChecker {
    * @throws SyntaxCheckerException if context error found
    */
   public void checkSyntax() throws SyntaxCheckerException {
-    Common.ERROR_MESSAGE = "";              // No error to report
+    errorMessage = "";                      // No error to report
+    try {
+      checkLines();
+    }
+    finally {
+      // Publish the message of this checker
+      context.setErrorMessage(errorMessage);
+    }
+  }
+
+
+  /**
+   * Check the lines in the token list up to END.
+   *
+   * @throws SyntaxCheckerException if context error found
+   */
+  private void checkLines() throws SyntaxCheckerException {
     // Loop on a token-by-token basis
-    for (tokenListIndex = 2; tokenListIndex < Common.getTokenList().size(); tokenListIndex += 3) {
-      token = Common.getToken(tokenListIndex);
+    for (tokenListIndex = 2; tokenListIndex < context.getTokenList().size(); tokenListIndex += 3) {
+      token = context.getToken(tokenListIndex);
        // Check if first token in the line is a comment
       if (isComment())   continue;
       // Check if end of line
@@ -134,14 +178,14 @@ public class SyntaxChecker {
       else if (isMnemonic())   continue;
       // Should never reach this point
       else {
-        Common.ERROR_MESSAGE = MS.ERROR_IN_CHECKSYNTAX;
-        throw new SyntaxCheckerException(Common.ERROR_MESSAGE);
+        errorMessage = MS.ERROR_IN_CHECKSYNTAX;
+        throw new SyntaxCheckerException(errorMessage);
       }
     }
     // END is missing
-    Common.ERROR_MESSAGE = MS.END_IS_MISSING;
+    errorMessage = MS.END_IS_MISSING;
     errorNum = 14L;
-    throw new SyntaxCheckerException(Common.ERROR_MESSAGE);
+    throw new SyntaxCheckerException(errorMessage);
   }
   
   
@@ -155,7 +199,23 @@ public class SyntaxChecker {
    */
   public void check() throws SyntaxCheckerException {
     checkSyntax();
-    resolveLabelAddresses();
+    resolveLabels();
+  }
+
+
+  /**
+   * Resolve the labels collected by checkSyntax() and make the RAM known to
+   * the context. Separate from check() to time the phases of the assembler.
+   *
+   * @throws SyntaxCheckerException if a label is undefined or not reachable
+   */
+  void resolveLabels() throws SyntaxCheckerException {
+    try {
+      resolveLabelAddresses();
+    }
+    finally {
+      context.setErrorMessage(errorMessage);
+    }
 
     // For debugging purposes
     if (Debug.SC_ON) {
@@ -166,8 +226,8 @@ public class SyntaxChecker {
       System.out.println("Common.JUMPS (SyntaxChecker):\n  " + Common.JUMPS);
     }
     
-    // Make RAM known to Common
-    Common.setRam(memory);
+    // Make RAM known to the context
+    context.setMemory(memory);
   }
 
   
@@ -208,7 +268,7 @@ public class SyntaxChecker {
     if (token.equals("END")) {
       checkMnemonicGroup(0);
       
-      Common.getTokenList().setModifiedEND(tokenListIndex);
+      context.getTokenList().setModifiedEND(tokenListIndex);
       return true;
     }
     return false;
@@ -224,12 +284,12 @@ public class SyntaxChecker {
   private boolean isOrg() throws SyntaxCheckerException {
     if (token.equals("ORG")) {
       nextToken();
-      if (!(isHexNumber(token))) {
+      if (!(isAddress(token))) {
         ifNewlineThrowCheckerException(
-            MS.EXPECTED_HEX, 9000L, 9001L);
+            expectedAddressMessage(), 9000L, 9001L);
       }
       // ORG 20
-      if (isHexNumber(token)) {
+      if (isAddress(token)) {
         // Change RAM locator
         int address = Integer.parseInt(token, HEX_BASE);
         ramLocator = address;
@@ -272,19 +332,19 @@ public class SyntaxChecker {
       if (token.startsWith("'")) {
         if (token.length() != 3) {
           markError(MS.EXPECTED_CHAR_ENCLOSED + token, 1003L);
-          throw new SyntaxCheckerException(Common.ERROR_MESSAGE);
+          throw new SyntaxCheckerException(errorMessage);
         }
         char c = token.charAt(1);
         if (c < 0x20 || c > 0x7F) {
           markError(MS.INVALID_CHAR + token +"'", 1004L);
-          throw new SyntaxCheckerException(Common.ERROR_MESSAGE);
+          throw new SyntaxCheckerException(errorMessage);
         }
         writeByte(c);
         
         c = token.charAt(2);
         if (c != '\'') {
           markError(MS.EXPECTED_CLOSING_QUOTE + c +"'", 1005L);
-          throw new SyntaxCheckerException(Common.ERROR_MESSAGE);
+          throw new SyntaxCheckerException(errorMessage);
         }
         
         nextToken();
@@ -297,20 +357,20 @@ public class SyntaxChecker {
         // Empty string
         if (token.length() == 2 && token.charAt(1) == '"') {
           markError(MS.EMPTY_STRINGS_NOT_ALLOWED, 1007L);
-          throw new SyntaxCheckerException(Common.ERROR_MESSAGE); 
+          throw new SyntaxCheckerException(errorMessage); 
         }
         
-        // Missing end-"
+        // Missing end-", a single " at the end of the line included
         char c;
-        if ((c = token.charAt(token.length() - 1)) != '"') {
+        if ((c = token.charAt(token.length() - 1)) != '"' || token.length() == 1) {
           markError(MS.EXPECTED_CLOSING_DOUBLE_QUOTE + c + "'", 1008L);
-          throw new SyntaxCheckerException(Common.ERROR_MESSAGE);
+          throw new SyntaxCheckerException(errorMessage);
         }
       
         c = areAllAlphaNumPlusChar();
         if (c != ' ') {
           markError(MS.INVALID_STRING + c +"'", 1009L);
-          throw new SyntaxCheckerException(Common.ERROR_MESSAGE);
+          throw new SyntaxCheckerException(errorMessage);
         }
         
         writeBytes();    // Errors 1010L, 1011L
@@ -359,20 +419,20 @@ public class SyntaxChecker {
 	      else {
 	        markError(MS.EXPECTED_MNEMONIC_DIRECTIVE_COMMENT, 4L);
 	      }
-	      throw new SyntaxCheckerException(Common.ERROR_MESSAGE);
+	      throw new SyntaxCheckerException(errorMessage);
 	    }
 
 	    // See if label is a hex number only
       if (token.length() == 3) {
         if (isHexNumber(token.substring(0, 2))) {
           markError(MS.LABEL_MUST_NOT_BE_HEX + token.substring(0, 2), 19L);
-          throw new SyntaxCheckerException(Common.ERROR_MESSAGE);
+          throw new SyntaxCheckerException(errorMessage);
         }
       }
       if (token.length() == 2) {
         if (isHexNumber(token.substring(0, 1))) {
           markError(MS.LABEL_MUST_NOT_BE_HEX + token.substring(0, 1), 20L);
-          throw new SyntaxCheckerException(Common.ERROR_MESSAGE);
+          throw new SyntaxCheckerException(errorMessage);
         }
       }
 
@@ -383,14 +443,14 @@ public class SyntaxChecker {
 	    if (labels.contains(token.toUpperCase())) {
 	      // No duplicate labels allowed
 	      markError(MS.DUPLICATE_LABEL_NAMES_NOT_ALLOWED, 5L);
-	      throw new SyntaxCheckerException(Common.ERROR_MESSAGE);
+	      throw new SyntaxCheckerException(errorMessage);
 	    }
 	    
 	    // See if multiple labels per line
 	    else if (numOfLabelsPerLine != 0) {
 	      // More than 1 label per line
 	      markError(MS.ONLY_ONE_LABEL_PER_LINE, 6L);
-	      throw new SyntaxCheckerException(Common.ERROR_MESSAGE);    
+	      throw new SyntaxCheckerException(errorMessage);    
 	    }
 	    else {
 	      // Enter a label into labels list
@@ -398,8 +458,9 @@ public class SyntaxChecker {
 	      // Enter the label's address into labelrefs list
 	      labelrefs.add(ramLocator);
 	      // Remember line number
-	      String lineStr = Common.getToken(tokenListIndex - 2);
+	      String lineStr = context.getToken(tokenListIndex - 2);
 	      labelLinenum.add(lineStr);
+	      labelAbsolute.add(false);
 	      numOfLabelsPerLine++;
 	      return true;
 	    }
@@ -475,8 +536,8 @@ public class SyntaxChecker {
         // case 14:  break;
         // etc.
         default:
-          Common.ERROR_MESSAGE = MS.ERROR_IN_ISMNEMONIC;
-          throw new SyntaxCheckerException(Common.ERROR_MESSAGE);
+          errorMessage = MS.ERROR_IN_ISMNEMONIC;
+          throw new SyntaxCheckerException(errorMessage);
         }
         // Mnemonic, parameters all ok
         return true;
@@ -484,13 +545,13 @@ public class SyntaxChecker {
       else {
         // More than 1 mnemonic per line
         markError(MS.ONLY_ONE_MNEMONIC_PER_LINE, 7L);
-        throw new SyntaxCheckerException(Common.ERROR_MESSAGE);
+        throw new SyntaxCheckerException(errorMessage);
       }
     }
     else {
       // No mnemonic found
       markError(MS.EXPECTED_MNEMONIC + token + "'", 8L);
-      throw new SyntaxCheckerException(Common.ERROR_MESSAGE);
+      throw new SyntaxCheckerException(errorMessage);
     }
   }
 
@@ -564,13 +625,13 @@ public class SyntaxChecker {
         int opcode = Integer.parseInt(commandHexGroupList.get(groupNum).get(i), HEX_BASE);
         
         // Adjust opcode in ram
-        memory.getRam()[ramLocator - nofCommandBytes] = opcode;
+        memory.write(ramLocator - nofCommandBytes, opcode);
         return;
       }
     }
     // Should never reach this line
-    Common.ERROR_MESSAGE = MS.ERROR_IN_PICK_ADDRESS_MODE_VARIANT;
-    throw new SyntaxCheckerException(Common.ERROR_MESSAGE);
+    errorMessage = MS.ERROR_IN_PICK_ADDRESS_MODE_VARIANT;
+    throw new SyntaxCheckerException(errorMessage);
   }
   
   
@@ -665,7 +726,7 @@ public class SyntaxChecker {
     
     if (isNewline()) {
       markError(MS.EXPECTED_SYMBOL, 300L);
-      throw new SyntaxCheckerException(Common.ERROR_MESSAGE);
+      throw new SyntaxCheckerException(errorMessage);
     }
 
     if (isSymbol3()) {
@@ -679,8 +740,8 @@ public class SyntaxChecker {
     }
     else {
       // Should never reach this line
-      Common.ERROR_MESSAGE = MS.ERROR_IN_CHECKMNEMONICGROUP_3;
-      throw new SyntaxCheckerException(Common.ERROR_MESSAGE);
+      errorMessage = MS.ERROR_IN_CHECKMNEMONICGROUP_3;
+      throw new SyntaxCheckerException(errorMessage);
     }
   }
   
@@ -698,11 +759,11 @@ public class SyntaxChecker {
   private void ifNewlineThrowCheckerException(String message, long errNum0, long errNum1) throws SyntaxCheckerException {
     if (isNewline()) {
       markError(message, errNum0);
-      throw new SyntaxCheckerException(Common.ERROR_MESSAGE);
+      throw new SyntaxCheckerException(errorMessage);
     }
     else {
       markError(message + ", got '" + token + "'", errNum1);
-      throw new SyntaxCheckerException(Common.ERROR_MESSAGE);
+      throw new SyntaxCheckerException(errorMessage);
     }
   }
   
@@ -718,7 +779,7 @@ public class SyntaxChecker {
   private void ifNotNewlineNotCommentThrowCheckerException(long errNum) throws SyntaxCheckerException {
     if (!(isNewline() || isComment())) {
       markError(MS.EXPECTED_COMMENT + token + "'", errNum);
-      throw new SyntaxCheckerException(Common.ERROR_MESSAGE);
+      throw new SyntaxCheckerException(errorMessage);
     }
   }
   
@@ -805,8 +866,8 @@ public class SyntaxChecker {
     }
     else {
       // Should never reach this line
-      Common.ERROR_MESSAGE = MS.ERROR_IN_CHECKMNEMONICGROUP_4;
-      throw new SyntaxCheckerException(Common.ERROR_MESSAGE);
+      errorMessage = MS.ERROR_IN_CHECKMNEMONICGROUP_4;
+      throw new SyntaxCheckerException(errorMessage);
     }
   }
   
@@ -980,8 +1041,8 @@ public class SyntaxChecker {
     }
     else {
       // Should never reach this line
-      Common.ERROR_MESSAGE = MS.ERROR_IN_CHECKMNEMONICGROUP_5;
-      throw new SyntaxCheckerException(Common.ERROR_MESSAGE);
+      errorMessage = MS.ERROR_IN_CHECKMNEMONICGROUP_5;
+      throw new SyntaxCheckerException(errorMessage);
     }
   }
 
@@ -1047,8 +1108,8 @@ public class SyntaxChecker {
     }
     else {
       // Should never reach this line
-      Common.ERROR_MESSAGE = MS.ERROR_IN_CHECKMNEMONICGROUP_6;
-      throw new SyntaxCheckerException(Common.ERROR_MESSAGE);
+      errorMessage = MS.ERROR_IN_CHECKMNEMONICGROUP_6;
+      throw new SyntaxCheckerException(errorMessage);
     }
   }
   
@@ -1132,7 +1193,7 @@ public class SyntaxChecker {
     
     if (isNewline()) {
       markError(MS.EXPECTED_SYMBOL, 800L);
-      throw new SyntaxCheckerException(Common.ERROR_MESSAGE);
+      throw new SyntaxCheckerException(errorMessage);
     }
 
     if (isSymbol8()) {
@@ -1146,8 +1207,8 @@ public class SyntaxChecker {
     }
     else {
       // Should never reach this line
-      Common.ERROR_MESSAGE = MS.ERROR_IN_CHECKMNEMONICGROUP_8;
-      throw new SyntaxCheckerException(Common.ERROR_MESSAGE);
+      errorMessage = MS.ERROR_IN_CHECKMNEMONICGROUP_8;
+      throw new SyntaxCheckerException(errorMessage);
     }
   }
 
@@ -1398,58 +1459,82 @@ public class SyntaxChecker {
    */
   private void writeByte(int hex) throws SyntaxCheckerException {
     // First test if RAM space exceeded
-    if (ramLocator > 0xFF) {
+    if (ramLocator >= memory.getSize()) {
       markError(MS.RAM_SPACE_EXCEEDED, 12L);
-      throw new SyntaxCheckerException(Common.ERROR_MESSAGE);
+      throw new SyntaxCheckerException(errorMessage);
     }
     // Test if code is already allocated in RAM
-    else if (memory.getUsedRamSlots()[ramLocator]) {
-      markError(MS.DUPLICATE_RAM_ALLOCATION + Common.toHexByteString(ramLocator), 13L);
-      throw new SyntaxCheckerException(Common.ERROR_MESSAGE);
-    }
-    else {
-      // Write opcode, mark allocation field and increment RAM locator
-      memory.getRam()[ramLocator] = hex;
-      memory.getUsedRamSlots()[ramLocator] = true;
-      ramLocator++;
-    }
+    Memory.Segment claimed = memory.getSegmentAt(ramLocator);
+    if (claimed != null) {
+      markError(duplicateRamAllocationMessage(ramLocator, claimed), 13L);
+      throw new SyntaxCheckerException(errorMessage);
+    }
+    // Write opcode, mark allocation region and increment RAM locator
+    memory.allocate(ramLocator, hex, currentLinenum());
+    ramLocator++;
   }
 
   
   /**
    * Write DB string bytes into RAM.
+   * The whole string is checked against allocated regions at once. An
+   * overlap always lies within RAM and is therefore reported before a
+   * RAM space exceeded.
    * 
    * @throws SyntaxCheckerException if context error found
    */
   private void writeBytes() throws SyntaxCheckerException {
     String str = token.substring(1, token.length() - 1);
+    // Test if any byte of the string is already allocated in RAM
+    Memory.Segment claimed = memory.findOverlap(ramLocator, str.length());
+    if (claimed != null) {
+      int address = Math.max(ramLocator, claimed.getStart());
+      markError(duplicateRamAllocationMessage(address, claimed), 1011L);
+      throw new SyntaxCheckerException(errorMessage);
+    }
+    // Test if RAM space exceeded
+    if (ramLocator + str.length() > memory.getSize()) {
+      markError(MS.RAM_SPACE_EXCEEDED, 1010L);
+      throw new SyntaxCheckerException(errorMessage);
+    }
+    // Mark used RAM region, write chars and increment RAM locator
+    memory.claim(ramLocator, str.length(), currentLinenum());
     for (int i = 0; i < str.length(); ++i) {
-      // First test if RAM space exceeded
-      if (ramLocator > 0xFF) {
-        markError(MS.RAM_SPACE_EXCEEDED, 1010L);
-        throw new SyntaxCheckerException(Common.ERROR_MESSAGE);
-      }
-      // Test if code is already allocated in RAM
-      else if (memory.getUsedRamSlots()[ramLocator]) {
-        markError(
-          MS.DUPLICATE_RAM_ALLOCATION + Common.toHexByteString(ramLocator), 1011L);
-        throw new SyntaxCheckerException(Common.ERROR_MESSAGE);
-      }
-      else {
-        // Write opcode, mark used RAM slots and increment RAM locator
-        memory.getRam()[ramLocator] = str.charAt(i);
-        memory.getUsedRamSlots()[ramLocator] = true;
-        ramLocator++;
-      }
+      memory.write(ramLocator, str.charAt(i));
+      ramLocator++;
     }
   }
+  
+  
+  /**
+   * Answer the message for a duplicate RAM allocation, naming the region
+   * already allocated and the line which claimed it.
+   * 
+   * @param address The address of the duplicate allocation
+   * @param claimed The region already allocated
+   * @return the message
+   */
+  private String duplicateRamAllocationMessage(int address, Memory.Segment claimed) {
+    return MS.DUPLICATE_RAM_ALLOCATION + toHexAddressString(address) + MS.REGION_ALLOCATED_BY
+        + toHexAddressString(claimed.getStart()) + ".." + toHexAddressString(claimed.getEnd() - 1) + MS.IN_LINE + claimed.getLinenum() + ")";
+  }
+  
+  
+  /**
+   * Answer the line number of the current token.
+   * 
+   * @return the line number
+   */
+  private int currentLinenum() {
+    return Integer.parseInt(context.getToken(tokenListIndex - 2));
+  }
 
   
   /**
    * Grab next token.
    */
   private void nextToken() {
-    token = Common.getToken(tokenListIndex += 3);   // Token in every third slot
+    token = context.getToken(tokenListIndex += 3);   // Token in every third slot
   }
   
   
@@ -1463,7 +1548,51 @@ public class SyntaxChecker {
     if (string.length() > 2) {
       return false;
     }
-    return (Pattern.matches("[0-9A-F]+", string.toUpperCase()));
+    return (Common.isHexDigits(string.toUpperCase()));
+  }
+  
+  
+  /**
+   * Test if token is a hex address within the address space, i.e. a hex
+   * number with up to as many digits as the highest address has.
+   * 
+   * @param string The hex address string candidate
+   * @return true if hex, format and range ok, else answer false
+   */
+  private boolean isAddress(String string) {
+    if (string.length() > Common.addressDigits(memory.getSize())) {
+      return false;
+    }
+    if (!Common.isHexDigits(string.toUpperCase())) {
+      return false;
+    }
+    return Integer.parseInt(string, HEX_BASE) < memory.getSize();
+  }
+  
+  
+  /**
+   * Answer the message for an expected address. The classic 256 bytes RAM
+   * keeps the message used for hex numbers.
+   * 
+   * @return the message
+   */
+  private String expectedAddressMessage() {
+    if (memory.getSize() == Memory.DEFAULT_SIZE) {
+      return MS.EXPECTED_HEX;
+    }
+    return MS.EXPECTED_ADDRESS + toHexAddressString(memory.getSize() - 1) + ")";
+  }
+  
+  
+  /**
+   * Convert an address into a hex string wide enough for the address space
+   * of this checker.
+   * 
+   * @param address The address
+   * @return the hex string
+   */
+  private String toHexAddressString(int address) {
+    return Common.toHexString(address, Common.addressDigits(memory.getSize()));
   }
   
   
@@ -1520,8 +1649,8 @@ public class SyntaxChecker {
       }
     }
     // Should never reach this line
-    Common.ERROR_MESSAGE = MS.ERROR_IN_GETREGISTERCODE;
-    throw new SyntaxCheckerException(Common.ERROR_MESSAGE);
+    errorMessage = MS.ERROR_IN_GETREGISTERCODE;
+    throw new SyntaxCheckerException(errorMessage);
   }
   
 
@@ -1535,9 +1664,9 @@ public class SyntaxChecker {
   private boolean isSymbol3() throws SyntaxCheckerException {
     // See if symbol is a hex number only
     if (token.length() == 2 || token.length() == 1) {
-      if (Pattern.matches("[0-9A-F]+", token)) {
+      if (Common.isHexDigits(token)) {
         markError(MS.LABEL_MUST_NOT_BE_HEX, 301L);
-        throw new SyntaxCheckerException(Common.ERROR_MESSAGE);
+        throw new SyntaxCheckerException(errorMessage);
       }
     }
     
@@ -1545,7 +1674,7 @@ public class SyntaxChecker {
     for (char c : INVALID_SYMBOLCHAR_ARRAY) {
       if (token.contains("" + c)) {
         markError(MS.INVALID_CHAR_IN_SYMBOL + c + "'", 302L);
-        throw new SyntaxCheckerException(Common.ERROR_MESSAGE);
+        throw new SyntaxCheckerException(errorMessage);
       }
     }
 
@@ -1554,8 +1683,9 @@ public class SyntaxChecker {
     // Enter the symbols's address into labelrefs list
     labelrefs.add(ramLocator);
     // Remember line number
-    String lineStr = Common.getToken(tokenListIndex - 2);
+    String lineStr = context.getToken(tokenListIndex - 2);
     labelLinenum.add(lineStr);
+    labelAbsolute.add(false);
 
     return true;
   }
@@ -1571,9 +1701,9 @@ public class SyntaxChecker {
   private boolean isSymbol8() throws SyntaxCheckerException {
     // See if symbol is a hex number only
     if (token.length() == 2 || token.length() == 1) {
-      if (Pattern.matches("[0-9A-F]+", token)) {
+      if (Common.isHexDigits(token)) {
         markError(MS.LABEL_MUST_NOT_BE_HEX, 301L);
-        throw new SyntaxCheckerException(Common.ERROR_MESSAGE);
+        throw new SyntaxCheckerException(errorMessage);
       }
     }
     
@@ -1581,17 +1711,18 @@ public class SyntaxChecker {
     for (char c : INVALID_SYMBOLCHAR_ARRAY) {
       if (token.contains("" + c)) {
         markError(MS.INVALID_CHAR_IN_SYMBOL + c + "'", 302L);
-        throw new SyntaxCheckerException(Common.ERROR_MESSAGE);
+        throw new SyntaxCheckerException(errorMessage);
       }
     }
 
     // Enter the symbol into labels list
     labels.add(token.toUpperCase());
-    // Or 0xFF00 to mark that the absolute address for JPA should be used
-    labelrefs.add(ramLocator | 0xFF00);
+    labelrefs.add(ramLocator);
     // Remember line number
-    String lineStr = Common.getToken(tokenListIndex - 2);
+    String lineStr = context.getToken(tokenListIndex - 2);
     labelLinenum.add(lineStr);
+    // Mark that the absolute address for JPA should be used
+    labelAbsolute.add(true);
 
     return true;
   }
@@ -1607,27 +1738,27 @@ public class SyntaxChecker {
     for (char c : INVALID_LABELCHAR_ARRAY) {
       if (token.contains("" + c)) {
         markError(MS.INVALID_CHAR_IN_SYMBOL + c + "'", 22L);
-        throw new SyntaxCheckerException(Common.ERROR_MESSAGE);
+        throw new SyntaxCheckerException(errorMessage);
       }
     }
   }
     
  
   /**
-   * Mark an error and store it in the global variable Common.ERROR_MESSAGE.
+   * Mark an error and store its message.
    * 
    * @param linenum The number of the line the error was found in
    * @param message The error message for this error
    */
   private void markError(String message, long errorNum) {
-    String lineStr = Common.getToken(tokenListIndex - 2);
+    String lineStr = context.getToken(tokenListIndex - 2);
     this.errorNum = errorNum;
     
-    Common.ERROR_MESSAGE = Common.title + " " + Common.version + "\n\n" +
+    errorMessage = Common.title + " " + Common.version + "\n\n" +
         "Line " + lineStr + ": " + message;
 
     if (Debug.SC_ON) { 
-       Common.ERROR_MESSAGE += "\n{error: " + errorNum + "}";
+       errorMessage += "\n{error: " + errorNum + "}";
     }
   }
   
@@ -1659,10 +1790,15 @@ public class SyntaxChecker {
           // See if they match
           if (ref.equals(lbl)) {
             // Offset or absolute address?
-            if ((symbolAddr & 0xFF00) == 0xFF00) {
-              // Absolute jump address symbol
-              symbolAddr &= 0xFF;
-              memory.getRam()[symbolAddr] = labelAddr;
+            if (labelAbsolute.get(loc)) {
+              // Absolute jump address symbol, must fit into one byte
+              if (labelAddr > 0xFF) {
+                String linenum = labelLinenum.get(pos);
+                errorMessage = "\nLine " + linenum + ": Label '" + labels.get(pos) + "' not reachable";
+                errorNum = 28L;
+                throw new SyntaxCheckerException(errorMessage);
+              }
+              memory.write(symbolAddr, labelAddr);
               labelrefs.set(loc, USED);
             }
             else {
@@ -1671,15 +1807,15 @@ public class SyntaxChecker {
               // Label reachable?
               if (relDisplacement < -128 || relDisplacement >= 128) {
                 String linenum = labelLinenum.get(pos);
-                Common.ERROR_MESSAGE = "\nLine " + linenum + ": Label '" + labels.get(pos) + "' not reachable";
+                errorMessage = "\nLine " + linenum + ": Label '" + labels.get(pos) + "' not reachable";
                 errorNum = 28L;
-                throw new SyntaxCheckerException(Common.ERROR_MESSAGE);
+                throw new SyntaxCheckerException(errorMessage);
               }
               // Forward or backward jump?
               if (relDisplacement < 0) {
                 relDisplacement += 0x100;
               }
-              memory.getRam()[symbolAddr] = relDisplacement;
+              memory.write(symbolAddr, relDisplacement);
               labelrefs.set(loc, USED);
             }
           }
@@ -1692,9 +1828,9 @@ public class SyntaxChecker {
       if (labelrefs.get(pos) != USED) {
         String linenum = labelLinenum.get(pos);
 
-        Common.ERROR_MESSAGE = "\nLine " + linenum + MS.CANNOT_FIND_LABEL_FOR_SYMBOL + labels.get(pos) + "'";
+        errorMessage = "\nLine " + linenum + MS.CANNOT_FIND_LABEL_FOR_SYMBOL + labels.get(pos) + "'";
         errorNum = 24L;
-        throw new SyntaxCheckerException(Common.ERROR_MESSAGE);
+        throw new SyntaxCheckerException(errorMessage);
       }
     }
   }
@@ -1703,10 +1839,24 @@ public class SyntaxChecker {
   
   // Methods for testing
   public String getErrorMessage() {
-    return Common.ERROR_MESSAGE;
+    return errorMessage;
   }
   
   public long getErrorNum() {
     return errorNum;
   }
+
+
+  /**
+   * Answer the number of labels defined, i.e. "LABEL:" entries.
+   */
+  public int getNofLabels() {
+    int nofLabels = 0;
+    for (String label : labels) {
+      if (label.endsWith(":")) {
+        ++nofLabels;
+      }
+    }
+    return nofLabels;
+  }
 }
@@ -0,0 +1,318 @@
+package assembler;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import assembler.support.AsmFileReader;
+import assembler.support.Common;
+
+
+/**
+ * The class ThroughputBenchmark assembles every *.asm file below a directory
+ * a number of times on a number of threads and reports the throughput, the
+ * latency quantiles per file, the heap growth and the time per phase, e.g.
+ * for capacity planning or to compare releases:
+ *   java -cp IKVMassembler.jar assembler.ThroughputBenchmark assemblertests 20 4
+ *
+ * The files are read before the measurement, files which do not assemble are
+ * measured as well and counted as failures. Messages of the assembler are
+ * suppressed while measuring.
+ *
+ * @author ruedi.mueller
+ */
+public class ThroughputBenchmark {
+  // Defaults of the command line arguments
+  public static final int DEFAULT_ITERATIONS = 10;
+  public static final int DEFAULT_THREADS = 1;
+
+  // The sources and their names
+  private final List<String> names = new ArrayList<String>();
+  private final List<String> sources = new ArrayList<String>();
+  // The instruction set shared by all runs
+  private final GroupListBuilder groupListBuilder;
+  // The size of the address space
+  private final int ramSize;
+
+  // Results of the last run
+  private long[] latencies = new long[0];
+  private long elapsedNanos;
+  private int nofFailures;
+  private long heapBefore;
+  private long heapAfter;
+  private long heapPeak;
+  private final MetricsAggregator aggregator = new MetricsAggregator();
+
+
+  /**
+   * Run the benchmark.
+   *
+   * @param args The directory, optionally followed by the number of
+   *             iterations (default 10), the number of threads (default 1)
+   *             and the RAM size in hex (default 100)
+   */
+  public static void main(String[] args) throws Exception {
+    if (args.length < 1) {
+      System.err.println("Usage: ThroughputBenchmark directory [iterations [threads [ramSize]]]");
+      return;
+    }
+    int iterations = (args.length > 1) ? Integer.parseInt(args[1]) : DEFAULT_ITERATIONS;
+    int nofThreads = (args.length > 2) ? Integer.parseInt(args[2]) : DEFAULT_THREADS;
+
+    GroupListBuilder groupListBuilder = InstructionSetDescriptor.loadOrParse();
+    ThroughputBenchmark benchmark;
+    try {
+      int ramSize = (args.length > 3) ? Integer.parseInt(args[3], 16) : Memory.DEFAULT_SIZE;
+      benchmark = new ThroughputBenchmark(groupListBuilder, ramSize);
+    }
+    catch (IllegalArgumentException iae) {
+      // A RAM size not in hex (NumberFormatException) or out of range
+      System.err.println("Invalid RAM size: " + args[3]);
+      System.err.println("Usage: ThroughputBenchmark directory [iterations [threads [ramSize]]]");
+      System.err.println("  ramSize in hex, 1.." + Integer.toHexString(Memory.MAX_SIZE).toUpperCase()
+          + ", default " + Integer.toHexString(Memory.DEFAULT_SIZE).toUpperCase());
+      System.exit(1);
+      return;
+    }
+    benchmark.addDirectory(Paths.get(args[0]));
+    if (benchmark.getNofFiles() == 0) {
+      System.err.println("No *.asm files found in " + args[0]);
+      return;
+    }
+    System.out.println(Common.title + " " + Common.version + " throughput: " + benchmark.getNofFiles()
+        + " files, " + iterations + " iterations, " + nofThreads + " threads");
+    // Warm up the JIT compiler with a single iteration
+    benchmark.run(1, nofThreads);
+    benchmark.run(iterations, nofThreads);
+    System.out.print(benchmark.report());
+  }
+
+
+  /**
+   * Instantiate a benchmark without files.
+   *
+   * @param groupListBuilder The instruction set
+   * @param ramSize The size of the address space (1..Memory.MAX_SIZE)
+   */
+  public ThroughputBenchmark(GroupListBuilder groupListBuilder, int ramSize) {
+    if (ramSize <= 0 || ramSize > Memory.MAX_SIZE) {
+      throw new IllegalArgumentException("Invalid RAM size: " + ramSize);
+    }
+    this.groupListBuilder = groupListBuilder;
+    this.ramSize = ramSize;
+  }
+
+
+  /**
+   * Add a source.
+   *
+   * @param name The name of the source
+   * @param asmString The source
+   */
+  public void add(String name, String asmString) {
+    names.add(name);
+    sources.add(asmString);
+  }
+
+
+  /**
+   * Add the *.asm files below the specified directory in the order of their
+   * paths.
+   *
+   * @param directory The directory
+   * @throws IOException if the directory or a file cannot be read
+   */
+  public void addDirectory(Path directory) throws IOException {
+    final List<Path> files = new ArrayList<Path>();
+    Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+        if (attrs.isRegularFile() && file.getFileName().toString().toLowerCase().endsWith(".asm")) {
+          files.add(file);
+        }
+        return FileVisitResult.CONTINUE;
+      }
+    });
+    Collections.sort(files);
+    AsmFileReader reader = new AsmFileReader(StandardCharsets.UTF_8);
+    for (Path file : files) {
+      String asmString = reader.execute(file.toString());
+      if (asmString == null) {
+        throw new IOException(reader.getErrorMessage());
+      }
+      add(file.toString(), asmString);
+    }
+  }
+
+
+  /**
+   * Assemble all sources the specified number of times. The sources are
+   * taken in turns by the threads.
+   *
+   * @param iterations The number of times each source is assembled
+   * @param nofThreads The number of threads
+   * @throws InterruptedException if interrupted while waiting for the threads
+   */
+  public void run(int iterations, int nofThreads) throws InterruptedException {
+    if (iterations < 1 || nofThreads < 1) {
+      throw new IllegalArgumentException("Iterations and threads must be positive");
+    }
+    final int nofRuns = iterations * sources.size();
+    final long[] runLatencies = new long[nofRuns];
+    final AtomicInteger next = new AtomicInteger();
+    final AtomicInteger failures = new AtomicInteger();
+    aggregator.reset();
+
+    heapBefore = usedHeapAfterGc();
+    resetPeakUsage();
+    ExecutorService pool = Executors.newFixedThreadPool(nofThreads);
+    long start = System.nanoTime();
+    for (int t = 0; t < nofThreads; ++t) {
+      pool.execute(new Runnable() {
+        @Override
+        public void run() {
+          AssemblyMetrics metrics = new AssemblyMetrics();
+          for (int i = next.getAndIncrement(); i < nofRuns; i = next.getAndIncrement()) {
+            int file = i % sources.size();
+            long startRun = System.nanoTime();
+            Assembler asm = new Assembler(names.get(file), ramSize);
+            asm.setOutput(null);
+            if (!asm.execute(sources.get(file), groupListBuilder, metrics)) {
+              failures.incrementAndGet();
+            }
+            runLatencies[i] = System.nanoTime() - startRun;
+            aggregator.record(metrics);
+          }
+        }
+      });
+    }
+    pool.shutdown();
+    pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    elapsedNanos = System.nanoTime() - start;
+    heapPeak = peakUsage();
+    heapAfter = usedHeapAfterGc();
+    Arrays.sort(runLatencies);
+    latencies = runLatencies;
+    nofFailures = failures.get() / iterations;
+  }
+
+
+  // Getters of the results of the last run
+  public int getNofFiles() {
+    return sources.size();
+  }
+
+  public int getNofRuns() {
+    return latencies.length;
+  }
+
+  /**
+   * Answer the number of files which did not assemble.
+   */
+  public int getNofFailures() {
+    return nofFailures;
+  }
+
+  public double getFilesPerSecond() {
+    return (elapsedNanos == 0) ? 0 : latencies.length * 1e9 / elapsedNanos;
+  }
+
+  /**
+   * Answer the specified quantile of the time to assemble a file.
+   *
+   * @param quantile The quantile, e.g. 0.99
+   * @return the time in nanoseconds, 0 if not run yet
+   */
+  public long getLatencyNanos(double quantile) {
+    if (latencies.length == 0) {
+      return 0;
+    }
+    int rank = (int) Math.ceil(quantile * latencies.length);
+    return latencies[Math.max(0, Math.min(latencies.length, rank) - 1)];
+  }
+
+  /**
+   * Answer the growth of the heap used after garbage collection.
+   */
+  public long getHeapGrowth() {
+    return heapAfter - heapBefore;
+  }
+
+  public long getHeapPeak() {
+    return heapPeak;
+  }
+
+  public MetricsAggregator getAggregator() {
+    return aggregator;
+  }
+
+
+  /**
+   * Answer the report of the last run.
+   */
+  public String report() {
+    StringBuilder sb = new StringBuilder();
+    sb.append(String.format("files/sec   %12.1f%n", getFilesPerSecond()));
+    sb.append(String.format("runs        %12d (%d files failing)%n", getNofRuns(), getNofFailures()));
+    sb.append(String.format("elapsed     %12.3f ms%n", elapsedNanos / 1e6));
+    sb.append(String.format("p50         %12.3f ms%n", getLatencyNanos(0.5) / 1e6));
+    sb.append(String.format("p99         %12.3f ms%n", getLatencyNanos(0.99) / 1e6));
+    sb.append(String.format("max         %12.3f ms%n", getLatencyNanos(1.0) / 1e6));
+    sb.append(String.format("heap before %12d bytes%n", heapBefore));
+    sb.append(String.format("heap after  %12d bytes%n", heapAfter));
+    sb.append(String.format("heap growth %12d bytes%n", getHeapGrowth()));
+    sb.append(String.format("heap peak   %12d bytes%n", heapPeak));
+    sb.append(aggregator);
+    return sb.toString();
+  }
+
+
+  /**
+   * Answer the heap used after a garbage collection.
+   */
+  private static long usedHeapAfterGc() {
+    MemoryMXBean bean = ManagementFactory.getMemoryMXBean();
+    bean.gc();
+    return bean.getHeapMemoryUsage().getUsed();
+  }
+
+
+  private static void resetPeakUsage() {
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+        pool.resetPeakUsage();
+      }
+    }
+  }
+
+
+  /**
+   * Answer the sum of the peak usage of the heap pools since the last reset.
+   */
+  private static long peakUsage() {
+    long peak = 0;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+        peak += pool.getPeakUsage().getUsed();
+      }
+    }
+    return peak;
+  }
+}
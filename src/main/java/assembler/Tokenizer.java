@@ -12,6 +12,8 @@ import assembler.support.*;
  * @author ruedi.mueller
  */
 public class Tokenizer {
+  // The context of the run, receiving the token list
+  private final AssemblerContext context;
   private TokenList tokenList = new TokenList();
   
   // StringBuilder to collect characters while reading file
@@ -21,6 +23,25 @@ public class Tokenizer {
   private int linenum = 1;
   private int linepos = 1;
 
+
+  /**
+   * Instantiate a tokenizer for the context of the assembler constructed or
+   * run last, cp. Common.getContext().
+   */
+  public Tokenizer() {
+    this(Common.getContext());
+  }
+
+
+  /**
+   * Instantiate a tokenizer for the context of a run.
+   * 
+   * @param context The context receiving the token list
+   */
+  public Tokenizer(AssemblerContext context) {
+    this.context = context;
+  }
+
   
   /**
    * Read assembler source file (*.asm) and extract tokens into a list.
@@ -105,7 +126,7 @@ public class Tokenizer {
     }
     catch (FileNotFoundException fnfe) {
       System.err.println(
-          "Could not find the assembler file " + Common.getFilename() + "\n" +
+          "Could not find the assembler file " + context.getFilename() + "\n" +
           "Are file name and path correct?\n" +
           "--> exit application"
         );
@@ -124,9 +145,12 @@ public class Tokenizer {
       }
     }
 
-    // Just in case the file doesn't end with a newline
+    // Just in case the file doesn't end with a newline, e.g. ends with a blank
     if (sb.length() != 0 && sb.charAt(sb.length() - 1) != Common.NL.charAt(0)) {
       addTokenEntries();
+      sb = new StringBuilder();
+    }
+    if (tokenList.size() != 0 && !tokenList.get(tokenList.size() - 1).equals(Common.NL)) {
       // Add a newline on same line
       sb = new StringBuilder();
       sb.append(Common.NL);
@@ -134,8 +158,8 @@ public class Tokenizer {
       addTokenEntries();
     }
     
-    // Make result known to Common
-    Common.setTokenList(tokenList);
+    // Make result known to the context
+    context.setTokenList(tokenList);
   }
 
   
@@ -0,0 +1,390 @@
+package assembler.simulator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import assembler.ImageArena;
+import assembler.Memory;
+
+
+/**
+ * The class BatchRunner simulates many assembled programs in parallel, e.g.
+ * to grade student submissions. Each job consists of a RAM image, a script
+ * of input bytes consumed by IN and a step limit. The jobs are split among
+ * the workers of a work-stealing fork/join pool, each job runs on its own
+ * simulator. For large batches the images may stay off the heap in an
+ * ImageArena until their jobs run. Runners not given a pool share a single
+ * pool, i.e. a runner per batch leaves no idle workers behind.
+ *
+ * Example:
+ *   List<BatchRunner.Job> jobs = new ArrayList<BatchRunner.Job>();
+ *   jobs.add(new BatchRunner.Job("bubblesort", memory, new int[0], 10000));
+ *   List<BatchRunner.Result> results = new BatchRunner(table).run(jobs);
+ *
+ * @author ruedi.mueller
+ */
+public class BatchRunner {
+  // Number of jobs run by a task without splitting
+  private static final int SEQUENTIAL_THRESHOLD = 4;
+
+  // The instruction set shared by all simulators
+  private final InstructionTable table;
+  // The pool running the jobs
+  private final ForkJoinPool pool;
+
+
+  /**
+   * The class SharedPool holds the pool of the runners not given a pool. It
+   * is created when first used, as Java 7 has no common pool.
+   */
+  private static final class SharedPool {
+    // One worker per processor, the workers are daemon threads
+    static final ForkJoinPool POOL = new ForkJoinPool();
+  }
+
+
+  /**
+   * A program to be simulated.
+   */
+  public static final class Job {
+    private final String name;
+    // The RAM bytes, null if kept in an arena
+    private final byte[] image;
+    // The arena and the slot of the image, null and -1 if kept in image
+    private final ImageArena arena;
+    private final int slot;
+    private final byte[] input;
+    private final long maxSteps;
+
+    /**
+     * Instantiate a job.
+     *
+     * @param name The name of the job, e.g. the file name
+     * @param memory The memory of the assembled program
+     * @param input The bytes returned by IN in this order, 00 when exhausted
+     * @param maxSteps The maximum number of commands to execute
+     */
+    public Job(String name, Memory memory, int[] input, long maxSteps) {
+      this(name, toImage(memory), input, maxSteps);
+    }
+
+    /**
+     * Instantiate a job.
+     *
+     * @param name The name of the job
+     * @param image The RAM bytes, at most 256
+     * @param input The bytes returned by IN in this order, 00 when exhausted
+     * @param maxSteps The maximum number of commands to execute
+     */
+    public Job(String name, int[] image, int[] input, long maxSteps) {
+      this.name = name;
+      this.image = new byte[Simulator.RAM_SIZE];
+      for (int address = 0; address < Math.min(image.length, Simulator.RAM_SIZE); ++address) {
+        this.image[address] = (byte) image[address];
+      }
+      this.arena = null;
+      this.slot = -1;
+      this.input = toBytes(input);
+      this.maxSteps = maxSteps;
+    }
+
+    /**
+     * Instantiate a job on an image stored in an arena. The image is read
+     * from the arena when the job runs.
+     *
+     * @param name The name of the job
+     * @param arena The arena holding the image
+     * @param slot The slot index of the image, cp. ImageArena.store()
+     * @param input The bytes returned by IN in this order, 00 when exhausted
+     * @param maxSteps The maximum number of commands to execute
+     * @throws IllegalArgumentException if the slot holds no image
+     */
+    public Job(String name, ImageArena arena, int slot, int[] input, long maxSteps) {
+      if (!arena.isPublished(slot)) {
+        throw new IllegalArgumentException("No image in slot " + slot);
+      }
+      this.name = name;
+      this.image = null;
+      this.arena = arena;
+      this.slot = slot;
+      this.input = toBytes(input);
+      this.maxSteps = maxSteps;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public long getMaxSteps() {
+      return maxSteps;
+    }
+
+    /**
+     * Copy the image into the RAM of a simulator, the bytes beyond it are 00.
+     */
+    void copyImage(byte[] ram) {
+      if (image != null) {
+        System.arraycopy(image, 0, ram, 0, Simulator.RAM_SIZE);
+        return;
+      }
+      Arrays.fill(ram, (byte) 0);
+      arena.copyRam(slot, ram);
+    }
+
+    private static byte[] toBytes(int[] values) {
+      byte[] bytes = new byte[values.length];
+      for (int i = 0; i < values.length; ++i) {
+        bytes[i] = (byte) values[i];
+      }
+      return bytes;
+    }
+
+    private static int[] toImage(Memory memory) {
+      int[] image = new int[Math.min(memory.getSize(), Simulator.RAM_SIZE)];
+      for (int address = 0; address < image.length; ++address) {
+        image[address] = memory.read(address);
+      }
+      return image;
+    }
+  }
+
+
+  /**
+   * The outcome of a job.
+   */
+  public static final class Result {
+    private final String name;
+    private final int status;
+    private final long steps;
+    private final int[] registers;
+    private final int ip;
+    private final int sr;
+    // Changed RAM bytes packed as (address << 16) | (before << 8) | after
+    private final int[] ramDiff;
+    private final byte[] output;
+
+    Result(Job job, byte[] image, Simulator simulator, byte[] output) {
+      this.name = job.name;
+      this.status = simulator.getStatus();
+      this.steps = simulator.getSteps();
+      this.registers = Arrays.copyOf(simulator.reg, Simulator.NOF_REGISTERS);
+      this.ip = simulator.getIp();
+      this.sr = simulator.getSr();
+      int nofChanges = 0;
+      int[] diff = new int[Simulator.RAM_SIZE];
+      for (int address = 0; address < Simulator.RAM_SIZE; ++address) {
+        if (simulator.ram[address] != image[address]) {
+          diff[nofChanges++] = (address << 16) | ((image[address] & 0xFF) << 8)
+              | (simulator.ram[address] & 0xFF);
+        }
+      }
+      this.ramDiff = Arrays.copyOf(diff, nofChanges);
+      this.output = output;
+    }
+
+    // Getters
+    public String getName() {
+      return name;
+    }
+
+    public int getStatus() {
+      return status;
+    }
+
+    public long getSteps() {
+      return steps;
+    }
+
+    public int getRegister(int code) {
+      return registers[code];
+    }
+
+    public int getIp() {
+      return ip;
+    }
+
+    public int getSr() {
+      return sr;
+    }
+
+    public int getNofChanges() {
+      return ramDiff.length;
+    }
+
+    public int getChangedAddress(int i) {
+      return ramDiff[i] >> 16;
+    }
+
+    public int getBefore(int i) {
+      return (ramDiff[i] >> 8) & 0xFF;
+    }
+
+    public int getAfter(int i) {
+      return ramDiff[i] & 0xFF;
+    }
+
+    /**
+     * Answer the bytes written by OUT in this order.
+     *
+     * @return the output bytes
+     */
+    public int[] getOutput() {
+      int[] values = new int[output.length];
+      for (int i = 0; i < output.length; ++i) {
+        values[i] = output[i] & 0xFF;
+      }
+      return values;
+    }
+
+    /**
+     * Answer the RAM diff, one line per changed byte, e.g. "C0: 09 -> 81".
+     *
+     * @return the string
+     */
+    public String ramDiffToString() {
+      StringBuilder sb = new StringBuilder();
+      for (int i = 0; i < ramDiff.length; ++i) {
+        sb.append(hex(getChangedAddress(i))).append(": ").append(hex(getBefore(i)))
+            .append(" -> ").append(hex(getAfter(i))).append('\n');
+      }
+      return sb.toString();
+    }
+
+    private static String hex(int value) {
+      return assembler.support.Common.toHexByteString(value);
+    }
+  }
+
+
+  /**
+   * A simulator reading IN from the input script of a job and recording OUT.
+   */
+  private static final class ScriptedSimulator extends Simulator {
+    // The image loaded, to diff the RAM against
+    private final byte[] image = new byte[RAM_SIZE];
+    private byte[] input;
+    private int nofInputs;
+    private byte[] output = new byte[16];
+    private int nofOutputs;
+
+    ScriptedSimulator(InstructionTable table) {
+      super(table);
+    }
+
+    void load(Job job) {
+      job.copyImage(image);
+      System.arraycopy(image, 0, ram, 0, RAM_SIZE);
+      reset();
+      input = job.input;
+      nofInputs = 0;
+      nofOutputs = 0;
+    }
+
+    Result result(Job job) {
+      return new Result(job, image, this, Arrays.copyOf(output, nofOutputs));
+    }
+
+    @Override
+    protected int in(int port) {
+      return (nofInputs < input.length) ? input[nofInputs++] & 0xFF : 0;
+    }
+
+    @Override
+    protected void out(int port, int value) {
+      if (nofOutputs == output.length) {
+        output = Arrays.copyOf(output, 2 * nofOutputs);
+      }
+      output[nofOutputs++] = (byte) value;
+    }
+  }
+
+
+  /**
+   * Instantiate a runner on the pool shared by all runners, with one worker
+   * per processor. The shared pool lives as long as the JVM.
+   *
+   * @param table The instruction set
+   */
+  public BatchRunner(InstructionTable table) {
+    this(table, SharedPool.POOL);
+  }
+
+
+  /**
+   * Instantiate a runner on the specified pool. The pool stays owned by the
+   * caller, i.e. the runner never shuts it down.
+   *
+   * @param table The instruction set
+   * @param pool The pool running the jobs
+   */
+  public BatchRunner(InstructionTable table, ForkJoinPool pool) {
+    this.table = table;
+    this.pool = pool;
+  }
+
+
+  /**
+   * Run the jobs in parallel and wait for all results.
+   *
+   * @param jobs The jobs
+   * @return the results in the order of the jobs
+   */
+  public List<Result> run(List<Job> jobs) {
+    Job[] jobArray = jobs.toArray(new Job[jobs.size()]);
+    Result[] results = new Result[jobArray.length];
+    pool.invoke(new RunTask(jobArray, results, 0, jobArray.length));
+    return Collections.unmodifiableList(new ArrayList<Result>(Arrays.asList(results)));
+  }
+
+
+  /**
+   * Run a single job in the calling thread.
+   *
+   * @param job The job
+   * @return the result
+   */
+  public Result run(Job job) {
+    ScriptedSimulator simulator = new ScriptedSimulator(table);
+    simulator.load(job);
+    simulator.run(job.maxSteps);
+    return simulator.result(job);
+  }
+
+
+  /**
+   * A task running a range of jobs, split in halves until small.
+   */
+  private final class RunTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private final Job[] jobs;
+    private final Result[] results;
+    private final int from;
+    private final int to;
+
+    RunTask(Job[] jobs, Result[] results, int from, int to) {
+      this.jobs = jobs;
+      this.results = results;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= SEQUENTIAL_THRESHOLD) {
+        ScriptedSimulator simulator = new ScriptedSimulator(table);
+        for (int i = from; i < to; ++i) {
+          simulator.load(jobs[i]);
+          simulator.run(jobs[i].maxSteps);
+          results[i] = simulator.result(jobs[i]);
+        }
+        return;
+      }
+      int middle = (from + to) >>> 1;
+      invokeAll(new RunTask(jobs, results, from, middle), new RunTask(jobs, results, middle, to));
+    }
+  }
+}
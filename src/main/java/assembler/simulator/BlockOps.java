@@ -0,0 +1,381 @@
+package assembler.simulator;
+
+
+/**
+ * The class BlockOps implements the commands called by code generated by
+ * BlockTranslator. All methods share the signature
+ *   int op(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next)
+ * with the command parameters p1, p2 and the address of the next command as
+ * constants, and answer the new SR and IP packed as (SR << 8) | IP.
+ * The methods are tiny so the JIT inlines them into the generated block and
+ * folds the constants. They are public because generated classes are defined
+ * by their own class loader.
+ *
+ * Division by a register, IN, OUT, HALT and NEXT are never translated.
+ *
+ * @author ruedi.mueller
+ */
+public final class BlockOps {
+  private static final int FLAG_Z = Simulator.FLAG_Z;
+  private static final int FLAG_O = Simulator.FLAG_O;
+  private static final int FLAG_S = Simulator.FLAG_S;
+  private static final int FLAG_I = Simulator.FLAG_I;
+  private static final int SP = Simulator.SP;
+
+
+  private BlockOps() {
+  }
+
+
+  // Flags of a result, I unchanged
+  private static int flags(int sr, int result) {
+    return (sr & FLAG_I) | (result == 0 ? FLAG_Z : 0) | (result & 0x80) >> 4;
+  }
+
+  // Write RAM and report hooked addresses, e.g. translated code
+  private static void store(Simulator sim, byte[] ram, int address, int value) {
+    ram[address] = (byte) value;
+    if (sim.hooks[address] != 0) {
+      sim.written(address);
+    }
+  }
+
+  // SR and IP packed
+  private static int exit(int sr, int ip) {
+    return (sr << 8) | ip;
+  }
+
+
+  // Shifts and rotates
+  public static int rol(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    int a = reg[p1];
+    int r = ((a << 1) | (a >> 7)) & 0xFF;
+    reg[p1] = r;
+    return exit(flags(sr, r), next);
+  }
+
+  public static int ror(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    int a = reg[p1];
+    int r = ((a >> 1) | (a << 7)) & 0xFF;
+    reg[p1] = r;
+    return exit(flags(sr, r), next);
+  }
+
+  public static int shl(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    int r = (reg[p1] << 1) & 0xFF;
+    reg[p1] = r;
+    return exit(flags(sr, r), next);
+  }
+
+  public static int shr(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    int r = reg[p1] >> 1;
+    reg[p1] = r;
+    return exit(flags(sr, r), next);
+  }
+
+
+  // Unary arithmetic and logic
+  public static int inc(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    int a = reg[p1];
+    int r = (a + 1) & 0xFF;
+    reg[p1] = r;
+    return exit(flags(sr, r) | (a == 0x7F ? FLAG_O : 0), next);
+  }
+
+  public static int dec(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    int a = reg[p1];
+    int r = (a - 1) & 0xFF;
+    reg[p1] = r;
+    return exit(flags(sr, r) | (a == 0x80 ? FLAG_O : 0), next);
+  }
+
+  public static int not(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    int r = ~reg[p1] & 0xFF;
+    reg[p1] = r;
+    return exit(flags(sr, r), next);
+  }
+
+
+  // Binary arithmetic and logic
+  private static int add(int[] reg, int sr, int p1, int b) {
+    int a = reg[p1];
+    int r = (a + b) & 0xFF;
+    reg[p1] = r;
+    return flags(sr, r) | (((a ^ r) & (b ^ r) & 0x80) != 0 ? FLAG_O : 0);
+  }
+
+  private static int sub(int[] reg, int sr, int p1, int b) {
+    int a = reg[p1];
+    int r = (a - b) & 0xFF;
+    reg[p1] = r;
+    return flags(sr, r) | (((a ^ b) & (a ^ r) & 0x80) != 0 ? FLAG_O : 0);
+  }
+
+  private static int mul(int[] reg, int sr, int p1, int b) {
+    int product = reg[p1] * b;
+    int r = product & 0xFF;
+    reg[p1] = r;
+    return flags(sr, r) | (product > 0xFF ? FLAG_O : 0);
+  }
+
+  private static int cmp(int sr, int a, int b) {
+    int r = (a - b) & 0xFF;
+    return flags(sr, r) | (((a ^ b) & (a ^ r) & 0x80) != 0 ? FLAG_O : 0);
+  }
+
+  public static int addRR(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    return exit(add(reg, sr, p1, reg[p2]), next);
+  }
+
+  public static int addRC(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    return exit(add(reg, sr, p1, p2), next);
+  }
+
+  public static int subRR(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    return exit(sub(reg, sr, p1, reg[p2]), next);
+  }
+
+  public static int subRC(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    return exit(sub(reg, sr, p1, p2), next);
+  }
+
+  public static int mulRR(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    return exit(mul(reg, sr, p1, reg[p2]), next);
+  }
+
+  public static int mulRC(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    return exit(mul(reg, sr, p1, p2), next);
+  }
+
+  // Divisor is a constant other than 0
+  public static int divRC(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    int r = reg[p1] / p2;
+    reg[p1] = r;
+    return exit(flags(sr, r), next);
+  }
+
+  public static int modRC(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    int r = reg[p1] % p2;
+    reg[p1] = r;
+    return exit(flags(sr, r), next);
+  }
+
+  public static int andRR(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    int r = reg[p1] & reg[p2];
+    reg[p1] = r;
+    return exit(flags(sr, r), next);
+  }
+
+  public static int andRC(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    int r = reg[p1] & p2;
+    reg[p1] = r;
+    return exit(flags(sr, r), next);
+  }
+
+  public static int orRR(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    int r = reg[p1] | reg[p2];
+    reg[p1] = r;
+    return exit(flags(sr, r), next);
+  }
+
+  public static int orRC(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    int r = reg[p1] | p2;
+    reg[p1] = r;
+    return exit(flags(sr, r), next);
+  }
+
+  public static int xorRR(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    int r = reg[p1] ^ reg[p2];
+    reg[p1] = r;
+    return exit(flags(sr, r), next);
+  }
+
+  public static int xorRC(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    int r = reg[p1] ^ p2;
+    reg[p1] = r;
+    return exit(flags(sr, r), next);
+  }
+
+  public static int cmpRR(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    return exit(cmp(sr, reg[p1], reg[p2]), next);
+  }
+
+  public static int cmpRC(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    return exit(cmp(sr, reg[p1], p2), next);
+  }
+
+  public static int cmpRA(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    return exit(cmp(sr, reg[p1], ram[p2] & 0xFF), next);
+  }
+
+
+  // Jumps, p1 is the target address
+  public static int jmp(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    return exit(sr, p1);
+  }
+
+  public static int jz(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    return exit(sr, (sr & FLAG_Z) != 0 ? p1 : next);
+  }
+
+  public static int jnz(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    return exit(sr, (sr & FLAG_Z) == 0 ? p1 : next);
+  }
+
+  public static int js(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    return exit(sr, (sr & FLAG_S) != 0 ? p1 : next);
+  }
+
+  public static int jns(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    return exit(sr, (sr & FLAG_S) == 0 ? p1 : next);
+  }
+
+  public static int jo(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    return exit(sr, (sr & FLAG_O) != 0 ? p1 : next);
+  }
+
+  public static int jno(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    return exit(sr, (sr & FLAG_O) == 0 ? p1 : next);
+  }
+
+
+  // Subroutines and interrupts
+  public static int call(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    int sp = reg[SP];
+    store(sim, ram, sp, next);
+    reg[SP] = (sp - 1) & 0xFF;
+    return exit(sr, p1);
+  }
+
+  public static int interrupt(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    int sp = reg[SP];
+    store(sim, ram, sp, next);
+    reg[SP] = (sp - 1) & 0xFF;
+    return exit(sr, ram[p1] & 0xFF);
+  }
+
+  public static int ret(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    int sp = (reg[SP] + 1) & 0xFF;
+    reg[SP] = sp;
+    return exit(sr, ram[sp] & 0xFF);
+  }
+
+
+  // Moves
+  public static int movRC(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    reg[p1] = p2;
+    return exit(sr, next);
+  }
+
+  public static int movRA(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    reg[p1] = ram[p2] & 0xFF;
+    return exit(sr, next);
+  }
+
+  public static int movAR(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    store(sim, ram, p1, reg[p2]);
+    return exit(sr, next);
+  }
+
+  public static int movRI(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    reg[p1] = ram[reg[p2]] & 0xFF;
+    return exit(sr, next);
+  }
+
+  public static int movIR(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    store(sim, ram, reg[p1], reg[p2]);
+    return exit(sr, next);
+  }
+
+  public static int movRR(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    reg[p1] = reg[p2];
+    return exit(sr, next);
+  }
+
+  public static int xchg(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    int a = reg[p1];
+    reg[p1] = reg[p2];
+    reg[p2] = a;
+    return exit(sr, next);
+  }
+
+
+  // Stack
+  public static int push(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    int sp = reg[SP];
+    store(sim, ram, sp, reg[p1]);
+    reg[SP] = (sp - 1) & 0xFF;
+    return exit(sr, next);
+  }
+
+  public static int pop(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    int sp = (reg[SP] + 1) & 0xFF;
+    reg[SP] = sp;
+    reg[p1] = ram[sp] & 0xFF;
+    return exit(sr, next);
+  }
+
+  public static int pushf(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    int sp = reg[SP];
+    store(sim, ram, sp, sr);
+    reg[SP] = (sp - 1) & 0xFF;
+    return exit(sr, next);
+  }
+
+  public static int popf(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    int sp = (reg[SP] + 1) & 0xFF;
+    reg[SP] = sp;
+    return exit(ram[sp] & 0xFF, next);
+  }
+
+
+  // Interrupt flag
+  public static int sti(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    return exit(sr | FLAG_I, next);
+  }
+
+  public static int cli(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    return exit(sr & ~FLAG_I, next);
+  }
+
+  public static int nop(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    return exit(sr, next);
+  }
+
+
+  // Memory commands
+  public static int incI(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    int address = reg[p1];
+    int a = ram[address] & 0xFF;
+    int r = (a + 1) & 0xFF;
+    store(sim, ram, address, r);
+    return exit(flags(sr, r) | (a == 0x7F ? FLAG_O : 0), next);
+  }
+
+  public static int decA(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    int a = ram[p1] & 0xFF;
+    int r = (a - 1) & 0xFF;
+    store(sim, ram, p1, r);
+    return exit(flags(sr, r) | (a == 0x80 ? FLAG_O : 0), next);
+  }
+
+  public static int swapA(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    int a = ram[p1] & 0xFF;
+    store(sim, ram, p1, ((a << 4) | (a >> 4)) & 0xFF);
+    return exit(sr, next);
+  }
+
+  public static int clincI(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    int address = reg[p1];
+    reg[p1] = (address + 1) & 0xFF;
+    store(sim, ram, address, 0);
+    return exit(sr, next);
+  }
+
+  public static int cpyd(Simulator sim, byte[] ram, int[] reg, int sr, int p1, int p2, int next) {
+    int a = reg[p1];
+    reg[p1] = (a + 1) & 0xFF;
+    store(sim, ram, (a + p2) & 0xFF, ram[a]);
+    return exit(sr, next);
+  }
+}
@@ -0,0 +1,444 @@
+package assembler.simulator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * The class BlockTranslator translates a basic block of a machine code image
+ * into a JVM class. A basic block is a sequence of commands starting at some
+ * address and ending with the first jump, subroutine call or return, RAM
+ * write, or with a command that must be interpreted (HALT, IN, OUT, NEXT,
+ * division by a register, illegal opcodes and register codes).
+ *
+ * Each command becomes a call of the corresponding BlockOps method with its
+ * parameters as constants, i.e. the generated code is straight-line and the
+ * JIT inlines and optimizes it as a whole. The class file is written directly
+ * (version 49, no stack map frames needed) and defined by a private class
+ * loader, no bytecode library is required.
+ *
+ * @author ruedi.mueller
+ */
+public final class BlockTranslator {
+  // Maximum number of commands per block
+  public static final int MAX_BLOCK_COMMANDS = 64;
+
+  /**
+   * A translated block, implemented by the generated classes.
+   */
+  public interface Block {
+    /**
+     * Execute the block.
+     *
+     * @param sim The simulator
+     * @param ram The RAM of the simulator
+     * @param reg The registers of the simulator
+     * @param sr The status register
+     * @return the new SR and IP packed as (SR << 8) | IP
+     */
+    int execute(Simulator sim, byte[] ram, int[] reg, int sr);
+  }
+
+  /**
+   * A translated block and the RAM range it was translated from.
+   */
+  static final class Translation {
+    final Block block;
+    // Address of the first command
+    final int start;
+    // Number of bytes, the range may wrap around at FF
+    final int length;
+    // Number of commands
+    final int count;
+
+    Translation(Block block, int start, int length, int count) {
+      this.block = block;
+      this.start = start;
+      this.length = length;
+      this.count = count;
+    }
+
+    // Answer whether the block was translated from the specified address
+    boolean covers(int address) {
+      return ((address - start) & 0xFF) < length;
+    }
+  }
+
+  // Kinds of operations
+  private static final int REG1 = 0x01;
+  private static final int REG2 = 0x02;
+  // Ends the block
+  private static final int END = 0x04;
+  // p1 is an offset relative to the command
+  private static final int RELATIVE = 0x08;
+  // p2 is a divisor
+  private static final int DIVISOR = 0x10;
+
+  // BlockOps method and kind of each operation, null if not translated
+  private static final String[] METHODS = new String[InstructionTable.NOF_OPERATIONS];
+  private static final int[] KINDS = new int[InstructionTable.NOF_OPERATIONS];
+
+  static {
+    define(InstructionTable.ROL, "rol", REG1);
+    define(InstructionTable.ROR, "ror", REG1);
+    define(InstructionTable.SHL, "shl", REG1);
+    define(InstructionTable.SHR, "shr", REG1);
+    define(InstructionTable.INC, "inc", REG1);
+    define(InstructionTable.DEC, "dec", REG1);
+    define(InstructionTable.NOT, "not", REG1);
+    define(InstructionTable.ADD_RR, "addRR", REG1 | REG2);
+    define(InstructionTable.SUB_RR, "subRR", REG1 | REG2);
+    define(InstructionTable.MUL_RR, "mulRR", REG1 | REG2);
+    define(InstructionTable.AND_RR, "andRR", REG1 | REG2);
+    define(InstructionTable.OR_RR, "orRR", REG1 | REG2);
+    define(InstructionTable.XOR_RR, "xorRR", REG1 | REG2);
+    define(InstructionTable.ADD_RC, "addRC", REG1);
+    define(InstructionTable.SUB_RC, "subRC", REG1);
+    define(InstructionTable.MUL_RC, "mulRC", REG1);
+    define(InstructionTable.DIV_RC, "divRC", REG1 | DIVISOR);
+    define(InstructionTable.MOD_RC, "modRC", REG1 | DIVISOR);
+    define(InstructionTable.AND_RC, "andRC", REG1);
+    define(InstructionTable.OR_RC, "orRC", REG1);
+    define(InstructionTable.XOR_RC, "xorRC", REG1);
+    define(InstructionTable.CMP_RR, "cmpRR", REG1 | REG2);
+    define(InstructionTable.CMP_RC, "cmpRC", REG1);
+    define(InstructionTable.CMP_RA, "cmpRA", REG1);
+    define(InstructionTable.JMP, "jmp", END | RELATIVE);
+    define(InstructionTable.JZ, "jz", END | RELATIVE);
+    define(InstructionTable.JNZ, "jnz", END | RELATIVE);
+    define(InstructionTable.JS, "js", END | RELATIVE);
+    define(InstructionTable.JNS, "jns", END | RELATIVE);
+    define(InstructionTable.JO, "jo", END | RELATIVE);
+    define(InstructionTable.JNO, "jno", END | RELATIVE);
+    define(InstructionTable.JPA, "jmp", END);
+    define(InstructionTable.CALL, "call", END);
+    define(InstructionTable.INT, "interrupt", END);
+    define(InstructionTable.RET, "ret", END);
+    define(InstructionTable.IRET, "ret", END);
+    define(InstructionTable.MOV_RC, "movRC", REG1);
+    define(InstructionTable.MOV_RA, "movRA", REG1);
+    define(InstructionTable.MOV_AR, "movAR", REG2 | END);
+    define(InstructionTable.MOV_RI, "movRI", REG1 | REG2);
+    define(InstructionTable.MOV_IR, "movIR", REG1 | REG2 | END);
+    define(InstructionTable.MOV_RR, "movRR", REG1 | REG2);
+    define(InstructionTable.XCHG, "xchg", REG1 | REG2);
+    define(InstructionTable.PUSH, "push", REG1 | END);
+    define(InstructionTable.POP, "pop", REG1);
+    define(InstructionTable.PUSHF, "pushf", END);
+    define(InstructionTable.POPF, "popf", 0);
+    define(InstructionTable.STI, "sti", 0);
+    define(InstructionTable.CLI, "cli", 0);
+    define(InstructionTable.NOP, "nop", 0);
+    define(InstructionTable.INC_I, "incI", REG1 | END);
+    define(InstructionTable.DEC_A, "decA", END);
+    define(InstructionTable.SWAP_A, "swapA", END);
+    define(InstructionTable.CLINC_I, "clincI", REG1 | END);
+    define(InstructionTable.CPYD, "cpyd", REG1 | END);
+  }
+
+  private static void define(int operation, String method, int kind) {
+    METHODS[operation] = method;
+    KINDS[operation] = kind;
+  }
+
+  // Class file constants
+  private static final String OPS_CLASS = "assembler/simulator/BlockOps";
+  private static final String BLOCK_INTERFACE = "assembler/simulator/BlockTranslator$Block";
+  private static final String EXECUTE_DESCRIPTOR = "(Lassembler/simulator/Simulator;[B[II)I";
+  private static final String OP_DESCRIPTOR = "(Lassembler/simulator/Simulator;[B[IIIII)I";
+  private static final int CONSTANT_UTF8 = 1;
+  private static final int CONSTANT_CLASS = 7;
+  private static final int CONSTANT_METHODREF = 10;
+  private static final int CONSTANT_NAME_AND_TYPE = 12;
+  private static final int ACC_PUBLIC = 0x0001;
+  private static final int ACC_FINAL = 0x0010;
+  private static final int ACC_SUPER = 0x0020;
+
+  // Bytecodes
+  private static final int ALOAD_0 = 0x2A;
+  private static final int ALOAD_1 = 0x2B;
+  private static final int ALOAD_2 = 0x2C;
+  private static final int ALOAD_3 = 0x2D;
+  private static final int ILOAD = 0x15;
+  private static final int ISTORE = 0x36;
+  private static final int BIPUSH = 0x10;
+  private static final int SIPUSH = 0x11;
+  private static final int ISHL = 0x78;
+  private static final int IUSHR = 0x7C;
+  private static final int IOR = 0x80;
+  private static final int IRETURN = 0xAC;
+  private static final int RETURN = 0xB1;
+  private static final int INVOKESPECIAL = 0xB7;
+  private static final int INVOKESTATIC = 0xB8;
+  // Local variable of sr in execute
+  private static final int SR_LOCAL = 4;
+
+  // The instruction set
+  private final InstructionTable table;
+  // The loader of the generated classes
+  private final Loader loader = new Loader(BlockTranslator.class.getClassLoader());
+  // Number of classes generated
+  private int nofClasses;
+
+
+  /**
+   * Instantiate a translator for the specified instruction set.
+   *
+   * @param table The instruction set
+   */
+  public BlockTranslator(InstructionTable table) {
+    this.table = table;
+  }
+
+
+  public int getNofClasses() {
+    return nofClasses;
+  }
+
+
+  /**
+   * Translate the block starting at the specified address.
+   *
+   * @param ram The RAM with the machine code
+   * @param start The address of the first command
+   * @return the translation, or null if the first command must be interpreted
+   */
+  Translation translate(byte[] ram, int start) {
+    Code code = new Code();
+    int ip = start;
+    int length = 0;
+    int count = 0;
+    boolean ended = false;
+    while (count < MAX_BLOCK_COMMANDS && !ended) {
+      int opcode = ram[ip] & 0xFF;
+      int operation = table.operations[opcode];
+      String method = METHODS[operation];
+      int commandLength = table.lengths[opcode];
+      if (method == null || length + commandLength > Simulator.RAM_SIZE) {
+        break;
+      }
+      int kind = KINDS[operation];
+      int p1 = (commandLength > 1) ? ram[(ip + 1) & 0xFF] & 0xFF : 0;
+      int p2 = (commandLength > 2) ? ram[(ip + 2) & 0xFF] & 0xFF : 0;
+      if (((kind & REG1) != 0 && p1 >= Simulator.NOF_REGISTERS)
+          || ((kind & REG2) != 0 && p2 >= Simulator.NOF_REGISTERS)
+          || ((kind & DIVISOR) != 0 && p2 == 0)) {
+        // Fault, left to the interpreter
+        break;
+      }
+      if ((kind & RELATIVE) != 0) {
+        p1 = (ip + (byte) p1) & 0xFF;
+      }
+      int next = (ip + commandLength) & 0xFF;
+      ended = (kind & END) != 0;
+      code.call(method, p1, p2, next, ended);
+      length += commandLength;
+      ++count;
+      ip = next;
+    }
+    if (count == 0) {
+      return null;
+    }
+    if (!ended) {
+      code.exit(ip);
+    }
+    String className = "assembler/simulator/Block" + nofClasses + "$"
+        + Integer.toHexString(start).toUpperCase();
+    byte[] classFile = code.toClassFile(className);
+    try {
+      Class<?> blockClass = loader.define(className.replace('/', '.'), classFile);
+      ++nofClasses;
+      return new Translation((Block) blockClass.getConstructor().newInstance(), start, length, count);
+    }
+    catch (ReflectiveOperationException roe) {
+      throw new IllegalStateException("Cannot instantiate translated block at "
+          + Integer.toHexString(start), roe);
+    }
+  }
+
+
+  /**
+   * The class loader of the generated classes.
+   */
+  private static final class Loader extends ClassLoader {
+    Loader(ClassLoader parent) {
+      super(parent);
+    }
+
+    Class<?> define(String name, byte[] classFile) {
+      return defineClass(name, classFile, 0, classFile.length);
+    }
+  }
+
+
+  /**
+   * The code of the execute method and its constant pool.
+   */
+  private static final class Code {
+    private final ByteArrayOutputStream constants = new ByteArrayOutputStream();
+    private final DataOutputStream pool = new DataOutputStream(constants);
+    private final Map<String, Integer> indexes = new HashMap<String, Integer>();
+    private int nofConstants = 1;
+    private final ByteArrayOutputStream bytecode = new ByteArrayOutputStream();
+
+    // Emit a BlockOps call, return its result if last else unpack SR
+    void call(String method, int p1, int p2, int next, boolean last) {
+      int methodref = methodref(OPS_CLASS, method, OP_DESCRIPTOR);
+      bytecode.write(ALOAD_1);
+      bytecode.write(ALOAD_2);
+      bytecode.write(ALOAD_3);
+      bytecode.write(ILOAD);
+      bytecode.write(SR_LOCAL);
+      sipush(p1);
+      sipush(p2);
+      sipush(next);
+      bytecode.write(INVOKESTATIC);
+      u2(bytecode, methodref);
+      if (last) {
+        bytecode.write(IRETURN);
+      }
+      else {
+        bytecode.write(BIPUSH);
+        bytecode.write(8);
+        bytecode.write(IUSHR);
+        bytecode.write(ISTORE);
+        bytecode.write(SR_LOCAL);
+      }
+    }
+
+    // Emit return of (sr << 8) | ip
+    void exit(int ip) {
+      bytecode.write(ILOAD);
+      bytecode.write(SR_LOCAL);
+      bytecode.write(BIPUSH);
+      bytecode.write(8);
+      bytecode.write(ISHL);
+      sipush(ip);
+      bytecode.write(IOR);
+      bytecode.write(IRETURN);
+    }
+
+    private void sipush(int value) {
+      bytecode.write(SIPUSH);
+      u2(bytecode, value);
+    }
+
+    private static void u2(ByteArrayOutputStream out, int value) {
+      out.write(value >> 8);
+      out.write(value);
+    }
+
+    byte[] toClassFile(String className) {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(bytes);
+      try {
+        int thisClass = classref(className);
+        int superClass = classref("java/lang/Object");
+        int blockInterface = classref(BLOCK_INTERFACE);
+        int objectInit = methodref("java/lang/Object", "<init>", "()V");
+        int init = utf8("<init>");
+        int initDescriptor = utf8("()V");
+        int execute = utf8("execute");
+        int executeDescriptor = utf8(EXECUTE_DESCRIPTOR);
+        int codeAttribute = utf8("Code");
+        pool.flush();
+
+        out.writeInt(0xCAFEBABE);
+        out.writeShort(0);
+        out.writeShort(49);
+        out.writeShort(nofConstants);
+        constants.writeTo(out);
+        out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+        out.writeShort(thisClass);
+        out.writeShort(superClass);
+        out.writeShort(1);
+        out.writeShort(blockInterface);
+        // Fields
+        out.writeShort(0);
+        // Methods
+        out.writeShort(2);
+        byte[] initCode = {ALOAD_0, (byte) INVOKESPECIAL, (byte) (objectInit >> 8), (byte) objectInit,
+            (byte) RETURN};
+        method(out, init, initDescriptor, codeAttribute, 1, 1, initCode);
+        method(out, execute, executeDescriptor, codeAttribute, 8, SR_LOCAL + 1, bytecode.toByteArray());
+        // Attributes
+        out.writeShort(0);
+        out.close();
+      }
+      catch (IOException ioe) {
+        // Cannot happen with a byte array
+        throw new IllegalStateException(ioe);
+      }
+      return bytes.toByteArray();
+    }
+
+    private static void method(DataOutputStream out, int name, int descriptor, int codeAttribute,
+        int maxStack, int maxLocals, byte[] code) throws IOException {
+      out.writeShort(ACC_PUBLIC);
+      out.writeShort(name);
+      out.writeShort(descriptor);
+      out.writeShort(1);
+      out.writeShort(codeAttribute);
+      out.writeInt(12 + code.length);
+      out.writeShort(maxStack);
+      out.writeShort(maxLocals);
+      out.writeInt(code.length);
+      out.write(code);
+      // Exception table and attributes
+      out.writeShort(0);
+      out.writeShort(0);
+    }
+
+    private int utf8(String value) throws IOException {
+      Integer index = indexes.get("U" + value);
+      if (index == null) {
+        pool.writeByte(CONSTANT_UTF8);
+        pool.writeUTF(value);
+        index = nofConstants++;
+        indexes.put("U" + value, index);
+      }
+      return index;
+    }
+
+    private int classref(String name) throws IOException {
+      Integer index = indexes.get("C" + name);
+      if (index == null) {
+        int nameIndex = utf8(name);
+        pool.writeByte(CONSTANT_CLASS);
+        pool.writeShort(nameIndex);
+        index = nofConstants++;
+        indexes.put("C" + name, index);
+      }
+      return index;
+    }
+
+    private int methodref(String owner, String name, String descriptor) {
+      String key = "M" + owner + "." + name + descriptor;
+      try {
+        Integer index = indexes.get(key);
+        if (index == null) {
+          int ownerIndex = classref(owner);
+          int nameIndex = utf8(name);
+          int descriptorIndex = utf8(descriptor);
+          pool.writeByte(CONSTANT_NAME_AND_TYPE);
+          pool.writeShort(nameIndex);
+          pool.writeShort(descriptorIndex);
+          int nameAndType = nofConstants++;
+          pool.writeByte(CONSTANT_METHODREF);
+          pool.writeShort(ownerIndex);
+          pool.writeShort(nameAndType);
+          index = nofConstants++;
+          indexes.put(key, index);
+        }
+        return index;
+      }
+      catch (IOException ioe) {
+        // Cannot happen with a byte array
+        throw new IllegalStateException(ioe);
+      }
+    }
+  }
+}
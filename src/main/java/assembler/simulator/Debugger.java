@@ -0,0 +1,325 @@
+package assembler.simulator;
+
+
+/**
+ * The class Debugger controls a simulator with breakpoints and watchpoints,
+ * e.g. for an embedded debugger or to inspect graded programs.
+ *
+ * Breakpoints stop the simulator before the command at their address is
+ * executed, they are kept in a bitmap of the 256 addresses. Watchpoints stop
+ * the simulator after a command read or wrote a watched address. Write
+ * watchpoints are reported by the write hooks of the simulator, read
+ * watchpoints by decoding the command before it is executed; a bitmap of
+ * 16 byte pages filters commands not reading any watched page.
+ * Without breakpoints and watchpoints run() executes at full speed, otherwise
+ * commands are executed one by one.
+ *
+ * Example:
+ *   Debugger debugger = new Debugger(simulator);
+ *   debugger.setBreakpointAtLine(12, asm.getCodeToLineArr());
+ *   debugger.watch(0xC0, false, true);
+ *   while (debugger.run(maxSteps) == Simulator.RUNNING
+ *       && debugger.getStopReason() != Debugger.STOP_LIMIT) {
+ *     System.out.println(simulator);
+ *   }
+ *
+ * @author ruedi.mueller
+ */
+public final class Debugger {
+  // Reasons to stop
+  public static final int STOP_NONE = 0;
+  public static final int STOP_STATUS = 1;
+  public static final int STOP_LIMIT = 2;
+  public static final int STOP_BREAKPOINT = 3;
+  public static final int STOP_READ = 4;
+  public static final int STOP_WRITE = 5;
+
+  // The simulator debugged
+  private final Simulator simulator;
+
+  // Breakpoints, one bit per address
+  private final long[] breakpoints = new long[Simulator.RAM_SIZE / 64];
+  private int nofBreakpoints;
+  // Read and write watchpoints, one bit per address
+  private final long[] readWatches = new long[Simulator.RAM_SIZE / 64];
+  private final long[] writeWatches = new long[Simulator.RAM_SIZE / 64];
+  // Pages of 16 bytes with a read watchpoint, one bit per page
+  private int readPages;
+  private int nofWriteWatches;
+
+  // Address written to a write watchpoint by the current command, -1 if none
+  private int writeHit = -1;
+  // Reason and address of the last stop
+  private int stopReason = STOP_NONE;
+  private int stopAddress = -1;
+
+
+  /**
+   * Instantiate a debugger controlling the specified simulator.
+   *
+   * @param simulator The simulator, at most one debugger per simulator
+   */
+  public Debugger(Simulator simulator) {
+    this.simulator = simulator;
+    simulator.debugger = this;
+  }
+
+
+  // Getters
+  public Simulator getSimulator() {
+    return simulator;
+  }
+
+  /**
+   * Answer why the last run stopped, STOP_NONE if not run yet.
+   */
+  public int getStopReason() {
+    return stopReason;
+  }
+
+  /**
+   * Answer the address of the breakpoint or watchpoint of the last stop,
+   * -1 if not stopped by one.
+   */
+  public int getStopAddress() {
+    return stopAddress;
+  }
+
+
+  /**
+   * Set a breakpoint.
+   *
+   * @param address The address of the command
+   */
+  public void setBreakpoint(int address) {
+    address &= 0xFF;
+    if (!hasBreakpoint(address)) {
+      breakpoints[address >> 6] |= 1L << address;
+      ++nofBreakpoints;
+    }
+  }
+
+
+  /**
+   * Set a breakpoint at the first command of a source line.
+   *
+   * @param line The source line, 0 for the first line
+   * @param codeToLineArr The source line of each machine code byte, -1 if
+   *                      none, cp. Assembler.getCodeToLineArr()
+   * @return the address of the breakpoint, -1 if the line has no command
+   */
+  public int setBreakpointAtLine(int line, int[] codeToLineArr) {
+    for (int address = 0; address < Math.min(codeToLineArr.length, Simulator.RAM_SIZE); ++address) {
+      if (codeToLineArr[address] == line) {
+        setBreakpoint(address);
+        return address;
+      }
+    }
+    return -1;
+  }
+
+
+  /**
+   * Clear a breakpoint.
+   *
+   * @param address The address of the command
+   */
+  public void clearBreakpoint(int address) {
+    address &= 0xFF;
+    if (hasBreakpoint(address)) {
+      breakpoints[address >> 6] &= ~(1L << address);
+      --nofBreakpoints;
+    }
+  }
+
+
+  public boolean hasBreakpoint(int address) {
+    return (breakpoints[(address & 0xFF) >> 6] & (1L << address)) != 0;
+  }
+
+
+  /**
+   * Watch reads and/or writes of an address, replacing a watchpoint set
+   * before. Watching neither reads nor writes clears the watchpoint.
+   *
+   * @param address The RAM address
+   * @param read Stop after a command read the address
+   * @param write Stop after a command wrote the address
+   */
+  public void watch(int address, boolean read, boolean write) {
+    address &= 0xFF;
+    long bit = 1L << address;
+    if (read) {
+      readWatches[address >> 6] |= bit;
+    }
+    else {
+      readWatches[address >> 6] &= ~bit;
+    }
+    if (write != ((writeWatches[address >> 6] & bit) != 0)) {
+      if (write) {
+        writeWatches[address >> 6] |= bit;
+        simulator.hooks[address] |= Simulator.HOOK_WATCH;
+        ++nofWriteWatches;
+      }
+      else {
+        writeWatches[address >> 6] &= ~bit;
+        simulator.hooks[address] &= ~Simulator.HOOK_WATCH;
+        --nofWriteWatches;
+      }
+    }
+    readPages = 0;
+    for (int page = 0; page < Simulator.RAM_SIZE / 16; ++page) {
+      if (((readWatches[page >> 2] >>> ((page & 3) * 16)) & 0xFFFF) != 0) {
+        readPages |= 1 << page;
+      }
+    }
+  }
+
+
+  /**
+   * Clear all breakpoints and watchpoints.
+   */
+  public void clearAll() {
+    for (int address = 0; address < Simulator.RAM_SIZE; ++address) {
+      clearBreakpoint(address);
+      watch(address, false, false);
+    }
+  }
+
+
+  /**
+   * Execute a single command, a breakpoint at IP is ignored.
+   *
+   * @return the status after the command
+   */
+  public int step() {
+    return run(1, -1);
+  }
+
+
+  /**
+   * Execute commands until the command at the specified address is reached
+   * or another reason stops the simulator. The address is reported as
+   * breakpoint.
+   *
+   * @param address The address of the command
+   * @param maxSteps The maximum number of commands to execute
+   * @return the status, RUNNING if stopped by a breakpoint, a watchpoint or
+   *         maxSteps
+   */
+  public int runTo(int address, long maxSteps) {
+    return run(maxSteps, address & 0xFF);
+  }
+
+
+  /**
+   * Execute commands until a breakpoint or watchpoint is hit, the CPU halts,
+   * faults or the specified number of commands has been executed. A
+   * breakpoint at IP is ignored, i.e. a stopped run can be resumed.
+   *
+   * @param maxSteps The maximum number of commands to execute
+   * @return the status, RUNNING if stopped by a breakpoint, a watchpoint or
+   *         maxSteps
+   */
+  public int run(long maxSteps) {
+    return run(maxSteps, -1);
+  }
+
+
+  /**
+   * Execute commands stopping at breakpoints, watchpoints and the run-to
+   * address.
+   */
+  private int run(long maxSteps, int runTo) {
+    stopAddress = -1;
+    if (nofBreakpoints == 0 && readPages == 0 && nofWriteWatches == 0 && runTo < 0) {
+      int status = simulator.run(maxSteps);
+      stopReason = (status != Simulator.RUNNING) ? STOP_STATUS : STOP_LIMIT;
+      return status;
+    }
+    final long limit = (maxSteps > Long.MAX_VALUE - simulator.steps) ? Long.MAX_VALUE
+        : simulator.steps + maxSteps;
+    boolean first = true;
+    while (simulator.status == Simulator.RUNNING && simulator.steps < limit) {
+      int ip = simulator.ip;
+      if (!first && (ip == runTo || hasBreakpoint(ip))) {
+        stopReason = STOP_BREAKPOINT;
+        stopAddress = ip;
+        return simulator.status;
+      }
+      first = false;
+      int read = (readPages != 0) ? readAddress() : -1;
+      writeHit = -1;
+      long before = simulator.steps;
+      simulator.run(1);
+      if (simulator.steps == before) {
+        // Faulting command not executed
+        break;
+      }
+      if (read >= 0 && (readWatches[read >> 6] & (1L << read)) != 0) {
+        stopReason = STOP_READ;
+        stopAddress = read;
+        return simulator.status;
+      }
+      if (writeHit >= 0) {
+        stopReason = STOP_WRITE;
+        stopAddress = writeHit;
+        return simulator.status;
+      }
+    }
+    stopReason = (simulator.status != Simulator.RUNNING) ? STOP_STATUS : STOP_LIMIT;
+    return simulator.status;
+  }
+
+
+  /**
+   * Answer the RAM address read by the command at IP if in a watched page,
+   * else -1. Of NEXT only the SP table pointer is considered.
+   */
+  private int readAddress() {
+    byte[] ram = simulator.ram;
+    int[] reg = simulator.reg;
+    int ip = simulator.ip;
+    int p1 = ram[(ip + 1) & 0xFF] & 0xFF;
+    int p2 = ram[(ip + 2) & 0xFF] & 0xFF;
+    int address;
+    switch (simulator.getTable().operations[ram[ip] & 0xFF]) {
+      case InstructionTable.MOV_RA:
+      case InstructionTable.CMP_RA:
+        address = p2;
+        break;
+      case InstructionTable.MOV_RI:
+        address = (p2 < Simulator.NOF_REGISTERS) ? reg[p2] : -1;
+        break;
+      case InstructionTable.INC_I:
+      case InstructionTable.CPYD:
+        address = (p1 < Simulator.NOF_REGISTERS) ? reg[p1] : -1;
+        break;
+      case InstructionTable.DEC_A:
+      case InstructionTable.SWAP_A:
+      case InstructionTable.INT:
+      case InstructionTable.NEXT:
+        address = p1;
+        break;
+      case InstructionTable.POP:
+      case InstructionTable.POPF:
+      case InstructionTable.RET:
+      case InstructionTable.IRET:
+        address = (reg[Simulator.SP] + 1) & 0xFF;
+        break;
+      default:
+        return -1;
+    }
+    return (address >= 0 && (readPages & (1 << (address >> 4))) != 0) ? address : -1;
+  }
+
+
+  /**
+   * Called by the simulator after a write to a watched address.
+   */
+  void written(int address) {
+    if ((writeWatches[address >> 6] & (1L << address)) != 0 && writeHit < 0) {
+      writeHit = address;
+    }
+  }
+}
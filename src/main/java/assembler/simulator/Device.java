@@ -0,0 +1,28 @@
+package assembler.simulator;
+
+
+/**
+ * The interface Device is implemented by peripherals attached to the I/O
+ * ports of a simulator, e.g. the traffic lights, the heater or the 7-segment
+ * display. IN reads a byte from the device, OUT writes AL to it. A device may
+ * be attached to several ports.
+ *
+ * @author ruedi.mueller
+ */
+public interface Device {
+  /**
+   * Answer the byte read by IN.
+   *
+   * @param port The port number
+   * @return the byte (0..255)
+   */
+  int in(int port);
+
+  /**
+   * Accept the byte written by OUT.
+   *
+   * @param port The port number
+   * @param value The byte (0..255)
+   */
+  void out(int port, int value);
+}
@@ -0,0 +1,265 @@
+package assembler.simulator;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import assembler.GroupListBuilder;
+import assembler.InstructionSetDescriptor;
+
+
+/**
+ * The class InstructionTable maps each opcode of the instruction set read
+ * from INSTRUCTION.data to the operation executed by the simulator, the
+ * number of bytes of the command and its microprogram entry address.
+ * Operations are identified by their command pattern, e.g. "MOV REG,|ADDR|",
+ * so the opcodes are taken from INSTRUCTION.data and not hard-coded.
+ *
+ * A table is immutable and may be shared by any number of simulators.
+ *
+ * @author ruedi.mueller
+ */
+public final class InstructionTable {
+  // Operations, cp. INSTRUCTION.data
+  static final int ILLEGAL = 0;
+  static final int HALT = 1;
+  static final int ROL = 2;
+  static final int ROR = 3;
+  static final int SHL = 4;
+  static final int SHR = 5;
+  static final int ADD_RR = 6;
+  static final int SUB_RR = 7;
+  static final int MUL_RR = 8;
+  static final int DIV_RR = 9;
+  static final int INC = 10;
+  static final int DEC = 11;
+  static final int MOD_RR = 12;
+  static final int AND_RR = 13;
+  static final int OR_RR = 14;
+  static final int XOR_RR = 15;
+  static final int NOT = 16;
+  static final int ADD_RC = 17;
+  static final int SUB_RC = 18;
+  static final int MUL_RC = 19;
+  static final int DIV_RC = 20;
+  static final int MOD_RC = 21;
+  static final int AND_RC = 22;
+  static final int OR_RC = 23;
+  static final int XOR_RC = 24;
+  static final int JMP = 25;
+  static final int JZ = 26;
+  static final int JNZ = 27;
+  static final int JS = 28;
+  static final int JNS = 29;
+  static final int JO = 30;
+  static final int JNO = 31;
+  static final int CALL = 32;
+  static final int RET = 33;
+  static final int INT = 34;
+  static final int IRET = 35;
+  static final int MOV_RC = 36;
+  static final int MOV_RA = 37;
+  static final int MOV_AR = 38;
+  static final int MOV_RI = 39;
+  static final int MOV_IR = 40;
+  static final int MOV_RR = 41;
+  static final int CMP_RR = 42;
+  static final int CMP_RC = 43;
+  static final int CMP_RA = 44;
+  static final int PUSH = 45;
+  static final int POP = 46;
+  static final int PUSHF = 47;
+  static final int POPF = 48;
+  static final int IN = 49;
+  static final int OUT = 50;
+  static final int STI = 51;
+  static final int CLI = 52;
+  static final int NOP = 53;
+  static final int INC_I = 54;
+  static final int JPA = 55;
+  static final int DEC_A = 56;
+  static final int SWAP_A = 57;
+  static final int CLINC_I = 58;
+  static final int NEXT = 59;
+  static final int XCHG = 60;
+  static final int CPYD = 61;
+
+  // Number of operations
+  static final int NOF_OPERATIONS = 62;
+
+  // Register operands: the first, the second parameter is a register code
+  static final int REG1 = 0x01;
+  static final int REG2 = 0x02;
+
+  // Command patterns as found in INSTRUCTION.data and their operations
+  private static final Map<String, Integer> PATTERNS = new HashMap<String, Integer>();
+
+  static {
+    String[] patterns = {
+      null, "HALT", "ROL REG", "ROR REG", "SHL REG", "SHR REG",
+      "ADD REG,REG", "SUB REG,REG", "MUL REG,REG", "DIV REG,REG", "INC REG", "DEC REG",
+      "MOD REG,REG", "AND REG,REG", "OR REG,REG", "XOR REG,REG", "NOT REG",
+      "ADD REG,CONST", "SUB REG,CONST", "MUL REG,CONST", "DIV REG,CONST", "MOD REG,CONST",
+      "AND REG,CONST", "OR REG,CONST", "XOR REG,CONST",
+      "JMP OFFSET", "JZ OFFSET", "JNZ OFFSET", "JS OFFSET", "JNS OFFSET", "JO OFFSET", "JNO OFFSET",
+      "CALL ADDR", "RET", "INT ADDR", "IRET",
+      "MOV REG,CONST", "MOV REG,|ADDR|", "MOV |ADDR|,REG", "MOV REG,|REG|", "MOV |REG|,REG", "MOV REG,REG",
+      "CMP REG,REG", "CMP REG,CONST", "CMP REG,|ADDR|",
+      "PUSH REG", "POP REG", "PUSHF", "POPF", "IN ADDR", "OUT ADDR", "STI", "CLI", "NOP",
+      "INC |REG|", "JPA ABSOLUTE", "DEC |ADDR|", "SWAP |ADDR|", "CLINC |REG|", "NEXT ADDR",
+      "XCHG REG,REG", "CPYD |REG|,CONST"
+    };
+    for (int operation = 1; operation < patterns.length; ++operation) {
+      PATTERNS.put(patterns[operation], operation);
+    }
+  }
+
+  // Operation of each opcode, ILLEGAL if unknown
+  final byte[] operations = new byte[0x100];
+  // Number of bytes of each command, 1 if unknown
+  final byte[] lengths = new byte[0x100];
+  // Register operands of each opcode, REG1 | REG2, 0 if none or unknown
+  final byte[] registerOperands = new byte[0x100];
+  // Microprogram entry address of each opcode, GroupListBuilder.NO_MPM_ENTRY if unknown
+  final int[] mpmEntries = new int[0x100];
+  // Mnemonic of each opcode, null if unknown
+  final String[] mnemonics = new String[0x100];
+
+
+  /**
+   * Build the table from the group lists of an instruction set.
+   * Commands whose pattern is unknown to the simulator are treated as illegal.
+   *
+   * @param groupListBuilder The instruction set
+   */
+  public InstructionTable(GroupListBuilder groupListBuilder) {
+    Arrays.fill(lengths, (byte) 1);
+    Arrays.fill(mpmEntries, GroupListBuilder.NO_MPM_ENTRY);
+    for (int group = 0; group < groupListBuilder.commandPatternGroupList.size(); ++group) {
+      List<String> patterns = groupListBuilder.commandPatternGroupList.get(group);
+      for (int i = 0; i < patterns.size(); ++i) {
+        String pattern = patterns.get(i);
+        Integer operation = PATTERNS.get(pattern);
+        if (operation == null) {
+          // Directive (END) or command not supported by the simulator
+          continue;
+        }
+        int opcode = Integer.parseInt(groupListBuilder.commandHexGroupList.get(group).get(i), 16);
+        operations[opcode] = (byte) (int) operation;
+        lengths[opcode] = (byte) commandLength(pattern);
+        registerOperands[opcode] = (byte) registerOperands(pattern);
+        mpmEntries[opcode] = groupListBuilder.commandMpmGroupList.get(group).get(i);
+        mnemonics[opcode] = groupListBuilder.commandSymGroupList.get(group).get(i);
+      }
+    }
+  }
+
+
+  /**
+   * Load the instruction set, preferably from the descriptor precompiled at
+   * build time, else from INSTRUCTION.data.
+   *
+   * @return the table
+   */
+  public static InstructionTable load() {
+    return new InstructionTable(InstructionSetDescriptor.loadOrParse());
+  }
+
+
+  /**
+   * Answer the number of bytes of a command: opcode plus one byte per parameter.
+   *
+   * @param pattern The command pattern
+   * @return the number of bytes
+   */
+  private static int commandLength(String pattern) {
+    int blank = pattern.indexOf(' ');
+    if (blank < 0) {
+      return 1;
+    }
+    return pattern.indexOf(',', blank) < 0 ? 2 : 3;
+  }
+
+
+  /**
+   * Answer which parameters of a command are register codes, direct as in
+   * "INC REG" or indirect as in "MOV REG,|REG|".
+   *
+   * @param pattern The command pattern
+   * @return REG1 and/or REG2, 0 if none
+   */
+  private static int registerOperands(String pattern) {
+    int blank = pattern.indexOf(' ');
+    if (blank < 0) {
+      return 0;
+    }
+    String[] parameters = pattern.substring(blank + 1).split(",");
+    int result = parameters[0].contains("REG") ? REG1 : 0;
+    if (parameters.length > 1 && parameters[1].contains("REG")) {
+      result |= REG2;
+    }
+    return result;
+  }
+
+
+  /**
+   * Answer whether the parameters of a command are valid register codes
+   * where the command expects registers, i.e. whether the command can be
+   * executed without ILLEGAL_REGISTER.
+   *
+   * @param opcode The opcode
+   * @param p1 The first parameter byte
+   * @param p2 The second parameter byte
+   * @return true if valid, else false
+   */
+  boolean hasValidRegisters(int opcode, int p1, int p2) {
+    int registers = registerOperands[opcode & 0xFF];
+    return ((registers & REG1) == 0 || p1 < Simulator.NOF_REGISTERS)
+        && ((registers & REG2) == 0 || p2 < Simulator.NOF_REGISTERS);
+  }
+
+
+  /**
+   * Answer the number of bytes of the command with the specified opcode.
+   *
+   * @param opcode The opcode
+   * @return the number of bytes, 1 for an illegal opcode
+   */
+  public int getLength(int opcode) {
+    return lengths[opcode & 0xFF];
+  }
+
+
+  /**
+   * Answer the microprogram entry address of the specified opcode.
+   *
+   * @param opcode The opcode
+   * @return the address, or GroupListBuilder.NO_MPM_ENTRY for an illegal opcode
+   */
+  public int getMpmEntry(int opcode) {
+    return mpmEntries[opcode & 0xFF];
+  }
+
+
+  /**
+   * Answer the mnemonic of the specified opcode.
+   *
+   * @param opcode The opcode
+   * @return the mnemonic, or null for an illegal opcode
+   */
+  public String getMnemonic(int opcode) {
+    return mnemonics[opcode & 0xFF];
+  }
+
+
+  /**
+   * Answer whether the simulator executes the specified opcode.
+   *
+   * @param opcode The opcode
+   * @return true if legal, else false
+   */
+  public boolean isLegal(int opcode) {
+    return operations[opcode & 0xFF] != ILLEGAL;
+  }
+}
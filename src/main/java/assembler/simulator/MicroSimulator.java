@@ -0,0 +1,560 @@
+package assembler.simulator;
+
+import java.util.Arrays;
+
+
+/**
+ * The class MicroSimulator executes a machine code image micro instruction by
+ * micro instruction as the stebs control unit does: The fetch cycle loads the
+ * opcode into IR, the decoder jumps to the MPM entry address of the opcode
+ * read from INSTRUCTION.data, and the microprogram drives the data path until
+ * it returns to the fetch cycle.
+ *
+ * Registers, RAM and the status are shared with Simulator, i.e. the results of
+ * both simulators may be compared command by command. Additionally the
+ * internal registers MIP, IR, MAR, MDR, X, Y, RES, SELA and SELB are visible.
+ *
+ * Example:
+ *   MicroSimulator simulator = new MicroSimulator(table);
+ *   simulator.load(Common.getMemory());
+ *   while (simulator.microstep() == Simulator.RUNNING) {
+ *     System.out.println(simulator.getMicroprogram().toString(simulator.getMip()));
+ *   }
+ *
+ * @author ruedi.mueller
+ */
+public class MicroSimulator extends Simulator {
+  // Internal registers
+  public static final int MIP = 0;
+  public static final int IR = 1;
+  public static final int MAR = 2;
+  public static final int MDR = 3;
+  public static final int X = 4;
+  public static final int Y = 5;
+  public static final int RES = 6;
+  public static final int SELA = 7;
+  public static final int SELB = 8;
+  public static final int NOF_INTERNAL_REGISTERS = 9;
+
+  // Maximum number of RAM writes of a command, NEXT writes the most
+  private static final int MAX_WRITES = 16;
+
+  // Sign and zero flags of each byte value
+  private static final int[] SZ_FLAGS = new int[0x100];
+
+  static {
+    for (int value = 0; value < 0x100; ++value) {
+      SZ_FLAGS[value] = (value == 0 ? FLAG_Z : 0) | ((value & 0x80) != 0 ? FLAG_S : 0);
+    }
+  }
+
+  // The microprogram
+  private final Microprogram mpm;
+
+  // MIP, IR, MAR, MDR, X, Y, RES, SELA, SELB
+  private final int[] internal = new int[NOF_INTERNAL_REGISTERS];
+  // Address of the command being executed
+  private int commandIp;
+  // Number of micro instructions executed
+  private long microsteps;
+
+  // Registers and SR at the start of the command being executed
+  private final int[] savedReg = new int[NOF_REGISTERS];
+  private int savedSr;
+  // Addresses and previous bytes of the RAM writes of the command
+  private final int[] writeAddresses = new int[MAX_WRITES];
+  private final byte[] writeValues = new byte[MAX_WRITES];
+  private int nofWrites;
+
+
+  /**
+   * Instantiate a simulator for the instruction set in INSTRUCTION.data.
+   */
+  public MicroSimulator() {
+    this(InstructionTable.load());
+  }
+
+
+  /**
+   * Instantiate a simulator for the specified instruction set.
+   *
+   * @param table The instruction set
+   */
+  public MicroSimulator(InstructionTable table) {
+    this(table, new Microprogram(table));
+  }
+
+
+  /**
+   * Instantiate a simulator for the specified instruction set and microprogram.
+   *
+   * @param table The instruction set
+   * @param mpm The microprogram of the instruction set, may be shared
+   */
+  public MicroSimulator(InstructionTable table, Microprogram mpm) {
+    super(table);
+    this.mpm = mpm;
+  }
+
+
+  // Getters
+  public Microprogram getMicroprogram() {
+    return mpm;
+  }
+
+  public int getInternalRegister(int code) {
+    return internal[code];
+  }
+
+  public int getMip() {
+    return internal[MIP];
+  }
+
+  public long getMicrosteps() {
+    return microsteps;
+  }
+
+  /**
+   * Answer the number of cycles executed, one per micro instruction.
+   */
+  @Override
+  public long getCycles() {
+    return microsteps;
+  }
+
+
+  /**
+   * Answer whether the CPU is between two commands, i.e. at the fetch cycle.
+   *
+   * @return true if at the fetch cycle, else false
+   */
+  public boolean isAtFetch() {
+    return internal[MIP] == Microprogram.FETCH_ADDRESS;
+  }
+
+
+  @Override
+  public void reset() {
+    super.reset();
+    // Called by the constructor of Simulator before initialization
+    if (internal != null) {
+      Arrays.fill(internal, 0);
+      internal[MIP] = Microprogram.FETCH_ADDRESS;
+      commandIp = 0;
+      microsteps = 0;
+      nofWrites = 0;
+    }
+  }
+
+
+  /**
+   * Take a snapshot between two commands.
+   *
+   * @return the snapshot
+   * @throws IllegalStateException if a command is in progress
+   */
+  @Override
+  public Snapshot snapshot() {
+    if (!isAtFetch()) {
+      throw new IllegalStateException("Snapshot within command at MPM address "
+          + mpm.toString(internal[MIP]));
+    }
+    return super.snapshot();
+  }
+
+
+  @Override
+  public void restore(Snapshot snapshot) {
+    super.restore(snapshot);
+    Arrays.fill(internal, 0);
+    internal[MIP] = Microprogram.FETCH_ADDRESS;
+    commandIp = ip;
+    nofWrites = 0;
+  }
+
+
+  /**
+   * Execute a single micro instruction.
+   *
+   * @return the status after the micro instruction
+   */
+  public int microstep() {
+    return runMicrosteps(1, Long.MAX_VALUE);
+  }
+
+
+  /**
+   * Execute whole commands until the CPU halts, faults or the specified
+   * number of commands has been executed. A command interrupted by
+   * microstep() is completed first.
+   *
+   * @param maxSteps The maximum number of commands to execute
+   * @return the status, RUNNING if stopped due to maxSteps
+   */
+  @Override
+  int execute(long maxSteps) {
+    long limit = (maxSteps > Long.MAX_VALUE - steps) ? Long.MAX_VALUE : steps + maxSteps;
+    if (!isAtFetch() && status == RUNNING) {
+      // Complete the current command, counts as one of maxSteps
+      runMicrosteps(Long.MAX_VALUE, steps + 1);
+    }
+    return runMicrosteps(Long.MAX_VALUE, limit);
+  }
+
+
+  /**
+   * Execute micro instructions until the CPU halts, faults or one of the
+   * limits is reached. A faulting command is not executed: its register
+   * codes are checked at decode, and the RAM and register writes of its
+   * micro instructions before the fault (e.g. division by zero) are undone.
+   *
+   * @param maxMicrosteps The maximum number of micro instructions to execute
+   * @param stepLimit The number of commands at which to stop
+   * @return the status, RUNNING if stopped due to a limit
+   */
+  private int runMicrosteps(long maxMicrosteps, long stepLimit) {
+    if (status != RUNNING) {
+      return status;
+    }
+    final Microprogram mpm = this.mpm;
+    final byte[] source = mpm.source;
+    final byte[] destination = mpm.destination;
+    final byte[] aluOperations = mpm.alu;
+    final byte[] control = mpm.control;
+    final byte[] next = mpm.next;
+    final byte[] cond = mpm.cond;
+    final short[] imm = mpm.imm;
+    final int[] entries = mpm.entries;
+    final InstructionTable table = getTable();
+    final byte[] ram = this.ram;
+    final int[] reg = this.reg;
+    final byte[] hooks = this.hooks;
+    final int[] internal = this.internal;
+
+    int mip = internal[MIP];
+    int ir = internal[IR];
+    int mar = internal[MAR];
+    int mdr = internal[MDR];
+    int x = internal[X];
+    int y = internal[Y];
+    int res = internal[RES];
+    int sela = internal[SELA];
+    int selb = internal[SELB];
+    int ip = this.ip;
+    int sr = this.sr;
+    long steps = this.steps;
+    long microsteps = this.microsteps;
+    final long microLimit = (maxMicrosteps > Long.MAX_VALUE - microsteps)
+        ? Long.MAX_VALUE : microsteps + maxMicrosteps;
+    int status = RUNNING;
+
+    try {
+      loop:
+      while (microsteps < microLimit && steps < stepLimit) {
+        int c = control[mip];
+        ++microsteps;
+
+        // 1. Memory read
+        if ((c & Microprogram.C_READ) != 0) {
+          mdr = ram[mar] & 0xFF;
+        }
+
+        // 2. ALU
+        int flags = -1;
+        switch (aluOperations[mip]) {
+          case Microprogram.A_NONE:
+            break;
+          case Microprogram.A_ADD:
+            res = (x + y) & 0xFF;
+            flags = SZ_FLAGS[res] | (((x ^ res) & (y ^ res) & 0x80) != 0 ? FLAG_O : 0);
+            break;
+          case Microprogram.A_SUB:
+            res = (x - y) & 0xFF;
+            flags = SZ_FLAGS[res] | (((x ^ y) & (x ^ res) & 0x80) != 0 ? FLAG_O : 0);
+            break;
+          case Microprogram.A_MUL:
+            int product = x * y;
+            res = product & 0xFF;
+            flags = SZ_FLAGS[res] | (product > 0xFF ? FLAG_O : 0);
+            break;
+          case Microprogram.A_DIV:
+          case Microprogram.A_MOD:
+            if (y == 0) {
+              status = DIVISION_BY_ZERO;
+              break loop;
+            }
+            res = (aluOperations[mip] == Microprogram.A_DIV) ? x / y : x % y;
+            flags = SZ_FLAGS[res];
+            break;
+          case Microprogram.A_AND:
+            res = x & y;
+            flags = SZ_FLAGS[res];
+            break;
+          case Microprogram.A_OR:
+            res = x | y;
+            flags = SZ_FLAGS[res];
+            break;
+          case Microprogram.A_XOR:
+            res = x ^ y;
+            flags = SZ_FLAGS[res];
+            break;
+          case Microprogram.A_NOT:
+            res = ~x & 0xFF;
+            flags = SZ_FLAGS[res];
+            break;
+          case Microprogram.A_INC:
+            res = (x + 1) & 0xFF;
+            flags = SZ_FLAGS[res] | (x == 0x7F ? FLAG_O : 0);
+            break;
+          case Microprogram.A_DEC:
+            res = (x - 1) & 0xFF;
+            flags = SZ_FLAGS[res] | (x == 0x80 ? FLAG_O : 0);
+            break;
+          case Microprogram.A_SHL:
+            res = (x << 1) & 0xFF;
+            flags = SZ_FLAGS[res];
+            break;
+          case Microprogram.A_SHR:
+            res = x >> 1;
+            flags = SZ_FLAGS[res];
+            break;
+          case Microprogram.A_ROL:
+            res = ((x << 1) | (x >> 7)) & 0xFF;
+            flags = SZ_FLAGS[res];
+            break;
+          case Microprogram.A_ROR:
+            res = ((x >> 1) | (x << 7)) & 0xFF;
+            flags = SZ_FLAGS[res];
+            break;
+          case Microprogram.A_SWAP:
+            res = ((x << 4) | (x >> 4)) & 0xFF;
+            flags = SZ_FLAGS[res];
+            break;
+          case Microprogram.A_REL:
+            res = (x - 1 + (byte) y) & 0xFF;
+            break;
+          case Microprogram.A_TEST:
+            res = x;
+            flags = SZ_FLAGS[res];
+            break;
+          case Microprogram.A_STI:
+            sr |= FLAG_I;
+            break;
+          case Microprogram.A_CLI:
+            sr &= ~FLAG_I;
+            break;
+          default:
+            throw new IllegalStateException("Illegal ALU operation at MPM address " + mip);
+        }
+        if ((c & Microprogram.C_FLAGS) != 0 && flags >= 0) {
+          sr = (sr & FLAG_I) | flags;
+        }
+
+        // 3. Bus transfer
+        int bus;
+        switch (source[mip]) {
+          case Microprogram.S_RA:
+            bus = reg[sela];
+            break;
+          case Microprogram.S_RB:
+            bus = reg[selb];
+            break;
+          case Microprogram.S_SP:
+            bus = reg[SP];
+            break;
+          case Microprogram.S_IP:
+            bus = ip;
+            break;
+          case Microprogram.S_MDR:
+            bus = mdr;
+            break;
+          case Microprogram.S_RES:
+            bus = res;
+            break;
+          case Microprogram.S_SR:
+            bus = sr;
+            break;
+          case Microprogram.S_X:
+            bus = x;
+            break;
+          case Microprogram.S_Y:
+            bus = y;
+            break;
+          case Microprogram.S_CONST:
+            bus = imm[mip] & 0xFF;
+            break;
+          default:
+            bus = 0;
+            break;
+        }
+        switch (destination[mip]) {
+          case Microprogram.D_NONE:
+            break;
+          case Microprogram.D_RA:
+            reg[sela] = bus;
+            break;
+          case Microprogram.D_RB:
+            reg[selb] = bus;
+            break;
+          case Microprogram.D_SP:
+            reg[SP] = bus;
+            break;
+          case Microprogram.D_IP:
+            ip = bus;
+            break;
+          case Microprogram.D_MDR:
+            mdr = bus;
+            break;
+          case Microprogram.D_MAR:
+            mar = bus;
+            break;
+          case Microprogram.D_SR:
+            sr = bus;
+            break;
+          case Microprogram.D_X:
+            x = bus;
+            break;
+          case Microprogram.D_Y:
+            y = bus;
+            break;
+          case Microprogram.D_IR:
+            ir = bus;
+            break;
+          case Microprogram.D_SELA:
+            sela = bus;
+            break;
+          case Microprogram.D_SELB:
+            selb = bus;
+            break;
+          default:
+            throw new IllegalStateException("Illegal destination at MPM address " + mip);
+        }
+
+        // 4. Memory write and I/O
+        if ((c & (Microprogram.C_WRITE | Microprogram.C_IN | Microprogram.C_OUT)) != 0) {
+          if ((c & Microprogram.C_WRITE) != 0) {
+            if (nofWrites == MAX_WRITES) {
+              throw new IllegalStateException("Too many writes at MPM address " + mip);
+            }
+            writeAddresses[nofWrites] = mar;
+            writeValues[nofWrites++] = ram[mar];
+            ram[mar] = (byte) mdr;
+            if (hooks[mar] != 0) {
+              written(mar);
+            }
+          }
+          if ((c & Microprogram.C_IN) != 0) {
+            reg[AL] = in(y);
+          }
+          if ((c & Microprogram.C_OUT) != 0) {
+            out(y, reg[AL]);
+          }
+        }
+
+        // 5. IP incrementer
+        if ((c & Microprogram.C_IP_INC) != 0) {
+          ip = (ip + 1) & 0xFF;
+        }
+
+        // 6. Next address
+        switch (next[mip]) {
+          case Microprogram.N_INC:
+            ++mip;
+            break;
+          case Microprogram.N_DECODE:
+            System.arraycopy(reg, 0, savedReg, 0, NOF_REGISTERS);
+            savedSr = sr;
+            nofWrites = 0;
+            mip = entries[ir];
+            if (mip < 0) {
+              mip = Microprogram.FETCH_ADDRESS;
+              status = ILLEGAL_OPCODE;
+              break loop;
+            }
+            if (!table.hasValidRegisters(ir, ram[(commandIp + 1) & 0xFF] & 0xFF,
+                ram[(commandIp + 2) & 0xFF] & 0xFF)) {
+              // Register code beyond SP
+              mip = Microprogram.FETCH_ADDRESS;
+              status = ILLEGAL_REGISTER;
+              break loop;
+            }
+            break;
+          case Microprogram.N_FETCH:
+            mip = Microprogram.FETCH_ADDRESS;
+            commandIp = ip;
+            ++steps;
+            break;
+          case Microprogram.N_JUMP:
+            mip = imm[mip];
+            break;
+          case Microprogram.N_SKIP_SET:
+            mip += ((sr & cond[mip]) != 0) ? imm[mip] : 1;
+            break;
+          case Microprogram.N_SKIP_CLEAR:
+            mip += ((sr & cond[mip]) == 0) ? imm[mip] : 1;
+            break;
+          case Microprogram.N_HALT:
+            mip = Microprogram.FETCH_ADDRESS;
+            ++steps;
+            status = HALTED;
+            break loop;
+          default:
+            throw new IllegalStateException("Illegal next address at MPM address " + mip);
+        }
+      }
+    }
+    finally {
+      if (status != RUNNING && status != HALTED) {
+        // Fault: command not executed, IP points to it
+        undoWrites();
+        System.arraycopy(savedReg, 0, reg, 0, NOF_REGISTERS);
+        sr = savedSr;
+        ip = commandIp;
+        mip = Microprogram.FETCH_ADDRESS;
+      }
+      internal[MIP] = mip;
+      internal[IR] = ir;
+      internal[MAR] = mar;
+      internal[MDR] = mdr;
+      internal[X] = x;
+      internal[Y] = y;
+      internal[RES] = res;
+      internal[SELA] = sela;
+      internal[SELB] = selb;
+      this.ip = ip;
+      this.sr = sr;
+      this.steps = steps;
+      this.microsteps = microsteps;
+      this.status = status;
+    }
+    return status;
+  }
+
+
+  /**
+   * Restore the RAM bytes written by the command being executed, latest
+   * write first.
+   */
+  private void undoWrites() {
+    while (nofWrites > 0) {
+      int address = writeAddresses[--nofWrites];
+      ram[address] = writeValues[nofWrites];
+      if (hooks[address] != 0) {
+        written(address);
+      }
+    }
+  }
+
+
+  @Override
+  public void setIp(int ip) {
+    super.setIp(ip);
+    commandIp = this.ip;
+  }
+
+
+  @Override
+  public String toString() {
+    return super.toString() + " MIP=" + mpm.toString(internal[MIP]) + " microsteps=" + microsteps;
+  }
+}
@@ -0,0 +1,663 @@
+package assembler.simulator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import assembler.GroupListBuilder;
+import assembler.support.Common;
+
+
+/**
+ * The class Microprogram holds the microprogram memory (MPM) of the stebs
+ * control unit. Each micro instruction controls one clock cycle of the data
+ * path and is stored column-wise in primitive arrays, i.e. the micro engine
+ * of MicroSimulator needs no decoding.
+ *
+ * Data path:
+ * <br> - Registers AL, BL, CL, DL, SP, IP, SR
+ * <br> - IR (opcode), MAR and MDR (memory interface)
+ * <br> - X, Y (ALU inputs), RES (ALU output)
+ * <br> - SELA, SELB (register selectors: RA = register[SELA], RB = register[SELB])
+ *
+ * A micro instruction is executed in this order:
+ * <br> 1. READ: MDR = RAM[MAR]
+ * <br> 2. ALU: RES = X op Y, the flags are written to SR if FLAGS is set
+ * <br> 3. Bus transfer: destination = source
+ * <br> 4. WRITE: RAM[MAR] = MDR, IN: AL = port[Y], OUT: port[Y] = AL
+ * <br> 5. IP_INC: IP = IP + 1
+ * <br> 6. Next address: MIP + 1, decode IR, fetch, jump or skip on flags
+ *
+ * The fetch cycle starts at MPM address 000, the command routines start at
+ * the MPM entry addresses of INSTRUCTION.data. A routine longer than the space
+ * up to the next entry is placed behind the last entry and reached by a jump.
+ *
+ * @author ruedi.mueller
+ */
+public final class Microprogram {
+  // Number of micro instructions
+  public static final int MPM_SIZE = 0x800;
+  // Address of the fetch cycle
+  public static final int FETCH_ADDRESS = 0x000;
+
+  // Bus sources
+  static final int S_NONE = 0;
+  static final int S_RA = 1;
+  static final int S_RB = 2;
+  static final int S_SP = 3;
+  static final int S_IP = 4;
+  static final int S_MDR = 5;
+  static final int S_RES = 6;
+  static final int S_SR = 7;
+  static final int S_X = 8;
+  static final int S_Y = 9;
+  static final int S_CONST = 10;
+
+  // Bus destinations
+  static final int D_NONE = 0;
+  static final int D_RA = 1;
+  static final int D_RB = 2;
+  static final int D_SP = 3;
+  static final int D_IP = 4;
+  static final int D_MDR = 5;
+  static final int D_MAR = 6;
+  static final int D_SR = 7;
+  static final int D_X = 8;
+  static final int D_Y = 9;
+  static final int D_IR = 10;
+  static final int D_SELA = 11;
+  static final int D_SELB = 12;
+
+  // ALU operations
+  static final int A_NONE = 0;
+  static final int A_ADD = 1;
+  static final int A_SUB = 2;
+  static final int A_MUL = 3;
+  static final int A_DIV = 4;
+  static final int A_MOD = 5;
+  static final int A_AND = 6;
+  static final int A_OR = 7;
+  static final int A_XOR = 8;
+  static final int A_NOT = 9;
+  static final int A_INC = 10;
+  static final int A_DEC = 11;
+  static final int A_SHL = 12;
+  static final int A_SHR = 13;
+  static final int A_ROL = 14;
+  static final int A_ROR = 15;
+  static final int A_SWAP = 16;
+  // RES = X - 1 + signed Y: jump target relative to the opcode
+  static final int A_REL = 17;
+  // RES = X, sets S and Z
+  static final int A_TEST = 18;
+  static final int A_STI = 19;
+  static final int A_CLI = 20;
+
+  // Control bits
+  static final int C_FLAGS = 0x01;
+  static final int C_READ = 0x02;
+  static final int C_WRITE = 0x04;
+  static final int C_IN = 0x08;
+  static final int C_OUT = 0x10;
+  static final int C_IP_INC = 0x20;
+
+  // Next address
+  static final int N_INC = 0;
+  static final int N_DECODE = 1;
+  static final int N_FETCH = 2;
+  static final int N_JUMP = 3;
+  // MIP + imm if any of the cond flags is set, else MIP + 1
+  static final int N_SKIP_SET = 4;
+  // MIP + imm if all cond flags are clear, else MIP + 1
+  static final int N_SKIP_CLEAR = 5;
+  static final int N_HALT = 6;
+
+  private static final String[] SOURCE_NAMES = {
+    "", "RA", "RB", "SP", "IP", "MDR", "RES", "SR", "X", "Y", "CONST"
+  };
+  private static final String[] DESTINATION_NAMES = {
+    "", "RA", "RB", "SP", "IP", "MDR", "MAR", "SR", "X", "Y", "IR", "SELA", "SELB"
+  };
+  private static final String[] ALU_NAMES = {
+    "", "ADD", "SUB", "MUL", "DIV", "MOD", "AND", "OR", "XOR", "NOT", "INC", "DEC",
+    "SHL", "SHR", "ROL", "ROR", "SWAP", "REL", "TEST", "STI", "CLI"
+  };
+  private static final String[] NEXT_NAMES = {
+    "", "DECODE", "FETCH", "JUMP", "SKIP_SET", "SKIP_CLEAR", "HALT"
+  };
+
+  // Micro instruction fields
+  final byte[] source = new byte[MPM_SIZE];
+  final byte[] destination = new byte[MPM_SIZE];
+  final byte[] alu = new byte[MPM_SIZE];
+  final byte[] control = new byte[MPM_SIZE];
+  final byte[] next = new byte[MPM_SIZE];
+  final byte[] cond = new byte[MPM_SIZE];
+  final short[] imm = new short[MPM_SIZE];
+  // Entry address of each opcode, GroupListBuilder.NO_MPM_ENTRY if unknown
+  final int[] entries = new int[0x100];
+
+  // Number of micro instructions in use
+  private int nofMicroInstructions;
+
+
+  /**
+   * Build the microprogram for the specified instruction set.
+   *
+   * @param table The instruction set with the MPM entry addresses
+   * @throws IllegalArgumentException if routines overlap or exceed the MPM
+   */
+  public Microprogram(InstructionTable table) {
+    Arrays.fill(entries, GroupListBuilder.NO_MPM_ENTRY);
+    boolean[] used = new boolean[MPM_SIZE];
+    store(FETCH_ADDRESS, fetch(), used);
+
+    // Entries in ascending order, the space of a routine ends at the next entry
+    int[] sorted = new int[0x100];
+    int nofEntries = 0;
+    for (int opcode = 0; opcode < 0x100; ++opcode) {
+      if (table.isLegal(opcode) && table.getMpmEntry(opcode) >= 0) {
+        sorted[nofEntries++] = (table.getMpmEntry(opcode) << 8) | opcode;
+      }
+    }
+    Arrays.sort(sorted, 0, nofEntries);
+    int overflow = (nofEntries == 0) ? FETCH_ADDRESS + fetch().size() : 0;
+    for (int i = 0; i < nofEntries; ++i) {
+      int entry = sorted[i] >> 8;
+      overflow = Math.max(overflow, entry + routine(table.operations[sorted[i] & 0xFF]).size());
+    }
+
+    for (int i = 0; i < nofEntries; ++i) {
+      int entry = sorted[i] >> 8;
+      int opcode = sorted[i] & 0xFF;
+      int end = (i + 1 < nofEntries) ? sorted[i + 1] >> 8 : MPM_SIZE;
+      entries[opcode] = entry;
+      if (used[entry]) {
+        // Entry shared with another opcode
+        continue;
+      }
+      List<int[]> routine = routine(table.operations[opcode]);
+      if (entry + routine.size() <= end) {
+        store(entry, routine, used);
+      }
+      else {
+        List<int[]> jump = new ArrayList<int[]>();
+        jump.add(mi(S_NONE, D_NONE, A_NONE, 0, N_JUMP, 0, overflow));
+        store(entry, jump, used);
+        store(overflow, routine, used);
+        overflow += routine.size();
+      }
+    }
+  }
+
+
+  /**
+   * Answer the MPM entry address of the specified opcode.
+   *
+   * @param opcode The opcode
+   * @return the address, or GroupListBuilder.NO_MPM_ENTRY if illegal
+   */
+  public int getEntry(int opcode) {
+    return entries[opcode & 0xFF];
+  }
+
+
+  /**
+   * Answer the number of micro instructions in use.
+   *
+   * @return the number of micro instructions
+   */
+  public int getNofMicroInstructions() {
+    return nofMicroInstructions;
+  }
+
+
+  /**
+   * Store a routine at the specified MPM address.
+   *
+   * @param address The MPM address of the first micro instruction
+   * @param routine The micro instructions
+   * @param used The MPM addresses already in use
+   */
+  private void store(int address, List<int[]> routine, boolean[] used) {
+    if (address + routine.size() > MPM_SIZE) {
+      throw new IllegalArgumentException("Microprogram exceeds MPM at address "
+          + Common.toHexString(address, 3));
+    }
+    for (int[] mi : routine) {
+      if (used[address]) {
+        throw new IllegalArgumentException("Microprogram overlaps at address "
+            + Common.toHexString(address, 3));
+      }
+      used[address] = true;
+      source[address] = (byte) mi[0];
+      destination[address] = (byte) mi[1];
+      alu[address] = (byte) mi[2];
+      control[address] = (byte) mi[3];
+      next[address] = (byte) mi[4];
+      cond[address] = (byte) mi[5];
+      imm[address] = (short) mi[6];
+      ++address;
+      ++nofMicroInstructions;
+    }
+  }
+
+
+  /**
+   * Answer a micro instruction.
+   */
+  private static int[] mi(int source, int destination, int alu, int control, int next, int cond, int imm) {
+    return new int[] {source, destination, alu, control, next, cond, imm};
+  }
+
+  // Bus transfer, continue with next micro instruction
+  private static int[] mi(int source, int destination, int control) {
+    return mi(source, destination, A_NONE, control, N_INC, 0, 0);
+  }
+
+  // ALU operation with bus transfer
+  private static int[] alu(int alu, int control, int source, int destination) {
+    return mi(source, destination, alu, control, N_INC, 0, 0);
+  }
+
+  // Load a constant into a register selector, e.g. SELA = AL
+  private static int[] select(int register) {
+    return mi(S_CONST, D_SELA, A_NONE, 0, N_INC, 0, register);
+  }
+
+
+  /**
+   * Answer the routine with its last micro instruction continuing with the
+   * fetch cycle.
+   */
+  private static List<int[]> fetching(List<int[]> routine) {
+    routine.get(routine.size() - 1)[4] = N_FETCH;
+    return routine;
+  }
+
+
+  // Fetch cycle: IR = [IP], IP = IP + 1, decode
+  private static List<int[]> fetch() {
+    List<int[]> r = new ArrayList<int[]>();
+    r.add(mi(S_IP, D_MAR, C_IP_INC));
+    r.add(mi(S_MDR, D_IR, A_NONE, C_READ, N_DECODE, 0, 0));
+    return r;
+  }
+
+  // Fetch the next command byte into the destination
+  private static void operand(List<int[]> r, int destination) {
+    r.add(mi(S_IP, D_MAR, C_IP_INC));
+    r.add(mi(S_MDR, destination, C_READ));
+  }
+
+  // [SP] = source, SP = SP - 1
+  private static void push(List<int[]> r, int source) {
+    r.add(mi(S_SP, D_MAR, 0));
+    r.add(mi(source, D_MDR, C_WRITE));
+    r.add(mi(S_SP, D_X, 0));
+    r.add(alu(A_DEC, 0, S_RES, D_SP));
+  }
+
+  // SP = SP + 1, destination = [SP]
+  private static void pop(List<int[]> r, int destination) {
+    r.add(mi(S_SP, D_X, 0));
+    r.add(alu(A_INC, 0, S_RES, D_MAR));
+    // SP before the destination, which may be SP itself
+    r.add(mi(S_RES, D_SP, 0));
+    r.add(mi(S_MDR, destination, C_READ));
+  }
+
+
+  /**
+   * Answer the microcode of the specified operation.
+   *
+   * @param operation The operation, cp. InstructionTable
+   * @return the micro instructions
+   */
+  static List<int[]> routine(int operation) {
+    List<int[]> r = new ArrayList<int[]>();
+    switch (operation) {
+      case InstructionTable.HALT:
+        // IP back to HALT
+        r.add(mi(S_IP, D_X, 0));
+        r.add(mi(S_RES, D_IP, A_DEC, 0, N_HALT, 0, 0));
+        return r;
+
+      case InstructionTable.ROL:
+        return unary(r, A_ROL);
+      case InstructionTable.ROR:
+        return unary(r, A_ROR);
+      case InstructionTable.SHL:
+        return unary(r, A_SHL);
+      case InstructionTable.SHR:
+        return unary(r, A_SHR);
+      case InstructionTable.INC:
+        return unary(r, A_INC);
+      case InstructionTable.DEC:
+        return unary(r, A_DEC);
+      case InstructionTable.NOT:
+        return unary(r, A_NOT);
+
+      case InstructionTable.ADD_RR:
+        return binary(r, A_ADD, D_SELB);
+      case InstructionTable.SUB_RR:
+        return binary(r, A_SUB, D_SELB);
+      case InstructionTable.MUL_RR:
+        return binary(r, A_MUL, D_SELB);
+      case InstructionTable.DIV_RR:
+        return binary(r, A_DIV, D_SELB);
+      case InstructionTable.MOD_RR:
+        return binary(r, A_MOD, D_SELB);
+      case InstructionTable.AND_RR:
+        return binary(r, A_AND, D_SELB);
+      case InstructionTable.OR_RR:
+        return binary(r, A_OR, D_SELB);
+      case InstructionTable.XOR_RR:
+        return binary(r, A_XOR, D_SELB);
+      case InstructionTable.ADD_RC:
+        return binary(r, A_ADD, D_Y);
+      case InstructionTable.SUB_RC:
+        return binary(r, A_SUB, D_Y);
+      case InstructionTable.MUL_RC:
+        return binary(r, A_MUL, D_Y);
+      case InstructionTable.DIV_RC:
+        return binary(r, A_DIV, D_Y);
+      case InstructionTable.MOD_RC:
+        return binary(r, A_MOD, D_Y);
+      case InstructionTable.AND_RC:
+        return binary(r, A_AND, D_Y);
+      case InstructionTable.OR_RC:
+        return binary(r, A_OR, D_Y);
+      case InstructionTable.XOR_RC:
+        return binary(r, A_XOR, D_Y);
+
+      case InstructionTable.CMP_RR:
+        operand(r, D_SELA);
+        operand(r, D_SELB);
+        r.add(mi(S_RA, D_X, 0));
+        r.add(mi(S_RB, D_Y, 0));
+        r.add(alu(A_SUB, C_FLAGS, S_NONE, D_NONE));
+        return fetching(r);
+      case InstructionTable.CMP_RC:
+        operand(r, D_SELA);
+        operand(r, D_Y);
+        r.add(mi(S_RA, D_X, 0));
+        r.add(alu(A_SUB, C_FLAGS, S_NONE, D_NONE));
+        return fetching(r);
+      case InstructionTable.CMP_RA:
+        operand(r, D_SELA);
+        operand(r, D_MAR);
+        r.add(mi(S_MDR, D_Y, C_READ));
+        r.add(mi(S_RA, D_X, 0));
+        r.add(alu(A_SUB, C_FLAGS, S_NONE, D_NONE));
+        return fetching(r);
+
+      case InstructionTable.JMP:
+        return jump(r);
+      case InstructionTable.JZ:
+        return conditionalJump(r, N_SKIP_SET, Simulator.FLAG_Z);
+      case InstructionTable.JNZ:
+        return conditionalJump(r, N_SKIP_CLEAR, Simulator.FLAG_Z);
+      case InstructionTable.JS:
+        return conditionalJump(r, N_SKIP_SET, Simulator.FLAG_S);
+      case InstructionTable.JNS:
+        return conditionalJump(r, N_SKIP_CLEAR, Simulator.FLAG_S);
+      case InstructionTable.JO:
+        return conditionalJump(r, N_SKIP_SET, Simulator.FLAG_O);
+      case InstructionTable.JNO:
+        return conditionalJump(r, N_SKIP_CLEAR, Simulator.FLAG_O);
+      case InstructionTable.JPA:
+        r.add(mi(S_IP, D_MAR, 0));
+        r.add(mi(S_MDR, D_IP, C_READ));
+        return fetching(r);
+
+      case InstructionTable.CALL:
+        operand(r, D_Y);
+        push(r, S_IP);
+        r.add(mi(S_Y, D_IP, 0));
+        return fetching(r);
+      case InstructionTable.INT:
+        operand(r, D_Y);
+        push(r, S_IP);
+        r.add(mi(S_Y, D_MAR, 0));
+        r.add(mi(S_MDR, D_IP, C_READ));
+        return fetching(r);
+      case InstructionTable.RET:
+      case InstructionTable.IRET:
+        pop(r, D_IP);
+        return fetching(r);
+
+      case InstructionTable.MOV_RC:
+        operand(r, D_SELA);
+        operand(r, D_RA);
+        return fetching(r);
+      case InstructionTable.MOV_RA:
+        operand(r, D_SELA);
+        operand(r, D_MAR);
+        r.add(mi(S_MDR, D_RA, C_READ));
+        return fetching(r);
+      case InstructionTable.MOV_AR:
+        operand(r, D_Y);
+        operand(r, D_SELB);
+        r.add(mi(S_Y, D_MAR, 0));
+        r.add(mi(S_RB, D_MDR, C_WRITE));
+        return fetching(r);
+      case InstructionTable.MOV_RI:
+        operand(r, D_SELA);
+        operand(r, D_SELB);
+        r.add(mi(S_RB, D_MAR, 0));
+        r.add(mi(S_MDR, D_RA, C_READ));
+        return fetching(r);
+      case InstructionTable.MOV_IR:
+        operand(r, D_SELA);
+        operand(r, D_SELB);
+        r.add(mi(S_RA, D_MAR, 0));
+        r.add(mi(S_RB, D_MDR, C_WRITE));
+        return fetching(r);
+      case InstructionTable.MOV_RR:
+        operand(r, D_SELA);
+        operand(r, D_SELB);
+        r.add(mi(S_RB, D_RA, 0));
+        return fetching(r);
+      case InstructionTable.XCHG:
+        operand(r, D_SELA);
+        operand(r, D_SELB);
+        r.add(mi(S_RA, D_X, 0));
+        r.add(mi(S_RB, D_RA, 0));
+        r.add(mi(S_X, D_RB, 0));
+        return fetching(r);
+
+      case InstructionTable.PUSH:
+        operand(r, D_SELA);
+        push(r, S_RA);
+        return fetching(r);
+      case InstructionTable.POP:
+        operand(r, D_SELA);
+        pop(r, D_RA);
+        return fetching(r);
+      case InstructionTable.PUSHF:
+        push(r, S_SR);
+        return fetching(r);
+      case InstructionTable.POPF:
+        pop(r, D_SR);
+        return fetching(r);
+
+      case InstructionTable.IN:
+        operand(r, D_Y);
+        r.add(mi(S_NONE, D_NONE, C_IN));
+        return fetching(r);
+      case InstructionTable.OUT:
+        operand(r, D_Y);
+        r.add(mi(S_NONE, D_NONE, C_OUT));
+        return fetching(r);
+      case InstructionTable.STI:
+        r.add(alu(A_STI, 0, S_NONE, D_NONE));
+        return fetching(r);
+      case InstructionTable.CLI:
+        r.add(alu(A_CLI, 0, S_NONE, D_NONE));
+        return fetching(r);
+      case InstructionTable.NOP:
+        r.add(mi(S_NONE, D_NONE, 0));
+        return fetching(r);
+
+      case InstructionTable.INC_I:
+        operand(r, D_SELA);
+        r.add(mi(S_RA, D_MAR, 0));
+        r.add(mi(S_MDR, D_X, C_READ));
+        r.add(alu(A_INC, C_FLAGS | C_WRITE, S_RES, D_MDR));
+        return fetching(r);
+      case InstructionTable.DEC_A:
+        operand(r, D_MAR);
+        r.add(mi(S_MDR, D_X, C_READ));
+        r.add(alu(A_DEC, C_FLAGS | C_WRITE, S_RES, D_MDR));
+        return fetching(r);
+      case InstructionTable.SWAP_A:
+        operand(r, D_MAR);
+        r.add(mi(S_MDR, D_X, C_READ));
+        r.add(alu(A_SWAP, C_WRITE, S_RES, D_MDR));
+        return fetching(r);
+      case InstructionTable.CLINC_I:
+        operand(r, D_SELA);
+        r.add(mi(S_RA, D_MAR, 0));
+        r.add(mi(S_CONST, D_MDR, C_WRITE));
+        r.add(mi(S_RA, D_X, 0));
+        r.add(alu(A_INC, 0, S_RES, D_RA));
+        return fetching(r);
+      case InstructionTable.CPYD:
+        operand(r, D_SELA);
+        operand(r, D_Y);
+        r.add(mi(S_RA, D_MAR, 0));
+        r.add(mi(S_RA, D_X, C_READ));
+        r.add(alu(A_ADD, C_WRITE, S_RES, D_MAR));
+        r.add(alu(A_INC, 0, S_RES, D_RA));
+        return fetching(r);
+
+      case InstructionTable.NEXT:
+        return next(r);
+
+      default:
+        return r;
+    }
+  }
+
+  // MNEM reg
+  private static List<int[]> unary(List<int[]> r, int operation) {
+    operand(r, D_SELA);
+    r.add(mi(S_RA, D_X, 0));
+    r.add(alu(operation, C_FLAGS, S_RES, D_RA));
+    return fetching(r);
+  }
+
+  // MNEM reg,reg (second operand to SELB) or MNEM reg,const (to Y)
+  private static List<int[]> binary(List<int[]> r, int operation, int second) {
+    operand(r, D_SELA);
+    operand(r, second);
+    r.add(mi(S_RA, D_X, 0));
+    if (second == D_SELB) {
+      r.add(mi(S_RB, D_Y, 0));
+    }
+    r.add(alu(operation, C_FLAGS, S_RES, D_RA));
+    return fetching(r);
+  }
+
+  // IP = opcode address + signed offset
+  private static List<int[]> jump(List<int[]> r) {
+    r.add(mi(S_IP, D_MAR, 0));
+    r.add(mi(S_MDR, D_Y, C_READ));
+    r.add(mi(S_IP, D_X, 0));
+    r.add(alu(A_REL, 0, S_RES, D_IP));
+    return fetching(r);
+  }
+
+  // Skip to the jump if taken, else skip the offset
+  private static List<int[]> conditionalJump(List<int[]> r, int skip, int flag) {
+    r.add(mi(S_NONE, D_NONE, A_NONE, 0, skip, flag, 2));
+    r.add(mi(S_NONE, D_NONE, A_NONE, C_IP_INC, N_FETCH, 0, 0));
+    return jump(r);
+  }
+
+  // Task switch, cp. Simulator
+  private static List<int[]> next(List<int[]> r) {
+    operand(r, D_Y);
+    // Save context
+    for (int register = Simulator.AL; register <= Simulator.DL; ++register) {
+      r.add(select(register));
+      push(r, S_RA);
+    }
+    push(r, S_SR);
+    // [[ptr]] = SP
+    r.add(mi(S_Y, D_MAR, 0));
+    r.add(mi(S_MDR, D_MAR, C_READ));
+    r.add(mi(S_SP, D_MDR, C_WRITE));
+    // [ptr] = [ptr] + 1, MAR = [ptr]
+    r.add(mi(S_Y, D_MAR, 0));
+    r.add(mi(S_MDR, D_X, C_READ));
+    r.add(alu(A_INC, C_WRITE, S_RES, D_MDR));
+    r.add(mi(S_RES, D_MAR, 0));
+    r.add(mi(S_MDR, D_X, C_READ));
+    // End of table: [ptr] = ptr + 1, MAR = ptr + 1
+    r.add(mi(S_NONE, D_NONE, A_TEST, C_FLAGS, N_SKIP_CLEAR, Simulator.FLAG_Z, 5));
+    r.add(mi(S_Y, D_X, 0));
+    r.add(alu(A_INC, 0, S_RES, D_MDR));
+    r.add(mi(S_Y, D_MAR, C_WRITE));
+    r.add(mi(S_RES, D_MAR, 0));
+    // Restore context
+    r.add(mi(S_MDR, D_SP, C_READ));
+    pop(r, D_SR);
+    for (int register = Simulator.DL; register >= Simulator.AL; --register) {
+      r.add(select(register));
+      pop(r, D_RA);
+    }
+    pop(r, D_IP);
+    return fetching(r);
+  }
+
+
+  /**
+   * Answer a micro instruction in readable form, e.g. "IP->MAR IP+".
+   *
+   * @param address The MPM address
+   * @return the string
+   */
+  public String toString(int address) {
+    StringBuilder sb = new StringBuilder(Common.toHexString(address, 3)).append(':');
+    int c = control[address];
+    if ((c & C_READ) != 0) {
+      sb.append(" READ");
+    }
+    if (alu[address] != A_NONE) {
+      sb.append(' ').append(ALU_NAMES[alu[address]]);
+      if ((c & C_FLAGS) != 0) {
+        sb.append("/F");
+      }
+    }
+    if (destination[address] != D_NONE) {
+      sb.append(' ').append(source[address] == S_CONST
+          ? Common.toHexByteString(imm[address]) : SOURCE_NAMES[source[address]])
+          .append("->").append(DESTINATION_NAMES[destination[address]]);
+    }
+    if ((c & C_WRITE) != 0) {
+      sb.append(" WRITE");
+    }
+    if ((c & C_IN) != 0) {
+      sb.append(" IN");
+    }
+    if ((c & C_OUT) != 0) {
+      sb.append(" OUT");
+    }
+    if ((c & C_IP_INC) != 0) {
+      sb.append(" IP+");
+    }
+    if (next[address] != N_INC) {
+      sb.append(' ').append(NEXT_NAMES[next[address]]);
+      if (next[address] == N_JUMP) {
+        sb.append(' ').append(Common.toHexString(imm[address], 3));
+      }
+      else if (next[address] == N_SKIP_SET || next[address] == N_SKIP_CLEAR) {
+        sb.append(' ').append(Common.toHexByteString(cond[address] & 0xFF))
+            .append(",+").append(imm[address]);
+      }
+    }
+    return sb.toString();
+  }
+}
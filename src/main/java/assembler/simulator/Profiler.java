@@ -0,0 +1,173 @@
+package assembler.simulator;
+
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import assembler.support.Common;
+
+
+/**
+ * The class Profiler counts the commands executed by a simulator per
+ * address and per opcode. Joined with the code to line array of the
+ * assembler, the counts are shown per source line in a heat list: the code
+ * list of CodeListBuilder with an additional count column.
+ *
+ * Example:
+ *   Profiler profiler = new Profiler();
+ *   simulator.setProfiler(profiler);
+ *   simulator.run(maxSteps);
+ *   System.out.println(profiler.toHeatList(Common.getCodeList().toString(),
+ *       asm.getCodeToLineArr()));
+ *
+ * @author ruedi.mueller
+ */
+public final class Profiler {
+  // Width of the count column
+  private static final int COUNT_TAB = 10;
+  // Code list line with a command: "; [addr]  opcode"
+  private static final Pattern CODE_LINE = Pattern.compile("; \\[([0-9A-F]+)\\]  [0-9A-F]{2}");
+
+  // Number of commands executed at each address
+  private final long[] addressCounts = new long[Simulator.RAM_SIZE];
+  // Number of commands executed of each opcode
+  private final long[] opcodeCounts = new long[0x100];
+  // Total number of commands executed
+  private long total;
+
+
+  /**
+   * Record an executed command.
+   *
+   * @param address The address of the command
+   * @param opcode The opcode of the command
+   */
+  void record(int address, int opcode) {
+    ++addressCounts[address];
+    ++opcodeCounts[opcode];
+    ++total;
+  }
+
+
+  /**
+   * Clear all counts.
+   */
+  public void reset() {
+    Arrays.fill(addressCounts, 0);
+    Arrays.fill(opcodeCounts, 0);
+    total = 0;
+  }
+
+
+  // Getters
+  public long getCount(int address) {
+    return addressCounts[address & 0xFF];
+  }
+
+  public long getOpcodeCount(int opcode) {
+    return opcodeCounts[opcode & 0xFF];
+  }
+
+  public long getTotal() {
+    return total;
+  }
+
+
+  /**
+   * Answer the number of commands executed per source line.
+   *
+   * @param codeToLineArr The source line of each machine code byte, -1 if
+   *                      none, cp. Assembler.getCodeToLineArr()
+   * @return the counts indexed by source line
+   */
+  public long[] getLineCounts(int[] codeToLineArr) {
+    int nofLines = 0;
+    for (int line : codeToLineArr) {
+      nofLines = Math.max(nofLines, line + 1);
+    }
+    long[] lineCounts = new long[nofLines];
+    for (int address = 0; address < Math.min(codeToLineArr.length, Simulator.RAM_SIZE); ++address) {
+      if (codeToLineArr[address] >= 0) {
+        lineCounts[codeToLineArr[address]] += addressCounts[address];
+      }
+    }
+    return lineCounts;
+  }
+
+
+  /**
+   * Answer the code list with the number of commands executed per source line
+   * in front of each command line.
+   *
+   * @param codeList The code list, cp. Common.getCodeList()
+   * @param codeToLineArr The source line of each machine code byte, cp.
+   *                      Assembler.getCodeToLineArr()
+   * @return the heat list
+   */
+  public String toHeatList(String codeList, int[] codeToLineArr) {
+    long[] lineCounts = getLineCounts(codeToLineArr);
+    String blank = spacing("");
+    StringBuilder sb = new StringBuilder();
+    int start = 0;
+    while (start < codeList.length()) {
+      int end = codeList.indexOf('\n', start);
+      end = (end < 0) ? codeList.length() : end + 1;
+      String line = codeList.substring(start, end);
+      Matcher matcher = CODE_LINE.matcher(line);
+      int address = matcher.find() ? Integer.parseInt(matcher.group(1), 16) : -1;
+      if (address >= 0 && address < codeToLineArr.length && codeToLineArr[address] >= 0) {
+        String count = Long.toString(lineCounts[codeToLineArr[address]]);
+        sb.append(spacing(count)).append(count).append("  ");
+      }
+      else {
+        sb.append(blank).append("  ");
+      }
+      sb.append(line);
+      start = end;
+    }
+    return sb.toString();
+  }
+
+
+  /**
+   * Answer the opcodes executed with their mnemonics and counts, most
+   * frequent first, e.g. "D0 MOV           42".
+   *
+   * @param table The instruction set
+   * @return the histogram, one opcode per line
+   */
+  public String toOpcodeHistogram(InstructionTable table) {
+    Integer[] opcodes = new Integer[0x100];
+    for (int opcode = 0; opcode < opcodes.length; ++opcode) {
+      opcodes[opcode] = opcode;
+    }
+    Arrays.sort(opcodes, new java.util.Comparator<Integer>() {
+      @Override
+      public int compare(Integer o1, Integer o2) {
+        return Long.compare(opcodeCounts[o2], opcodeCounts[o1]);
+      }
+    });
+    StringBuilder sb = new StringBuilder();
+    for (int opcode : opcodes) {
+      if (opcodeCounts[opcode] == 0) {
+        break;
+      }
+      String mnemonic = (table.getMnemonic(opcode) != null) ? table.getMnemonic(opcode) : "?";
+      sb.append(String.format("%s %-6s%" + COUNT_TAB + "d", Common.toHexByteString(opcode), mnemonic,
+          opcodeCounts[opcode])).append('\n');
+    }
+    return sb.toString();
+  }
+
+
+  /**
+   * Answer the spaces to right-align the specified string in the count column.
+   */
+  private static String spacing(String str) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = str.length(); i < COUNT_TAB; ++i) {
+      sb.append(' ');
+    }
+    return sb.toString();
+  }
+}
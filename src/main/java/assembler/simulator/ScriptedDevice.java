@@ -0,0 +1,119 @@
+package assembler.simulator;
+
+import java.util.Arrays;
+
+
+/**
+ * The class ScriptedDevice is a device returning queued input bytes to IN
+ * and recording the bytes written by OUT, e.g. to check the I/O of graded
+ * programs without GUI. When the input queue is exhausted IN reads the
+ * default value.
+ *
+ * Example:
+ *   ScriptedDevice heater = new ScriptedDevice(0x00);
+ *   heater.queue(0x40, 0x00, 0x40);
+ *   simulator.attach(0x01, heater);
+ *   simulator.run(maxSteps);
+ *   int[] codes = heater.getOutput();
+ *
+ * @author ruedi.mueller
+ */
+public class ScriptedDevice implements Device {
+  // Value read when the input queue is exhausted
+  private final int defaultValue;
+  // Input queue
+  private byte[] input = new byte[16];
+  private int nofInputs;
+  private int nextInput;
+  // Output recorded
+  private byte[] output = new byte[16];
+  private int nofOutputs;
+
+
+  /**
+   * Instantiate a device reading 00 when its input queue is exhausted.
+   */
+  public ScriptedDevice() {
+    this(0x00);
+  }
+
+
+  /**
+   * Instantiate a device.
+   *
+   * @param defaultValue The byte read when the input queue is exhausted
+   */
+  public ScriptedDevice(int defaultValue) {
+    this.defaultValue = defaultValue & 0xFF;
+  }
+
+
+  /**
+   * Append bytes to the input queue.
+   *
+   * @param values The bytes returned by IN in this order
+   */
+  public void queue(int... values) {
+    if (nofInputs + values.length > input.length) {
+      input = Arrays.copyOf(input, Math.max(2 * input.length, nofInputs + values.length));
+    }
+    for (int value : values) {
+      input[nofInputs++] = (byte) value;
+    }
+  }
+
+
+  /**
+   * Answer the number of queued bytes not yet read.
+   */
+  public int getNofPendingInputs() {
+    return nofInputs - nextInput;
+  }
+
+
+  /**
+   * Answer the bytes written by OUT in this order.
+   *
+   * @return the output bytes
+   */
+  public int[] getOutput() {
+    int[] values = new int[nofOutputs];
+    for (int i = 0; i < nofOutputs; ++i) {
+      values[i] = output[i] & 0xFF;
+    }
+    return values;
+  }
+
+
+  /**
+   * Answer the number of bytes written by OUT.
+   */
+  public int getNofOutputs() {
+    return nofOutputs;
+  }
+
+
+  /**
+   * Clear the input queue and the output recorded.
+   */
+  public void clear() {
+    nofInputs = 0;
+    nextInput = 0;
+    nofOutputs = 0;
+  }
+
+
+  @Override
+  public int in(int port) {
+    return (nextInput < nofInputs) ? input[nextInput++] & 0xFF : defaultValue;
+  }
+
+
+  @Override
+  public void out(int port, int value) {
+    if (nofOutputs == output.length) {
+      output = Arrays.copyOf(output, 2 * nofOutputs);
+    }
+    output[nofOutputs++] = (byte) value;
+  }
+}
@@ -0,0 +1,1038 @@
+package assembler.simulator;
+
+import java.util.Arrays;
+
+import assembler.Memory;
+import assembler.support.EventSink;
+import assembler.support.Events;
+
+
+/**
+ * The class Simulator executes a machine code image produced by the assembler
+ * without any GUI. It models the stebs CPU at instruction level: 256 bytes RAM,
+ * the registers AL, BL, CL, DL and SP, the instruction pointer IP and the status
+ * register SR with the flags I, S, O and Z.
+ *
+ * Conventions as in stebs:
+ * <br> - The stack grows downwards, PUSH writes to [SP] and then decrements SP
+ * <br> - Relative jumps are relative to the address of the jump command
+ * <br> - CALL and INT push the address of the next command, INT jumps to the
+ *        address found in the vector [addr]
+ * <br> - MUL, DIV and MOD treat their operands as unsigned bytes, MUL sets
+ *        the flag O if the product exceeds FF
+ * <br> - IN and OUT transfer AL from/to a port
+ * <br> - HALT stops the simulation with IP pointing to HALT
+ * <br> - A hardware interrupt is serviced between two commands if the flag I
+ *        is set: the address of the next command is pushed and the CPU jumps
+ *        to the address found in the vector [02], the flags are unchanged
+ *
+ * The main loop keeps RAM in a byte array and state in primitive fields and
+ * dispatches on a table lookup, i.e. it runs tens of millions of commands per
+ * second.
+ *
+ * @author ruedi.mueller
+ */
+public class Simulator {
+  // RAM size addressable by 8 bit addresses
+  public static final int RAM_SIZE = 0x100;
+  // Initial stack pointer
+  public static final int SP_INIT = 0xBF;
+
+  // Register codes, cp. Common.REGISTERS
+  public static final int AL = 0;
+  public static final int BL = 1;
+  public static final int CL = 2;
+  public static final int DL = 3;
+  public static final int SP = 4;
+  public static final int NOF_REGISTERS = 5;
+
+  // Flags in the status register
+  public static final int FLAG_Z = 0x02;
+  public static final int FLAG_O = 0x04;
+  public static final int FLAG_S = 0x08;
+  public static final int FLAG_I = 0x10;
+
+  // Simulation status
+  public static final int RUNNING = 0;
+  public static final int HALTED = 1;
+  public static final int ILLEGAL_OPCODE = 2;
+  public static final int ILLEGAL_REGISTER = 3;
+  public static final int DIVISION_BY_ZERO = 4;
+
+  // Address of the hardware interrupt vector
+  public static final int INTERRUPT_VECTOR = 0x02;
+  // Step count of an interrupt not scheduled
+  private static final long NO_INTERRUPT = Long.MAX_VALUE;
+
+  // Write hooks
+  static final int HOOK_CODE = 0x01;
+  static final int HOOK_WATCH = 0x02;
+
+  // Sign and zero flags of each byte value
+  private static final int[] SZ_FLAGS = new int[0x100];
+
+  static {
+    for (int value = 0; value < 0x100; ++value) {
+      SZ_FLAGS[value] = (value == 0 ? FLAG_Z : 0) | ((value & 0x80) != 0 ? FLAG_S : 0);
+    }
+  }
+
+  // The instruction set
+  private final InstructionTable table;
+
+  // RAM
+  final byte[] ram = new byte[RAM_SIZE];
+  // Registers AL, BL, CL, DL and SP
+  final int[] reg = new int[NOF_REGISTERS];
+  // Instruction pointer
+  int ip;
+  // Status register
+  int sr;
+  // Number of commands executed
+  long steps;
+  // Simulation status
+  int status;
+
+  // Addresses whose writes are reported to written(), 0 if none
+  final byte[] hooks = new byte[RAM_SIZE];
+
+  // The profiler, null if profiling is off
+  private Profiler profiler;
+  // The trace recorder, null if tracing is off
+  private TraceRecorder recorder;
+  // The debugger notified of writes to watched addresses, null if none
+  Debugger debugger;
+
+  // Port latches used by IN and OUT of ports without device
+  private final int[] ports = new int[0x100];
+  // Devices attached to the ports, null if none
+  private final Device[] devices = new Device[0x100];
+
+  // Commands between two periodic interrupts, 0 if none
+  private long interruptPeriod;
+  // Step count of the next periodic interrupt
+  private long nextPeriodicInterrupt = NO_INTERRUPT;
+  // Step count of the single interrupt
+  private long singleInterrupt = NO_INTERRUPT;
+  // Interrupt requested and not yet serviced
+  private boolean interruptPending;
+  // Number of interrupts serviced
+  private long nofInterrupts;
+
+
+  /**
+   * Instantiate a simulator for the instruction set in INSTRUCTION.data.
+   */
+  public Simulator() {
+    this(InstructionTable.load());
+  }
+
+
+  /**
+   * Instantiate a simulator for the specified instruction set.
+   *
+   * @param table The instruction set, may be shared among simulators
+   */
+  public Simulator(InstructionTable table) {
+    this.table = table;
+    reset();
+  }
+
+
+  // Getters and setters
+  public InstructionTable getTable() {
+    return table;
+  }
+
+  public int getRegister(int code) {
+    return reg[code];
+  }
+
+  public void setRegister(int code, int value) {
+    reg[code] = value & 0xFF;
+  }
+
+  public int getIp() {
+    return ip;
+  }
+
+  public void setIp(int ip) {
+    this.ip = ip & 0xFF;
+  }
+
+  public int getSr() {
+    return sr;
+  }
+
+  public void setSr(int sr) {
+    this.sr = sr & 0xFF;
+  }
+
+  public long getSteps() {
+    return steps;
+  }
+
+  public int getStatus() {
+    return status;
+  }
+
+  /**
+   * Answer the number of cycles executed, one per command, cp. MicroSimulator.
+   */
+  public long getCycles() {
+    return steps;
+  }
+
+  public Profiler getProfiler() {
+    return profiler;
+  }
+
+  /**
+   * Attach a profiler to record every command executed, null to switch
+   * profiling off. Without profiler commands are executed at full speed.
+   *
+   * @param profiler The profiler or null
+   */
+  public void setProfiler(Profiler profiler) {
+    this.profiler = profiler;
+  }
+
+  public TraceRecorder getTraceRecorder() {
+    return recorder;
+  }
+
+  /**
+   * Attach a trace recorder to record the state changes of every command
+   * executed, null to switch tracing off. Without recorder commands are
+   * executed at full speed.
+   *
+   * @param recorder The trace recorder or null
+   */
+  public void setTraceRecorder(TraceRecorder recorder) {
+    this.recorder = recorder;
+  }
+
+  public long getInterruptPeriod() {
+    return interruptPeriod;
+  }
+
+  /**
+   * Set the periodic interrupt. An interrupt is requested whenever the step
+   * count reaches a multiple of the period, i.e. timing depends on the
+   * commands executed only and is reproducible.
+   *
+   * @param period The number of commands between two interrupts, 0 to
+   *               switch the periodic interrupt off
+   */
+  public void setInterruptPeriod(long period) {
+    if (period < 0) {
+      throw new IllegalArgumentException("Negative interrupt period " + period);
+    }
+    interruptPeriod = period;
+    scheduleTimer();
+  }
+
+  /**
+   * Schedule a single interrupt, it is requested when the step count reaches
+   * the specified value. A single interrupt scheduled before is replaced.
+   *
+   * @param step The step count, e.g. getSteps() to request it at once
+   */
+  public void scheduleInterrupt(long step) {
+    singleInterrupt = step;
+  }
+
+  public boolean isInterruptPending() {
+    return interruptPending;
+  }
+
+  public long getNofInterrupts() {
+    return nofInterrupts;
+  }
+
+  public int getPort(int port) {
+    return ports[port & 0xFF];
+  }
+
+  public void setPort(int port, int value) {
+    ports[port & 0xFF] = value & 0xFF;
+  }
+
+  public Device getDevice(int port) {
+    return devices[port & 0xFF];
+  }
+
+  /**
+   * Attach a device to a port, null to detach it. IN and OUT of ports without
+   * device use the port latch.
+   *
+   * @param port The port number
+   * @param device The device or null
+   */
+  public void attach(int port, Device device) {
+    devices[port & 0xFF] = device;
+  }
+
+
+  /**
+   * Reset the CPU: registers and flags cleared, SP = SP_INIT, IP = 00.
+   * RAM is left unchanged.
+   */
+  public void reset() {
+    Arrays.fill(reg, 0);
+    reg[SP] = SP_INIT;
+    ip = 0;
+    sr = 0;
+    steps = 0;
+    status = RUNNING;
+    singleInterrupt = NO_INTERRUPT;
+    interruptPending = false;
+    scheduleTimer();
+  }
+
+
+  /**
+   * Load an assembled image into RAM and reset the CPU. Of a larger address
+   * space only the first 256 bytes are loaded.
+   *
+   * @param memory The memory of an assembled program, e.g. Common.getMemory()
+   */
+  public void load(Memory memory) {
+    int size = Math.min(memory.getSize(), RAM_SIZE);
+    Arrays.fill(ram, (byte) 0);
+    for (int address = 0; address < size; ++address) {
+      ram[address] = (byte) memory.read(address);
+    }
+    reset();
+  }
+
+
+  /**
+   * Load an image into RAM and reset the CPU.
+   *
+   * @param image The RAM bytes, at most 256, e.g. Common.getRam()
+   */
+  public void load(int[] image) {
+    Arrays.fill(ram, (byte) 0);
+    for (int address = 0; address < Math.min(image.length, RAM_SIZE); ++address) {
+      ram[address] = (byte) image[address];
+    }
+    reset();
+  }
+
+
+  /**
+   * Answer a RAM byte.
+   *
+   * @param address The RAM address
+   * @return the byte (0..255)
+   */
+  public int read(int address) {
+    return ram[address & 0xFF] & 0xFF;
+  }
+
+
+  /**
+   * Write a RAM byte.
+   *
+   * @param address The RAM address
+   * @param value The byte to be written
+   */
+  public void write(int address, int value) {
+    ram[address & 0xFF] = (byte) value;
+    if (hooks[address & 0xFF] != 0) {
+      written(address & 0xFF);
+    }
+  }
+
+
+  /**
+   * Answer a copy of the RAM.
+   *
+   * @return the RAM bytes
+   */
+  public byte[] getRam() {
+    return ram.clone();
+  }
+
+
+  /**
+   * Take a snapshot of RAM, registers, flags, step count and status.
+   *
+   * @return the snapshot
+   */
+  public Snapshot snapshot() {
+    return new Snapshot(ram, reg, ip, sr, steps, status);
+  }
+
+
+  /**
+   * Restore the state of a snapshot. Port latches are left unchanged, a
+   * pending interrupt is cleared and the periodic interrupt continues at the
+   * next multiple of its period.
+   *
+   * @param snapshot The snapshot, e.g. taken from another simulator
+   */
+  public void restore(Snapshot snapshot) {
+    System.arraycopy(snapshot.ram, 0, ram, 0, RAM_SIZE);
+    System.arraycopy(snapshot.reg, 0, reg, 0, NOF_REGISTERS);
+    ip = snapshot.ip;
+    sr = snapshot.sr;
+    steps = snapshot.steps;
+    status = snapshot.status;
+    interruptPending = false;
+    scheduleTimer();
+  }
+
+
+  /**
+   * Execute a single command.
+   *
+   * @return the status after the command
+   */
+  public int step() {
+    return run(1);
+  }
+
+
+  /**
+   * Execute commands until the CPU halts, faults or the specified number of
+   * commands has been executed. A halted or faulted CPU must be reset before
+   * it runs again.
+   *
+   * @param maxSteps The maximum number of commands to execute
+   * @return the status, RUNNING if stopped due to maxSteps
+   */
+  public int run(long maxSteps) {
+    EventSink sink = Events.getSink();
+    if (sink != null && sink.isEnabled()) {
+      return runReported(maxSteps, sink);
+    }
+    return runCommands(maxSteps);
+  }
+
+
+  /**
+   * Execute commands and send an event to the sink.
+   *
+   * @param maxSteps The maximum number of commands to execute
+   * @param sink The event sink
+   * @return the status, RUNNING if stopped due to maxSteps
+   */
+  private int runReported(long maxSteps, EventSink sink) {
+    long startSteps = steps;
+    long startCycles = getCycles();
+    sink.simulationStarted();
+    long startNanos = System.nanoTime();
+    int result = runCommands(maxSteps);
+    sink.simulated(getClass().getSimpleName(), steps - startSteps, getCycles() - startCycles,
+        System.nanoTime() - startNanos, result);
+    return result;
+  }
+
+
+  /**
+   * Execute commands, with interrupts if enabled.
+   *
+   * @param maxSteps The maximum number of commands to execute
+   * @return the status, RUNNING if stopped due to maxSteps
+   */
+  private int runCommands(long maxSteps) {
+    if (interruptPeriod != 0 || singleInterrupt != NO_INTERRUPT || interruptPending) {
+      return runInterruptible(maxSteps);
+    }
+    return dispatch(maxSteps);
+  }
+
+
+  /**
+   * Execute commands up to the next interrupt and service it, i.e. the main
+   * loop itself never checks for interrupts. While an interrupt is pending
+   * with the flag I cleared, commands are executed one by one.
+   *
+   * @param maxSteps The maximum number of commands to execute
+   * @return the status, RUNNING if stopped due to maxSteps
+   */
+  private int runInterruptible(long maxSteps) {
+    final long limit = (maxSteps > Long.MAX_VALUE - steps) ? Long.MAX_VALUE : steps + maxSteps;
+    while (status == RUNNING && steps < limit) {
+      if (steps >= nextPeriodicInterrupt) {
+        interruptPending = true;
+        nextPeriodicInterrupt = (steps / interruptPeriod + 1) * interruptPeriod;
+      }
+      if (steps >= singleInterrupt) {
+        interruptPending = true;
+        singleInterrupt = NO_INTERRUPT;
+      }
+      if (interruptPending && (sr & FLAG_I) != 0) {
+        interruptPending = false;
+        interrupt();
+      }
+      long next = interruptPending ? steps + 1
+          : Math.min(limit, Math.min(nextPeriodicInterrupt, singleInterrupt));
+      dispatch(next - steps);
+    }
+    return status;
+  }
+
+
+  /**
+   * Service a hardware interrupt: push IP and jump to the vector.
+   */
+  private void interrupt() {
+    write(reg[SP], ip);
+    reg[SP] = (reg[SP] - 1) & 0xFF;
+    setIp(read(INTERRUPT_VECTOR));
+    ++nofInterrupts;
+  }
+
+
+  /**
+   * Schedule the next periodic interrupt after the current step count.
+   */
+  private void scheduleTimer() {
+    nextPeriodicInterrupt = (interruptPeriod == 0) ? NO_INTERRUPT
+        : (steps / interruptPeriod + 1) * interruptPeriod;
+  }
+
+
+  /**
+   * Execute commands observed by the profiler and trace recorder if any.
+   *
+   * @param maxSteps The maximum number of commands to execute
+   * @return the status, RUNNING if stopped due to maxSteps
+   */
+  private int dispatch(long maxSteps) {
+    if (profiler != null || recorder != null) {
+      return runObserved(maxSteps);
+    }
+    return execute(maxSteps);
+  }
+
+
+  /**
+   * Execute commands one by one and record them in the profiler and the
+   * trace recorder.
+   *
+   * @param maxSteps The maximum number of commands to execute
+   * @return the status, RUNNING if stopped due to maxSteps
+   */
+  private int runObserved(long maxSteps) {
+    final long limit = (maxSteps > Long.MAX_VALUE - steps) ? Long.MAX_VALUE : steps + maxSteps;
+    if (recorder != null) {
+      recorder.start(this);
+    }
+    while (status == RUNNING && steps < limit) {
+      int address = ip;
+      int opcode = ram[address] & 0xFF;
+      long before = steps;
+      execute(1);
+      // Faulting commands are not executed
+      if (steps != before) {
+        if (profiler != null) {
+          profiler.record(address, opcode);
+        }
+        if (recorder != null) {
+          recorder.record(this);
+        }
+      }
+    }
+    if (recorder != null) {
+      recorder.end(this);
+    }
+    return status;
+  }
+
+
+  /**
+   * Execute commands, the main loop of the simulator. Overridden by
+   * simulators executing commands differently.
+   *
+   * @param maxSteps The maximum number of commands to execute
+   * @return the status, RUNNING if stopped due to maxSteps
+   */
+  int execute(long maxSteps) {
+    if (status != RUNNING) {
+      return status;
+    }
+    final byte[] ram = this.ram;
+    final int[] reg = this.reg;
+    final byte[] operations = table.operations;
+    final byte[] registerOperands = table.registerOperands;
+    final byte[] hooks = this.hooks;
+    int ip = this.ip;
+    int sr = this.sr;
+    long steps = this.steps;
+    final long limit = (maxSteps > Long.MAX_VALUE - steps) ? Long.MAX_VALUE : steps + maxSteps;
+    int status = RUNNING;
+
+    try {
+      loop:
+      while (steps < limit) {
+        int opcode = ram[ip] & 0xFF;
+        int p1 = ram[(ip + 1) & 0xFF] & 0xFF;
+        int p2 = ram[(ip + 2) & 0xFF] & 0xFF;
+        int a;
+        int b;
+        int r;
+        ++steps;
+
+        if (registerOperands[opcode] != 0 && !table.hasValidRegisters(opcode, p1, p2)) {
+          // Register code beyond SP, command not executed
+          --steps;
+          status = ILLEGAL_REGISTER;
+          break loop;
+        }
+
+        switch (operations[opcode]) {
+          case InstructionTable.HALT:
+            status = HALTED;
+            break loop;
+
+          // Shifts and rotates: MNEM reg
+          case InstructionTable.ROL:
+            a = reg[p1];
+            r = ((a << 1) | (a >> 7)) & 0xFF;
+            reg[p1] = r;
+            sr = (sr & FLAG_I) | SZ_FLAGS[r];
+            ip = (ip + 2) & 0xFF;
+            break;
+          case InstructionTable.ROR:
+            a = reg[p1];
+            r = ((a >> 1) | (a << 7)) & 0xFF;
+            reg[p1] = r;
+            sr = (sr & FLAG_I) | SZ_FLAGS[r];
+            ip = (ip + 2) & 0xFF;
+            break;
+          case InstructionTable.SHL:
+            r = (reg[p1] << 1) & 0xFF;
+            reg[p1] = r;
+            sr = (sr & FLAG_I) | SZ_FLAGS[r];
+            ip = (ip + 2) & 0xFF;
+            break;
+          case InstructionTable.SHR:
+            r = reg[p1] >> 1;
+            reg[p1] = r;
+            sr = (sr & FLAG_I) | SZ_FLAGS[r];
+            ip = (ip + 2) & 0xFF;
+            break;
+
+          // Unary arithmetic and logic: MNEM reg
+          case InstructionTable.INC:
+            a = reg[p1];
+            r = (a + 1) & 0xFF;
+            reg[p1] = r;
+            sr = (sr & FLAG_I) | SZ_FLAGS[r] | (a == 0x7F ? FLAG_O : 0);
+            ip = (ip + 2) & 0xFF;
+            break;
+          case InstructionTable.DEC:
+            a = reg[p1];
+            r = (a - 1) & 0xFF;
+            reg[p1] = r;
+            sr = (sr & FLAG_I) | SZ_FLAGS[r] | (a == 0x80 ? FLAG_O : 0);
+            ip = (ip + 2) & 0xFF;
+            break;
+          case InstructionTable.NOT:
+            r = ~reg[p1] & 0xFF;
+            reg[p1] = r;
+            sr = (sr & FLAG_I) | SZ_FLAGS[r];
+            ip = (ip + 2) & 0xFF;
+            break;
+
+          // Binary arithmetic and logic: MNEM reg,reg and MNEM reg,const
+          case InstructionTable.ADD_RR:
+          case InstructionTable.ADD_RC:
+            a = reg[p1];
+            b = (operations[opcode] == InstructionTable.ADD_RR) ? reg[p2] : p2;
+            r = (a + b) & 0xFF;
+            reg[p1] = r;
+            sr = (sr & FLAG_I) | SZ_FLAGS[r] | (((a ^ r) & (b ^ r) & 0x80) != 0 ? FLAG_O : 0);
+            ip = (ip + 3) & 0xFF;
+            break;
+          case InstructionTable.SUB_RR:
+          case InstructionTable.SUB_RC:
+            a = reg[p1];
+            b = (operations[opcode] == InstructionTable.SUB_RR) ? reg[p2] : p2;
+            r = (a - b) & 0xFF;
+            reg[p1] = r;
+            sr = (sr & FLAG_I) | SZ_FLAGS[r] | (((a ^ b) & (a ^ r) & 0x80) != 0 ? FLAG_O : 0);
+            ip = (ip + 3) & 0xFF;
+            break;
+          case InstructionTable.MUL_RR:
+          case InstructionTable.MUL_RC:
+            a = reg[p1];
+            b = (operations[opcode] == InstructionTable.MUL_RR) ? reg[p2] : p2;
+            int product = a * b;
+            r = product & 0xFF;
+            reg[p1] = r;
+            sr = (sr & FLAG_I) | SZ_FLAGS[r] | (product > 0xFF ? FLAG_O : 0);
+            ip = (ip + 3) & 0xFF;
+            break;
+          case InstructionTable.DIV_RR:
+          case InstructionTable.DIV_RC:
+          case InstructionTable.MOD_RR:
+          case InstructionTable.MOD_RC:
+            int operation = operations[opcode];
+            a = reg[p1];
+            b = (operation == InstructionTable.DIV_RR || operation == InstructionTable.MOD_RR) ? reg[p2] : p2;
+            if (b == 0) {
+              --steps;
+              status = DIVISION_BY_ZERO;
+              break loop;
+            }
+            r = (operation == InstructionTable.DIV_RR || operation == InstructionTable.DIV_RC) ? a / b : a % b;
+            reg[p1] = r;
+            sr = (sr & FLAG_I) | SZ_FLAGS[r];
+            ip = (ip + 3) & 0xFF;
+            break;
+          case InstructionTable.AND_RR:
+          case InstructionTable.AND_RC:
+            r = reg[p1] & ((operations[opcode] == InstructionTable.AND_RR) ? reg[p2] : p2);
+            reg[p1] = r;
+            sr = (sr & FLAG_I) | SZ_FLAGS[r];
+            ip = (ip + 3) & 0xFF;
+            break;
+          case InstructionTable.OR_RR:
+          case InstructionTable.OR_RC:
+            r = reg[p1] | ((operations[opcode] == InstructionTable.OR_RR) ? reg[p2] : p2);
+            reg[p1] = r;
+            sr = (sr & FLAG_I) | SZ_FLAGS[r];
+            ip = (ip + 3) & 0xFF;
+            break;
+          case InstructionTable.XOR_RR:
+          case InstructionTable.XOR_RC:
+            r = reg[p1] ^ ((operations[opcode] == InstructionTable.XOR_RR) ? reg[p2] : p2);
+            reg[p1] = r;
+            sr = (sr & FLAG_I) | SZ_FLAGS[r];
+            ip = (ip + 3) & 0xFF;
+            break;
+
+          // Compare: CMP reg,reg  CMP reg,const  CMP reg,[addr]
+          case InstructionTable.CMP_RR:
+          case InstructionTable.CMP_RC:
+          case InstructionTable.CMP_RA:
+            a = reg[p1];
+            b = (operations[opcode] == InstructionTable.CMP_RR) ? reg[p2]
+                : (operations[opcode] == InstructionTable.CMP_RC) ? p2 : ram[p2] & 0xFF;
+            r = (a - b) & 0xFF;
+            sr = (sr & FLAG_I) | SZ_FLAGS[r] | (((a ^ b) & (a ^ r) & 0x80) != 0 ? FLAG_O : 0);
+            ip = (ip + 3) & 0xFF;
+            break;
+
+          // Jumps: MNEM offset, relative to the jump command
+          case InstructionTable.JMP:
+            ip = (ip + (byte) p1) & 0xFF;
+            break;
+          case InstructionTable.JZ:
+            ip = ((sr & FLAG_Z) != 0) ? (ip + (byte) p1) & 0xFF : (ip + 2) & 0xFF;
+            break;
+          case InstructionTable.JNZ:
+            ip = ((sr & FLAG_Z) == 0) ? (ip + (byte) p1) & 0xFF : (ip + 2) & 0xFF;
+            break;
+          case InstructionTable.JS:
+            ip = ((sr & FLAG_S) != 0) ? (ip + (byte) p1) & 0xFF : (ip + 2) & 0xFF;
+            break;
+          case InstructionTable.JNS:
+            ip = ((sr & FLAG_S) == 0) ? (ip + (byte) p1) & 0xFF : (ip + 2) & 0xFF;
+            break;
+          case InstructionTable.JO:
+            ip = ((sr & FLAG_O) != 0) ? (ip + (byte) p1) & 0xFF : (ip + 2) & 0xFF;
+            break;
+          case InstructionTable.JNO:
+            ip = ((sr & FLAG_O) == 0) ? (ip + (byte) p1) & 0xFF : (ip + 2) & 0xFF;
+            break;
+          case InstructionTable.JPA:
+            ip = p1;
+            break;
+
+          // Subroutines and interrupts
+          case InstructionTable.CALL:
+            a = reg[SP];
+            ram[a] = (byte) (ip + 2);
+            if (hooks[a] != 0) {
+              written(a);
+            }
+            reg[SP] = (reg[SP] - 1) & 0xFF;
+            ip = p1;
+            break;
+          case InstructionTable.INT:
+            a = reg[SP];
+            ram[a] = (byte) (ip + 2);
+            if (hooks[a] != 0) {
+              written(a);
+            }
+            reg[SP] = (reg[SP] - 1) & 0xFF;
+            ip = ram[p1] & 0xFF;
+            break;
+          case InstructionTable.RET:
+          case InstructionTable.IRET:
+            reg[SP] = (reg[SP] + 1) & 0xFF;
+            ip = ram[reg[SP]] & 0xFF;
+            break;
+
+          // Moves
+          case InstructionTable.MOV_RC:
+            reg[p1] = p2;
+            ip = (ip + 3) & 0xFF;
+            break;
+          case InstructionTable.MOV_RA:
+            reg[p1] = ram[p2] & 0xFF;
+            ip = (ip + 3) & 0xFF;
+            break;
+          case InstructionTable.MOV_AR:
+            ram[p1] = (byte) reg[p2];
+            if (hooks[p1] != 0) {
+              written(p1);
+            }
+            ip = (ip + 3) & 0xFF;
+            break;
+          case InstructionTable.MOV_RI:
+            reg[p1] = ram[reg[p2]] & 0xFF;
+            ip = (ip + 3) & 0xFF;
+            break;
+          case InstructionTable.MOV_IR:
+            a = reg[p1];
+            ram[a] = (byte) reg[p2];
+            if (hooks[a] != 0) {
+              written(a);
+            }
+            ip = (ip + 3) & 0xFF;
+            break;
+          case InstructionTable.MOV_RR:
+            reg[p1] = reg[p2];
+            ip = (ip + 3) & 0xFF;
+            break;
+          case InstructionTable.XCHG:
+            a = reg[p1];
+            reg[p1] = reg[p2];
+            reg[p2] = a;
+            ip = (ip + 3) & 0xFF;
+            break;
+
+          // Stack
+          case InstructionTable.PUSH:
+            a = reg[SP];
+            ram[a] = (byte) reg[p1];
+            if (hooks[a] != 0) {
+              written(a);
+            }
+            reg[SP] = (reg[SP] - 1) & 0xFF;
+            ip = (ip + 2) & 0xFF;
+            break;
+          case InstructionTable.POP:
+            reg[SP] = (reg[SP] + 1) & 0xFF;
+            reg[p1] = ram[reg[SP]] & 0xFF;
+            ip = (ip + 2) & 0xFF;
+            break;
+          case InstructionTable.PUSHF:
+            a = reg[SP];
+            ram[a] = (byte) sr;
+            if (hooks[a] != 0) {
+              written(a);
+            }
+            reg[SP] = (reg[SP] - 1) & 0xFF;
+            ip = (ip + 1) & 0xFF;
+            break;
+          case InstructionTable.POPF:
+            reg[SP] = (reg[SP] + 1) & 0xFF;
+            sr = ram[reg[SP]] & 0xFF;
+            ip = (ip + 1) & 0xFF;
+            break;
+
+          // Input and output
+          case InstructionTable.IN:
+            reg[AL] = in(p1);
+            ip = (ip + 2) & 0xFF;
+            break;
+          case InstructionTable.OUT:
+            out(p1, reg[AL]);
+            ip = (ip + 2) & 0xFF;
+            break;
+
+          // Interrupt flag
+          case InstructionTable.STI:
+            sr |= FLAG_I;
+            ip = (ip + 1) & 0xFF;
+            break;
+          case InstructionTable.CLI:
+            sr &= ~FLAG_I;
+            ip = (ip + 1) & 0xFF;
+            break;
+          case InstructionTable.NOP:
+            ip = (ip + 1) & 0xFF;
+            break;
+
+          // Memory commands
+          case InstructionTable.INC_I:
+            b = reg[p1];
+            a = ram[b] & 0xFF;
+            r = (a + 1) & 0xFF;
+            ram[b] = (byte) r;
+            if (hooks[b] != 0) {
+              written(b);
+            }
+            sr = (sr & FLAG_I) | SZ_FLAGS[r] | (a == 0x7F ? FLAG_O : 0);
+            ip = (ip + 2) & 0xFF;
+            break;
+          case InstructionTable.DEC_A:
+            a = ram[p1] & 0xFF;
+            r = (a - 1) & 0xFF;
+            ram[p1] = (byte) r;
+            if (hooks[p1] != 0) {
+              written(p1);
+            }
+            sr = (sr & FLAG_I) | SZ_FLAGS[r] | (a == 0x80 ? FLAG_O : 0);
+            ip = (ip + 2) & 0xFF;
+            break;
+          case InstructionTable.SWAP_A:
+            // Swap nibbles
+            a = ram[p1] & 0xFF;
+            ram[p1] = (byte) ((a << 4) | (a >> 4));
+            if (hooks[p1] != 0) {
+              written(p1);
+            }
+            ip = (ip + 2) & 0xFF;
+            break;
+          case InstructionTable.CLINC_I:
+            // Clear [reg] and increment reg
+            a = reg[p1];
+            ram[a] = 0;
+            reg[p1] = (a + 1) & 0xFF;
+            if (hooks[a] != 0) {
+              written(a);
+            }
+            ip = (ip + 2) & 0xFF;
+            break;
+          case InstructionTable.CPYD:
+            // Copy [reg] to [reg + displacement] and increment reg
+            a = reg[p1];
+            b = (a + p2) & 0xFF;
+            ram[b] = ram[a];
+            reg[p1] = (a + 1) & 0xFF;
+            if (hooks[b] != 0) {
+              written(b);
+            }
+            ip = (ip + 3) & 0xFF;
+            break;
+
+          // Task switch: save context of the current task on its stack and its
+          // SP in the SP table, restore context of the next task, return
+          // from interrupt. [addr] points to the SP table entry of the current
+          // task, the table starts at addr + 1 and ends with 00.
+          case InstructionTable.NEXT:
+            a = reg[SP];
+            ram[a] = (byte) reg[AL];
+            ram[(a - 1) & 0xFF] = (byte) reg[BL];
+            ram[(a - 2) & 0xFF] = (byte) reg[CL];
+            ram[(a - 3) & 0xFF] = (byte) reg[DL];
+            ram[(a - 4) & 0xFF] = (byte) sr;
+            for (r = 0; r < 5; ++r) {
+              if (hooks[(a - r) & 0xFF] != 0) {
+                written((a - r) & 0xFF);
+              }
+            }
+            a = (a - 5) & 0xFF;
+            b = ram[p1] & 0xFF;
+            ram[b] = (byte) a;
+            if (hooks[b] != 0) {
+              written(b);
+            }
+            // Each byte read after the preceding write as by the microprogram,
+            // the entry may be [addr] itself
+            b = ((ram[p1] & 0xFF) + 1) & 0xFF;
+            ram[p1] = (byte) b;
+            if (ram[b] == 0) {
+              b = (p1 + 1) & 0xFF;
+              ram[p1] = (byte) b;
+            }
+            if (hooks[p1] != 0) {
+              written(p1);
+            }
+            a = ram[b] & 0xFF;
+            sr = ram[(a + 1) & 0xFF] & 0xFF;
+            reg[DL] = ram[(a + 2) & 0xFF] & 0xFF;
+            reg[CL] = ram[(a + 3) & 0xFF] & 0xFF;
+            reg[BL] = ram[(a + 4) & 0xFF] & 0xFF;
+            reg[AL] = ram[(a + 5) & 0xFF] & 0xFF;
+            ip = ram[(a + 6) & 0xFF] & 0xFF;
+            reg[SP] = (a + 6) & 0xFF;
+            break;
+
+          default:
+            --steps;
+            status = ILLEGAL_OPCODE;
+            break loop;
+        }
+      }
+    }
+    finally {
+      this.ip = ip;
+      this.sr = sr;
+      this.steps = steps;
+      this.status = status;
+    }
+    return status;
+  }
+
+
+  /**
+   * Called after a RAM write to an address with a hook set, e.g. to
+   * invalidate code translated from that address.
+   *
+   * @param address The RAM address written
+   */
+  void written(int address) {
+    if ((hooks[address] & HOOK_WATCH) != 0) {
+      debugger.written(address);
+    }
+  }
+
+
+  /**
+   * Answer the value for IN from the device of a port or its latch.
+   *
+   * @param port The port number
+   * @return the byte read
+   */
+  protected int in(int port) {
+    Device device = devices[port];
+    return (device == null) ? ports[port] : device.in(port) & 0xFF;
+  }
+
+
+  /**
+   * Write the value of OUT to the device of a port or its latch.
+   *
+   * @param port The port number
+   * @param value The byte written
+   */
+  protected void out(int port, int value) {
+    Device device = devices[port];
+    if (device == null) {
+      ports[port] = value;
+    }
+    else {
+      device.out(port, value);
+    }
+  }
+
+
+  /**
+   * Answer the state of the CPU as in the stebs register view.
+   *
+   * @return the string with registers and flags
+   */
+  @Override
+  public String toString() {
+    return "AL=" + hex(reg[AL]) + " BL=" + hex(reg[BL]) + " CL=" + hex(reg[CL])
+        + " DL=" + hex(reg[DL]) + " SP=" + hex(reg[SP]) + " IP=" + hex(ip)
+        + " SR=" + ((sr & FLAG_I) != 0 ? "I" : "-") + ((sr & FLAG_S) != 0 ? "S" : "-")
+        + ((sr & FLAG_O) != 0 ? "O" : "-") + ((sr & FLAG_Z) != 0 ? "Z" : "-")
+        + " steps=" + steps;
+  }
+
+
+  private static String hex(int value) {
+    return assembler.support.Common.toHexByteString(value);
+  }
+}
@@ -0,0 +1,155 @@
+package assembler.simulator;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+
+/**
+ * The class Snapshot holds the state of a simulator: RAM, registers, IP, SR,
+ * step count and status. Port latches and devices are not part of it.
+ * A snapshot is immutable, so any number of simulators may be restored from
+ * it, e.g. to run many test continuations after a common setup:
+ *
+ *   simulator.run(setupSteps);
+ *   Snapshot checkpoint = simulator.snapshot();
+ *   for (...) {
+ *     Simulator fork = new Simulator(table);
+ *     fork.restore(checkpoint);
+ *     ...
+ *   }
+ *
+ * Binary form (DataOutput), 282 bytes:
+ *   int magic | short version | 256 bytes RAM | 5 bytes AL..SP | byte IP | byte SR
+ *   | long steps | byte status
+ *
+ * @author ruedi.mueller
+ */
+public final class Snapshot {
+  // "STSN": stebs snapshot
+  private static final int MAGIC = 0x5354534E;
+  private static final short VERSION = 1;
+  // Size of the binary form
+  public static final int SIZE = 4 + 2 + Simulator.RAM_SIZE + Simulator.NOF_REGISTERS + 2 + 8 + 1;
+
+  final byte[] ram;
+  final int[] reg;
+  final int ip;
+  final int sr;
+  final long steps;
+  final int status;
+
+
+  /**
+   * Take a snapshot of the specified state, the arrays are copied.
+   */
+  Snapshot(byte[] ram, int[] reg, int ip, int sr, long steps, int status) {
+    this.ram = ram.clone();
+    this.reg = reg.clone();
+    this.ip = ip;
+    this.sr = sr;
+    this.steps = steps;
+    this.status = status;
+  }
+
+
+  // Getters
+  public int read(int address) {
+    return ram[address & 0xFF] & 0xFF;
+  }
+
+  public int getRegister(int code) {
+    return reg[code];
+  }
+
+  public int getIp() {
+    return ip;
+  }
+
+  public int getSr() {
+    return sr;
+  }
+
+  public long getSteps() {
+    return steps;
+  }
+
+  public int getStatus() {
+    return status;
+  }
+
+
+  /**
+   * Answer the binary form of the snapshot.
+   *
+   * @return the bytes
+   */
+  public byte[] toBytes() {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(SIZE);
+    DataOutputStream out = new DataOutputStream(bytes);
+    try {
+      out.writeInt(MAGIC);
+      out.writeShort(VERSION);
+      out.write(ram);
+      for (int code = 0; code < Simulator.NOF_REGISTERS; ++code) {
+        out.writeByte(reg[code]);
+      }
+      out.writeByte(ip);
+      out.writeByte(sr);
+      out.writeLong(steps);
+      out.writeByte(status);
+      out.close();
+    }
+    catch (IOException ioe) {
+      // Cannot happen with a byte array
+      throw new IllegalStateException(ioe);
+    }
+    return bytes.toByteArray();
+  }
+
+
+  /**
+   * Rebuild a snapshot from its binary form.
+   *
+   * @param bytes The bytes written by toBytes()
+   * @return the snapshot
+   * @throws IOException if the bytes are no snapshot
+   */
+  public static Snapshot fromBytes(byte[] bytes) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+    if (bytes.length != SIZE || in.readInt() != MAGIC || in.readShort() != VERSION) {
+      throw new IOException("Not a snapshot of version " + VERSION);
+    }
+    byte[] ram = new byte[Simulator.RAM_SIZE];
+    in.readFully(ram);
+    int[] reg = new int[Simulator.NOF_REGISTERS];
+    for (int code = 0; code < Simulator.NOF_REGISTERS; ++code) {
+      reg[code] = in.readUnsignedByte();
+    }
+    int ip = in.readUnsignedByte();
+    int sr = in.readUnsignedByte();
+    long steps = in.readLong();
+    int status = in.readUnsignedByte();
+    return new Snapshot(ram, reg, ip, sr, steps, status);
+  }
+
+
+  @Override
+  public boolean equals(Object o) {
+    if (!(o instanceof Snapshot)) {
+      return false;
+    }
+    Snapshot s = (Snapshot) o;
+    return ip == s.ip && sr == s.sr && steps == s.steps && status == s.status
+        && Arrays.equals(reg, s.reg) && Arrays.equals(ram, s.ram);
+  }
+
+
+  @Override
+  public int hashCode() {
+    return 31 * Arrays.hashCode(ram) + Arrays.hashCode(reg) + ip + (sr << 8) + (int) steps;
+  }
+}
@@ -0,0 +1,315 @@
+package assembler.simulator;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * The class TraceRecorder records the state changes of each command executed
+ * by a simulator in a compact binary trace, e.g. to examine a failed
+ * autograder run afterwards with a TraceReplayer instead of running it again
+ * interactively.
+ *
+ * The trace consists of segments. Each segment starts with a keyframe, i.e. a
+ * snapshot of the state before its first command, followed by one delta record
+ * per command:
+ *   byte header | changed registers AL..SP | SR | RAM writes | IP
+ * The header bits 0..4 mark changed registers, SR_CHANGED, RAM_CHANGED and
+ * IP_JUMPED the other parts. RAM writes are a count - 1 followed by address
+ * and value of each byte written. IP is only recorded if it does not point to
+ * the command following the one executed. A MOV reg,const e.g. takes 2 bytes.
+ *
+ * With a limited number of segments the recorder is a ring buffer: the oldest
+ * segment is dropped when a new one is started. A trace covers a single run,
+ * it is cleared when the step count of the simulator goes backwards, e.g.
+ * after reset(). State changed between two runs, e.g. by setRegister(),
+ * starts a new segment.
+ *
+ * Example:
+ *   TraceRecorder recorder = new TraceRecorder();
+ *   simulator.setTraceRecorder(recorder);
+ *   simulator.run(maxSteps);
+ *   recorder.writeTo(new FileOutputStream("run.trace"));
+ *
+ * @author ruedi.mueller
+ */
+public final class TraceRecorder {
+  // "STTR": stebs trace
+  static final int MAGIC = 0x53545452;
+  static final short VERSION = 1;
+  // Default number of commands between two keyframes
+  public static final int DEFAULT_KEYFRAME_INTERVAL = 1024;
+
+  // Header bits of a delta record, bits 0..4 mark the registers AL..SP
+  static final int SR_CHANGED = 0x20;
+  static final int RAM_CHANGED = 0x40;
+  static final int IP_JUMPED = 0x80;
+
+  // Number of commands between two keyframes
+  private final int keyframeInterval;
+  // Maximum number of segments kept
+  private final int maxSegments;
+  // The segments, oldest first
+  final List<Segment> segments = new ArrayList<Segment>();
+  // Status after the last command recorded
+  int status = Simulator.RUNNING;
+
+  // State after the last command recorded
+  private final byte[] ram = new byte[Simulator.RAM_SIZE];
+  private final int[] reg = new int[Simulator.NOF_REGISTERS];
+  private int ip;
+  private int sr;
+  private long steps;
+  // The segment recorded to, null if none
+  private Segment current;
+
+
+  /**
+   * A keyframe and the delta records of the commands following it.
+   */
+  static final class Segment {
+    final Snapshot keyframe;
+    byte[] deltas = new byte[256];
+    int length;
+    int nofSteps;
+
+    Segment(Snapshot keyframe) {
+      this.keyframe = keyframe;
+    }
+
+    Segment(Snapshot keyframe, byte[] deltas, int nofSteps) {
+      this.keyframe = keyframe;
+      this.deltas = deltas;
+      this.length = deltas.length;
+      this.nofSteps = nofSteps;
+    }
+
+    void append(int value) {
+      if (length == deltas.length) {
+        deltas = Arrays.copyOf(deltas, 2 * length);
+      }
+      deltas[length++] = (byte) value;
+    }
+  }
+
+
+  /**
+   * Instantiate an unlimited recorder with a keyframe every
+   * DEFAULT_KEYFRAME_INTERVAL commands.
+   */
+  public TraceRecorder() {
+    this(DEFAULT_KEYFRAME_INTERVAL, Integer.MAX_VALUE);
+  }
+
+
+  /**
+   * Instantiate a recorder.
+   *
+   * @param keyframeInterval The number of commands between two keyframes,
+   *                         i.e. the maximum number of commands replayed to
+   *                         reconstruct a state
+   * @param maxSegments The maximum number of segments kept, the recorder
+   *                    keeps at least the last (maxSegments - 1) *
+   *                    keyframeInterval commands
+   */
+  public TraceRecorder(int keyframeInterval, int maxSegments) {
+    if (keyframeInterval < 1 || maxSegments < 1) {
+      throw new IllegalArgumentException("Keyframe interval and number of segments must be positive");
+    }
+    this.keyframeInterval = keyframeInterval;
+    this.maxSegments = maxSegments;
+  }
+
+
+  // Getters
+  public int getKeyframeInterval() {
+    return keyframeInterval;
+  }
+
+  public boolean isEmpty() {
+    return current == null;
+  }
+
+  /**
+   * Answer the step count of the oldest state recorded.
+   */
+  public long getFirstStep() {
+    return segments.isEmpty() ? 0 : segments.get(0).keyframe.steps;
+  }
+
+  /**
+   * Answer the step count of the newest state recorded.
+   */
+  public long getLastStep() {
+    return steps;
+  }
+
+  /**
+   * Answer the size of the binary form in bytes.
+   */
+  public int getSize() {
+    int size = 4 + 2 + 4 + 1 + 4;
+    for (Segment segment : segments) {
+      size += Snapshot.SIZE + 4 + 4 + segment.length;
+    }
+    return size;
+  }
+
+
+  /**
+   * Drop all segments.
+   */
+  public void clear() {
+    segments.clear();
+    current = null;
+    steps = 0;
+    status = Simulator.RUNNING;
+  }
+
+
+  /**
+   * Called before a run: continue the current segment if the state of the
+   * simulator is the state recorded last, otherwise start a new one.
+   *
+   * @param simulator The simulator
+   */
+  void start(Simulator simulator) {
+    if (current != null && simulator.steps == steps && simulator.ip == ip && simulator.sr == sr
+        && Arrays.equals(simulator.reg, reg) && Arrays.equals(simulator.ram, ram)) {
+      return;
+    }
+    if (current != null && simulator.steps < steps) {
+      clear();
+    }
+    System.arraycopy(simulator.ram, 0, ram, 0, Simulator.RAM_SIZE);
+    System.arraycopy(simulator.reg, 0, reg, 0, Simulator.NOF_REGISTERS);
+    ip = simulator.ip;
+    sr = simulator.sr;
+    steps = simulator.steps;
+    status = simulator.status;
+    startSegment();
+  }
+
+
+  /**
+   * Record the state changes of the command just executed.
+   *
+   * @param simulator The simulator
+   */
+  void record(Simulator simulator) {
+    if (current.nofSteps == keyframeInterval) {
+      startSegment();
+    }
+    Segment segment = current;
+    int nextIp = (ip + simulator.getTable().getLength(ram[ip] & 0xFF)) & 0xFF;
+    int header = 0;
+    for (int code = 0; code < Simulator.NOF_REGISTERS; ++code) {
+      if (simulator.reg[code] != reg[code]) {
+        header |= 1 << code;
+      }
+    }
+    if (simulator.sr != sr) {
+      header |= SR_CHANGED;
+    }
+    int first = 0;
+    while (first < Simulator.RAM_SIZE && simulator.ram[first] == ram[first]) {
+      ++first;
+    }
+    if (first < Simulator.RAM_SIZE) {
+      header |= RAM_CHANGED;
+    }
+    if (simulator.ip != nextIp) {
+      header |= IP_JUMPED;
+    }
+
+    segment.append(header);
+    for (int code = 0; code < Simulator.NOF_REGISTERS; ++code) {
+      if ((header & (1 << code)) != 0) {
+        reg[code] = simulator.reg[code];
+        segment.append(reg[code]);
+      }
+    }
+    if ((header & SR_CHANGED) != 0) {
+      sr = simulator.sr;
+      segment.append(sr);
+    }
+    if ((header & RAM_CHANGED) != 0) {
+      int countIndex = segment.length;
+      segment.append(0);
+      int count = 0;
+      for (int address = first; address < Simulator.RAM_SIZE; ++address) {
+        if (simulator.ram[address] != ram[address]) {
+          ram[address] = simulator.ram[address];
+          segment.append(address);
+          segment.append(ram[address]);
+          ++count;
+        }
+      }
+      segment.deltas[countIndex] = (byte) (count - 1);
+    }
+    if ((header & IP_JUMPED) != 0) {
+      segment.append(simulator.ip);
+    }
+    ip = simulator.ip;
+    steps = simulator.steps;
+    status = simulator.status;
+    ++segment.nofSteps;
+  }
+
+
+  /**
+   * Called after a run to record a fault, faulting commands are not executed.
+   *
+   * @param simulator The simulator
+   */
+  void end(Simulator simulator) {
+    if (simulator.steps == steps) {
+      status = simulator.status;
+    }
+  }
+
+
+  /**
+   * Start a segment with the state recorded last as keyframe.
+   */
+  private void startSegment() {
+    if (segments.size() == maxSegments) {
+      segments.remove(0);
+    }
+    current = new Segment(new Snapshot(ram, reg, ip, sr, steps, status));
+    segments.add(current);
+  }
+
+
+  /**
+   * Write the binary form of the trace.
+   *
+   * Binary form (DataOutput):
+   *   int magic | short version | int keyframe interval | byte status
+   *   | int number of segments | segments
+   * Segment:
+   *   snapshot | int number of commands | int number of bytes | delta records
+   *
+   * @param out The stream, not closed
+   * @throws IOException if writing fails
+   */
+  public void writeTo(OutputStream out) throws IOException {
+    DataOutputStream data = new DataOutputStream(out);
+    data.writeInt(MAGIC);
+    data.writeShort(VERSION);
+    data.writeInt(keyframeInterval);
+    data.writeByte(status);
+    data.writeInt(segments.size());
+    for (Segment segment : segments) {
+      data.write(segment.keyframe.toBytes());
+      data.writeInt(segment.nofSteps);
+      data.writeInt(segment.length);
+      data.write(segment.deltas, 0, segment.length);
+    }
+    data.flush();
+  }
+}
@@ -0,0 +1,185 @@
+package assembler.simulator;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+
+/**
+ * The class TraceReplayer reconstructs the state of a simulator at any step of
+ * a trace written by TraceRecorder. The replayer seeks the last keyframe at or
+ * before the step and applies the delta records following it, i.e. at most a
+ * keyframe interval of commands is replayed and no command is executed again.
+ *
+ * Example:
+ *   TraceReplayer replayer = TraceReplayer.read(new FileInputStream("run.trace"), table);
+ *   Snapshot state = replayer.stateAt(1000);
+ *   Simulator simulator = new Simulator(table);
+ *   simulator.restore(state);
+ *
+ * @author ruedi.mueller
+ */
+public final class TraceReplayer {
+  // The instruction set to decode command lengths
+  private final InstructionTable table;
+  // The keyframes and delta records of the segments, oldest first
+  private final Snapshot[] keyframes;
+  private final byte[][] deltas;
+  private final int[] nofSteps;
+  // Status after the last command recorded
+  private final int status;
+
+
+  /**
+   * Instantiate a replayer of the trace recorded so far.
+   *
+   * @param recorder The recorder, later records are not seen by the replayer
+   * @param table The instruction set of the simulator recorded
+   */
+  public TraceReplayer(TraceRecorder recorder, InstructionTable table) {
+    this.table = table;
+    int nofSegments = recorder.segments.size();
+    keyframes = new Snapshot[nofSegments];
+    deltas = new byte[nofSegments][];
+    nofSteps = new int[nofSegments];
+    for (int i = 0; i < nofSegments; ++i) {
+      TraceRecorder.Segment segment = recorder.segments.get(i);
+      keyframes[i] = segment.keyframe;
+      deltas[i] = Arrays.copyOf(segment.deltas, segment.length);
+      nofSteps[i] = segment.nofSteps;
+    }
+    status = recorder.status;
+  }
+
+
+  private TraceReplayer(InstructionTable table, Snapshot[] keyframes, byte[][] deltas, int[] nofSteps,
+      int status) {
+    this.table = table;
+    this.keyframes = keyframes;
+    this.deltas = deltas;
+    this.nofSteps = nofSteps;
+    this.status = status;
+  }
+
+
+  /**
+   * Read a trace written by TraceRecorder.writeTo().
+   *
+   * @param in The stream, not closed
+   * @param table The instruction set of the simulator recorded
+   * @return the replayer
+   * @throws IOException if reading fails or the stream contains no trace
+   */
+  public static TraceReplayer read(InputStream in, InstructionTable table) throws IOException {
+    DataInputStream data = new DataInputStream(in);
+    if (data.readInt() != TraceRecorder.MAGIC || data.readShort() != TraceRecorder.VERSION) {
+      throw new IOException("Not a trace of version " + TraceRecorder.VERSION);
+    }
+    data.readInt();
+    int status = data.readUnsignedByte();
+    int nofSegments = data.readInt();
+    if (nofSegments < 0) {
+      throw new IOException("Corrupt trace");
+    }
+    Snapshot[] keyframes = new Snapshot[nofSegments];
+    byte[][] deltas = new byte[nofSegments][];
+    int[] nofSteps = new int[nofSegments];
+    byte[] snapshot = new byte[Snapshot.SIZE];
+    for (int i = 0; i < nofSegments; ++i) {
+      data.readFully(snapshot);
+      keyframes[i] = Snapshot.fromBytes(snapshot);
+      nofSteps[i] = data.readInt();
+      int length = data.readInt();
+      if (nofSteps[i] < 0 || length < 0) {
+        throw new IOException("Corrupt trace");
+      }
+      deltas[i] = new byte[length];
+      data.readFully(deltas[i]);
+    }
+    return new TraceReplayer(table, keyframes, deltas, nofSteps, status);
+  }
+
+
+  // Getters
+  public int getNofKeyframes() {
+    return keyframes.length;
+  }
+
+  public int getStatus() {
+    return status;
+  }
+
+  /**
+   * Answer the step count of the oldest state in the trace.
+   */
+  public long getFirstStep() {
+    return (keyframes.length == 0) ? 0 : keyframes[0].steps;
+  }
+
+  /**
+   * Answer the step count of the newest state in the trace.
+   */
+  public long getLastStep() {
+    int last = keyframes.length - 1;
+    return (last < 0) ? 0 : keyframes[last].steps + nofSteps[last];
+  }
+
+
+  /**
+   * Answer the state after the specified number of commands.
+   *
+   * @param step The step count, getFirstStep()..getLastStep()
+   * @return the state
+   * @throws IllegalArgumentException if the step is not in the trace
+   */
+  public Snapshot stateAt(long step) {
+    if (keyframes.length == 0 || step < getFirstStep() || step > getLastStep()) {
+      throw new IllegalArgumentException("Step " + step + " not in trace");
+    }
+    // Last keyframe at or before the step
+    int low = 0;
+    int high = keyframes.length - 1;
+    while (low < high) {
+      int middle = (low + high + 1) >>> 1;
+      if (keyframes[middle].steps <= step) {
+        low = middle;
+      }
+      else {
+        high = middle - 1;
+      }
+    }
+    Snapshot keyframe = keyframes[low];
+    int count = (int) (step - keyframe.steps);
+    if (count == 0) {
+      return keyframe;
+    }
+    byte[] ram = keyframe.ram.clone();
+    int[] reg = keyframe.reg.clone();
+    int ip = keyframe.ip;
+    int sr = keyframe.sr;
+    byte[] records = deltas[low];
+    int pos = 0;
+    for (int i = 0; i < count; ++i) {
+      int header = records[pos++] & 0xFF;
+      int nextIp = (ip + table.getLength(ram[ip] & 0xFF)) & 0xFF;
+      for (int code = 0; code < Simulator.NOF_REGISTERS; ++code) {
+        if ((header & (1 << code)) != 0) {
+          reg[code] = records[pos++] & 0xFF;
+        }
+      }
+      if ((header & TraceRecorder.SR_CHANGED) != 0) {
+        sr = records[pos++] & 0xFF;
+      }
+      if ((header & TraceRecorder.RAM_CHANGED) != 0) {
+        int nofWrites = (records[pos++] & 0xFF) + 1;
+        for (int j = 0; j < nofWrites; ++j) {
+          ram[records[pos] & 0xFF] = records[pos + 1];
+          pos += 2;
+        }
+      }
+      ip = ((header & TraceRecorder.IP_JUMPED) != 0) ? records[pos++] & 0xFF : nextIp;
+    }
+    return new Snapshot(ram, reg, ip, sr, step, (step == getLastStep()) ? status : Simulator.RUNNING);
+  }
+}
@@ -0,0 +1,191 @@
+package assembler.simulator;
+
+import java.util.Arrays;
+
+import assembler.Memory;
+
+
+/**
+ * The class TranslatingSimulator executes hot code as JVM classes translated
+ * by BlockTranslator and interprets the rest. A block is translated when
+ * its start address has been reached threshold times. Translations are
+ * cached by start address and invalidated when a command writes to one of
+ * their bytes (self-modifying code); an address invalidated too often is
+ * interpreted for good.
+ *
+ * Results are identical to those of Simulator, including step counts and
+ * step limits: A block is only executed if it fits into the remaining steps.
+ *
+ * @author ruedi.mueller
+ */
+public class TranslatingSimulator extends Simulator {
+  // Default number of executions before a block is translated
+  public static final int DEFAULT_THRESHOLD = 32;
+  // Number of invalidations after which an address is no longer translated
+  public static final int MAX_INVALIDATIONS = 8;
+
+  // The translator
+  private final BlockTranslator translator;
+  // Number of executions before a block is translated
+  private final int threshold;
+
+  // Translation of each start address, null if none
+  private final BlockTranslator.Translation[] blocks = new BlockTranslator.Translation[RAM_SIZE];
+  // Number of executions of each start address, threshold if translated or given up
+  private final int[] heat = new int[RAM_SIZE];
+  // Number of invalidations of each start address
+  private final int[] invalidations = new int[RAM_SIZE];
+  // Number of translations covering each address
+  private final int[] coverage = new int[RAM_SIZE];
+
+
+  /**
+   * Instantiate a simulator for the instruction set in INSTRUCTION.data.
+   */
+  public TranslatingSimulator() {
+    this(InstructionTable.load(), DEFAULT_THRESHOLD);
+  }
+
+
+  /**
+   * Instantiate a simulator for the specified instruction set.
+   *
+   * @param table The instruction set
+   * @param threshold The number of executions before a block is translated (>= 1)
+   */
+  public TranslatingSimulator(InstructionTable table, int threshold) {
+    super(table);
+    if (threshold < 1) {
+      throw new IllegalArgumentException("Invalid translation threshold: " + threshold);
+    }
+    this.translator = new BlockTranslator(table);
+    this.threshold = threshold;
+  }
+
+
+  /**
+   * Answer the number of translations made so far, including invalidated ones.
+   *
+   * @return the number of translations
+   */
+  public int getNofTranslations() {
+    return translator.getNofClasses();
+  }
+
+
+  /**
+   * Answer whether a translated block starts at the specified address.
+   *
+   * @param address The RAM address
+   * @return true if translated, else false
+   */
+  public boolean isTranslated(int address) {
+    return blocks[address & 0xFF] != null;
+  }
+
+
+  @Override
+  public void load(Memory memory) {
+    super.load(memory);
+    flush();
+  }
+
+
+  @Override
+  public void load(int[] image) {
+    super.load(image);
+    flush();
+  }
+
+
+  @Override
+  public void restore(Snapshot snapshot) {
+    super.restore(snapshot);
+    flush();
+  }
+
+
+  /**
+   * Drop all translations.
+   */
+  public void flush() {
+    Arrays.fill(blocks, null);
+    Arrays.fill(heat, 0);
+    Arrays.fill(invalidations, 0);
+    Arrays.fill(coverage, 0);
+    for (int address = 0; address < RAM_SIZE; ++address) {
+      hooks[address] &= ~HOOK_CODE;
+    }
+  }
+
+
+  @Override
+  int execute(long maxSteps) {
+    final long limit = (maxSteps > Long.MAX_VALUE - steps) ? Long.MAX_VALUE : steps + maxSteps;
+    final byte[] ram = this.ram;
+    final int[] reg = this.reg;
+    while (status == RUNNING && steps < limit) {
+      BlockTranslator.Translation translation = blocks[ip];
+      if (translation != null) {
+        if (steps + translation.count <= limit) {
+          int packed = translation.block.execute(this, ram, reg, sr);
+          sr = packed >>> 8;
+          ip = packed & 0xFF;
+          steps += translation.count;
+          continue;
+        }
+      }
+      else if (heat[ip] < threshold && ++heat[ip] == threshold && translate(ip)) {
+        continue;
+      }
+      super.execute(1);
+    }
+    return status;
+  }
+
+
+  /**
+   * Translate the block at the specified address.
+   *
+   * @param start The address of the first command
+   * @return true if translated, false if the first command must be interpreted
+   */
+  private boolean translate(int start) {
+    BlockTranslator.Translation translation = translator.translate(ram, start);
+    if (translation == null) {
+      return false;
+    }
+    blocks[start] = translation;
+    for (int i = 0; i < translation.length; ++i) {
+      int address = (start + i) & 0xFF;
+      ++coverage[address];
+      hooks[address] |= HOOK_CODE;
+    }
+    return true;
+  }
+
+
+  /**
+   * Invalidate all translations covering the written address.
+   */
+  @Override
+  void written(int address) {
+    super.written(address);
+    if (coverage[address] == 0) {
+      return;
+    }
+    for (int start = 0; start < RAM_SIZE; ++start) {
+      BlockTranslator.Translation translation = blocks[start];
+      if (translation != null && translation.covers(address)) {
+        blocks[start] = null;
+        for (int i = 0; i < translation.length; ++i) {
+          int covered = (start + i) & 0xFF;
+          if (--coverage[covered] == 0) {
+            hooks[covered] &= ~HOOK_CODE;
+          }
+        }
+        heat[start] = (++invalidations[start] < MAX_INVALIDATIONS) ? 0 : threshold;
+      }
+    }
+  }
+}
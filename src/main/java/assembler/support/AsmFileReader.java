@@ -1,51 +1,94 @@
 package assembler.support;
 
-import java.io.BufferedReader;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
 
+/**
+ * The class AsmFileReader reads an assembler source file into a string.
+ * The file is read as a whole (memory-mapped if large) and decoded in one
+ * go with an explicit charset. Errors are reported by the return value, the
+ * JVM is never terminated, so the reader may be used in long-lived services.
+ *
+ * @author ruedi.mueller
+ */
 public class AsmFileReader {
+  // Files of at least this size are memory-mapped instead of read
+  public static final long MAP_THRESHOLD = 1 << 20;
 
+  // The charset of the source files
+  private final Charset charset;
+
+  // Error message of the last execute, empty if none
+  private String errorMessage = "";
+
+
+  /**
+   * Instantiate a reader for source files in the platform charset, as
+   * before the reader took a charset. Sources written on another platform,
+   * e.g. UTF-8 sources on Windows, need AsmFileReader(Charset).
+   */
+  public AsmFileReader() {
+    this(Charset.defaultCharset());
+  }
+
+
+  /**
+   * Instantiate a reader for source files with the specified charset.
+   *
+   * @param charset The charset of the source files
+   */
+  public AsmFileReader(Charset charset) {
+    this.charset = charset;
+  }
+
+
+  public String getErrorMessage() {
+    return errorMessage;
+  }
+
+
+  /**
+   * Read the specified file. Malformed input is replaced, not rejected.
+   *
+   * @param filename The name of the file to read
+   * @return the file contents, or null if the file cannot be read, cp.
+   *         getErrorMessage()
+   */
   public String execute(String filename) {
-    FileInputStream fstream = null;
-    BufferedReader br = null;
-    StringBuilder sb = new StringBuilder();
-    
+    errorMessage = "";
     try {
-      // Helpers to read the file
-      fstream = new FileInputStream(filename);
-      br = new BufferedReader(new InputStreamReader(fstream));
-      
-      int r;
-      // Read file char by char
-      while ((r = br.read()) != -1) {
-        sb.append((char) r);
+      Path path = Paths.get(filename);
+      if (Files.size(path) < MAP_THRESHOLD) {
+        return charset.decode(ByteBuffer.wrap(Files.readAllBytes(path))).toString();
+      }
+      FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+      try {
+        return charset.decode(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())).toString();
+      }
+      finally {
+        channel.close();
       }
     }
-    catch (FileNotFoundException fnfe) {
-      System.err.println("Could not find the assembler file "
-          + Common.getFilename() + "\n" + "Are file name and path correct?\n"
-          + "--> exit application");
-      System.exit(-1);
+    catch (NoSuchFileException nsfe) {
+      errorMessage = "Could not find the assembler file " + filename + "\n"
+          + "Are file name and path correct?";
     }
     catch (IOException ex) {
-      ex.printStackTrace();
+      errorMessage = "Could not read the assembler file " + filename + ": " + ex;
     }
-    finally {
-      try {
-        if (br != null)
-          br.close();
-        if (fstream != null)
-          fstream.close();
-      }
-      catch (IOException ioEx) {
-        ioEx.printStackTrace();
-      }
+    catch (InvalidPathException ipe) {
+      errorMessage = "Invalid assembler file name " + filename + ": " + ipe.getReason();
     }
-
-    return sb.toString();
+    return null;
   }
 }
@@ -3,6 +3,7 @@ package assembler.support;
 import java.util.Arrays;
 import java.util.List;
 
+import assembler.AssemblerContext;
 import assembler.TokenList;
 import assembler.Memory;
 
@@ -12,6 +13,9 @@ import assembler.Memory;
  * the application.
  * Enhancements and changes to the simulator code have to made in
  * this class.
+ * The state of a run of the assembler, i.e. file, tokens, RAM and code
+ * list, is read through the context of the assembler constructed or run
+ * last, cp. AssemblerContext.
  * 
  * @author ruedi.mueller
  */
@@ -26,6 +30,9 @@ public class Common {
   // File with assembler commands, opcode and mpm entry point.
   public static final String INSTRUCTION_FILENAME = "INSTRUCTION.data";
   
+  // Binary descriptor compiled from INSTRUCTION_FILENAME at build time.
+  public static final String INSTRUCTION_DESCRIPTOR_FILENAME = "INSTRUCTION.bin";
+  
   // Maximum number of addressing mode groups identified, cp. file syntax.txt
   public static final int MAX_NOF_GROUPS = 20;
   
@@ -46,75 +53,85 @@ public class Common {
   // The available absolute jump commands
   public static List<String> ABSOLUTE_JUMPS;
   
-  // Global string with error message
+  // Global string with error message of the assembler run last, cp.
+  // AssemblerContext.getErrorMessage()
   public static String ERROR_MESSAGE;
 
-  // The file to be assembled
-  private static String filename;
-  
-  // List with all tokens their line number and position within the line
-  private static TokenList tokenList;
-
-  // The single array representing RAM for machine code
-  private static Memory memory = new Memory();
-  
-  // The single code list
-  private static StringBuilder codeListSB;
+  // The context of the assembler constructed or run last, read and written
+  // by the static accessors below; concurrent assemblers use their own
+  // context, cp. AssemblerContext
+  private static volatile AssemblerContext context = new AssemblerContext(null, Memory.DEFAULT_SIZE);
 
 
   // Static getters and static setters
+  public static AssemblerContext getContext() {
+    return context;
+  }
+
+  public static void setContext(AssemblerContext context) {
+    Common.context = context;
+  }
+
   public static TokenList getTokenList() {
-    return tokenList;
+    return context.getTokenList();
   }
   
   public static void setTokenList(TokenList tokenList) {
-    Common.tokenList = tokenList;
+    context.setTokenList(tokenList);
   }
 
   public static Memory getMemory() {
-    return memory;
+    return context.getMemory();
+  }
+
+  public static int getRamSize() {
+    return context.getRamSize();
+  }
+
+  public static void setRamSize(int ramSize) {
+    context.setRamSize(ramSize);
   }
 
   public static String getFilename() {
-    return filename;
+    return context.getFilename();
   }
   
   public static void setFilename(String filename) {
-    Common.filename = filename;
+    context.setFilename(filename);
   }
   
   
   // Convenience methods
   public static String getToken(int index) {
-    return tokenList.get(index);
+    return context.getToken(index);
   }
   
   public static void setENDToken(int index) {
-    tokenList.setEND(index);
+    context.getTokenList().setEND(index);
   }
   
   public static void setModifiedENDToken(int index) {
-    tokenList.setModifiedEND(index);
+    context.getTokenList().setModifiedEND(index);
   }
   
   public static int[] getRam() {
-    return memory.getRam();
+    return context.getRam();
   }
 
   public static void setRam(Memory memory) {
-    Common.memory.setRam(memory.getRam());
+    context.setMemory(memory);
   }
 
   public static boolean[] getUsedRamSlots() {
-    return memory.getUsedRamSlots();
+    return context.getUsedRamSlots();
   }
   
   public static StringBuilder getCodeList() {
-    return codeListSB;
+    return context.getCodeList();
   }
 
   public static void setCodeList(StringBuilder codeListSB) {
-    Common.codeListSB = codeListSB;
+    context.setCodeList(codeListSB);
   }
 
   
@@ -155,4 +172,83 @@ public class Common {
     sb.append(toHexNibbleString(value % 0x10));
     return sb.toString();
   }
+
+
+  /**
+   * Convert a decimal into a hex string with the specified number of cyphers.
+   * 
+   * @param
+   *   value - The non-negative decimal number to be converted into a hex string
+   * @param
+   *   digits - The number of hex cyphers
+   *   
+   * @return
+   *   The hex string representation, padded with leading zeros
+   */
+  static public String toHexString(int value, int digits) {
+    StringBuilder sb = new StringBuilder();
+    for (int shift = (digits - 1) * 4; shift >= 0; shift -= 4) {
+      sb.append(toHexNibbleString((value >> shift) & 0xF));
+    }
+    return sb.toString();
+  }
+
+
+  /**
+   * Convert an address into a hex string wide enough for the configured
+   * address space, e.g. "3A" for 256 bytes or "013A" for 64 KiB.
+   * 
+   * @param
+   *   address - The address to be converted into a hex string
+   *   
+   * @return
+   *   The hex address string representation
+   */
+  static public String toHexAddressString(int address) {
+    return toHexString(address, addressDigits(context.getRamSize()));
+  }
+
+
+  /**
+   * Answer the number of hex cyphers needed to write the highest address
+   * of an address space, at least 2.
+   * 
+   * @param
+   *   size - The size of the address space
+   *   
+   * @return
+   *   The number of hex cyphers
+   */
+  static public int addressDigits(int size) {
+    int digits = 2;
+    while (digits < 8 && (size - 1) >>> (digits * 4) != 0) {
+      digits++;
+    }
+    return digits;
+  }
+
+
+  /**
+   * Test if a string consists of upper case hex cyphers only, like
+   * Pattern.matches("[0-9A-F]+", string) but without loading the regex
+   * engine at startup.
+   * 
+   * @param
+   *   string - The hex number string candidate
+   *   
+   * @return
+   *   true if not empty and all cyphers are 0..9 or A..F
+   */
+  static public boolean isHexDigits(String string) {
+    if (string.isEmpty()) {
+      return false;
+    }
+    for (int i = 0; i < string.length(); ++i) {
+      char c = string.charAt(i);
+      if (!((c >= '0' && c <= '9') || (c >= 'A' && c <= 'F'))) {
+        return false;
+      }
+    }
+    return true;
+  }
 }
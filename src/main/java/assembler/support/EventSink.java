@@ -0,0 +1,81 @@
+package assembler.support;
+
+import assembler.AssemblyMetrics;
+
+
+/**
+ * The interface EventSink receives an event per run of the assembler and of
+ * the simulators, e.g. to forward them to the JDK Flight Recorder. A sink is
+ * installed in Events; without a sink no events are created.
+ *
+ * Sinks are called on the thread of the run and must not block. A run is
+ * reported only if the sink is enabled when it starts. The callbacks of an
+ * assembler run come in the order
+ *   assemblyStarted(), { phaseStarted(p), phaseEnded(p) }, assembled()
+ * and those of a simulator run in the order
+ *   simulationStarted(), simulated()
+ * i.e. a sink may time its events by the callbacks instead of the metrics.
+ *
+ * @author ruedi.mueller
+ */
+public interface EventSink {
+
+  /**
+   * Answer whether the sink wants events now, e.g. while a recording runs.
+   * Runs starting while disabled are neither measured nor reported.
+   *
+   * @return true if enabled, else false
+   */
+  boolean isEnabled();
+
+
+  /**
+   * Called when a run of the assembler starts, before its first phase.
+   */
+  void assemblyStarted();
+
+
+  /**
+   * Called when a phase of the assembler starts.
+   *
+   * @param phase The phase, e.g. AssemblyMetrics.TOKENIZE
+   */
+  void phaseStarted(int phase);
+
+
+  /**
+   * Called when a phase of the assembler ends, successful or not.
+   *
+   * @param phase The phase, e.g. AssemblyMetrics.TOKENIZE
+   */
+  void phaseEnded(int phase);
+
+
+  /**
+   * Called after a run of the assembler, successful or not.
+   *
+   * @param source The name of the source, cp. Common.getFilename()
+   * @param size The length of the source in characters
+   * @param metrics The metrics of the run, phases not reached take 0 ns
+   */
+  void assembled(String source, int size, AssemblyMetrics metrics);
+
+
+  /**
+   * Called when a run of a simulator starts.
+   */
+  void simulationStarted();
+
+
+  /**
+   * Called after a run of a simulator.
+   *
+   * @param simulator The simple class name of the simulator
+   * @param steps The number of commands executed
+   * @param cycles The number of cycles executed, i.e. micro instructions
+   *               of MicroSimulator, else commands
+   * @param nanos The elapsed time
+   * @param status The status after the run
+   */
+  void simulated(String simulator, long steps, long cycles, long nanos, int status);
+}
@@ -0,0 +1,70 @@
+package assembler.support;
+
+
+/**
+ * The class Events holds the event sink of the assembler and the simulators.
+ * No sink is installed by default, i.e. runs cost a single null check.
+ *
+ * A sink may be installed at startup with the system property stebs.events,
+ * either the name of an EventSink class with a public no-argument constructor
+ * or "jfr" for the JDK Flight Recorder events of the jfr source set, which
+ * requires Java 11 or newer:
+ *   java -Dstebs.events=jfr -XX:StartFlightRecording=filename=stebs.jfr -jar IKVMassembler-jfr.jar prog.asm
+ *
+ * @author ruedi.mueller
+ */
+public final class Events {
+  // System property naming the sink installed at startup
+  public static final String PROPERTY = "stebs.events";
+  // The sink of the JDK Flight Recorder events
+  public static final String JFR = "jfr";
+  public static final String JFR_SINK = "assembler.jfr.FlightRecorderSink";
+
+  // The sink, null if none
+  private static volatile EventSink sink = load(System.getProperty(PROPERTY));
+
+
+  private Events() {
+  }
+
+
+  /**
+   * Instantiate the sink named by the system property, null if none or if
+   * the sink cannot be instantiated.
+   */
+  private static EventSink load(String name) {
+    if (name == null || name.isEmpty()) {
+      return null;
+    }
+    try {
+      String className = JFR.equals(name) ? JFR_SINK : name;
+      return (EventSink) Class.forName(className).getConstructor().newInstance();
+    }
+    catch (Exception e) {
+      System.err.println("Event sink " + name + " not installed: " + e);
+    }
+    catch (LinkageError le) {
+      // E.g. the Flight Recorder on Java before 11
+      System.err.println("Event sink " + name + " not installed: " + le);
+    }
+    return null;
+  }
+
+
+  /**
+   * Answer the sink, null if none.
+   */
+  public static EventSink getSink() {
+    return sink;
+  }
+
+
+  /**
+   * Install a sink.
+   *
+   * @param eventSink The sink, null to stop sending events
+   */
+  public static void setSink(EventSink eventSink) {
+    sink = eventSink;
+  }
+}
@@ -1,31 +1,37 @@
 package assembler.support;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import assembler.Assembler;
 
 
 public class InstructionFileReader {
 
   public String execute(String filename) {
-    StringBuilder sb = new StringBuilder();
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
     
     try {
       // Helpers to read the file
       ClassLoader cl = Assembler.class.getClassLoader();
-      BufferedReader br = new BufferedReader(
-    		  new InputStreamReader(cl.getResourceAsStream(Common.INSTRUCTION_FILENAME)));
+      InputStream in = cl.getResourceAsStream(filename);
       
-      // Read file char by char
-      int r;
-      while ((r = br.read()) != -1) {
-        sb.append((char) r);
+      // Read file in blocks, decode at once
+      try {
+        byte[] buffer = new byte[4096];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+          bytes.write(buffer, 0, n);
+        }
+      }
+      finally {
+        in.close();
       }
     }
     catch (Exception ex) {
       ex.printStackTrace();
       System.exit(-1);
     }
-    return sb.toString();
+    return new String(bytes.toByteArray(), StandardCharsets.ISO_8859_1);
   }
 }
@@ -0,0 +1,366 @@
+package assembler.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import assembler.Memory;
+
+
+/**
+ * The class ProgramGenerator generates assembler programs for stress and
+ * scaling tests. Programs are reproducible: the same seed and settings always
+ * generate the same source. Size and feature mix are controlled by:
+ * <br> - the number of commands, a mix of moves, arithmetic, stack commands
+ *        and backward jumps to labels
+ * <br> - the number of labels, each placed in front of a command
+ * <br> - the number of comment lines, spread over the program
+ * <br> - the number and length of DB strings
+ * <br> - the depth of forward references, i.e. jumps to labels defined later,
+ *        all pending at the same time (in groups of 40 due to the range of
+ *        relative jumps)
+ * <br> - filling the RAM completely with DB bytes after the program
+ * Features are cut when the RAM is exhausted.
+ *
+ * Invalid programs are valid programs with a single defect, cp. DEFECTS.
+ *
+ * Example:
+ *   ProgramGenerator generator = new ProgramGenerator(42, 0x100);
+ *   generator.setLabels(50);
+ *   generator.setCommentLines(1000);
+ *   generator.setFill(true);
+ *   String asmString = generator.generate();
+ *
+ * @author ruedi.mueller
+ */
+public class ProgramGenerator {
+  // Defects of invalid programs
+  public static final int UNKNOWN_MNEMONIC = 0;
+  public static final int MISSING_END = 1;
+  public static final int DUPLICATE_LABEL = 2;
+  public static final int UNDEFINED_LABEL = 3;
+  public static final int INVALID_HEX = 4;
+  public static final int UNTERMINATED_STRING = 5;
+  public static final int RAM_EXCEEDED = 6;
+  public static final String[] DEFECTS = {"unknown mnemonic", "missing END", "duplicate label",
+      "undefined label", "invalid hex number", "unterminated string", "RAM exceeded"};
+
+  // Line end as in files written on Windows
+  private static final String EOL = "\r\n";
+  // Maximum distance of a backward jump to its label in bytes
+  private static final int JUMP_RANGE = 120;
+  // Maximum number of forward references pending in range of their labels
+  private static final int CHAIN_GROUP = 40;
+  // Commands without jumps and their lengths
+  private static final String[] COMMANDS = {"MOV   AL,12", "MOV   BL,%s", "ADD   AL,BL", "SUB   CL,%s",
+      "INC   CL", "DEC   DL", "PUSH  AL", "POP   DL", "CMP   CL,%s", "XOR   AL,BL", "SHL   AL", "NOP"};
+  private static final int[] LENGTHS = {3, 3, 3, 3, 2, 2, 2, 2, 3, 3, 2, 1};
+  private static final String[] JUMPS = {"JMP", "JZ", "JNZ", "JS", "JNS"};
+  // Characters of DB strings and comments
+  private static final String CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+
+  // The seed and the size of the address space
+  private final long seed;
+  private final int ramSize;
+
+  // Settings
+  private int nofCommands = 64;
+  private int nofLabels = 8;
+  private int nofCommentLines = 16;
+  private int nofDbStrings = 2;
+  private int dbStringLength = 16;
+  private int forwardDepth = 4;
+  private boolean fill;
+
+  // State while generating
+  private Random random;
+  private StringBuilder sb;
+  private int address;
+  private List<String> labelNames;
+  private List<Integer> labelAddresses;
+
+
+  /**
+   * Instantiate a generator.
+   *
+   * @param seed The seed of the random numbers
+   * @param ramSize The size of the address space (1..Memory.MAX_SIZE)
+   */
+  public ProgramGenerator(long seed, int ramSize) {
+    if (ramSize <= 0 || ramSize > Memory.MAX_SIZE) {
+      throw new IllegalArgumentException("Invalid RAM size: " + ramSize);
+    }
+    this.seed = seed;
+    this.ramSize = ramSize;
+  }
+
+
+  // Getters and setters
+  public int getRamSize() {
+    return ramSize;
+  }
+
+  public void setCommands(int nofCommands) {
+    this.nofCommands = nofCommands;
+  }
+
+  public void setLabels(int nofLabels) {
+    this.nofLabels = nofLabels;
+  }
+
+  public void setCommentLines(int nofCommentLines) {
+    this.nofCommentLines = nofCommentLines;
+  }
+
+  public void setDbStrings(int nofDbStrings, int length) {
+    this.nofDbStrings = nofDbStrings;
+    this.dbStringLength = Math.max(1, length);
+  }
+
+  public void setForwardDepth(int forwardDepth) {
+    this.forwardDepth = forwardDepth;
+  }
+
+  public void setFill(boolean fill) {
+    this.fill = fill;
+  }
+
+
+  /**
+   * Generate a valid program.
+   *
+   * @return the source
+   */
+  public String generate() {
+    return build(true);
+  }
+
+
+  /**
+   * Generate a program with the specified defect.
+   *
+   * @param defect The defect, e.g. UNDEFINED_LABEL
+   * @return the source
+   */
+  public String generateInvalid(int defect) {
+    String source = build(defect != MISSING_END);
+    // Insert the defect in front of a random line of the program
+    String[] lines = source.split(EOL);
+    int nofLines = (defect == MISSING_END) ? lines.length : lines.length - 1;
+    int at = 1 + random.nextInt(Math.max(1, nofLines - 1));
+    String line;
+    switch (defect) {
+      case UNKNOWN_MNEMONIC:
+        line = "    MOVE  AL,12";
+        break;
+      case MISSING_END:
+        return source;
+      case DUPLICATE_LABEL:
+        line = "Twice:" + EOL + "    NOP" + EOL + "Twice:";
+        break;
+      case UNDEFINED_LABEL:
+        line = "    JMP   Undefined";
+        break;
+      case INVALID_HEX:
+        line = "    MOV   AL,1G";
+        break;
+      case UNTERMINATED_STRING:
+        line = "    DB    \"" + text(8);
+        break;
+      case RAM_EXCEEDED:
+        // A string crossing the end of RAM, in front of END
+        at = nofLines;
+        line = "    ORG   " + Common.toHexString(ramSize - 1, Common.addressDigits(ramSize))
+            + EOL + "    DB    \"xy\"";
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown defect " + defect);
+    }
+    StringBuilder invalid = new StringBuilder();
+    for (int i = 0; i < lines.length; ++i) {
+      if (i == at) {
+        invalid.append(line).append(EOL);
+      }
+      invalid.append(lines[i]).append(EOL);
+    }
+    return invalid.toString();
+  }
+
+
+  /**
+   * Build the program.
+   */
+  private String build(boolean withEnd) {
+    random = new Random(seed);
+    sb = new StringBuilder();
+    address = 0;
+    labelNames = new ArrayList<String>();
+    labelAddresses = new ArrayList<Integer>();
+    sb.append("; Generated program, seed ").append(seed).append(EOL);
+
+    // Items in random order: 0 command, 1 DB string, 2 forward reference group
+    int nofGroups = (forwardDepth + CHAIN_GROUP - 1) / CHAIN_GROUP;
+    List<Integer> items = new ArrayList<Integer>();
+    for (int i = 0; i < nofCommands; ++i) {
+      items.add(0);
+    }
+    for (int i = 0; i < nofDbStrings; ++i) {
+      items.add(1);
+    }
+    for (int i = 0; i < nofGroups; ++i) {
+      items.add(2);
+    }
+    Collections.shuffle(items, random);
+    int labels = nofLabels;
+    int comments = nofCommentLines;
+    int chained = 0;
+    int remaining = items.size();
+    for (int item : items) {
+      // Spread comment lines and labels evenly over the items
+      int nofComments = (remaining == 0) ? 0 : comments / remaining;
+      comments -= nofComments;
+      for (int i = 0; i < nofComments; ++i) {
+        sb.append("; ").append(text(1 + random.nextInt(60))).append(EOL);
+      }
+      boolean labeled = item == 0 && labels > 0 && random.nextInt(remaining) < labels;
+      --remaining;
+      if (item == 0) {
+        if (labeled && fits(3)) {
+          --labels;
+          label("L" + labelNames.size());
+        }
+        command();
+      }
+      else if (item == 1) {
+        dbString();
+      }
+      else {
+        int depth = Math.min(CHAIN_GROUP, forwardDepth - chained);
+        forwardGroup(chained, depth);
+        chained += depth;
+      }
+    }
+    for (int i = 0; i < comments; ++i) {
+      sb.append("; ").append(text(1 + random.nextInt(60))).append(EOL);
+    }
+    if (address < ramSize - 1) {
+      sb.append("    HALT").append(EOL);
+      ++address;
+    }
+    if (fill) {
+      fillRam();
+    }
+    if (withEnd) {
+      sb.append("    END").append(EOL);
+    }
+    return sb.toString();
+  }
+
+
+  /**
+   * Answer whether the specified number of bytes fits into RAM, leaving a
+   * byte for HALT and for END, which assembles to 00 as well.
+   */
+  private boolean fits(int length) {
+    return address + length < ramSize - 1;
+  }
+
+
+  private void label(String name) {
+    labelNames.add(name);
+    labelAddresses.add(address);
+    sb.append(name).append(":").append(EOL);
+  }
+
+
+  /**
+   * Emit a command, a backward jump if a label is in range.
+   */
+  private void command() {
+    int last = labelAddresses.size() - 1;
+    if (last >= 0 && random.nextInt(4) == 0 && fits(2)) {
+      // Any label in range
+      int first = last;
+      while (first > 0 && address - labelAddresses.get(first - 1) <= JUMP_RANGE) {
+        --first;
+      }
+      if (address - labelAddresses.get(first) <= JUMP_RANGE) {
+        int target = first + random.nextInt(last - first + 1);
+        sb.append("    ").append(pad(JUMPS[random.nextInt(JUMPS.length)]))
+            .append(labelNames.get(target)).append(EOL);
+        address += 2;
+        return;
+      }
+    }
+    int i = random.nextInt(COMMANDS.length);
+    if (!fits(LENGTHS[i])) {
+      return;
+    }
+    sb.append("    ").append(String.format(COMMANDS[i], Common.toHexByteString(random.nextInt(0x100))));
+    if (random.nextInt(3) == 0) {
+      sb.append("   ; ").append(text(1 + random.nextInt(30)));
+    }
+    sb.append(EOL);
+    address += LENGTHS[i];
+  }
+
+
+  private void dbString() {
+    int length = Math.min(dbStringLength, ramSize - 2 - address);
+    if (length <= 0) {
+      return;
+    }
+    sb.append("    DB    \"").append(text(length)).append("\"").append(EOL);
+    address += length;
+  }
+
+
+  /**
+   * Emit depth forward jumps followed by their labels in reverse order, each
+   * with a NOP, i.e. all references are pending when the first label is seen.
+   */
+  private void forwardGroup(int first, int depth) {
+    depth = Math.min(depth, (ramSize - 2 - address) / 3);
+    for (int i = 0; i < depth; ++i) {
+      sb.append("    ").append(pad(JUMPS[random.nextInt(JUMPS.length)])).append("Fwd").append(first + i)
+          .append(EOL);
+      address += 2;
+    }
+    for (int i = depth - 1; i >= 0; --i) {
+      sb.append("Fwd").append(first + i).append(":").append(EOL);
+      sb.append("    NOP").append(EOL);
+      ++address;
+    }
+  }
+
+
+  /**
+   * Fill the rest of RAM with DB bytes up to the byte of END.
+   */
+  private void fillRam() {
+    while (address < ramSize - 1) {
+      int length = Math.min(32, ramSize - 1 - address);
+      sb.append("    DB    \"").append(text(length)).append("\"").append(EOL);
+      address += length;
+    }
+  }
+
+
+  private String text(int length) {
+    StringBuilder text = new StringBuilder(length);
+    for (int i = 0; i < length; ++i) {
+      text.append(CHARS.charAt(random.nextInt(CHARS.length())));
+    }
+    return text.toString();
+  }
+
+
+  private static String pad(String mnemonic) {
+    StringBuilder padded = new StringBuilder(mnemonic);
+    while (padded.length() < 6) {
+      padded.append(' ');
+    }
+    return padded.toString();
+  }
+}
@@ -0,0 +1,16 @@
+@echo off
+rem Start the stebs assembler, e.g. stebs-asm program.asm [ramSize].
+rem Uses the class-data sharing archive built by gradle cdsArchive if it lies
+rem next to the jar; a JDK which cannot map it starts without sharing. JDK 8
+rem and 9 know -XX:SharedArchiveFile as a diagnostic option only, so it is
+rem unlocked, and JVMs without it ignore it, i.e. the options never stop a JVM
+rem which starts with plain java -jar.
+rem JAVA_HOME selects the JDK, else java on the PATH.
+
+setlocal
+set JAVA_EXE=java
+if defined JAVA_HOME set JAVA_EXE=%JAVA_HOME%\bin\java
+set CDS_OPTS=
+if exist "%~dp0IKVMassembler.jsa" set CDS_OPTS=-XX:+IgnoreUnrecognizedVMOptions -XX:+UnlockDiagnosticVMOptions -XX:SharedArchiveFile="%~dp0IKVMassembler.jsa" -Xshare:auto -XX:TieredStopAtLevel=1 -XX:+UseSerialGC -XX:-UsePerfData
+
+"%JAVA_EXE%" %CDS_OPTS% -jar "%~dp0IKVMassembler.jar" %*
@@ -1,7 +1,10 @@
 package assembler;
 
+import java.nio.charset.StandardCharsets;
+
 import assembler.Assembler;
 import assembler.GroupListBuilder;
+import assembler.Memory;
 import assembler.SyntaxChecker;
 import assembler.SyntaxCheckerException;
 import assembler.Tokenizer;
@@ -13,13 +16,14 @@ import assembler.support.InstructionFileReader;
 /**
  * The class AllTests defines helper methods for all tests.
  * 
+ * Each assembly uses its own tokenizer, instruction set and syntax checker
+ * on the context of its own assembler, i.e. tests may run in parallel.
+ * 
  * @author ruedi.mueller
  */
 public class AllTests {
-  // The syntax checker to be tested
-  private static SyntaxChecker sc;
   // The string to be read from INSTRUCTION.data
-  private static String instructionDataString;
+  private static volatile String instructionDataString;
 
   
   /**
@@ -38,21 +42,33 @@ public class AllTests {
    * @return The checker with its error message and error number
    */
   public static SyntaxChecker assemble(String filename) {
-    // Create assembler to store filename
-    new Assembler(filename);
+    return assemble(filename, Memory.DEFAULT_SIZE);
+  }
+  
+  /**
+   * Assemble the specified file for an address space of the specified size
+   * and invoke the syntax checker.
+   * 
+   * @param filename The name of the file to be assembled
+   * @param ramSize The number of addressable bytes
+   * @return The checker with its error message and error number
+   */
+  public static SyntaxChecker assemble(String filename, int ramSize) {
+    // Create assembler to store filename and RAM size in its context
+    AssemblerContext context = new Assembler(filename, ramSize).getContext();
 
     // Assemble code from *.asm file with support from INSTRUCTION.data
-    String asmString = new AsmFileReader().execute(Common.getFilename());
+    String asmString = new AsmFileReader(StandardCharsets.UTF_8).execute(context.getFilename());
     
     // Create token list with tokens from asmString
-    Tokenizer t = new Tokenizer();
+    Tokenizer t = new Tokenizer(context);
     t.tokenize(asmString);
     
     // Build mnemonic list, opcode list and mnemonic set
     GroupListBuilder groupListBuilder = new GroupListBuilder(instructionDataString);
     
     // Check tokens syntactically etc.
-    sc = new SyntaxChecker(groupListBuilder);
+    SyntaxChecker sc = new SyntaxChecker(groupListBuilder, context);
     try {
       sc.check();
     }
@@ -0,0 +1,148 @@
+package assembler;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import assembler.support.AsmFileReader;
+import assembler.support.Common;
+import assembler.support.InstructionFileReader;
+
+
+/**
+ * Test the bytes allocated per phase when assembling the RamTest programs
+ * against the budgets in allocation-budgets.properties, i.e. a change
+ * allocating more garbage per token or per line fails the build.
+ *
+ * Each program is assembled a few times to warm up, the least allocation of
+ * some more runs is compared with the budget. To record new budgets, i.e. the
+ * allocation measured plus BUDGET_MARGIN, e.g. after an intended change or
+ * for another JVM, run the tests with
+ *   gradle test -PrecordAllocations
+ * and commit the changed budget file.
+ *
+ * @author ruedi.mueller
+ */
+public class AllocationBudgetTest {
+  // The budget file
+  private static final String BUDGETS = "allocation-budgets.properties";
+  private static final String BUDGETS_SOURCE = "src/test/resources/" + BUDGETS;
+  // System property to record budgets instead of checking them
+  private static final String RECORD = "allocation.record";
+  // Margin of recorded budgets over the allocation measured, and the least
+  // budget recorded to absorb noise of phases allocating next to nothing
+  private static final double BUDGET_MARGIN = 1.25;
+  private static final long MIN_BUDGET = 4096;
+  // Runs to warm up and runs measured
+  private static final int WARM_UP = 5;
+  private static final int MEASURED = 5;
+  // Phases with a budget, the instruction set is loaded before
+  private static final int[] PHASES = {AssemblyMetrics.TOKENIZE, AssemblyMetrics.SYNTAX_CHECK,
+      AssemblyMetrics.LABEL_RESOLUTION, AssemblyMetrics.LISTING};
+
+  // The instruction set
+  private static GroupListBuilder groupListBuilder;
+  // The budgets and the budgets recorded
+  private static Properties budgets = new Properties();
+  private static TreeMap<String, String> recorded = new TreeMap<String, String>();
+
+  @BeforeClass
+  public static void setUp() throws IOException {
+    groupListBuilder = new GroupListBuilder(new InstructionFileReader().execute(Common.INSTRUCTION_FILENAME));
+    InputStream in = AllocationBudgetTest.class.getResourceAsStream("/" + BUDGETS);
+    if (in != null) {
+      try {
+        budgets.load(in);
+      }
+      finally {
+        in.close();
+      }
+    }
+  }
+
+  @AfterClass
+  public static void tearDown() throws IOException {
+    if (!Boolean.getBoolean(RECORD) || recorded.isEmpty()) {
+      return;
+    }
+    StringBuilder sb = new StringBuilder();
+    sb.append("# Bytes allocated per phase when assembling the RamTest programs, cp. AllocationBudgetTest\n");
+    for (String key : recorded.keySet()) {
+      sb.append(key).append('=').append(recorded.get(key)).append('\n');
+    }
+    OutputStream out = new FileOutputStream(BUDGETS_SOURCE);
+    try {
+      out.write(sb.toString().getBytes("ISO-8859-1"));
+    }
+    finally {
+      out.close();
+    }
+  }
+
+  /**
+   * Assemble the program and check the allocation of each phase against its
+   * budget.
+   */
+  private void checkBudget(String name) {
+    assumeTrue(AssemblyMetrics.isAllocationSupported());
+    String asmString = new AsmFileReader(StandardCharsets.UTF_8).execute("assemblertests/ram/" + name + ".asm");
+    assertNotNull(asmString);
+    AssemblyMetrics metrics = new AssemblyMetrics();
+    long[] least = new long[AssemblyMetrics.NOF_PHASES];
+    for (int run = 0; run < WARM_UP + MEASURED; ++run) {
+      assertTrue(new Assembler(name + ".asm").execute(asmString, groupListBuilder, metrics));
+      for (int phase : PHASES) {
+        long bytes = metrics.getAllocatedBytes(phase);
+        least[phase] = (run == WARM_UP) ? bytes : Math.min(least[phase], bytes);
+      }
+    }
+
+    for (int phase : PHASES) {
+      String key = name + "." + AssemblyMetrics.PHASES[phase].replace(' ', '_');
+      if (Boolean.getBoolean(RECORD)) {
+        long budget = Math.max(MIN_BUDGET, (long) Math.ceil(least[phase] * BUDGET_MARGIN / 1024) * 1024);
+        recorded.put(key, Long.toString(budget));
+        continue;
+      }
+      String budget = budgets.getProperty(key);
+      assertNotNull("No budget " + key + ", record budgets with -D" + RECORD + "=true", budget);
+      assertTrue(key + ": " + least[phase] + " bytes allocated, budget " + budget,
+          least[phase] <= Long.parseLong(budget));
+    }
+  }
+
+  @Test
+  public void test_bubblesort() {
+    checkBudget("bubblesort");
+  }
+
+  @Test
+  public void test_multitasker() {
+    checkBudget("multitasker");
+  }
+
+  @Test
+  public void test_jumps0() {
+    checkBudget("jumps0");
+  }
+
+  @Test
+  public void test_jumps1() {
+    checkBudget("jumps1");
+  }
+
+  @Test
+  public void test_jumps2() {
+    checkBudget("jumps2");
+  }
+}
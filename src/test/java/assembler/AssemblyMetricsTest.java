@@ -0,0 +1,125 @@
+package assembler;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.junit.BeforeClass;
+
+import assembler.support.Common;
+import assembler.support.InstructionFileReader;
+
+
+/**
+ * Test the metrics recorded per run of the assembler and their aggregation.
+ *
+ * @author ruedi.mueller
+ */
+public class AssemblyMetricsTest {
+  private static final String PROGRAM = "Start:\r\n    MOV   AL,12\r\nLoop:\r\n    DEC   AL\r\n"
+      + "    JNZ   Loop\r\n    JMP   Start\r\n    DB    \"abc\"\r\n    END\r\n";
+
+  // The string read from INSTRUCTION.data
+  private static String instructionDataString;
+
+  @BeforeClass
+  public static void setUp() {
+    instructionDataString = new InstructionFileReader().execute(Common.INSTRUCTION_FILENAME);
+  }
+
+  @Test
+  public void test_counts() {
+    AssemblyMetrics metrics = new AssemblyMetrics();
+    assertTrue(new Assembler("metrics.asm").execute(PROGRAM, instructionDataString, metrics));
+    assertTrue(metrics.isSuccess());
+    assertEquals(Common.getTokenList().size() / 3, metrics.getNofTokens());
+    assertEquals(2, metrics.getNofLabels());
+    // MOV 3, DEC 2, JNZ 2, JMP 2, DB 3, END 1
+    assertEquals(13, metrics.getNofBytes());
+    for (int phase = 0; phase < AssemblyMetrics.NOF_PHASES; ++phase) {
+      assertTrue(AssemblyMetrics.PHASES[phase], metrics.getNanos(phase) > 0);
+    }
+    assertTrue(metrics.getTotalNanos() >= metrics.getNanos(AssemblyMetrics.TOKENIZE));
+  }
+
+  @Test
+  public void test_same_result_as_without_metrics() {
+    assertTrue(new Assembler("metrics.asm").execute(PROGRAM, instructionDataString));
+    String codeList = Common.getCodeList().toString();
+    int[] ram = Common.getRam();
+    assertTrue(new Assembler("metrics.asm").execute(PROGRAM, instructionDataString, new AssemblyMetrics()));
+    assertEquals(codeList, Common.getCodeList().toString());
+    assertArrayEquals(ram, Common.getRam());
+  }
+
+  @Test
+  public void test_allocated_bytes() {
+    AssemblyMetrics metrics = new AssemblyMetrics();
+    new Assembler("metrics.asm").execute(PROGRAM, instructionDataString, metrics);
+    if (AssemblyMetrics.isAllocationSupported()) {
+      assertTrue(metrics.getAllocatedBytes(AssemblyMetrics.TOKENIZE) > 0);
+      assertTrue(metrics.getAllocatedBytes(AssemblyMetrics.INSTRUCTION_SET) > 0);
+      assertTrue(metrics.getTotalAllocatedBytes() >= metrics.getAllocatedBytes(AssemblyMetrics.LISTING));
+    }
+    else {
+      assertEquals(AssemblyMetrics.UNSUPPORTED, metrics.getAllocatedBytes(AssemblyMetrics.TOKENIZE));
+      assertEquals(AssemblyMetrics.UNSUPPORTED, metrics.getTotalAllocatedBytes());
+    }
+  }
+
+  @Test
+  public void test_error() {
+    AssemblyMetrics metrics = new AssemblyMetrics();
+    assertFalse(new Assembler("metrics.asm").execute("    JMP   Nowhere\r\n    END\r\n",
+        instructionDataString, metrics));
+    assertFalse(metrics.isSuccess());
+    assertTrue(metrics.getErrorNum() != 0);
+    assertEquals(0, metrics.getNofBytes());
+    // Failed in label resolution
+    assertTrue(metrics.getNanos(AssemblyMetrics.LABEL_RESOLUTION) > 0);
+    assertEquals(0, metrics.getNanos(AssemblyMetrics.LISTING));
+  }
+
+  @Test
+  public void test_reused() {
+    AssemblyMetrics metrics = new AssemblyMetrics();
+    GroupListBuilder groupListBuilder = new GroupListBuilder(instructionDataString);
+    new Assembler("metrics.asm").execute("    MOVE  AL,12\r\n    END\r\n", groupListBuilder, metrics);
+    assertFalse(metrics.isSuccess());
+    assertTrue(new Assembler("metrics.asm").execute(PROGRAM, groupListBuilder, metrics));
+    assertTrue(metrics.isSuccess());
+    assertEquals(0, metrics.getErrorNum());
+    // Instruction set loaded before
+    assertEquals(0, metrics.getNanos(AssemblyMetrics.INSTRUCTION_SET));
+  }
+
+  @Test
+  public void test_aggregator() {
+    MetricsAggregator aggregator = new MetricsAggregator();
+    AssemblyMetrics metrics = new AssemblyMetrics();
+    GroupListBuilder groupListBuilder = new GroupListBuilder(instructionDataString);
+    for (int i = 0; i < 10; ++i) {
+      new Assembler("metrics.asm").execute(PROGRAM, groupListBuilder, metrics);
+      aggregator.record(metrics);
+    }
+    new Assembler("metrics.asm").execute("    JMP   Nowhere\r\n    END\r\n", groupListBuilder, metrics);
+    aggregator.record(metrics);
+    assertEquals(11, aggregator.getNofRuns());
+    assertEquals(1, aggregator.getNofFailures());
+    assertEquals(20, aggregator.getNofLabels());
+    assertEquals(130, aggregator.getNofBytes());
+
+    long nofRuns = 0;
+    for (int bucket = 0; bucket < MetricsAggregator.NOF_BUCKETS; ++bucket) {
+      nofRuns += aggregator.getBucketCount(AssemblyMetrics.NOF_PHASES, bucket);
+    }
+    assertEquals(11, nofRuns);
+    long p50 = aggregator.getQuantileNanos(AssemblyMetrics.TOKENIZE, 0.5);
+    long p99 = aggregator.getQuantileNanos(AssemblyMetrics.TOKENIZE, 0.99);
+    assertTrue(p50 > 0);
+    assertTrue(p99 >= p50);
+    assertTrue(aggregator.toString().startsWith("runs 11, failures 1"));
+
+    aggregator.reset();
+    assertEquals(0, aggregator.getNofRuns());
+    assertEquals(0, aggregator.getQuantileNanos(AssemblyMetrics.NOF_PHASES, 0.5));
+  }
+}
@@ -0,0 +1,93 @@
+package assembler;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized.Parameters;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+
+/**
+ * Test the outcome of each file of the corpus in assemblertests, in
+ * parallel. The expected outcomes are listed in assemblertests/outcomes.properties:
+ *   group0/NOP_xy.asm=909
+ *   ram/bubblesort.asm=ok
+ * i.e. ok or the error number of the syntax checker. A new file of the corpus
+ * needs an entry, no test method; hand-written tests such as DbTest or
+ * RamTest check only what goes beyond the outcome, e.g. messages or RAM.
+ *
+ * @author ruedi.mueller
+ */
+@RunWith(ParallelParameterized.class)
+public class CorpusTest {
+  // The corpus and its expected outcomes
+  private static final Path CORPUS = Paths.get("assemblertests");
+  private static final String OUTCOMES = "outcomes.properties";
+  private static final String OK = "ok";
+
+  // The file relative to the corpus and its expected outcome, null if none
+  private final String file;
+  private final String expected;
+
+
+  @Parameters(name = "{0}")
+  public static Collection<Object[]> files() throws IOException {
+    AllTests.prepare();
+    Properties outcomes = new Properties();
+    InputStream in = Files.newInputStream(CORPUS.resolve(OUTCOMES));
+    try {
+      outcomes.load(in);
+    }
+    finally {
+      in.close();
+    }
+
+    final List<String> files = new ArrayList<String>();
+    Files.walkFileTree(CORPUS, new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult visitFile(Path path, BasicFileAttributes attrs) {
+        if (path.toString().endsWith(".asm")) {
+          files.add(CORPUS.relativize(path).toString().replace('\\', '/'));
+        }
+        return FileVisitResult.CONTINUE;
+      }
+    });
+    Collections.sort(files);
+    List<Object[]> parameters = new ArrayList<Object[]>();
+    for (String file : files) {
+      parameters.add(new Object[] {file, outcomes.getProperty(file)});
+    }
+    return parameters;
+  }
+
+
+  public CorpusTest(String file, String expected) {
+    this.file = file;
+    this.expected = expected;
+  }
+
+
+  @Test
+  public void test_outcome() {
+    assertNotNull("No expected outcome of " + file + " in " + OUTCOMES, expected);
+    SyntaxChecker sc = AllTests.assemble(CORPUS.resolve(file).toString());
+    String outcome = sc.getErrorMessage().isEmpty() ? OK : Long.toString(sc.getErrorNum());
+    assertEquals(sc.getErrorMessage(), expected, outcome);
+    if (OK.equals(expected)) {
+      assertTrue(sc.getMemory().getNofUsedBytes() > 0);
+    }
+  }
+}
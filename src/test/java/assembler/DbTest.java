@@ -26,6 +26,9 @@ import assembler.SyntaxChecker;
  *    DB ""        --> Expected at least one character other than quote("), got "
  *    DB "hello    --> Expected quote (")
  *    DB "hello" xy -> Expected comment, got xy
+ *
+ * The outcome of each file in assemblertests/db is checked by CorpusTest,
+ * the tests here check more than the outcome.
  * 
  * @author ruedi.mueller
  */
@@ -37,99 +40,11 @@ public class DbTest {
   }
 
   @Test
-  public void test_all_correct_DBs() {
-    SyntaxChecker sc = AllTests.assemble("assemblertests/db/all_correct_DBs.asm");
-    assertEquals("", sc.getErrorMessage());
-  }  
-  
-  @Test
-  public void test_DB() {
-    SyntaxChecker sc = AllTests.assemble("assemblertests/db/DB.asm");
-    assertEquals(1000, sc.getErrorNum());
-  }
-
-  @Test
-  public void test_DB_xy() {
-    SyntaxChecker sc = AllTests.assemble("assemblertests/db/DB_xy.asm");
-    assertEquals(1001, sc.getErrorNum());
-  }
-
-  @Test
-  public void test_DB_comma() {
-    SyntaxChecker sc = AllTests.assemble("assemblertests/db/DB_comma.asm");
-    assertEquals(1001, sc.getErrorNum());
-  }
-
-  @Test
-  public void test_DB_left() {
-    SyntaxChecker sc = AllTests.assemble("assemblertests/db/DB_left.asm");
-    assertEquals(1001, sc.getErrorNum());
-  }
-
-  @Test
-  public void test_DB_hex_xy() {
-    SyntaxChecker sc = AllTests.assemble("assemblertests/db/DB_hex_xy.asm");
-    assertEquals(1002, sc.getErrorNum());
-  }
-
-  @Test
-  public void test_DB_endquote_missing() {
-    SyntaxChecker sc = AllTests.assemble("assemblertests/db/DB_endquote_missing.asm");
-    assertEquals(1003, sc.getErrorNum());
-  }
-
-  @Test
-  public void test_DB_quote_invalid_char() {
-    SyntaxChecker sc = AllTests.assemble("assemblertests/db/DB_quote_invalid_char.asm");
-    assertEquals(1004, sc.getErrorNum());
-  }
-  
-  @Test
-  public void test_DB_quote_char_invalid_endquote() {
-    SyntaxChecker sc = AllTests.assemble("assemblertests/db/DB_quote_char_invalid_endquote.asm");
-    assertEquals(1005, sc.getErrorNum());
-  }
-  
-  @Test
-  public void test_DB_char_xy() {
-    SyntaxChecker sc = AllTests.assemble("assemblertests/db/DB_char_xy.asm");
-    assertEquals(1006, sc.getErrorNum());
-  }
-
-
-  @Test
-  public void test_DB_doublequote_empty() {
-    SyntaxChecker sc = AllTests.assemble("assemblertests/db/DB_doublequote_empty.asm");
-    assertEquals(1007, sc.getErrorNum());
-  }
-
-  @Test
-  public void test_DB_doubleendquote_missing() {
-    SyntaxChecker sc = AllTests.assemble("assemblertests/db/DB_doubleendquote_missing.asm");
-    assertEquals(1008, sc.getErrorNum());
-  }
-  
-  @Test
-  public void test_DB_doublequote_invalid_char() {
-    SyntaxChecker sc = AllTests.assemble("assemblertests/db/DB_doublequote_invalid_char.asm");
-    assertEquals(1009, sc.getErrorNum());
-  }
-
-  @Test
-  public void test_DB_RAM_exceeded() {
-    SyntaxChecker sc = AllTests.assemble("assemblertests/db/DB_RAM_exceeded.asm");
-    assertEquals(1010, sc.getErrorNum());
-  }
-
-  @Test
-  public void test_DB_duplicate_RAM_allocation() {
+  public void test_DB_duplicate_RAM_allocation_region() {
     SyntaxChecker sc = AllTests.assemble("assemblertests/db/DB_duplicate_RAM_allocation.asm");
-    assertEquals(1011, sc.getErrorNum());
-  }
-
-  @Test
-  public void test_DB_doublequote_xy() {
-    SyntaxChecker sc = AllTests.assemble("assemblertests/db/DB_doublequote_xy.asm");
-    assertEquals(1012, sc.getErrorNum());
+    assertTrue(sc.getErrorMessage().endsWith(
+        "Duplicate RAM allocation at address F2 (region F0..FF already allocated in line 4)"));
+    // The whole string of line 4 is a single region
+    assertEquals(1, sc.getMemory().getNofSegments());
   }
 }
@@ -0,0 +1,99 @@
+package assembler;
+
+import static org.junit.Assert.*;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import assembler.support.AsmFileReader;
+import assembler.support.Common;
+import assembler.support.InstructionFileReader;
+
+
+/**
+ * Test that disassembled programs assemble to the same bytes.
+ *
+ * @author ruedi.mueller
+ */
+public class DisassemblerTest {
+  // The instruction set shared by all assemblers
+  private static GroupListBuilder groupListBuilder;
+  private static Disassembler disassembler;
+
+  @BeforeClass
+  public static void setUp() {
+    groupListBuilder = new GroupListBuilder(new InstructionFileReader().execute(Common.INSTRUCTION_FILENAME));
+    disassembler = new Disassembler(groupListBuilder);
+  }
+
+  /**
+   * Assemble the source, disassemble it and assemble the disassembly.
+   *
+   * @return the disassembly
+   */
+  private static String roundTrip(String asmString) {
+    assertTrue(Common.ERROR_MESSAGE, new Assembler("original.asm").execute(asmString, groupListBuilder));
+    int[] ram = Common.getRam().clone();
+    String source = disassembler.disassemble(ram, Common.getUsedRamSlots());
+    assertTrue(Common.ERROR_MESSAGE + "\n" + source, new Assembler("disassembled.asm").execute(source, groupListBuilder));
+    assertArrayEquals(source, ram, Common.getRam());
+    return source;
+  }
+
+  @Test
+  public void test_decode() {
+    int[] ram = {0xD0, 0x00, 0x12, 0xD1, 0x04, 0xF9, 0xD4, 0x02, 0x03, 0xC0, 0xFD, 0x01};
+    assertEquals("MOV   AL,12", disassembler.decode(ram, 0));
+    assertEquals("MOV   SP,[F9]", disassembler.decode(ram, 3));
+    assertEquals("MOV   [CL],DL", disassembler.decode(ram, 6));
+    assertEquals("JMP   L06", disassembler.decode(ram, 9));
+    // Unknown opcode, command beyond the end of RAM
+    assertNull(disassembler.decode(ram, 11));
+    assertNull(disassembler.decode(new int[] {0xD0, 0x00}, 0));
+    assertEquals(3, disassembler.getLength(0xD0));
+    assertEquals(1, disassembler.getLength(0x01));
+  }
+
+  @Test
+  public void test_programs() {
+    for (String file : new String[] {"examples/bubblesort2.asm", "assemblertests/ram/multitasker.asm",
+        "assemblertests/group3/JMP_foreback_at_limits.asm", "assemblertests/org/all_correct_ORGs.asm"}) {
+      roundTrip(new AsmFileReader(StandardCharsets.UTF_8).execute(file));
+    }
+  }
+
+  @Test
+  public void test_jump_into_command() {
+    // The jump targets the constant of MOV AL,C0, whose opcode becomes a DB
+    String source = roundTrip("    JMP   Inside\r\n    DB    D0\r\n    DB    00\r\nInside:\r\n    DB    C0\r\n"
+        + "    DB    FC\r\n    END\r\n");
+    assertEquals("L00:\r\n    JMP   L04\r\n    DB    D0\r\n    HALT\r\nL04:\r\n    JMP   L00\r\n    END\r\n", source);
+  }
+
+  @Test
+  public void test_end() {
+    // END in front of the program, a label at an address not allocated
+    String source = roundTrip("    ORG   20\r\nFree:\r\n    ORG   80\r\n    JMP   Free\r\n"
+        + "    ORG   10\r\n    END\r\n");
+    assertTrue(source, source.endsWith("    ORG   10\r\n    END\r\n"));
+    assertTrue(source, source.contains("    ORG   20\r\nL20:\r\n"));
+  }
+
+  @Test
+  public void test_large_ram() {
+    Assembler asm = new Assembler("large.asm", 0x1000);
+    assertTrue(asm.execute("    ORG   800\r\n    MOV   AL,[12]\r\nBack:\r\n    JMP   Back\r\n    END\r\n",
+        groupListBuilder));
+    int[] ram = Common.getRam().clone();
+    String source = disassembler.disassemble(ram, Common.getUsedRamSlots());
+    assertTrue(source, source.startsWith("    ORG   800\r\n    MOV   AL,[12]\r\nL803:\r\n"));
+    assertTrue(new Assembler("large.asm", 0x1000).execute(source, groupListBuilder));
+    assertArrayEquals(ram, Common.getRam());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void test_no_end() {
+    disassembler.disassemble(new int[] {0xFF}, new boolean[] {true});
+  }
+}
@@ -0,0 +1,459 @@
+package assembler;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.Permission;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import assembler.simulator.InstructionTable;
+import assembler.simulator.MicroSimulator;
+import assembler.simulator.Simulator;
+import assembler.simulator.Snapshot;
+import assembler.simulator.TranslatingSimulator;
+import assembler.support.AsmFileReader;
+import assembler.support.Common;
+import assembler.support.ProgramGenerator;
+
+
+/**
+ * The class Fuzzer feeds random and mutated sources to the assembler and
+ * checks each outcome:
+ * <br> - the assembler neither throws nor calls System.exit()
+ * <br> - an accepted program disassembles to a source assembling to the
+ *        same bytes, cp. Disassembler
+ * <br> - the simulators agree on an accepted program, i.e. Simulator,
+ *        TranslatingSimulator and MicroSimulator reach the same state
+ *
+ * The inputs are mutated from a pool seeded with generated programs, cp.
+ * ProgramGenerator, and optionally a corpus. An input is added to the pool if
+ * it reaches a new feature: an error number of the syntax checker, an opcode
+ * assembled or a final state of the simulator. The error numbers name the
+ * branches of the checker, so they guide the mutations like coverage does.
+ *
+ * Time, the length of inputs and the size of the pool are bounded. Runs are
+ * reproducible with the same seed and number of inputs:
+ *   gradle fuzz -PfuzzSeconds=60 -PfuzzSeed=42
+ *
+ * The command line run turns System.exit() into a failure by a security
+ * manager. Java 18 and newer allow one only if started with
+ * -Djava.security.manager=allow, without it the run stops at once. A run
+ * via run() in a test leaves the security manager alone, an exit ends the
+ * test JVM with an error.
+ *
+ * @author ruedi.mueller
+ */
+public class Fuzzer {
+  // Defaults of the command line arguments
+  public static final int DEFAULT_SECONDS = 60;
+  public static final long DEFAULT_SEED = 42;
+  // Bounds of the inputs, the pool and the failures kept
+  public static final int MAX_LENGTH = 4096;
+  public static final int MAX_POOL = 512;
+  public static final int MAX_FAILURES = 10;
+  // Commands executed by each simulator
+  public static final int SIMULATOR_STEPS = 2000;
+
+  // Line end as in files written on Windows
+  private static final String EOL = "\r\n";
+  // Tokens inserted besides the mnemonics
+  private static final String[] TOKENS = {"AL", "BL", "CL", "DL", "SP", "ORG", "DB", "END", ",", "[", "]",
+      ":", ";", "\"", "'", " ", "    ", EOL, "\n", "\r", "\t", "00", "7F", "80", "FF", "100", "FFFF", "1G",
+      "L1", "L1:", "L2", "L2:", "'a'", "\"ab\"", "\"\"", "\u00E4", "\u0100"};
+
+  // The instruction set, the disassembler and the simulators' table
+  private final GroupListBuilder groupListBuilder;
+  private final Disassembler disassembler;
+  private final InstructionTable table;
+  // The tokens inserted
+  private final String[] tokens;
+  private final Random random;
+  private final AssemblyMetrics metrics = new AssemblyMetrics();
+
+  // The pool of inputs and the features reached
+  private final List<String> pool = new ArrayList<String>();
+  private final Set<Long> features = new HashSet<Long>();
+  // The failures found and their inputs
+  private final List<String> failures = new ArrayList<String>();
+  private final List<String> failingInputs = new ArrayList<String>();
+
+  // Results
+  private long nofInputs;
+  private long nofAccepted;
+  private long elapsedNanos;
+
+
+  /**
+   * Run the fuzzer.
+   *
+   * @param args Optionally the number of seconds (default 60), the seed
+   *             (default 42) and a directory of *.asm files added to the pool
+   */
+  public static void main(String[] args) throws Exception {
+    int seconds = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_SECONDS;
+    long seed = (args.length > 1) ? Long.parseLong(args[1]) : DEFAULT_SEED;
+
+    GroupListBuilder groupListBuilder = InstructionSetDescriptor.loadOrParse();
+    Fuzzer fuzzer = new Fuzzer(groupListBuilder, seed);
+    if (args.length > 2) {
+      fuzzer.addDirectory(Paths.get(args[2]));
+    }
+    trapExit();
+    System.out.println(Common.title + " " + Common.version + " fuzzer: " + seconds + " s, seed " + seed);
+    fuzzer.run(Long.MAX_VALUE, seconds * 1000000000L);
+    System.out.print(fuzzer.report());
+    if (!fuzzer.getFailures().isEmpty()) {
+      System.exit(1);
+    }
+  }
+
+
+  /**
+   * Instantiate a fuzzer with a pool of generated programs.
+   *
+   * @param groupListBuilder The instruction set
+   * @param seed The seed of the random numbers
+   */
+  public Fuzzer(GroupListBuilder groupListBuilder, long seed) {
+    this.groupListBuilder = groupListBuilder;
+    disassembler = new Disassembler(groupListBuilder);
+    table = new InstructionTable(groupListBuilder);
+    random = new Random(seed);
+    List<String> allTokens = new ArrayList<String>(Arrays.asList(TOKENS));
+    List<String> mnemonics = new ArrayList<String>(groupListBuilder.mnemonicSet);
+    Collections.sort(mnemonics);
+    allTokens.addAll(mnemonics);
+    tokens = allTokens.toArray(new String[allTokens.size()]);
+
+    for (int i = 0; i < 8; ++i) {
+      ProgramGenerator generator = new ProgramGenerator(seed + i, Memory.DEFAULT_SIZE);
+      generator.setCommands(4 + random.nextInt(40));
+      generator.setCommentLines(random.nextInt(4));
+      add(generator.generate());
+      add(generator.generateInvalid(i % ProgramGenerator.DEFECTS.length));
+    }
+  }
+
+
+  /**
+   * Add a source to the pool, cut to MAX_LENGTH.
+   *
+   * @param source The source
+   */
+  public void add(String source) {
+    if (source.length() > MAX_LENGTH) {
+      source = source.substring(0, MAX_LENGTH);
+    }
+    if (pool.size() < MAX_POOL) {
+      pool.add(source);
+    }
+    else {
+      pool.set(random.nextInt(MAX_POOL), source);
+    }
+  }
+
+
+  /**
+   * Add the *.asm files below the specified directory to the pool.
+   *
+   * @param directory The directory
+   * @throws IOException if the directory or a file cannot be read
+   */
+  public void addDirectory(Path directory) throws IOException {
+    final List<Path> files = new ArrayList<Path>();
+    Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+      @Override
+      public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+        if (attrs.isRegularFile() && file.getFileName().toString().toLowerCase().endsWith(".asm")) {
+          files.add(file);
+        }
+        return FileVisitResult.CONTINUE;
+      }
+    });
+    Collections.sort(files);
+    AsmFileReader reader = new AsmFileReader(StandardCharsets.UTF_8);
+    for (Path file : files) {
+      String asmString = reader.execute(file.toString());
+      if (asmString == null) {
+        throw new IOException(reader.getErrorMessage());
+      }
+      add(asmString);
+    }
+  }
+
+
+  /**
+   * Check random and mutated inputs until the number of inputs or the time
+   * is exhausted, or MAX_FAILURES failures are found.
+   *
+   * @param maxInputs The maximum number of inputs
+   * @param maxNanos The maximum time in nanoseconds
+   */
+  public void run(long maxInputs, long maxNanos) {
+    long start = System.nanoTime();
+    try {
+      for (long n = 0; n < maxInputs && failures.size() < MAX_FAILURES
+          && System.nanoTime() - start < maxNanos; ++n) {
+        String input = (random.nextInt(16) == 0) ? randomInput() : mutate(pool.get(random.nextInt(pool.size())));
+        ++nofInputs;
+        int before = features.size();
+        String failure = check(input);
+        if (failure != null) {
+          failures.add(failure);
+          failingInputs.add(input);
+        }
+        else if (features.size() > before) {
+          add(input);
+        }
+      }
+    }
+    finally {
+      elapsedNanos += System.nanoTime() - start;
+    }
+  }
+
+
+  /**
+   * Install a security manager which turns System.exit() into an exception
+   * for the rest of the JVM's life, i.e. for the command line run only.
+   *
+   * @throws IllegalStateException if the JVM does not allow it
+   */
+  private static void trapExit() {
+    try {
+      System.setSecurityManager(new SecurityManager() {
+        @Override
+        public void checkPermission(Permission perm) {
+        }
+
+        @Override
+        public void checkPermission(Permission perm, Object context) {
+        }
+
+        @Override
+        public void checkExit(int status) {
+          throw new ExitException(status);
+        }
+      });
+    }
+    catch (UnsupportedOperationException uoe) {
+      throw new IllegalStateException("Cannot trap System.exit(), run with -Djava.security.manager=allow", uoe);
+    }
+    catch (SecurityException se) {
+      throw new IllegalStateException("Cannot trap System.exit(): " + se, se);
+    }
+  }
+
+
+  /**
+   * Thrown instead of exiting the JVM while fuzzing.
+   */
+  private static class ExitException extends SecurityException {
+    private static final long serialVersionUID = 1L;
+
+    ExitException(int status) {
+      super("System.exit(" + status + ")");
+    }
+  }
+
+
+  /**
+   * Check an input.
+   *
+   * @param input The source
+   * @return the failure, or null if none
+   */
+  public String check(String input) {
+    Assembler asm = new Assembler("fuzz.asm");
+    asm.setOutput(null);
+    boolean accepted;
+    try {
+      accepted = asm.execute(input, groupListBuilder, metrics);
+    }
+    catch (Throwable t) {
+      return "Assembler: " + t;
+    }
+    if (!accepted) {
+      features.add(metrics.getErrorNum());
+      return null;
+    }
+    ++nofAccepted;
+    int[] ram = asm.getContext().getRam();
+    boolean[] used = asm.getContext().getUsedRamSlots();
+    int[] codeToLine = asm.getCodeToLineArr();
+    for (int address = 0; address < ram.length; ++address) {
+      if (used[address] && (address == 0 || codeToLine[address] != codeToLine[address - 1])) {
+        features.add(0x100000000L | ram[address]);
+      }
+    }
+
+    String source;
+    Assembler reassembler = new Assembler("fuzz.asm");
+    reassembler.setOutput(null);
+    try {
+      source = disassembler.disassemble(ram, used);
+      if (!reassembler.execute(source, groupListBuilder)) {
+        return "Disassembly rejected: " + reassembler.getContext().getErrorMessage().trim() + EOL + source;
+      }
+    }
+    catch (Throwable t) {
+      return "Disassembler: " + t;
+    }
+    if (!Arrays.equals(ram, reassembler.getContext().getRam())) {
+      return "Disassembly assembles to other bytes" + EOL + source;
+    }
+
+    if (ram.length == Simulator.RAM_SIZE) {
+      Simulator[] simulators = {new Simulator(table), new TranslatingSimulator(table, 1), new MicroSimulator(table)};
+      Snapshot expected = null;
+      for (Simulator simulator : simulators) {
+        try {
+          simulator.load(ram);
+          simulator.run(SIMULATOR_STEPS);
+        }
+        catch (Throwable t) {
+          return simulator.getClass().getSimpleName() + ": " + t;
+        }
+        Snapshot snapshot = simulator.snapshot();
+        if (expected == null) {
+          expected = snapshot;
+          features.add(0x200000000L | snapshot.getStatus());
+        }
+        else if (!expected.equals(snapshot)) {
+          return simulator.getClass().getSimpleName() + " differs from Simulator after "
+              + expected.getSteps() + " steps";
+        }
+      }
+    }
+    return null;
+  }
+
+
+  /**
+   * Answer a mutation of the specified source, 1 to 4 edits.
+   */
+  String mutate(String source) {
+    StringBuilder sb = new StringBuilder(source);
+    for (int edits = 1 + random.nextInt(4); edits > 0; --edits) {
+      int at = (sb.length() == 0) ? 0 : random.nextInt(sb.length() + 1);
+      switch (random.nextInt(7)) {
+        case 0:
+          // Delete a range
+          sb.delete(at, Math.min(sb.length(), at + 1 + random.nextInt(16)));
+          break;
+        case 1:
+          // Insert a token
+          sb.insert(at, tokens[random.nextInt(tokens.length)]);
+          break;
+        case 2:
+          // Replace a char, mostly printable
+          if (at < sb.length()) {
+            sb.setCharAt(at, (char) (random.nextBoolean() ? 0x20 + random.nextInt(0x60) : random.nextInt(0x180)));
+          }
+          break;
+        case 3:
+          // Duplicate a line
+          int lineStart = sb.lastIndexOf("\n", at - 1) + 1;
+          int lineEnd = sb.indexOf("\n", at);
+          lineEnd = (lineEnd < 0) ? sb.length() : lineEnd + 1;
+          sb.insert(lineStart, sb.substring(lineStart, lineEnd));
+          break;
+        case 4:
+          // Insert a hex number
+          sb.insert(at, Integer.toHexString(random.nextInt(random.nextBoolean() ? 0x100 : 0x10000)).toUpperCase());
+          break;
+        case 5:
+          // Flip the case of a char
+          if (at < sb.length()) {
+            char c = sb.charAt(at);
+            sb.setCharAt(at, Character.isUpperCase(c) ? Character.toLowerCase(c) : Character.toUpperCase(c));
+          }
+          break;
+        default:
+          // Splice with another input of the pool
+          String other = pool.get(random.nextInt(pool.size()));
+          int from = random.nextInt(other.length() + 1);
+          sb.setLength(at);
+          sb.append(other, from, other.length());
+          break;
+      }
+      if (sb.length() > MAX_LENGTH) {
+        sb.setLength(MAX_LENGTH);
+      }
+    }
+    return sb.toString();
+  }
+
+
+  /**
+   * Answer lines of random tokens.
+   */
+  String randomInput() {
+    StringBuilder sb = new StringBuilder();
+    for (int lines = 1 + random.nextInt(16); lines > 0; --lines) {
+      for (int n = random.nextInt(5); n > 0; --n) {
+        sb.append(tokens[random.nextInt(tokens.length)]).append(random.nextBoolean() ? " " : "");
+      }
+      sb.append(EOL);
+    }
+    if (random.nextBoolean()) {
+      sb.append("    END").append(EOL);
+    }
+    return sb.toString();
+  }
+
+
+  // Getters of the results
+  public long getNofInputs() {
+    return nofInputs;
+  }
+
+  public long getNofAccepted() {
+    return nofAccepted;
+  }
+
+  public int getNofFeatures() {
+    return features.size();
+  }
+
+  public int getPoolSize() {
+    return pool.size();
+  }
+
+  public List<String> getFailures() {
+    return failures;
+  }
+
+  public List<String> getFailingInputs() {
+    return failingInputs;
+  }
+
+
+  /**
+   * Answer the report of the runs, including the failures and their inputs.
+   */
+  public String report() {
+    StringBuilder sb = new StringBuilder();
+    sb.append(String.format("inputs      %12d (%.1f/sec)%n", nofInputs,
+        (elapsedNanos == 0) ? 0.0 : nofInputs * 1e9 / elapsedNanos));
+    sb.append(String.format("accepted    %12d%n", nofAccepted));
+    sb.append(String.format("features    %12d%n", features.size()));
+    sb.append(String.format("pool        %12d%n", pool.size()));
+    sb.append(String.format("failures    %12d%n", failures.size()));
+    for (int i = 0; i < failures.size(); ++i) {
+      sb.append("--- ").append(failures.get(i)).append(EOL).append(failingInputs.get(i)).append(EOL);
+    }
+    return sb.toString();
+  }
+}
@@ -0,0 +1,62 @@
+package assembler;
+
+import static org.junit.Assert.*;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import assembler.support.Common;
+import assembler.support.InstructionFileReader;
+
+
+/**
+ * Test the fuzzer with a fixed seed and a bounded number of inputs, and the
+ * inputs of the defects it found.
+ *
+ * @author ruedi.mueller
+ */
+public class FuzzerTest {
+  // The instruction set shared by all assemblers
+  private static GroupListBuilder groupListBuilder;
+
+  @BeforeClass
+  public static void setUp() {
+    groupListBuilder = new GroupListBuilder(new InstructionFileReader().execute(Common.INSTRUCTION_FILENAME));
+  }
+
+  @Test
+  public void test_run() {
+    Fuzzer fuzzer = new Fuzzer(groupListBuilder, 42);
+    fuzzer.run(3000, 60 * 1000000000L);
+    assertEquals(fuzzer.report(), 0, fuzzer.getFailures().size());
+    assertEquals(3000, fuzzer.getNofInputs());
+    assertTrue(fuzzer.getNofAccepted() > 0);
+    assertTrue(fuzzer.getNofFeatures() > 50);
+    assertTrue(fuzzer.getPoolSize() <= Fuzzer.MAX_POOL);
+    assertNull(System.getSecurityManager());
+  }
+
+  @Test
+  public void test_found() {
+    Fuzzer fuzzer = new Fuzzer(groupListBuilder, 42);
+    // No newline after a blank
+    assertNull(fuzzer.check("    MOV   AL,12 "));
+    // A single " at the end of the line
+    assertNull(fuzzer.check("    DB    \"\r\n    END\r\n"));
+    // POP SP, NEXT overwriting its SP table entry
+    assertNull(fuzzer.check("    MOV   AL,42\r\n    PUSH  AL\r\n    POP   SP\r\n    END\r\n"));
+    assertNull(fuzzer.check("    NEXT  10\r\n    ORG   10\r\n    DB    0F\r\n    DB    30\r\n    END\r\n"));
+  }
+
+  @Test
+  public void test_mutate_bounded() {
+    Fuzzer fuzzer = new Fuzzer(groupListBuilder, 7);
+    StringBuilder sb = new StringBuilder();
+    while (sb.length() < Fuzzer.MAX_LENGTH) {
+      sb.append("    NOP\r\n");
+    }
+    for (int i = 0; i < 1000; ++i) {
+      assertTrue(fuzzer.mutate(sb.toString()).length() <= Fuzzer.MAX_LENGTH);
+    }
+    assertTrue(fuzzer.randomInput().endsWith("\r\n"));
+  }
+}
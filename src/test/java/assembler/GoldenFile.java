@@ -0,0 +1,239 @@
+package assembler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import assembler.support.Common;
+
+
+/**
+ * The class GoldenFile holds the expected output of assembling a program: the
+ * RAM image, the line map, i.e. the source line of each address, and the code
+ * list without its time stamp.
+ *
+ * Binary form (DataOutput, deflated):
+ *   int magic | short version | int RAM size | bytes image
+ *   | shorts line + 1 per address, 0 if none | UTF-8 code list
+ *
+ * Outputs are compared array by array with Arrays.equals(), the differing
+ * address ranges are only searched if an array differs.
+ *
+ * @author ruedi.mueller
+ */
+public final class GoldenFile {
+  // "STGO": stebs golden output
+  private static final int MAGIC = 0x5354474F;
+  private static final short VERSION = 1;
+
+  private final byte[] image;
+  private final short[] lineMap;
+  private final String codeList;
+
+
+  /**
+   * Instantiate the output of a program.
+   *
+   * @param ram The RAM image, cp. AssemblerContext.getRam()
+   * @param codeToLineArr The source line of each address, -1 if none, cp.
+   *                      Assembler.getCodeToLineArr()
+   * @param codeList The code list, cp. AssemblerContext.getCodeList()
+   */
+  public GoldenFile(int[] ram, int[] codeToLineArr, String codeList) {
+    image = new byte[ram.length];
+    for (int address = 0; address < ram.length; ++address) {
+      image[address] = (byte) ram[address];
+    }
+    lineMap = new short[codeToLineArr.length];
+    for (int address = 0; address < codeToLineArr.length; ++address) {
+      if (codeToLineArr[address] >= 0xFFFF) {
+        throw new IllegalArgumentException("Line " + codeToLineArr[address] + " out of range");
+      }
+      lineMap[address] = (short) (codeToLineArr[address] + 1);
+    }
+    this.codeList = withoutTimestamp(codeList);
+  }
+
+
+  private GoldenFile(byte[] image, short[] lineMap, String codeList) {
+    this.image = image;
+    this.lineMap = lineMap;
+    this.codeList = codeList;
+  }
+
+
+  /**
+   * Answer the output of the last run of the specified assembler.
+   *
+   * @param asm The assembler
+   * @return the output
+   */
+  public static GoldenFile of(Assembler asm) {
+    AssemblerContext context = asm.getContext();
+    return new GoldenFile(context.getRam(), asm.getCodeToLineArr(), context.getCodeList().toString());
+  }
+
+
+  /**
+   * Answer the code list without the time stamp following the success
+   * message.
+   */
+  private static String withoutTimestamp(String codeList) {
+    int success = codeList.lastIndexOf(MS.SUCCESS);
+    return (success < 0) ? codeList : codeList.substring(0, success + MS.SUCCESS.length());
+  }
+
+
+  /**
+   * Read a golden file.
+   *
+   * @param path The file
+   * @return the output
+   * @throws IOException if reading fails or the file is no golden file
+   */
+  public static GoldenFile read(Path path) throws IOException {
+    DataInputStream data = new DataInputStream(new InflaterInputStream(Files.newInputStream(path)));
+    try {
+      if (data.readInt() != MAGIC || data.readShort() != VERSION) {
+        throw new IOException(path + " is no golden file of version " + VERSION);
+      }
+      int ramSize = data.readInt();
+      if (ramSize <= 0 || ramSize > Memory.MAX_SIZE) {
+        throw new IOException(path + " is corrupt");
+      }
+      byte[] image = new byte[ramSize];
+      data.readFully(image);
+      short[] lineMap = new short[ramSize];
+      for (int address = 0; address < ramSize; ++address) {
+        lineMap[address] = data.readShort();
+      }
+      byte[] codeList = new byte[data.readInt()];
+      data.readFully(codeList);
+      return new GoldenFile(image, lineMap, new String(codeList, "UTF-8"));
+    }
+    finally {
+      data.close();
+    }
+  }
+
+
+  /**
+   * Write the golden file.
+   *
+   * @param path The file, its directory is created if needed
+   * @throws IOException if writing fails
+   */
+  public void write(Path path) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream data = new DataOutputStream(new DeflaterOutputStream(bytes));
+    data.writeInt(MAGIC);
+    data.writeShort(VERSION);
+    data.writeInt(image.length);
+    data.write(image);
+    for (short line : lineMap) {
+      data.writeShort(line);
+    }
+    byte[] codeListBytes = codeList.getBytes("UTF-8");
+    data.writeInt(codeListBytes.length);
+    data.write(codeListBytes);
+    data.close();
+    if (path.getParent() != null) {
+      Files.createDirectories(path.getParent());
+    }
+    OutputStream out = Files.newOutputStream(path);
+    try {
+      bytes.writeTo(out);
+    }
+    finally {
+      out.close();
+    }
+  }
+
+
+  /**
+   * Answer the differences to the expected output.
+   *
+   * @param expected The expected output
+   * @return the differing address ranges of the image and the line map and
+   *         the first differing line of the code list, empty if equal
+   */
+  public String diff(GoldenFile expected) {
+    StringBuilder sb = new StringBuilder();
+    if (image.length != expected.image.length) {
+      sb.append("RAM size ").append(Common.toHexString(image.length, 5)).append(", expected ")
+          .append(Common.toHexString(expected.image.length, 5)).append('\n');
+      return sb.toString();
+    }
+    int digits = Common.addressDigits(image.length);
+    if (!Arrays.equals(image, expected.image)) {
+      boolean[] differs = new boolean[image.length];
+      for (int address = 0; address < image.length; ++address) {
+        differs[address] = image[address] != expected.image[address];
+      }
+      sb.append("image differs at ").append(ranges(differs, digits)).append('\n');
+    }
+    if (!Arrays.equals(lineMap, expected.lineMap)) {
+      boolean[] differs = new boolean[lineMap.length];
+      for (int address = 0; address < lineMap.length; ++address) {
+        differs[address] = lineMap[address] != expected.lineMap[address];
+      }
+      sb.append("line map differs at ").append(ranges(differs, digits)).append('\n');
+    }
+    if (!codeList.equals(expected.codeList)) {
+      String[] lines = codeList.split("\n", -1);
+      String[] expectedLines = expected.codeList.split("\n", -1);
+      int line = 0;
+      while (line < Math.min(lines.length, expectedLines.length) && lines[line].equals(expectedLines[line])) {
+        ++line;
+      }
+      sb.append("code list differs at line ").append(line + 1).append(":\n  got      ")
+          .append((line < lines.length) ? lines[line] : "<end>").append("\n  expected ")
+          .append((line < expectedLines.length) ? expectedLines[line] : "<end>").append('\n');
+    }
+    return sb.toString();
+  }
+
+
+  /**
+   * Answer the ranges of the differing addresses, e.g. "[10..1F], [3A]".
+   */
+  static String ranges(boolean[] differs, int digits) {
+    StringBuilder sb = new StringBuilder();
+    int start = -1;
+    for (int address = 0; address <= differs.length; ++address) {
+      boolean differing = address < differs.length && differs[address];
+      if (differing && start < 0) {
+        start = address;
+      }
+      else if (!differing && start >= 0) {
+        if (sb.length() > 0) {
+          sb.append(", ");
+        }
+        sb.append('[').append(Common.toHexString(start, digits));
+        if (address - 1 > start) {
+          sb.append("..").append(Common.toHexString(address - 1, digits));
+        }
+        sb.append(']');
+        start = -1;
+      }
+    }
+    return sb.toString();
+  }
+
+
+  // Getters
+  public int getRamSize() {
+    return image.length;
+  }
+
+  public String getCodeList() {
+    return codeList;
+  }
+}
@@ -0,0 +1,70 @@
+package assembler;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+
+/**
+ * Test the golden files and their differences.
+ *
+ * @author ruedi.mueller
+ */
+public class GoldenFileTest {
+  private static final String CODE_LIST = "00: D0 00 12   MOV AL,12\n" + MS.SUCCESS;
+
+  private static GoldenFile output(int... changed) {
+    int[] ram = new int[Memory.DEFAULT_SIZE];
+    int[] lines = new int[Memory.DEFAULT_SIZE];
+    Arrays.fill(lines, -1);
+    ram[0] = 0xD0;
+    ram[2] = 0x12;
+    lines[0] = 0;
+    for (int address : changed) {
+      ram[address] ^= 0xFF;
+    }
+    return new GoldenFile(ram, lines, CODE_LIST + "   (Mon Oct 19 12:00:00 CEST 2026)");
+  }
+
+  @Test
+  public void test_ranges() {
+    assertEquals("", GoldenFile.ranges(new boolean[4], 2));
+    assertEquals("[01..02], [04]", GoldenFile.ranges(new boolean[] {false, true, true, false, true}, 2));
+    assertEquals("[0000..0001]", GoldenFile.ranges(new boolean[] {true, true}, 4));
+  }
+
+  @Test
+  public void test_diff() {
+    assertEquals("", output().diff(output()));
+    assertEquals("image differs at [10..1F], [3A]\n",
+        output(0x10, 0x11, 0x12, 0x13, 0x14, 0x15, 0x16, 0x17, 0x18, 0x19, 0x1A, 0x1B, 0x1C, 0x1D, 0x1E, 0x1F, 0x3A)
+            .diff(output()));
+  }
+
+  @Test
+  public void test_code_list() {
+    assertEquals(CODE_LIST, output().getCodeList());
+    GoldenFile other = new GoldenFile(new int[Memory.DEFAULT_SIZE], new int[Memory.DEFAULT_SIZE], "A\nB\nC");
+    GoldenFile expected = new GoldenFile(new int[Memory.DEFAULT_SIZE], new int[Memory.DEFAULT_SIZE], "A\nX\nC");
+    assertEquals("code list differs at line 2:\n  got      B\n  expected X\n", other.diff(expected));
+  }
+
+  @Test
+  public void test_write_read() throws Exception {
+    Path path = Files.createTempFile("golden", ".golden");
+    try {
+      GoldenFile output = output(0x80);
+      output.write(path);
+      GoldenFile read = GoldenFile.read(path);
+      assertEquals("", read.diff(output));
+      assertEquals(Memory.DEFAULT_SIZE, read.getRamSize());
+      assertEquals("image differs at [80]\n", read.diff(output()));
+    }
+    finally {
+      Files.delete(path);
+    }
+  }
+}
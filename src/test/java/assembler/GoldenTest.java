@@ -0,0 +1,106 @@
+package assembler;
+
+import static org.junit.Assert.*;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized.Parameters;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeSet;
+
+import assembler.support.AsmFileReader;
+import assembler.support.Common;
+import assembler.support.InstructionFileReader;
+
+
+/**
+ * Test the output of each program of the corpus assembling without error, cp.
+ * CorpusTest, against its golden file in assemblertests/golden: the RAM image,
+ * the line map and the code list, in parallel. A failure lists the differing
+ * address ranges only, e.g.
+ *   image differs at [10..1F], [3A]
+ *
+ * To write the golden files instead, e.g. after an intended change of the
+ * output or for a new program of the corpus, run the tests with
+ *   gradle test -PupdateGolden
+ * and commit the changed golden files.
+ *
+ * @author ruedi.mueller
+ */
+@RunWith(ParallelParameterized.class)
+public class GoldenTest {
+  // The corpus, its expected outcomes and golden files
+  private static final Path CORPUS = Paths.get("assemblertests");
+  private static final Path GOLDEN = CORPUS.resolve("golden");
+  private static final String OUTCOMES = "outcomes.properties";
+  private static final String SUFFIX = ".golden";
+  // System property to write golden files instead of checking them
+  private static final String UPDATE = "golden.update";
+
+  // The instruction set shared by all assemblers
+  private static GroupListBuilder groupListBuilder;
+
+  // The file relative to the corpus
+  private final String file;
+
+
+  @Parameters(name = "{0}")
+  public static Collection<Object[]> files() throws IOException {
+    Properties outcomes = new Properties();
+    InputStream in = Files.newInputStream(CORPUS.resolve(OUTCOMES));
+    try {
+      outcomes.load(in);
+    }
+    finally {
+      in.close();
+    }
+
+    List<Object[]> parameters = new ArrayList<Object[]>();
+    for (String file : new TreeSet<String>(outcomes.stringPropertyNames())) {
+      if ("ok".equals(outcomes.getProperty(file))) {
+        parameters.add(new Object[] {file});
+      }
+    }
+    return parameters;
+  }
+
+  @BeforeClass
+  public static void setUp() {
+    groupListBuilder = new GroupListBuilder(new InstructionFileReader().execute(Common.INSTRUCTION_FILENAME));
+  }
+
+
+  public GoldenTest(String file) {
+    this.file = file;
+  }
+
+
+  @Test
+  public void test_output() throws IOException {
+    String asmString = new AsmFileReader(StandardCharsets.UTF_8).execute(CORPUS.resolve(file).toString());
+    assertNotNull(asmString);
+    Assembler asm = new Assembler(file);
+    boolean success = asm.execute(asmString, groupListBuilder);
+    assertTrue(file + ": " + asm.getContext().getErrorMessage(), success);
+    GoldenFile output = GoldenFile.of(asm);
+
+    Path golden = GOLDEN.resolve(file + SUFFIX);
+    if (Boolean.getBoolean(UPDATE)) {
+      output.write(golden);
+      return;
+    }
+    assertTrue("No golden file " + golden + ", write it with -D" + UPDATE + "=true", Files.exists(golden));
+    String diff = output.diff(GoldenFile.read(golden));
+    assertTrue(file + ":\n" + diff, diff.isEmpty());
+  }
+}
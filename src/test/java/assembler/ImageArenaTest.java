@@ -0,0 +1,139 @@
+package assembler;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.junit.BeforeClass;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import assembler.SyntaxChecker;
+
+
+/**
+ * Test storing assembled images in an off-heap image arena.
+ * 
+ * @author ruedi.mueller
+ */
+public class ImageArenaTest {
+
+  @BeforeClass
+  public static void setUp() {
+    AllTests.prepare();
+  }
+
+  @Test
+  public void test_store_direct() {
+    ImageArena arena = new ImageArena(2);
+    SyntaxChecker sc1 = AllTests.assemble("assemblertests/ram/multitasker.asm");
+    int slot1 = arena.store(sc1.getMemory());
+    SyntaxChecker sc2 = AllTests.assemble("assemblertests/ram/bubblesort.asm");
+    int slot2 = arena.store(sc2.getMemory());
+
+    assertEquals(2, arena.size());
+    assertEquals(256 + 32, arena.getSlotSize());
+    assertArrayEquals(sc1.getRam(), arena.getRam(slot1));
+    assertArrayEquals(sc2.getRam(), arena.getRam(slot2));
+    assertArrayEquals(sc2.getMemory().getUsedRamSlots(), arena.getUsedRamSlots(slot2));
+    assertArrayEquals(sc1.getRam(), arena.toMemory(slot1).getRam());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void test_store_full() {
+    ImageArena arena = new ImageArena(1);
+    SyntaxChecker sc = AllTests.assemble("assemblertests/ram/bubblesort.asm");
+    arena.store(sc.getMemory());
+    arena.store(sc.getMemory());
+  }
+
+  @Test
+  public void test_store_mapped() throws IOException {
+    File file = File.createTempFile("images", ".bin");
+    file.deleteOnExit();
+    ImageArena arena = ImageArena.map(file, 4, Memory.DEFAULT_SIZE);
+    SyntaxChecker sc = AllTests.assemble("assemblertests/ram/multitasker.asm");
+    int slot = arena.store(sc.getMemory());
+
+    assertEquals(12 + 4 + 4 * arena.getSlotSize(), file.length());
+    assertArrayEquals(sc.getRam(), arena.getRam(slot));
+    assertTrue(arena.isUsed(slot, 0));
+    assertFalse(arena.isUsed(slot, 0xFF));
+  }
+
+  @Test
+  public void test_reopen_mapped() throws IOException {
+    File file = File.createTempFile("images", ".bin");
+    file.deleteOnExit();
+    SyntaxChecker sc1 = AllTests.assemble("assemblertests/ram/multitasker.asm");
+    SyntaxChecker sc2 = AllTests.assemble("assemblertests/ram/bubblesort.asm");
+    ImageArena arena = ImageArena.map(file, 4, Memory.DEFAULT_SIZE);
+    arena.store(sc1.getMemory());
+    arena.store(sc2.getMemory());
+
+    ImageArena reopened = ImageArena.map(file, 4, Memory.DEFAULT_SIZE);
+    assertEquals(2, reopened.size());
+    assertArrayEquals(sc1.getRam(), reopened.getRam(0));
+    assertArrayEquals(sc2.getRam(), reopened.getRam(1));
+    assertArrayEquals(sc2.getMemory().getUsedRamSlots(), reopened.getUsedRamSlots(1));
+    assertFalse(reopened.isPublished(2));
+    // Stores continue after the images stored before
+    assertEquals(2, reopened.store(sc1.getMemory()));
+  }
+
+  @Test(expected = IOException.class)
+  public void test_reopen_mapped_other_capacity() throws IOException {
+    File file = File.createTempFile("images", ".bin");
+    file.deleteOnExit();
+    ImageArena.map(file, 4, Memory.DEFAULT_SIZE);
+    ImageArena.map(file, 8, Memory.DEFAULT_SIZE);
+  }
+
+  @Test(expected = IOException.class)
+  public void test_map_foreign_file() throws IOException {
+    File file = File.createTempFile("images", ".bin");
+    file.deleteOnExit();
+    FileOutputStream out = new FileOutputStream(file);
+    try {
+      out.write(new byte[64]);
+    }
+    finally {
+      out.close();
+    }
+    ImageArena.map(file, 4, Memory.DEFAULT_SIZE);
+  }
+
+  @Test
+  public void test_store_concurrent() throws InterruptedException {
+    final ImageArena arena = new ImageArena(64);
+    final AtomicInteger unpublished = new AtomicInteger();
+    final Memory memory = AllTests.assemble("assemblertests/ram/bubblesort.asm").getMemory();
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; ++t) {
+      threads[t] = new Thread() {
+        @Override
+        public void run() {
+          for (int i = 0; i < 16; ++i) {
+            int slot = arena.store(memory);
+            // Published when store() returns
+            if (!arena.isPublished(slot)) {
+              unpublished.incrementAndGet();
+            }
+          }
+        }
+      };
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertEquals(0, unpublished.get());
+    assertEquals(64, arena.size());
+    for (int slot = 0; slot < 64; ++slot) {
+      assertArrayEquals(memory.getRam(), arena.getRam(slot));
+    }
+    assertFalse(new ImageArena(1).isPublished(0));
+  }
+}
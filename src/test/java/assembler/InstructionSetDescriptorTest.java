@@ -0,0 +1,49 @@
+package assembler;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import assembler.support.Common;
+import assembler.support.InstructionFileReader;
+
+
+/**
+ * Test the binary instruction set descriptor against INSTRUCTION.data.
+ * 
+ * @author ruedi.mueller
+ */
+public class InstructionSetDescriptorTest {
+
+  @Test
+  public void test_roundtrip() throws IOException {
+    String instructionDataString = new InstructionFileReader().execute(Common.INSTRUCTION_FILENAME);
+    GroupListBuilder text = new GroupListBuilder(instructionDataString);
+    GroupListBuilder binary = InstructionSetDescriptor.load(
+        new ByteArrayInputStream(InstructionSetDescriptor.compile(instructionDataString)));
+
+    assertEquals(text.mnemonicSet, binary.mnemonicSet);
+    assertEquals(text.commandSymGroupList, binary.commandSymGroupList);
+    assertEquals(text.commandHexGroupList, binary.commandHexGroupList);
+    assertEquals(text.commandPatternGroupList, binary.commandPatternGroupList);
+    assertEquals(text.commandMpmGroupList, binary.commandMpmGroupList);
+    assertEquals(0x538, (int) binary.commandMpmGroupList.get(12).get(0));
+  }
+
+  @Test
+  public void test_load_or_parse() {
+    GroupListBuilder text = new GroupListBuilder(new InstructionFileReader().execute(Common.INSTRUCTION_FILENAME));
+    GroupListBuilder loaded = InstructionSetDescriptor.loadOrParse();
+
+    assertEquals(text.mnemonicSet, loaded.mnemonicSet);
+    assertEquals(text.commandHexGroupList, loaded.commandHexGroupList);
+    assertEquals(text.commandMpmGroupList, loaded.commandMpmGroupList);
+  }
+
+  @Test(expected = IOException.class)
+  public void test_corrupt() throws IOException {
+    InstructionSetDescriptor.load(new ByteArrayInputStream("020;00;HALT".getBytes()));
+  }
+}
@@ -15,6 +15,11 @@ import assembler.SyntaxChecker;
  *    ORG              --> Expected hexadecimal number
  *    ORG xy           --> Expected hexadecimal number, got xy
  *    ORG 20 xy        --> Expected comment, got xy
+ *    ORG 1230         --> ok in a 64 KiB address space, else
+ *                         Expected hexadecimal number, got 1230
+ *
+ * The outcome of each file in assemblertests/org is checked by CorpusTest,
+ * the tests here check more than the outcome.
  * 
  * @author ruedi.mueller
  */
@@ -26,26 +31,19 @@ public class OrgTest {
   }
 
   @Test
-  public void test_all_correct_ORGs() {
-    SyntaxChecker sc = AllTests.assemble("assemblertests/org/all_correct_ORGs.asm");
+  public void test_ORG_wide() {
+    SyntaxChecker sc = AllTests.assemble("assemblertests/org/ORG_wide.asm", Memory.MAX_SIZE);
     assertEquals("", sc.getErrorMessage());
-  }
-  
-  @Test
-  public void test_ORG() {
-    SyntaxChecker sc = AllTests.assemble("assemblertests/org/ORG.asm");
-    assertEquals(9000L, sc.getErrorNum());
-  }
- 
-  @Test
-  public void test_ORG_xy() {
-    SyntaxChecker sc = AllTests.assemble("assemblertests/org/ORG_xy.asm");
-    assertEquals(9001L, sc.getErrorNum());
-  }
-  
-  @Test
-  public void test_ORG_hex_xy() {
-    SyntaxChecker sc = AllTests.assemble("assemblertests/org/ORG_hex_xy.asm");
-    assertEquals(9002L, sc.getErrorNum());
+    
+    Memory memory = sc.getMemory();
+    assertEquals(0xD0, memory.read(0x1230));
+    assertEquals(0x12, memory.read(0x1232));
+    assertEquals(0xC0, memory.read(0x1233));
+    assertEquals(0xFD, memory.read(0x1234));
+    assertEquals('H', memory.read(0x40));
+    assertTrue(memory.isUsed(0x1234));
+    assertFalse(memory.isUsed(0x1235));
+    // Only the pages 00 and 12 are allocated
+    assertEquals(2, memory.getNofAllocatedPages());
   }
 }
@@ -0,0 +1,53 @@
+package assembler;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.runners.Parameterized;
+import org.junit.runners.model.RunnerScheduler;
+
+
+/**
+ * The class ParallelParameterized runs the parameter sets of a parameterized
+ * test in parallel, one thread per processor. The tests must not share
+ * state, cp. AllTests.
+ *
+ * Example:
+ *   @RunWith(ParallelParameterized.class)
+ *   public class CorpusTest { ... }
+ *
+ * @author ruedi.mueller
+ */
+public class ParallelParameterized extends Parameterized {
+
+  /**
+   * Instantiate a runner of the specified test class.
+   *
+   * @param klass The test class
+   * @throws Throwable if the parameters cannot be created
+   */
+  public ParallelParameterized(Class<?> klass) throws Throwable {
+    super(klass);
+    setScheduler(new RunnerScheduler() {
+      private final ExecutorService pool =
+          Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+
+      @Override
+      public void schedule(Runnable childStatement) {
+        pool.execute(childStatement);
+      }
+
+      @Override
+      public void finished() {
+        pool.shutdown();
+        try {
+          pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+        catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    });
+  }
+}
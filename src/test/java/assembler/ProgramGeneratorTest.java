@@ -0,0 +1,86 @@
+package assembler;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.junit.BeforeClass;
+
+import assembler.support.Common;
+import assembler.support.InstructionFileReader;
+import assembler.support.ProgramGenerator;
+
+
+/**
+ * Test the generated programs.
+ * 
+ * @author ruedi.mueller
+ */
+public class ProgramGeneratorTest {
+  // The string read from INSTRUCTION.data
+  private static String instructionDataString;
+
+  @BeforeClass
+  public static void setUp() {
+    instructionDataString = new InstructionFileReader().execute(Common.INSTRUCTION_FILENAME);
+  }
+
+  private boolean assemble(String asmString, int ramSize) {
+    return new Assembler("generated.asm", ramSize).execute(asmString, instructionDataString);
+  }
+
+  @Test
+  public void test_reproducible() {
+    ProgramGenerator generator = new ProgramGenerator(7, 0x100);
+    String source = generator.generate();
+    assertEquals(source, generator.generate());
+    assertEquals(source, new ProgramGenerator(7, 0x100).generate());
+    assertFalse(source.equals(new ProgramGenerator(8, 0x100).generate()));
+  }
+
+  @Test
+  public void test_valid() {
+    for (long seed = 0; seed < 20; ++seed) {
+      ProgramGenerator generator = new ProgramGenerator(seed, 0x100);
+      generator.setDbStrings((int) seed % 4, 10);
+      generator.setForwardDepth((int) seed);
+      assertTrue("Seed " + seed, assemble(generator.generate(), 0x100));
+    }
+  }
+
+  @Test
+  public void test_full_ram() {
+    ProgramGenerator generator = new ProgramGenerator(1, 0x100);
+    generator.setCommands(1000);
+    generator.setLabels(100);
+    generator.setFill(true);
+    assertTrue(assemble(generator.generate(), 0x100));
+    for (boolean used : Common.getUsedRamSlots()) {
+      assertTrue(used);
+    }
+  }
+
+  @Test
+  public void test_large() {
+    ProgramGenerator generator = new ProgramGenerator(2, Memory.MAX_SIZE);
+    generator.setCommands(5000);
+    generator.setLabels(500);
+    generator.setCommentLines(3000);
+    generator.setDbStrings(50, 200);
+    generator.setForwardDepth(200);
+    String source = generator.generate();
+    assertTrue(source.length() > 100000);
+    assertTrue(assemble(source, Memory.MAX_SIZE));
+  }
+
+  @Test
+  public void test_invalid() {
+    for (int defect = 0; defect < ProgramGenerator.DEFECTS.length; ++defect) {
+      for (long seed = 0; seed < 5; ++seed) {
+        ProgramGenerator generator = new ProgramGenerator(seed, 0x100);
+        generator.setCommands(40);
+        assertTrue(assemble(generator.generate(), 0x100));
+        assertFalse(ProgramGenerator.DEFECTS[defect] + ", seed " + seed,
+            assemble(generator.generateInvalid(defect), 0x100));
+      }
+    }
+  }
+}
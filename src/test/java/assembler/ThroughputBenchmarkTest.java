@@ -0,0 +1,121 @@
+package assembler;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.junit.BeforeClass;
+
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import assembler.support.Common;
+import assembler.support.InstructionFileReader;
+import assembler.support.ProgramGenerator;
+
+
+/**
+ * Test the throughput benchmark and assemblers running on several threads.
+ *
+ * @author ruedi.mueller
+ */
+public class ThroughputBenchmarkTest {
+  // The instruction set shared by all assemblers
+  private static GroupListBuilder groupListBuilder;
+
+  @BeforeClass
+  public static void setUp() {
+    groupListBuilder = new GroupListBuilder(new InstructionFileReader().execute(Common.INSTRUCTION_FILENAME));
+  }
+
+  @Test
+  public void test_directory() throws Exception {
+    ThroughputBenchmark benchmark = new ThroughputBenchmark(groupListBuilder, Memory.DEFAULT_SIZE);
+    benchmark.addDirectory(Paths.get("assemblertests/group0"));
+    int nofFiles = benchmark.getNofFiles();
+    assertTrue(nofFiles > 0);
+    benchmark.run(3, 2);
+
+    assertEquals(3 * nofFiles, benchmark.getNofRuns());
+    assertEquals(3 * nofFiles, benchmark.getAggregator().getNofRuns());
+    assertEquals(3 * benchmark.getNofFailures(), benchmark.getAggregator().getNofFailures());
+    assertTrue(benchmark.getFilesPerSecond() > 0);
+    assertTrue(benchmark.getLatencyNanos(0.5) > 0);
+    assertTrue(benchmark.getLatencyNanos(0.99) >= benchmark.getLatencyNanos(0.5));
+    assertTrue(benchmark.getHeapPeak() > 0);
+    assertTrue(benchmark.report().startsWith("files/sec"));
+  }
+
+  @Test
+  public void test_failures() throws Exception {
+    ThroughputBenchmark benchmark = new ThroughputBenchmark(groupListBuilder, Memory.DEFAULT_SIZE);
+    benchmark.add("valid", "    MOV   AL,12\r\n    END\r\n");
+    benchmark.add("invalid", "    MOVE  AL,12\r\n    END\r\n");
+    benchmark.run(4, 1);
+    assertEquals(8, benchmark.getNofRuns());
+    assertEquals(1, benchmark.getNofFailures());
+  }
+
+  /**
+   * Answer the code list without the success line ending with a time stamp.
+   */
+  private static String withoutTimestamp(String codeList) {
+    return codeList.substring(0, codeList.lastIndexOf("; Success"));
+  }
+
+  @Test
+  public void test_threads_isolated() throws Exception {
+    final String[] sources = new String[4];
+    final String[] codeLists = new String[sources.length];
+    final int[][] rams = new int[sources.length][];
+    for (int i = 0; i < sources.length; ++i) {
+      sources[i] = new ProgramGenerator(i, 0x100).generate();
+      Assembler asm = new Assembler("gen" + i + ".asm");
+      assertTrue(asm.execute(sources[i], groupListBuilder));
+      codeLists[i] = withoutTimestamp(asm.getContext().getCodeList().toString());
+      rams[i] = asm.getContext().getRam();
+    }
+
+    final AtomicReference<String> failure = new AtomicReference<String>();
+    Thread[] threads = new Thread[sources.length];
+    for (int t = 0; t < threads.length; ++t) {
+      final int i = t;
+      threads[t] = new Thread() {
+        @Override
+        public void run() {
+          for (int n = 0; n < 50; ++n) {
+            Assembler asm = new Assembler("gen" + i + ".asm");
+            AssemblerContext context = asm.getContext();
+            if (!asm.execute(sources[i], groupListBuilder)
+                || !codeLists[i].equals(withoutTimestamp(context.getCodeList().toString()))
+                || !Arrays.equals(rams[i], context.getRam())
+                || !("gen" + i + ".asm").equals(context.getFilename())) {
+              failure.compareAndSet(null, "Program " + i + ", run " + n);
+            }
+          }
+        }
+      };
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertNull(failure.get());
+  }
+
+  @Test
+  public void test_results_read_on_other_thread() throws Exception {
+    final Assembler asm = new Assembler("gen.asm");
+    Thread thread = new Thread() {
+      @Override
+      public void run() {
+        asm.execute(new ProgramGenerator(7, 0x100).generate(), groupListBuilder);
+      }
+    };
+    thread.start();
+    thread.join();
+    assertSame(asm.getContext(), Common.getContext());
+    assertEquals("gen.asm", Common.getFilename());
+    assertArrayEquals(asm.getContext().getRam(), Common.getRam());
+    assertNotNull(Common.getCodeList());
+  }
+}
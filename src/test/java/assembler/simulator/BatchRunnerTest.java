@@ -0,0 +1,111 @@
+package assembler.simulator;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.junit.BeforeClass;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import assembler.AllTests;
+import assembler.ImageArena;
+import assembler.SyntaxChecker;
+
+
+/**
+ * Test the parallel simulation of many programs.
+ * 
+ * @author ruedi.mueller
+ */
+public class BatchRunnerTest {
+  // The instruction set shared by all simulators
+  private static InstructionTable table;
+
+  @BeforeClass
+  public static void setUp() {
+    AllTests.prepare();
+    table = InstructionTable.load();
+  }
+
+  @Test
+  public void test_bubblesort_diff() {
+    SyntaxChecker sc = AllTests.assemble("examples/bubblesort2.asm");
+    BatchRunner.Result result = new BatchRunner(table).run(
+        new BatchRunner.Job("bubblesort", sc.getMemory(), new int[0], 10000));
+    assertEquals(Simulator.HALTED, result.getStatus());
+    assertEquals(0xC0, result.getRegister(Simulator.AL) & 0xF0);
+    assertTrue(result.ramDiffToString().contains("C0: 09 -> 81\n"));
+    assertTrue(result.ramDiffToString().contains("C5: 81 -> 09\n"));
+    // Return address left on the stack
+    assertTrue(result.ramDiffToString().contains("BF: 00 -> 08\n"));
+  }
+
+  @Test
+  public void test_input_output() {
+    // IN 00; INC AL; OUT 01; IN 00; INC AL; OUT 01; IN 00; HALT
+    int[] image = {0xF0, 0x00, 0xA4, 0x00, 0xF1, 0x01, 0xF0, 0x00, 0xA4, 0x00, 0xF1, 0x01,
+        0xF0, 0x00, 0x00};
+    BatchRunner.Result result = new BatchRunner(table).run(
+        new BatchRunner.Job("io", image, new int[] {0x05, 0x09}, 100));
+    assertArrayEquals(new int[] {0x06, 0x0A}, result.getOutput());
+    // Input exhausted
+    assertEquals(0x00, result.getRegister(Simulator.AL));
+    assertEquals(8, result.getSteps());
+    assertEquals(0, result.getNofChanges());
+  }
+
+  @Test
+  public void test_parallel_equals_sequential() {
+    SyntaxChecker sc1 = AllTests.assemble("examples/bubblesort2.asm");
+    SyntaxChecker sc2 = AllTests.assemble("examples/mts_swInterrupts_test.asm");
+    List<BatchRunner.Job> jobs = new ArrayList<BatchRunner.Job>();
+    for (int i = 0; i < 1000; ++i) {
+      // Some jobs hit their step limit
+      jobs.add(new BatchRunner.Job("job" + i, (i % 2 == 0) ? sc1.getMemory() : sc2.getMemory(),
+          new int[0], 50 + i));
+    }
+    BatchRunner runner = new BatchRunner(table);
+    List<BatchRunner.Result> results = runner.run(jobs);
+
+    assertEquals(jobs.size(), results.size());
+    for (int i = 0; i < jobs.size(); ++i) {
+      BatchRunner.Result expected = runner.run(jobs.get(i));
+      BatchRunner.Result result = results.get(i);
+      assertEquals("job" + i, result.getName());
+      assertEquals(expected.getStatus(), result.getStatus());
+      assertEquals(expected.getSteps(), result.getSteps());
+      assertEquals(expected.getIp(), result.getIp());
+      assertEquals(expected.ramDiffToString(), result.ramDiffToString());
+    }
+    assertEquals(Simulator.RUNNING, results.get(0).getStatus());
+    assertEquals(50, results.get(0).getSteps());
+    assertEquals(Simulator.HALTED, results.get(998).getStatus());
+  }
+
+  @Test
+  public void test_arena_jobs() {
+    SyntaxChecker sc1 = AllTests.assemble("examples/bubblesort2.asm");
+    SyntaxChecker sc2 = AllTests.assemble("examples/mts_swInterrupts_test.asm");
+    ImageArena arena = new ImageArena(2);
+    int slot1 = arena.store(sc1.getMemory());
+    int slot2 = arena.store(sc2.getMemory());
+    List<BatchRunner.Job> jobs = new ArrayList<BatchRunner.Job>();
+    jobs.add(new BatchRunner.Job("arena1", arena, slot1, new int[0], 10000));
+    jobs.add(new BatchRunner.Job("arena2", arena, slot2, new int[0], 500));
+    BatchRunner runner = new BatchRunner(table);
+    List<BatchRunner.Result> results = runner.run(jobs);
+
+    BatchRunner.Result expected1 = runner.run(new BatchRunner.Job("heap1", sc1.getMemory(), new int[0], 10000));
+    BatchRunner.Result expected2 = runner.run(new BatchRunner.Job("heap2", sc2.getMemory(), new int[0], 500));
+    assertEquals(Simulator.HALTED, results.get(0).getStatus());
+    assertEquals(expected1.getSteps(), results.get(0).getSteps());
+    assertEquals(expected1.ramDiffToString(), results.get(0).ramDiffToString());
+    assertEquals(expected2.getSteps(), results.get(1).getSteps());
+    assertEquals(expected2.ramDiffToString(), results.get(1).ramDiffToString());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void test_arena_job_empty_slot() {
+    new BatchRunner.Job("empty", new ImageArena(2), 0, new int[0], 100);
+  }
+}
@@ -0,0 +1,135 @@
+package assembler.simulator;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.junit.BeforeClass;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import assembler.Assembler;
+import assembler.support.AsmFileReader;
+import assembler.support.Common;
+import assembler.support.InstructionFileReader;
+
+
+/**
+ * Test breakpoints and watchpoints of the debugger.
+ * 
+ * @author ruedi.mueller
+ */
+public class DebuggerTest {
+  private static final String FILENAME = "examples/bubblesort2.asm";
+
+  // The instruction set shared by all simulators
+  private static InstructionTable table;
+  // The assembled bubblesort
+  private static int[] codeToLineArr;
+  private static int[] image;
+  // The source lines of bubblesort
+  private static List<String> lines;
+
+  @BeforeClass
+  public static void setUp() {
+    String instructionDataString = new InstructionFileReader().execute(Common.INSTRUCTION_FILENAME);
+    table = InstructionTable.load();
+    Assembler asm = new Assembler(FILENAME);
+    String source = new AsmFileReader(StandardCharsets.UTF_8).execute(Common.getFilename());
+    assertTrue(asm.execute(source, instructionDataString));
+    codeToLineArr = asm.getCodeToLineArr();
+    image = new int[Simulator.RAM_SIZE];
+    for (int address = 0; address < image.length; ++address) {
+      image[address] = Common.getMemory().read(address);
+    }
+    lines = Arrays.asList(source.split("\r?\n"));
+  }
+
+  @Test
+  public void test_no_breakpoints() {
+    Simulator simulator = new Simulator(table);
+    simulator.load(image);
+    Debugger debugger = new Debugger(simulator);
+    assertEquals(Debugger.STOP_NONE, debugger.getStopReason());
+    assertEquals(Simulator.RUNNING, debugger.run(10));
+    assertEquals(Debugger.STOP_LIMIT, debugger.getStopReason());
+    assertEquals(Simulator.HALTED, debugger.run(10000));
+    assertEquals(Debugger.STOP_STATUS, debugger.getStopReason());
+    assertEquals(-1, debugger.getStopAddress());
+  }
+
+  @Test
+  public void test_breakpoint_at_line() {
+    Simulator simulator = new Simulator(table);
+    simulator.load(image);
+    Debugger debugger = new Debugger(simulator);
+    int line = lines.indexOf("    CMP   BL,AL   ; Array end reached?");
+    assertEquals(0x3A, debugger.setBreakpointAtLine(line, codeToLineArr));
+    assertTrue(debugger.hasBreakpoint(0x3A));
+    // Comment lines have no command
+    assertEquals(-1, debugger.setBreakpointAtLine(0, codeToLineArr));
+
+    int hits = 0;
+    while (debugger.run(10000) == Simulator.RUNNING) {
+      assertEquals(Debugger.STOP_BREAKPOINT, debugger.getStopReason());
+      assertEquals(0x3A, simulator.getIp());
+      ++hits;
+    }
+    assertEquals(20, hits);
+    assertEquals(0x81, simulator.read(0xC0));
+
+    // Single step ignores the breakpoint at IP
+    simulator.load(image);
+    debugger.runTo(0x3A, 10000);
+    long steps = simulator.getSteps();
+    debugger.step();
+    assertEquals(steps + 1, simulator.getSteps());
+    assertEquals(0x3D, simulator.getIp());
+    debugger.clearBreakpoint(0x3A);
+    assertFalse(debugger.hasBreakpoint(0x3A));
+    assertEquals(Simulator.HALTED, debugger.run(10000));
+  }
+
+  @Test
+  public void test_run_to() {
+    Simulator simulator = new Simulator(table);
+    simulator.load(image);
+    Debugger debugger = new Debugger(simulator);
+    assertEquals(Simulator.RUNNING, debugger.runTo(0x08, 10000));
+    assertEquals(Debugger.STOP_BREAKPOINT, debugger.getStopReason());
+    assertEquals(0x08, simulator.getIp());
+    assertEquals(0x81, simulator.read(0xC0));
+  }
+
+  @Test
+  public void test_watchpoints() {
+    for (int i = 0; i < 2; ++i) {
+      Simulator simulator = (i == 0) ? new Simulator(table) : new TranslatingSimulator(table, 1);
+      simulator.load(image);
+      Debugger debugger = new Debugger(simulator);
+      debugger.watch(0xC0, false, true);
+      assertEquals(Simulator.RUNNING, debugger.run(10000));
+      assertEquals(Debugger.STOP_WRITE, debugger.getStopReason());
+      assertEquals(0xC0, debugger.getStopAddress());
+      // Swap of 09 and 04: 04 written by MOV [AL],DL
+      assertEquals(0x04, simulator.read(0xC0));
+      assertEquals(0x5B, simulator.getIp());
+
+      debugger.watch(0xC0, false, false);
+      debugger.watch(0xC5, true, false);
+      assertEquals(Simulator.RUNNING, debugger.run(10000));
+      assertEquals(Debugger.STOP_READ, debugger.getStopReason());
+      assertEquals(0xC5, debugger.getStopAddress());
+      assertEquals(0x81, simulator.getRegister(Simulator.DL));
+
+      // Stack reads of RET
+      debugger.clearAll();
+      debugger.watch(Simulator.SP_INIT, true, false);
+      assertEquals(Simulator.RUNNING, debugger.run(10000));
+      assertEquals(Debugger.STOP_READ, debugger.getStopReason());
+      assertEquals(0x08, simulator.getIp());
+      debugger.clearAll();
+      assertEquals(Simulator.HALTED, debugger.run(10000));
+    }
+  }
+}
@@ -0,0 +1,94 @@
+package assembler.simulator;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.junit.BeforeClass;
+
+import java.util.Arrays;
+
+import assembler.AllTests;
+import assembler.SyntaxChecker;
+
+
+/**
+ * Test devices attached to the I/O ports of the simulators.
+ * 
+ * @author ruedi.mueller
+ */
+public class DeviceTest {
+  // The instruction set shared by all simulators
+  private static InstructionTable table;
+
+  @BeforeClass
+  public static void setUp() {
+    AllTests.prepare();
+    table = InstructionTable.load();
+  }
+
+  @Test
+  public void test_scripted() {
+    // IN 01; OUT 02; IN 01; OUT 02; IN 01; OUT 03; HALT
+    int[] image = {0xF0, 0x01, 0xF1, 0x02, 0xF0, 0x01, 0xF1, 0x02, 0xF0, 0x01, 0xF1, 0x03, 0x00};
+    for (int i = 0; i < 2; ++i) {
+      Simulator simulator = (i == 0) ? new Simulator(table) : new MicroSimulator(table);
+      simulator.load(image);
+      ScriptedDevice device = new ScriptedDevice(0xEE);
+      device.queue(0x11, 0x22);
+      simulator.attach(0x01, device);
+      simulator.attach(0x02, device);
+      assertSame(device, simulator.getDevice(0x02));
+      assertEquals(Simulator.HALTED, simulator.run(100));
+      assertEquals(0, device.getNofPendingInputs());
+      assertTrue(Arrays.equals(new int[] {0x11, 0x22}, device.getOutput()));
+      // Port without device
+      assertEquals(0xEE, simulator.getPort(0x03));
+      assertEquals(0x00, simulator.getPort(0x02));
+    }
+  }
+
+  @Test
+  public void test_detach() {
+    Simulator simulator = new Simulator(table);
+    // IN 05; OUT 06
+    simulator.load(new int[] {0xF0, 0x05, 0xF1, 0x06});
+    ScriptedDevice device = new ScriptedDevice();
+    device.queue(0x42);
+    simulator.attach(0x05, device);
+    simulator.attach(0x05, null);
+    simulator.setPort(0x05, 0x17);
+    simulator.run(2);
+    assertEquals(1, device.getNofPendingInputs());
+    assertEquals(0x17, simulator.getPort(0x06));
+  }
+
+  @Test
+  public void test_multitasker() {
+    SyntaxChecker sc = AllTests.assemble("assemblertests/ram/multitasker.asm");
+    Simulator simulator = new Simulator(table);
+    simulator.load(sc.getMemory());
+    ScriptedDevice lights = new ScriptedDevice();
+    ScriptedDevice heater = new ScriptedDevice(0x40);
+    ScriptedDevice display = new ScriptedDevice();
+    heater.queue(0x00, 0x00);
+    simulator.attach(0x00, lights);
+    simulator.attach(0x01, heater);
+    simulator.attach(0x02, display);
+    simulator.setInterruptPeriod(100);
+    simulator.run(2000);
+
+    int[] digits = display.getOutput();
+    assertTrue(digits.length > 10);
+    assertEquals(0x3F, digits[0]);
+    assertEquals(0x06, digits[1]);
+    assertEquals(0x3F, digits[10]);
+    int[] colors = lights.getOutput();
+    assertTrue(colors.length > 4);
+    assertTrue(Arrays.equals(new int[] {0x82, 0xC4, 0x28, 0x4C, 0x82}, Arrays.copyOf(colors, 5)));
+    // Heater on while cold, then off at target temperature 20
+    int[] codes = heater.getOutput();
+    assertTrue(codes.length > 2);
+    assertEquals(0x94, codes[0]);
+    assertEquals(0x94, codes[1]);
+    assertEquals(0x14, codes[2]);
+  }
+}
@@ -0,0 +1,175 @@
+package assembler.simulator;
+
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.BeforeClass;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import assembler.Assembler;
+import assembler.AssemblyMetrics;
+import assembler.support.AsmFileReader;
+import assembler.support.Common;
+import assembler.support.EventSink;
+import assembler.support.Events;
+import assembler.support.InstructionFileReader;
+
+
+/**
+ * Test the events sent per run of the assembler and the simulators.
+ *
+ * @author ruedi.mueller
+ */
+public class EventsTest {
+  // The instruction set shared by all simulators
+  private static InstructionTable table;
+  // The string read from INSTRUCTION.data
+  private static String instructionDataString;
+
+  /**
+   * A sink keeping the events.
+   */
+  private static class RecordingSink implements EventSink {
+    final List<String> sources = new ArrayList<String>();
+    final List<AssemblyMetrics> metrics = new ArrayList<AssemblyMetrics>();
+    final List<long[]> runs = new ArrayList<long[]>();
+    // The callbacks in order
+    final StringBuilder callbacks = new StringBuilder();
+    boolean enabled = true;
+    String simulator;
+
+    @Override
+    public boolean isEnabled() {
+      return enabled;
+    }
+
+    @Override
+    public void assemblyStarted() {
+      callbacks.append('(');
+    }
+
+    @Override
+    public void phaseStarted(int phase) {
+      callbacks.append('[').append(phase);
+    }
+
+    @Override
+    public void phaseEnded(int phase) {
+      callbacks.append(phase).append(']');
+    }
+
+    @Override
+    public void assembled(String source, int size, AssemblyMetrics metrics) {
+      callbacks.append(')');
+      sources.add(source + ":" + size);
+      this.metrics.add(metrics);
+    }
+
+    @Override
+    public void simulationStarted() {
+      callbacks.append('<');
+    }
+
+    @Override
+    public void simulated(String simulator, long steps, long cycles, long nanos, int status) {
+      callbacks.append('>');
+      this.simulator = simulator;
+      runs.add(new long[] {steps, cycles, nanos, status});
+    }
+  }
+
+  @BeforeClass
+  public static void setUp() {
+    instructionDataString = new InstructionFileReader().execute(Common.INSTRUCTION_FILENAME);
+    table = InstructionTable.load();
+  }
+
+  @After
+  public void tearDown() {
+    Events.setSink(null);
+  }
+
+  @Test
+  public void test_no_sink_by_default() {
+    assertNull(Events.getSink());
+  }
+
+  @Test
+  public void test_assembled() {
+    RecordingSink sink = new RecordingSink();
+    Events.setSink(sink);
+    String asmString = new AsmFileReader(StandardCharsets.UTF_8).execute("examples/bubblesort2.asm");
+    assertTrue(new Assembler("examples/bubblesort2.asm").execute(asmString, instructionDataString));
+    assertFalse(new Assembler("error.asm").execute("    MOVE  AL,12\r\n    END\r\n", instructionDataString));
+
+    assertEquals(2, sink.sources.size());
+    assertEquals("examples/bubblesort2.asm:" + asmString.length(), sink.sources.get(0));
+    AssemblyMetrics metrics = sink.metrics.get(0);
+    assertTrue(metrics.isSuccess());
+    assertTrue(metrics.getNanos(AssemblyMetrics.INSTRUCTION_SET) > 0);
+    assertTrue(metrics.getNanos(AssemblyMetrics.LISTING) > 0);
+    assertTrue(metrics.getNofBytes() > 0);
+    metrics = sink.metrics.get(1);
+    assertFalse(metrics.isSuccess());
+    assertTrue(metrics.getErrorNum() != 0);
+    // Instruction set, tokenize, syntax check, label resolution, listing;
+    // the second run fails in the syntax check
+    assertEquals("([11][00][22][33][44])([11][00][22])", sink.callbacks.toString());
+  }
+
+  @Test
+  public void test_disabled_sink() {
+    RecordingSink sink = new RecordingSink();
+    sink.enabled = false;
+    Events.setSink(sink);
+    assertTrue(new Assembler("examples/bubblesort2.asm").execute(
+        new AsmFileReader(StandardCharsets.UTF_8).execute("examples/bubblesort2.asm"), instructionDataString));
+    Simulator simulator = new Simulator(table);
+    simulator.load(Common.getMemory());
+    simulator.run(10);
+
+    assertEquals("", sink.callbacks.toString());
+    assertTrue(sink.sources.isEmpty());
+    assertTrue(sink.runs.isEmpty());
+  }
+
+  @Test
+  public void test_simulated() {
+    assertTrue(new Assembler("examples/bubblesort2.asm").execute(
+        new AsmFileReader(StandardCharsets.UTF_8).execute(Common.getFilename()), instructionDataString));
+    RecordingSink sink = new RecordingSink();
+    Events.setSink(sink);
+    Simulator simulator = new Simulator(table);
+    simulator.load(Common.getMemory());
+    assertEquals(Simulator.RUNNING, simulator.run(10));
+    assertEquals(Simulator.HALTED, simulator.run(10000));
+
+    assertEquals("Simulator", sink.simulator);
+    assertEquals(2, sink.runs.size());
+    assertEquals(10, sink.runs.get(0)[0]);
+    assertEquals(10, sink.runs.get(0)[1]);
+    assertEquals(Simulator.RUNNING, sink.runs.get(0)[3]);
+    assertEquals(simulator.getSteps() - 10, sink.runs.get(1)[0]);
+    assertEquals(Simulator.HALTED, sink.runs.get(1)[3]);
+    assertEquals("<><>", sink.callbacks.toString());
+  }
+
+  @Test
+  public void test_micro_cycles() {
+    assertTrue(new Assembler("examples/bubblesort2.asm").execute(
+        new AsmFileReader(StandardCharsets.UTF_8).execute(Common.getFilename()), instructionDataString));
+    RecordingSink sink = new RecordingSink();
+    Events.setSink(sink);
+    MicroSimulator simulator = new MicroSimulator(table);
+    simulator.load(Common.getMemory());
+    simulator.run(100);
+
+    assertEquals("MicroSimulator", sink.simulator);
+    assertEquals(100, sink.runs.get(0)[0]);
+    assertEquals(simulator.getMicrosteps(), sink.runs.get(0)[1]);
+    assertTrue(sink.runs.get(0)[1] > 100);
+  }
+}
@@ -0,0 +1,133 @@
+package assembler.simulator;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.junit.BeforeClass;
+
+import assembler.AllTests;
+import assembler.SyntaxChecker;
+
+
+/**
+ * Test hardware interrupts of the simulators.
+ * 
+ * @author ruedi.mueller
+ */
+public class InterruptTest {
+  // The instruction set shared by all simulators
+  private static InstructionTable table;
+
+  // JMP 04; vector 10; STI; INC AL; JMP 05; handler at 10: INC BL; IRET
+  private static final int[] COUNTER = new int[0x20];
+
+  static {
+    COUNTER[0x00] = 0xC0;
+    COUNTER[0x01] = 0x04;
+    COUNTER[0x02] = 0x10;
+    COUNTER[0x04] = 0xFC;
+    COUNTER[0x05] = 0xA4;
+    COUNTER[0x07] = 0xC0;
+    COUNTER[0x08] = 0xFE;
+    COUNTER[0x10] = 0xA4;
+    COUNTER[0x11] = 0x01;
+    COUNTER[0x12] = 0xCD;
+  }
+
+  @BeforeClass
+  public static void setUp() {
+    AllTests.prepare();
+    table = InstructionTable.load();
+  }
+
+  @Test
+  public void test_periodic() {
+    Simulator simulator = new Simulator(table);
+    simulator.load(COUNTER);
+    simulator.setInterruptPeriod(10);
+    simulator.run(100);
+    // Interrupts at steps 10, 20, .. 90, the handler takes 2 commands
+    assertEquals(9, simulator.getNofInterrupts());
+    assertEquals(9, simulator.getRegister(Simulator.BL));
+    assertEquals(Simulator.SP_INIT, simulator.getRegister(Simulator.SP));
+    assertEquals(100, simulator.getSteps());
+
+    // Without interrupts nothing changes
+    simulator.setInterruptPeriod(0);
+    simulator.run(100);
+    assertEquals(9, simulator.getRegister(Simulator.BL));
+  }
+
+  @Test
+  public void test_single_and_disabled() {
+    Simulator simulator = new Simulator(table);
+    // CLI instead of STI
+    simulator.load(COUNTER);
+    simulator.write(0x04, 0xFD);
+    simulator.scheduleInterrupt(5);
+    simulator.run(20);
+    assertTrue(simulator.isInterruptPending());
+    assertEquals(0, simulator.getNofInterrupts());
+
+    // Serviced as soon as the flag I is set
+    simulator.setSr(Simulator.FLAG_I);
+    simulator.run(1);
+    assertFalse(simulator.isInterruptPending());
+    assertEquals(1, simulator.getNofInterrupts());
+    assertEquals(0x12, simulator.getIp());
+    assertEquals(1, simulator.getRegister(Simulator.BL));
+    simulator.run(100);
+    assertEquals(1, simulator.getNofInterrupts());
+
+    // A reset clears the single interrupt
+    simulator.scheduleInterrupt(1000);
+    simulator.reset();
+    simulator.run(2000);
+    assertEquals(1, simulator.getNofInterrupts());
+  }
+
+  @Test
+  public void test_deterministic() {
+    SyntaxChecker sc = AllTests.assemble("assemblertests/ram/multitasker.asm");
+    Simulator reference = new Simulator(table);
+    reference.load(sc.getMemory());
+    reference.setInterruptPeriod(200);
+    reference.scheduleInterrupt(500);
+    reference.run(5000);
+        // Periodic interrupts at 200, 400, .. 4800 and the single one
+    assertEquals(4800 / 200 + 1, reference.getNofInterrupts());
+
+    // Same result whatever the simulator and the chunks run
+    for (int i = 0; i < 3; ++i) {
+      Simulator simulator = (i == 0) ? new Simulator(table)
+          : (i == 1) ? new TranslatingSimulator(table, 1) : new MicroSimulator(table);
+      simulator.load(sc.getMemory());
+      simulator.setInterruptPeriod(200);
+      simulator.scheduleInterrupt(500);
+      for (int steps = 0; steps < 5000; steps += 7) {
+        simulator.run(Math.min(7, 5000 - steps));
+      }
+      assertEquals(reference.snapshot(), simulator.snapshot());
+      assertEquals(reference.getNofInterrupts(), simulator.getNofInterrupts());
+    }
+  }
+
+  @Test
+  public void test_multitasker() {
+    SyntaxChecker sc = AllTests.assemble("assemblertests/ram/multitasker.asm");
+    Simulator simulator = new Simulator(table);
+    simulator.load(sc.getMemory());
+    simulator.run(1000);
+    // Without interrupts the display task runs only
+    assertEquals(0, simulator.getPort(0x00));
+    assertEquals(0, simulator.getPort(0x01));
+
+    simulator.load(sc.getMemory());
+    simulator.setInterruptPeriod(100);
+    simulator.run(1000);
+    // All three tasks got time slices
+    assertEquals(9, simulator.getNofInterrupts());
+    assertTrue(simulator.getPort(0x00) != 0);
+    assertEquals(0x94, simulator.getPort(0x01));
+    assertTrue(simulator.getPort(0x02) != 0);
+  }
+}
@@ -0,0 +1,154 @@
+package assembler.simulator;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.junit.BeforeClass;
+
+import assembler.AllTests;
+import assembler.Memory;
+import assembler.SyntaxChecker;
+
+
+/**
+ * Test the microprogram-level simulator against the instruction-level one.
+ * 
+ * @author ruedi.mueller
+ */
+public class MicroSimulatorTest {
+  // The instruction set and its microprogram shared by all simulators
+  private static InstructionTable table;
+  private static Microprogram mpm;
+
+  @BeforeClass
+  public static void setUp() {
+    AllTests.prepare();
+    table = InstructionTable.load();
+    mpm = new Microprogram(table);
+  }
+
+  /**
+   * Run the specified file on both simulators and compare the state after
+   * each command.
+   * 
+   * @param filename The name of the file to be assembled
+   * @return the micro simulator at the end
+   */
+  private static MicroSimulator compare(String filename) {
+    SyntaxChecker sc = AllTests.assemble(filename);
+    assertEquals(0, sc.getErrorNum());
+    Memory memory = sc.getMemory();
+    Simulator simulator = new Simulator(table);
+    simulator.load(memory);
+    MicroSimulator micro = new MicroSimulator(table, mpm);
+    micro.load(memory);
+    while (simulator.getStatus() == Simulator.RUNNING) {
+      simulator.step();
+      micro.step();
+      assertEquals(simulator.toString(), micro.toString().substring(0, simulator.toString().length()));
+      assertArrayEquals(simulator.getRam(), micro.getRam());
+      assertEquals(simulator.getStatus(), micro.getStatus());
+      assertTrue(micro.isAtFetch());
+    }
+    return micro;
+  }
+
+  @Test
+  public void test_bubblesort() {
+    MicroSimulator micro = compare("examples/bubblesort2.asm");
+    assertEquals(Simulator.HALTED, micro.getStatus());
+    assertTrue(micro.getMicrosteps() > 4 * micro.getSteps());
+  }
+
+  @Test
+  public void test_XCHG_CPYD() {
+    compare("examples/testXCHG_CPYD.asm");
+  }
+
+  @Test
+  public void test_NEXT_task_switch() {
+    compare("examples/mts_swInterrupts_test.asm");
+  }
+
+  @Test
+  public void test_entry_points() {
+    // MOV reg,const starts at MPM 2F0 according to INSTRUCTION.data
+    assertEquals(0x2F0, mpm.getEntry(0xD0));
+    assertEquals(table.getMpmEntry(0xD0), mpm.getEntry(0xD0));
+    assertEquals(-1, mpm.getEntry(0x01));
+
+    MicroSimulator micro = new MicroSimulator(table, mpm);
+    // MOV AL,42
+    micro.load(new int[] {0xD0, 0x00, 0x42});
+    micro.microstep();
+    micro.microstep();
+    assertEquals(0x2F0, micro.getMip());
+    assertEquals(0xD0, micro.getInternalRegister(MicroSimulator.IR));
+    assertEquals(Simulator.RUNNING, micro.run(1));
+    assertEquals(0x42, micro.getRegister(Simulator.AL));
+    assertEquals(1, micro.getSteps());
+    assertTrue(micro.isAtFetch());
+  }
+
+  @Test
+  public void test_faults() {
+    MicroSimulator micro = new MicroSimulator(table, mpm);
+    // MOV AL,05; DIV AL,00
+    micro.load(new int[] {0xD0, 0x00, 0x05, 0xB3, 0x00, 0x00});
+    assertEquals(Simulator.DIVISION_BY_ZERO, micro.run(10));
+    assertEquals(1, micro.getSteps());
+    assertEquals(0x03, micro.getIp());
+    assertEquals(0x05, micro.getRegister(Simulator.AL));
+    assertEquals(0, micro.getSr());
+    assertTrue(micro.isAtFetch());
+
+    // POP with register code 05, SP is left unchanged
+    micro.load(new int[] {0xE1, 0x05});
+    assertEquals(Simulator.ILLEGAL_REGISTER, micro.run(10));
+    assertEquals(0, micro.getSteps());
+    assertEquals(0x00, micro.getIp());
+    assertEquals(Simulator.SP_INIT, micro.getRegister(Simulator.SP));
+
+    // Unknown opcode
+    micro.load(new int[] {0x01});
+    assertEquals(Simulator.ILLEGAL_OPCODE, micro.run(10));
+  }
+
+  /**
+   * Run the specified image on both simulators and compare the state after
+   * each command.
+   */
+  private static void compare(int[] image, int steps) {
+    Simulator simulator = new Simulator(table);
+    simulator.load(image);
+    MicroSimulator micro = new MicroSimulator(table, mpm);
+    micro.load(image);
+    for (int step = 0; step < steps && simulator.getStatus() == Simulator.RUNNING; ++step) {
+      simulator.step();
+      micro.step();
+      assertEquals(simulator.snapshot(), micro.snapshot());
+    }
+  }
+
+  @Test
+  public void test_pop_sp() {
+    // MOV AL,42; PUSH AL; POP SP; HALT
+    compare(new int[] {0xD0, 0x00, 0x42, 0xE0, 0x00, 0xE1, 0x04, 0x00}, 10);
+  }
+
+  @Test
+  public void test_next_own_entry() {
+    // NEXT 10 whose SP table entry at 10 is overwritten by the SP saved
+    int[] image = new int[0x12];
+    image[0x00] = 0x10;
+    image[0x01] = 0x10;
+    image[0x10] = 0x0F;
+    image[0x11] = 0x30;
+    compare(image, 1000);
+  }
+
+  @Test
+  public void test_listing() {
+    assertEquals("000: IP->MAR IP+", mpm.toString(0x000));
+    assertEquals("001: READ MDR->IR DECODE", mpm.toString(0x001));
+  }
+}
@@ -0,0 +1,87 @@
+package assembler.simulator;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.junit.BeforeClass;
+
+import java.nio.charset.StandardCharsets;
+
+import assembler.Assembler;
+import assembler.support.AsmFileReader;
+import assembler.support.Common;
+import assembler.support.InstructionFileReader;
+
+
+/**
+ * Test the execution profiler and the heat list.
+ * 
+ * @author ruedi.mueller
+ */
+public class ProfilerTest {
+  // The instruction set shared by all simulators
+  private static InstructionTable table;
+  // The string read from INSTRUCTION.data
+  private static String instructionDataString;
+
+  @BeforeClass
+  public static void setUp() {
+    instructionDataString = new InstructionFileReader().execute(Common.INSTRUCTION_FILENAME);
+    table = InstructionTable.load();
+  }
+
+  @Test
+  public void test_heat_list() {
+    Assembler asm = new Assembler("examples/bubblesort2.asm");
+    assertTrue(asm.execute(new AsmFileReader(StandardCharsets.UTF_8).execute(Common.getFilename()), instructionDataString));
+    Simulator simulator = new Simulator(table);
+    simulator.load(Common.getMemory());
+    Profiler profiler = new Profiler();
+    simulator.setProfiler(profiler);
+    assertEquals(Simulator.HALTED, simulator.run(10000));
+
+    assertEquals(simulator.getSteps(), profiler.getTotal());
+    assertEquals(1, profiler.getCount(0x00));
+    assertEquals(0, profiler.getCount(0x01));
+    // One outer loop per element
+    assertEquals(6, profiler.getCount(0x2F));
+    // PUSH AL before and in the outer loop, POP AL in the outer loop and at exit
+    assertEquals(7, profiler.getOpcodeCount(0xE0));
+    assertEquals(7, profiler.getOpcodeCount(0xE1));
+    assertEquals(41, profiler.getOpcodeCount(0xDA));
+
+    long[] lineCounts = profiler.getLineCounts(asm.getCodeToLineArr());
+    long sum = 0;
+    for (long count : lineCounts) {
+      sum += count;
+    }
+    assertEquals(profiler.getTotal(), sum);
+
+    String heatList = profiler.toHeatList(Common.getCodeList().toString(), asm.getCodeToLineArr());
+    assertTrue(heatList.contains("\n         1      MOV   AL,C0      ; [00]  D0 00 C0"));
+    assertTrue(heatList.contains("\n         6      POP   AL         ; [2F]  E1 00"));
+    assertTrue(heatList.contains("\n        20      CMP   BL,AL      ; [3A]  DA 01 00"));
+    // Data and comment lines without count
+    assertTrue(heatList.contains("\n                DB    09         ; [C0]  09"));
+    assertEquals(Common.getCodeList().toString().split("\n").length, heatList.split("\n").length);
+
+    String histogram = profiler.toOpcodeHistogram(table);
+    assertTrue(histogram.startsWith("DA CMP           41\n"));
+    assertTrue(histogram.contains("00 HALT           1\n"));
+  }
+
+  @Test
+  public void test_profiler_off() {
+    Simulator simulator = new TranslatingSimulator(table, 1);
+    Profiler profiler = new Profiler();
+    // INC AL; JMP 00
+    simulator.load(new int[] {0xA4, 0x00, 0xC0, 0xFE});
+    simulator.setProfiler(profiler);
+    simulator.run(100);
+    assertEquals(50, profiler.getCount(0x00));
+    assertEquals(50, profiler.getCount(0x02));
+    simulator.setProfiler(null);
+    simulator.run(100);
+    assertEquals(100, profiler.getTotal());
+    assertEquals(200, simulator.getSteps());
+  }
+}
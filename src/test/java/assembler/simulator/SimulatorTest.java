@@ -0,0 +1,175 @@
+package assembler.simulator;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.junit.BeforeClass;
+
+import assembler.AllTests;
+import assembler.SyntaxChecker;
+
+
+/**
+ * Test the execution of assembled programs by the headless simulator.
+ * 
+ * @author ruedi.mueller
+ */
+public class SimulatorTest {
+  // The instruction set shared by all simulators
+  private static InstructionTable table;
+
+  @BeforeClass
+  public static void setUp() {
+    AllTests.prepare();
+    table = InstructionTable.load();
+  }
+
+  /**
+   * Assemble the specified file and load it into a new simulator.
+   * 
+   * @param filename The name of the file to be assembled
+   * @return the simulator
+   */
+  private static Simulator load(String filename) {
+    SyntaxChecker sc = AllTests.assemble(filename);
+    assertEquals(0, sc.getErrorNum());
+    Simulator simulator = new Simulator(table);
+    simulator.load(sc.getMemory());
+    return simulator;
+  }
+
+  @Test
+  public void test_bubblesort() {
+    Simulator simulator = load("examples/bubblesort2.asm");
+    assertEquals(Simulator.HALTED, simulator.run(10000));
+    int[] expected = {0x81, 0x97, 0xF3, 0x01, 0x04, 0x09};
+    for (int i = 0; i < expected.length; ++i) {
+      assertEquals(expected[i], simulator.read(0xC0 + i));
+    }
+    assertEquals(0x08, simulator.getIp());
+    assertEquals(Simulator.SP_INIT, simulator.getRegister(Simulator.SP));
+  }
+
+  @Test
+  public void test_XCHG_CPYD() {
+    Simulator simulator = load("examples/testXCHG_CPYD.asm");
+    assertEquals(Simulator.HALTED, simulator.run(10000));
+    assertEquals(0x80, simulator.getRegister(Simulator.AL));
+    assertEquals(0xBB, simulator.getRegister(Simulator.BL));
+    assertEquals(0xDD, simulator.getRegister(Simulator.CL));
+    assertEquals(0xCC, simulator.getRegister(Simulator.DL));
+    String digits = "0123456789ABCDEF";
+    for (int i = 0; i < digits.length(); ++i) {
+      assertEquals(digits.charAt(i), simulator.read(0x80 + i));
+    }
+  }
+
+  @Test
+  public void test_NEXT_task_switch() {
+    Simulator simulator = load("examples/mts_swInterrupts_test.asm");
+    assertEquals(Simulator.HALTED, simulator.run(10000));
+    assertEquals(0x15, simulator.read(0x50));
+    assertEquals(0x41, simulator.read(0x51));
+    assertEquals(0x26, simulator.read(0x80));
+    assertEquals(0x61, simulator.read(0x81));
+    assertEquals(0x37, simulator.read(0xB0));
+    assertEquals(0x81, simulator.read(0xB1));
+  }
+
+  @Test
+  public void test_step_limit() {
+    Simulator simulator = load("examples/bubblesort2.asm");
+    assertEquals(Simulator.RUNNING, simulator.run(3));
+    assertEquals(3, simulator.getSteps());
+    assertEquals(0x20, simulator.getIp());
+    assertEquals(Simulator.RUNNING, simulator.step());
+    assertEquals(4, simulator.getSteps());
+    assertEquals(Simulator.HALTED, simulator.run(Long.MAX_VALUE));
+  }
+
+  @Test
+  public void test_faults() {
+    Simulator simulator = new Simulator(table);
+    // DIV AL,00
+    simulator.load(new int[] {0xB3, 0x00, 0x00});
+    assertEquals(Simulator.DIVISION_BY_ZERO, simulator.run(10));
+    assertEquals(0, simulator.getSteps());
+    assertEquals(0x00, simulator.getIp());
+
+    // INC with register code 07
+    simulator.load(new int[] {0xA4, 0x07});
+    assertEquals(Simulator.ILLEGAL_REGISTER, simulator.run(10));
+
+    // POP with register code 05, SP is left unchanged
+    simulator.load(new int[] {0xE1, 0x05});
+    assertEquals(Simulator.ILLEGAL_REGISTER, simulator.run(10));
+    assertEquals(0, simulator.getSteps());
+    assertEquals(0x00, simulator.getIp());
+    assertEquals(Simulator.SP_INIT, simulator.getRegister(Simulator.SP));
+
+    // Unknown opcode
+    simulator.load(new int[] {0x01});
+    assertEquals(Simulator.ILLEGAL_OPCODE, simulator.run(10));
+    assertFalse(table.isLegal(0x01));
+    assertTrue(table.isLegal(0xFF));
+  }
+
+  @Test
+  public void test_device_exception() {
+    Simulator simulator = new Simulator(table);
+    // OUT 01
+    simulator.load(new int[] {0xF1, 0x01});
+    simulator.attach(0x01, new Device() {
+      public int in(int port) {
+        return 0;
+      }
+
+      public void out(int port, int value) {
+        throw new ArrayIndexOutOfBoundsException(value);
+      }
+    });
+    // A failing device is not reported as ILLEGAL_REGISTER
+    try {
+      simulator.run(10);
+      fail("Exception of the device expected");
+    }
+    catch (ArrayIndexOutOfBoundsException aioobe) {
+      assertEquals(Simulator.RUNNING, simulator.getStatus());
+    }
+  }
+
+  @Test
+  public void test_flags() {
+    Simulator simulator = new Simulator(table);
+    // MOV AL,7F; ADD AL,01; HALT
+    simulator.load(new int[] {0xD0, 0x00, 0x7F, 0xB0, 0x00, 0x01, 0x00});
+    assertEquals(Simulator.HALTED, simulator.run(10));
+    assertEquals(0x80, simulator.getRegister(Simulator.AL));
+    assertEquals(Simulator.FLAG_S | Simulator.FLAG_O, simulator.getSr());
+  }
+
+  @Test
+  public void test_unsigned_mul_div_mod() {
+    // MOV AL,C8; MUL AL,02; MOV BL,C8; DIV BL,03; MOV CL,C8; MOD CL,03;
+    // MOV DL,10; MUL DL,08; HALT
+    int[] image = {0xD0, 0x00, 0xC8, 0xB2, 0x00, 0x02, 0xD0, 0x01, 0xC8, 0xB3, 0x01, 0x03,
+        0xD0, 0x02, 0xC8, 0xB6, 0x02, 0x03, 0xD0, 0x03, 0x10, 0xB2, 0x03, 0x08, 0x00};
+    Simulator[] simulators = {
+        new Simulator(table), new MicroSimulator(table), new TranslatingSimulator(table, 1)};
+    for (Simulator simulator : simulators) {
+      simulator.load(image);
+      assertEquals(Simulator.HALTED, simulator.run(100));
+      String name = simulator.getClass().getSimpleName();
+      // C8 * 02 = 190, C8 / 03 = 42, C8 % 03 = 02, 10 * 08 = 80
+      assertEquals(name, 0x90, simulator.getRegister(Simulator.AL));
+      assertEquals(name, 0x42, simulator.getRegister(Simulator.BL));
+      assertEquals(name, 0x02, simulator.getRegister(Simulator.CL));
+      assertEquals(name, 0x80, simulator.getRegister(Simulator.DL));
+      // No overflow for 80, although negative as a signed byte
+      assertEquals(name, Simulator.FLAG_S, simulator.getSr());
+    }
+    // MOV AL,C8; MUL AL,02 overflows
+    simulators[0].load(image);
+    simulators[0].run(2);
+    assertEquals(Simulator.FLAG_S | Simulator.FLAG_O, simulators[0].getSr());
+  }
+}
@@ -0,0 +1,80 @@
+package assembler.simulator;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.junit.BeforeClass;
+
+import java.io.IOException;
+
+import assembler.AllTests;
+import assembler.SyntaxChecker;
+
+
+/**
+ * Test snapshots of the simulator state.
+ * 
+ * @author ruedi.mueller
+ */
+public class SnapshotTest {
+  // The instruction set shared by all simulators
+  private static InstructionTable table;
+
+  @BeforeClass
+  public static void setUp() {
+    AllTests.prepare();
+    table = InstructionTable.load();
+  }
+
+  @Test
+  public void test_fork() {
+    SyntaxChecker sc = AllTests.assemble("examples/bubblesort2.asm");
+    Simulator simulator = new Simulator(table);
+    simulator.load(sc.getMemory());
+    simulator.run(3);
+    Snapshot checkpoint = simulator.snapshot();
+    simulator.run(10000);
+
+    // Continuations from the checkpoint end like the original run
+    for (int i = 0; i < 3; ++i) {
+      Simulator fork = (i == 0) ? new Simulator(table)
+          : (i == 1) ? new TranslatingSimulator(table, 1) : new MicroSimulator(table);
+      fork.restore(checkpoint);
+      assertEquals(3, fork.getSteps());
+      assertEquals(Simulator.HALTED, fork.run(10000));
+      assertEquals(simulator.snapshot(), fork.snapshot());
+    }
+    // The snapshot is not affected by the simulator
+    assertEquals(0x09, checkpoint.read(0xC0));
+    assertEquals(0x81, simulator.read(0xC0));
+  }
+
+  @Test
+  public void test_serialize() throws IOException {
+    SyntaxChecker sc = AllTests.assemble("examples/mts_swInterrupts_test.asm");
+    Simulator simulator = new Simulator(table);
+    simulator.load(sc.getMemory());
+    simulator.run(100);
+    Snapshot snapshot = simulator.snapshot();
+    byte[] bytes = snapshot.toBytes();
+    assertEquals(Snapshot.SIZE, bytes.length);
+    Snapshot copy = Snapshot.fromBytes(bytes);
+    assertEquals(snapshot, copy);
+    assertEquals(100, copy.getSteps());
+    assertEquals(simulator.getRegister(Simulator.SP), copy.getRegister(Simulator.SP));
+  }
+
+  @Test(expected = IOException.class)
+  public void test_serialize_corrupt() throws IOException {
+    byte[] bytes = new Simulator(table).snapshot().toBytes();
+    bytes[0] = 0;
+    Snapshot.fromBytes(bytes);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void test_micro_snapshot_within_command() {
+    MicroSimulator micro = new MicroSimulator(table);
+    micro.load(new int[] {0xD0, 0x00, 0x42});
+    micro.microstep();
+    micro.snapshot();
+  }
+}
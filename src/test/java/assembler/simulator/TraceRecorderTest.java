@@ -0,0 +1,152 @@
+package assembler.simulator;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.junit.BeforeClass;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import assembler.AllTests;
+import assembler.SyntaxChecker;
+
+
+/**
+ * Test recording and replaying execution traces.
+ * 
+ * @author ruedi.mueller
+ */
+public class TraceRecorderTest {
+  // The instruction set shared by all simulators
+  private static InstructionTable table;
+
+  @BeforeClass
+  public static void setUp() {
+    AllTests.prepare();
+    table = InstructionTable.load();
+  }
+
+  /**
+   * Compare every state of the trace with a simulator stepping the program.
+   */
+  private void checkReplay(String filename, TraceReplayer replayer) {
+    SyntaxChecker sc = AllTests.assemble(filename);
+    Simulator reference = new Simulator(table);
+    reference.load(sc.getMemory());
+    reference.run(replayer.getFirstStep());
+    for (long step = replayer.getFirstStep(); step <= replayer.getLastStep(); ++step) {
+      assertEquals("Step " + step, reference.snapshot(), replayer.stateAt(step));
+      reference.step();
+    }
+  }
+
+  @Test
+  public void test_replay() {
+    String[] filenames = {"examples/bubblesort2.asm", "examples/mts_swInterrupts_test.asm",
+        "examples/testXCHG_CPYD.asm"};
+    for (String filename : filenames) {
+      SyntaxChecker sc = AllTests.assemble(filename);
+      Simulator simulator = new Simulator(table);
+      simulator.load(sc.getMemory());
+      TraceRecorder recorder = new TraceRecorder(16, Integer.MAX_VALUE);
+      simulator.setTraceRecorder(recorder);
+      simulator.run(2000);
+      assertEquals(0, recorder.getFirstStep());
+      assertEquals(simulator.getSteps(), recorder.getLastStep());
+      TraceReplayer replayer = new TraceReplayer(recorder, table);
+      assertEquals(simulator.getSteps(), replayer.getLastStep());
+      assertEquals(simulator.snapshot(), replayer.stateAt(replayer.getLastStep()));
+      checkReplay(filename, replayer);
+    }
+  }
+
+  @Test
+  public void test_compact() {
+    SyntaxChecker sc = AllTests.assemble("examples/bubblesort2.asm");
+    Simulator simulator = new Simulator(table);
+    simulator.load(sc.getMemory());
+    TraceRecorder recorder = new TraceRecorder();
+    simulator.setTraceRecorder(recorder);
+    assertEquals(Simulator.HALTED, simulator.run(10000));
+    // One keyframe, less than 4 bytes per command
+    TraceReplayer replayer = new TraceReplayer(recorder, table);
+    assertEquals(1, replayer.getNofKeyframes());
+    assertTrue(recorder.getSize() < Snapshot.SIZE + 32 + 4 * simulator.getSteps());
+    assertEquals(Simulator.HALTED, replayer.getStatus());
+    assertEquals(Simulator.HALTED, replayer.stateAt(simulator.getSteps()).getStatus());
+    assertEquals(Simulator.RUNNING, replayer.stateAt(simulator.getSteps() - 1).getStatus());
+  }
+
+  @Test
+  public void test_ring_buffer() {
+    SyntaxChecker sc = AllTests.assemble("examples/bubblesort2.asm");
+    Simulator simulator = new Simulator(table);
+    simulator.load(sc.getMemory());
+    simulator.setTraceRecorder(new TraceRecorder(10, 3));
+    // Runs are recorded one after another
+    simulator.run(50);
+    simulator.run(10000);
+    TraceReplayer replayer = new TraceReplayer(simulator.getTraceRecorder(), table);
+    assertEquals(3, replayer.getNofKeyframes());
+    assertTrue(replayer.getFirstStep() > 0);
+    assertTrue(simulator.getSteps() - replayer.getFirstStep() >= 20);
+    checkReplay("examples/bubblesort2.asm", replayer);
+  }
+
+  @Test
+  public void test_serialize() throws IOException {
+    SyntaxChecker sc = AllTests.assemble("examples/mts_swInterrupts_test.asm");
+    Simulator simulator = new Simulator(table);
+    simulator.load(sc.getMemory());
+    TraceRecorder recorder = new TraceRecorder(32, Integer.MAX_VALUE);
+    simulator.setTraceRecorder(recorder);
+    simulator.run(200);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    recorder.writeTo(out);
+    assertEquals(recorder.getSize(), out.size());
+    TraceReplayer replayer = TraceReplayer.read(new ByteArrayInputStream(out.toByteArray()), table);
+    assertEquals(200, replayer.getLastStep());
+    checkReplay("examples/mts_swInterrupts_test.asm", replayer);
+  }
+
+  @Test(expected = IOException.class)
+  public void test_serialize_corrupt() throws IOException {
+    TraceReplayer.read(new ByteArrayInputStream(new Simulator(table).snapshot().toBytes()), table);
+  }
+
+  @Test
+  public void test_fault_and_reset() {
+    Simulator simulator = new Simulator(table);
+    // MOV AL,00  DIV AL,BL
+    simulator.load(new int[] {0xD0, 0x00, 0x00, 0xA3, 0x00, 0x01});
+    TraceRecorder recorder = new TraceRecorder();
+    simulator.setTraceRecorder(recorder);
+    assertEquals(Simulator.DIVISION_BY_ZERO, simulator.run(10));
+    TraceReplayer replayer = new TraceReplayer(recorder, table);
+    assertEquals(1, replayer.getLastStep());
+    assertEquals(Simulator.DIVISION_BY_ZERO, replayer.stateAt(1).getStatus());
+    assertEquals(0x03, replayer.stateAt(1).getIp());
+
+    // A new run after reset replaces the trace
+    simulator.reset();
+    simulator.setRegister(Simulator.BL, 2);
+    simulator.setRegister(Simulator.AL, 7);
+    simulator.setIp(3);
+    simulator.run(1);
+    replayer = new TraceReplayer(recorder, table);
+    assertEquals(0, replayer.getFirstStep());
+    assertEquals(1, replayer.getNofKeyframes());
+    assertEquals(3, replayer.stateAt(1).getRegister(Simulator.AL));
+    assertEquals(0x06, replayer.stateAt(1).getIp());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void test_step_not_in_trace() {
+    Simulator simulator = new Simulator(table);
+    simulator.load(new int[] {0xFF, 0xFF, 0x00});
+    simulator.setTraceRecorder(new TraceRecorder());
+    simulator.run(10);
+    new TraceReplayer(simulator.getTraceRecorder(), table).stateAt(4);
+  }
+}
@@ -0,0 +1,115 @@
+package assembler.simulator;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.junit.BeforeClass;
+
+import assembler.AllTests;
+import assembler.Memory;
+import assembler.SyntaxChecker;
+
+
+/**
+ * Test the execution of translated blocks against the interpreter.
+ * 
+ * @author ruedi.mueller
+ */
+public class TranslatingSimulatorTest {
+  // The instruction set shared by all simulators
+  private static InstructionTable table;
+
+  @BeforeClass
+  public static void setUp() {
+    AllTests.prepare();
+    table = InstructionTable.load();
+  }
+
+  /**
+   * Run the specified file on the interpreter and with translation of all
+   * blocks and compare the results.
+   * 
+   * @param filename The name of the file to be assembled
+   * @return the translating simulator at the end
+   */
+  private static TranslatingSimulator compare(String filename) {
+    SyntaxChecker sc = AllTests.assemble(filename);
+    assertEquals(0, sc.getErrorNum());
+    Memory memory = sc.getMemory();
+    Simulator simulator = new Simulator(table);
+    simulator.load(memory);
+    TranslatingSimulator translating = new TranslatingSimulator(table, 1);
+    translating.load(memory);
+    assertEquals(simulator.run(100000), translating.run(100000));
+    assertEquals(simulator.toString(), translating.toString());
+    assertArrayEquals(simulator.getRam(), translating.getRam());
+    assertTrue(translating.getNofTranslations() > 0);
+    return translating;
+  }
+
+  @Test
+  public void test_bubblesort() {
+    TranslatingSimulator translating = compare("examples/bubblesort2.asm");
+    assertTrue(translating.isTranslated(0x20));
+  }
+
+  @Test
+  public void test_XCHG_CPYD() {
+    compare("examples/testXCHG_CPYD.asm");
+  }
+
+  @Test
+  public void test_NEXT_task_switch() {
+    compare("examples/mts_swInterrupts_test.asm");
+  }
+
+  @Test
+  public void test_step_limit() {
+    SyntaxChecker sc = AllTests.assemble("examples/bubblesort2.asm");
+    Simulator simulator = new Simulator(table);
+    simulator.load(sc.getMemory());
+    TranslatingSimulator translating = new TranslatingSimulator(table, 2);
+    translating.load(sc.getMemory());
+    // Limits not aligned with block ends
+    for (int steps = 1; simulator.getStatus() == Simulator.RUNNING; steps = steps % 7 + 1) {
+      assertEquals(simulator.run(steps), translating.run(steps));
+      assertEquals(simulator.toString(), translating.toString());
+    }
+  }
+
+  @Test
+  public void test_self_modifying_code() {
+    int[] image = {
+      0xD0, 0x01, 0x05,  // 00 MOV BL,05
+      0xA4, 0x00,        // 03 INC AL, patched to DEC AL
+      0xA5, 0x01,        // 05 DEC BL
+      0xC1, 0x19,        // 07 JZ 20
+      0xDB, 0x01, 0x03,  // 09 CMP BL,03
+      0xC2, 0xF7,        // 0C JNZ 03
+      0xD0, 0x02, 0xA5,  // 0E MOV CL,A5
+      0xD2, 0x03, 0x02,  // 11 MOV [03],CL
+      0xC0, 0xEF         // 14 JMP 03
+    };
+    int[] ram = new int[0x100];
+    System.arraycopy(image, 0, ram, 0, image.length);
+    TranslatingSimulator translating = new TranslatingSimulator(table, 1);
+    translating.load(ram);
+    assertEquals(Simulator.HALTED, translating.run(1000));
+    assertEquals(0xFF, translating.getRegister(Simulator.AL));
+    assertEquals(0x20, translating.getIp());
+
+    Simulator simulator = new Simulator(table);
+    simulator.load(ram);
+    simulator.run(1000);
+    assertEquals(simulator.toString(), translating.toString());
+  }
+
+  @Test
+  public void test_faults_interpreted() {
+    TranslatingSimulator translating = new TranslatingSimulator(table, 1);
+    // MOV AL,05; DIV AL,BL
+    translating.load(new int[] {0xD0, 0x00, 0x05, 0xA3, 0x00, 0x01});
+    assertEquals(Simulator.DIVISION_BY_ZERO, translating.run(10));
+    assertEquals(1, translating.getSteps());
+    assertEquals(0x03, translating.getIp());
+  }
+}